@@ -1,13 +1,41 @@
 package com.metasnap.metasnap_backend;
 
+import com.metasnap.metasnap_backend.batch.BatchRunner;
+import java.util.Arrays;
+import java.util.Map;
+import org.springframework.boot.Banner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MetasnapBackendApplication {
 
 	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("batch")) {
+			System.exit(batch(Arrays.copyOfRange(args, 1, args.length)));
+		}
 		SpringApplication.run(MetasnapBackendApplication.class, args);
 	}
 
+	/**
+	 * Runs {@link BatchRunner} without a web server. Beans are created lazily, so only the
+	 * analyzer and what it uses start up; batch results go to the output file only, not to the
+	 * server's extraction log.
+	 */
+	static int batch(String[] args) {
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(MetasnapBackendApplication.class)
+				.web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF)
+				.lazyInitialization(true)
+				.properties(Map.of("metasnap.extractions.file", ""))
+				.run(args);
+		int code = context.getBean(BatchRunner.class).run();
+		return SpringApplication.exit(context, () -> code);
+	}
+
 }
@@ -0,0 +1,235 @@
+package com.metasnap.metasnap_backend.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.metasnap.metasnap_backend.dto.AnalysisJobResult;
+import com.metasnap.metasnap_backend.dto.AnalysisProfile;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.FeedbackItem;
+import com.metasnap.metasnap_backend.dto.MetaTags;
+import com.metasnap.metasnap_backend.service.MetaAnalyzerService;
+import com.metasnap.metasnap_backend.service.SeenUrlSet;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Batch mode: analyzes the URLs in {@code metasnap.batch.input} (one per line, {@code -} for
+ * stdin, blank lines and {@code #} comments ignored) on {@code metasnap.batch.parallelism}
+ * threads and writes one JSON line or CSV row per URL to {@code metasnap.batch.output}, in
+ * completion order. URLs are read only as fast as they are analyzed and results are written as
+ * they finish, so memory does not grow with the input. An analysis that throws still gets a row,
+ * marked failed; a write error stops reading and fails the run. Started by
+ * {@code MetasnapBackendApplication batch}, which boots without a web server.
+ */
+@Component
+public class BatchRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchRunner.class);
+    private static final String[] CSV_COLUMNS = {"url", "finalUrl", "score", "maxScore", "redirects", "title",
+            "description", "canonical", "robots", "ogTitle", "ogImage", "twitterTitle", "twitterImage",
+            "structuredData", "error"};
+
+    public enum Format { JSONL, CSV }
+
+    /** Outcome of a run; {@code failed} pages are included in {@code analyzed}. */
+    public record Summary(long analyzed, long failed, long skipped, long elapsedMs, double averageScore) {
+        public double urlsPerSecond() {
+            return elapsedMs > 0 ? analyzed * 1000.0 / elapsedMs : 0;
+        }
+    }
+
+    private final MetaAnalyzerService metaAnalyzerService;
+    private final SeenUrlSet seenUrls;
+    private final ObjectMapper objectMapper;
+    private final String input;
+    private final String output;
+    private final String format;
+    private final int parallelism;
+    private final AnalysisProfile profile;
+
+    public BatchRunner(MetaAnalyzerService metaAnalyzerService,
+                       SeenUrlSet seenUrls,
+                       ObjectMapper objectMapper,
+                       @Value("${metasnap.batch.input:-}") String input,
+                       @Value("${metasnap.batch.output:}") String output,
+                       @Value("${metasnap.batch.format:}") String format,
+                       @Value("${metasnap.batch.parallelism:32}") int parallelism,
+                       @Value("${metasnap.batch.profile:FULL}") AnalysisProfile profile) {
+        this.metaAnalyzerService = metaAnalyzerService;
+        this.seenUrls = seenUrls;
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+        this.input = input;
+        this.output = output;
+        this.format = format;
+        this.parallelism = parallelism;
+        this.profile = profile;
+    }
+
+    /** Runs the configured batch and returns the process exit code. */
+    public int run() {
+        if (output.isBlank() || parallelism <= 0) {
+            log.error("Batch mode needs --metasnap.batch.output=<file> and a positive --metasnap.batch.parallelism");
+            return 2;
+        }
+        Format resolved;
+        try {
+            resolved = !format.isBlank() ? Format.valueOf(format.trim().toUpperCase(Locale.ROOT))
+                    : output.toLowerCase(Locale.ROOT).endsWith(".csv") ? Format.CSV : Format.JSONL;
+        } catch (IllegalArgumentException e) {
+            log.error("Unknown --metasnap.batch.format={}; use jsonl or csv", format);
+            return 2;
+        }
+        try (BufferedReader in = input.equals("-")
+                     ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                     : Files.newBufferedReader(Path.of(input));
+             Writer out = Files.newBufferedWriter(Path.of(output))) {
+            Summary summary = run(in, out, resolved);
+            log.info("Batch done: {} URLs analyzed ({} failed), {} skipped as seen, in {} ms: {} URLs/s, average score {}%",
+                    summary.analyzed(), summary.failed(), summary.skipped(), summary.elapsedMs(),
+                    String.format(Locale.ROOT, "%.1f", summary.urlsPerSecond()),
+                    String.format(Locale.ROOT, "%.1f", summary.averageScore()));
+            return 0;
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Batch failed: {}", e.getMessage());
+            return 1;
+        }
+    }
+
+    Summary run(BufferedReader in, Writer out, Format format) throws IOException {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        int window = parallelism * 2; // URLs read ahead of the analyses, and no more
+        Semaphore slots = new Semaphore(window);
+        AtomicLong analyzed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong scorePercentSum = new AtomicLong();
+        Object writeLock = new Object();
+        AtomicReference<IOException> writeError = new AtomicReference<>();
+        long skipped = 0;
+        int index = 0;
+        long start = System.nanoTime();
+        if (format == Format.CSV) {
+            out.write(String.join(",", CSV_COLUMNS) + "\n");
+        }
+        try {
+            String line;
+            while (writeError.get() == null && (line = in.readLine()) != null) {
+                String url = line.trim();
+                if (url.isEmpty() || url.startsWith("#")) continue;
+                if (seenUrls.contains(null, url)) {
+                    skipped++;
+                    continue;
+                }
+                slots.acquire();
+                int position = index++;
+                executor.execute(() -> {
+                    try {
+                        if (writeError.get() != null) return; // the run is failing anyway
+                        AnalyzeResponse response;
+                        try {
+                            response = metaAnalyzerService.analyzeUrl(url, profile.getChecks());
+                        } catch (RuntimeException e) {
+                            log.warn("Analysis of {} failed", url, e);
+                            response = failure(e);
+                        }
+                        String record = format == Format.CSV ? csvRow(url, response) : jsonLine(position, url, response);
+                        synchronized (writeLock) {
+                            if (writeError.get() == null) out.write(record);
+                        }
+                        if (response.isFailed()) {
+                            failed.incrementAndGet();
+                        } else {
+                            seenUrls.add(null, url);
+                        }
+                        if (response.getMaxScore() > 0) {
+                            scorePercentSum.addAndGet(response.getScore() * 100L / response.getMaxScore());
+                        }
+                        long done = analyzed.incrementAndGet();
+                        if (done % 1000 == 0) {
+                            log.info("{} URLs analyzed, {} URLs/s", done, String.format(Locale.ROOT, "%.1f",
+                                    done * 1e9 / (System.nanoTime() - start)));
+                        }
+                    } catch (IOException e) {
+                        writeError.compareAndSet(null, e);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+            slots.acquire(window); // every analysis has finished
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (writeError.get() != null) throw writeError.get();
+        out.flush();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        long count = analyzed.get();
+        return new Summary(count, failed.get(), skipped, elapsedMs, count > 0 ? (double) scorePercentSum.get() / count : 0);
+    }
+
+    private static AnalyzeResponse failure(RuntimeException e) {
+        FeedbackItem item = new FeedbackItem();
+        item.setType("missing");
+        item.setMessage("Analysis failed: " + e.getClass().getSimpleName() + ": " + e.getMessage());
+        AnalyzeResponse response = new AnalyzeResponse();
+        response.setFailed(true);
+        response.setFeedback(List.of(item));
+        return response;
+    }
+
+    private String jsonLine(int index, String url, AnalyzeResponse response) throws IOException {
+        AnalysisJobResult result = new AnalysisJobResult();
+        result.setIndex(index);
+        result.setUrl(url);
+        result.setResult(response);
+        return objectMapper.writeValueAsString(result) + "\n";
+    }
+
+    static String csvRow(String url, AnalyzeResponse response) {
+        MetaTags meta = response.getMeta() != null ? response.getMeta() : new MetaTags();
+        String error = response.isFailed() && response.getFeedback() != null && !response.getFeedback().isEmpty()
+                ? response.getFeedback().get(response.getFeedback().size() - 1).getMessage() : null;
+        String[] values = {url, response.getFinalUrl(), String.valueOf(response.getScore()),
+                String.valueOf(response.getMaxScore()),
+                String.valueOf(response.getRedirects() != null ? response.getRedirects().size() : 0),
+                meta.getTitle(), meta.getDescription(), meta.getCanonical(), meta.getRobots(), meta.getOgTitle(),
+                meta.getOgImage(), meta.getTwitterTitle(), meta.getTwitterImage(),
+                String.valueOf(meta.getStructuredData() != null), error};
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) row.append(',');
+            String value = values[i] != null ? values[i] : "";
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                row.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                row.append(value);
+            }
+        }
+        return row.append('\n').toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.metasnap.metasnap_backend.config;
+
+import com.metasnap.metasnap_backend.dto.AnalysisJobResult;
+import com.metasnap.metasnap_backend.dto.AnalysisJobStatus;
+import com.metasnap.metasnap_backend.dto.AnalyzeRequest;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.DuplicateReport;
+import com.metasnap.metasnap_backend.dto.PageFacts;
+import com.metasnap.metasnap_backend.dto.QueueJobStatus;
+import com.metasnap.metasnap_backend.dto.QueueStats;
+import com.metasnap.metasnap_backend.dto.RescoredPage;
+import com.metasnap.metasnap_backend.queue.QueuedJob;
+import com.metasnap.metasnap_backend.service.ScoringWeights;
+import com.metasnap.metasnap_backend.tenant.Tenant;
+import com.metasnap.metasnap_backend.tenant.UsageRecord;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection and resource hints for AOT processing and GraalVM native images.
+ *
+ * Controller request and response types are detected by Spring AOT on its own; this covers the
+ * types Jackson only meets outside a controller signature (the file-backed queue reads and writes
+ * {@link QueuedJob} and {@link AnalyzeResponse} directly; tenants, usage, extracted facts,
+ * scoring weights and re-scoring results live in plain files)
+ * and registers the DTO graph explicitly so nested types stay bound even if a signature changes
+ * to a wrapper.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(MetasnapRuntimeHints.Registrar.class)
+@RegisterReflectionForBinding({
+        AnalyzeRequest.class, AnalyzeResponse.class, QueuedJob.class, QueueJobStatus.class, QueueStats.class,
+        AnalysisJobStatus.class, AnalysisJobResult.class, DuplicateReport.class,
+        Tenant.class, UsageRecord.class, PageFacts.class, ScoringWeights.class, RescoredPage.class
+})
+public class MetasnapRuntimeHints {
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // jsoup's AuthenticationHandler loads its Java 9+ authenticator shim by name; without
+            // this hint every Jsoup.connect() in a native image falls back to the global handler.
+            hints.reflection().registerType(TypeReference.of("org.jsoup.helper.RequestAuthHandler"),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+    }
+}
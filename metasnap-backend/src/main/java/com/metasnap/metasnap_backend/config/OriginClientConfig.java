@@ -0,0 +1,43 @@
+package com.metasnap.metasnap_backend.config;
+
+import com.metasnap.metasnap_backend.fetch.CassetteReader;
+import com.metasnap.metasnap_backend.fetch.CassetteWriter;
+import com.metasnap.metasnap_backend.fetch.JsoupOriginClient;
+import com.metasnap.metasnap_backend.fetch.OriginClient;
+import com.metasnap.metasnap_backend.fetch.RecordingOriginClient;
+import com.metasnap.metasnap_backend.fetch.ReplayOriginClient;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Chooses where page fetches go: {@code metasnap.cassette.mode} is {@code off} (the network),
+ * {@code record} (the network, appending to {@code metasnap.cassette.file}) or {@code replay}
+ * (only the cassette).
+ */
+@Configuration(proxyBeanMethods = false)
+public class OriginClientConfig {
+
+    @Bean
+    public OriginClient originClient(@Value("${metasnap.cassette.mode:off}") String mode,
+                                     @Value("${metasnap.cassette.file:}") String file,
+                                     @Value("${metasnap.cassette.latency-scale:0}") double latencyScale,
+                                     @Value("${metasnap.fetch.max-body-size:10MB}") DataSize maxBodySize) throws IOException {
+        return switch (mode) {
+            case "off" -> new JsoupOriginClient(maxBodySize);
+            case "record" -> new RecordingOriginClient(new JsoupOriginClient(maxBodySize), new CassetteWriter(cassette(file)));
+            case "replay" -> new ReplayOriginClient(new CassetteReader(cassette(file)), latencyScale);
+            default -> throw new IllegalArgumentException("metasnap.cassette.mode must be off, record or replay: " + mode);
+        };
+    }
+
+    private static Path cassette(String file) {
+        if (file.isBlank()) {
+            throw new IllegalArgumentException("metasnap.cassette.file is required to record or replay");
+        }
+        return Path.of(file);
+    }
+}
@@ -0,0 +1,74 @@
+package com.metasnap.metasnap_backend.controller;
+
+import com.metasnap.metasnap_backend.dto.AnalysisJobRequest;
+import com.metasnap.metasnap_backend.dto.AnalysisJobResult;
+import com.metasnap.metasnap_backend.dto.AnalysisJobStatus;
+import com.metasnap.metasnap_backend.service.AnalysisJobService;
+import com.metasnap.metasnap_backend.tenant.TenantInterceptor;
+import com.metasnap.metasnap_backend.tenant.TenantUsage;
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import jakarta.validation.Valid;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/jobs")
+public class AnalysisJobController {
+
+    private final AnalysisJobService analysisJobService;
+
+    public AnalysisJobController(AnalysisJobService analysisJobService) {
+        this.analysisJobService = analysisJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<AnalysisJobStatus> submit(@Valid @RequestBody AnalysisJobRequest request,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        if (request.getUrls().size() > analysisJobService.getMaxUrls()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        String tenantId = tenantId(tenant);
+        boolean[] accept = analysisJobService.unseen(request.getUrls(), tenantId, request.isForce());
+        int accepted = 0;
+        for (boolean a : accept) {
+            if (a) accepted++;
+        }
+        return analysisJobService.submit(request.getUrls(), accept, request.isLinkGraph(), tenantId,
+                        count -> tenant == null || tenant.tryChargeFetches(count, System.currentTimeMillis()))
+                .map(status -> ResponseEntity.status(HttpStatus.ACCEPTED).body(status))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<AnalysisJobStatus> status(@PathVariable String id,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        return ResponseEntity.of(analysisJobService.status(id, tenantId(tenant)));
+    }
+
+    @GetMapping("/{id}/results")
+    public ResponseEntity<List<AnalysisJobResult>> results(@PathVariable String id,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        return ResponseEntity.of(analysisJobService.results(id, tenantId(tenant)));
+    }
+
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable String id,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        return ResponseEntity.of(analysisJobService.subscribe(id, tenantId(tenant)));
+    }
+
+    /** Too many URLs are already waiting; a later retry may fit. */
+    @ExceptionHandler(AnalysisJobService.JobsFullException.class)
+    public ResponseEntity<Void> handleJobsFull() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+    }
+
+    private static String tenantId(TenantUsage tenant) {
+        return tenant != null ? tenant.getTenant().id() : null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.metasnap.metasnap_backend.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.metasnap.metasnap_backend.dto.DuplicateReport;
+import com.metasnap.metasnap_backend.service.DuplicateContentService;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api")
+public class DuplicateContentController {
+
+    private final DuplicateContentService duplicateContentService;
+
+    public DuplicateContentController(DuplicateContentService duplicateContentService) {
+        this.duplicateContentService = duplicateContentService;
+    }
+
+    /** The body is streamed into the detector rather than bound, so large page lists are not held as objects. */
+    @PostMapping(value = "/duplicates", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DuplicateReport> findDuplicates(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(duplicateContentService.findDuplicates(body));
+        } catch (DuplicateContentService.TooManyPagesException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,26 +1,75 @@
 package com.metasnap.metasnap_backend.controller;
 
+import com.metasnap.metasnap_backend.dto.AnalysisProfile;
 import com.metasnap.metasnap_backend.dto.AnalyzeRequest;
 import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
-import com.metasnap.metasnap_backend.service.MetaAnalyzerService;
+import com.metasnap.metasnap_backend.dto.CheckGroup;
+import com.metasnap.metasnap_backend.service.AnalysisCache;
+import com.metasnap.metasnap_backend.service.AnalysisCache.CachedAnalysis;
+import com.metasnap.metasnap_backend.service.AnalysisCache.FetchRefusedException;
+import com.metasnap.metasnap_backend.tenant.TenantInterceptor;
+import com.metasnap.metasnap_backend.tenant.TenantUsage;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
 @RequestMapping("/api")
 public class MetaAnalyzerController {
 
-    private final MetaAnalyzerService metaAnalyzerService;
+    private final AnalysisCache analysisCache;
 
-    public MetaAnalyzerController(MetaAnalyzerService metaAnalyzerService) {
-        this.metaAnalyzerService = metaAnalyzerService;
+    public MetaAnalyzerController(AnalysisCache analysisCache) {
+        this.analysisCache = analysisCache;
     }
 
     @PostMapping("/analyze")
-    public ResponseEntity<AnalyzeResponse> analyze(@Valid @RequestBody AnalyzeRequest request) {
-        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(request.getUrl());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<AnalyzeResponse> analyze(@Valid @RequestBody AnalyzeRequest request,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        CachedAnalysis analysis = analysisCache.refresh(request.getUrl(),
+                AnalysisProfile.resolve(request.getProfile(), request.getChecks()), chargeFetch(tenant));
+        return ResponseEntity.ok()
+                .eTag(analysis.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(analysis.response());
     }
-} 
\ No newline at end of file
+
+    /**
+     * Cacheable form of {@link #analyze}: serves a recent analysis of the URL when there is one.
+     * The ETag is a hash of the result, so a matching If-None-Match gets a 304 without a body,
+     * and max-age counts down from when the analysis ran so shared caches can absorb repeats.
+     * A tenant is charged a fetch only when the origin is actually fetched, not for cache hits;
+     * with tenants enabled the response is private so a shared cache cannot hand it to another key.
+     */
+    @GetMapping("/analyze")
+    public ResponseEntity<AnalyzeResponse> analyzeCached(@RequestParam @NotBlank String url,
+                                                         @RequestParam(required = false) AnalysisProfile profile,
+                                                         @RequestParam(required = false) List<CheckGroup> checks,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        CachedAnalysis analysis = analysisCache.get(url, AnalysisProfile.resolve(profile, checks), chargeFetch(tenant));
+        CacheControl maxAge = CacheControl.maxAge(Duration.ofSeconds(analysisCache.remainingSeconds(analysis)));
+        return ResponseEntity.ok()
+                .eTag(analysis.etag())
+                .lastModified(analysis.analyzedAt())
+                .cacheControl(tenant == null ? maxAge.cachePublic() : maxAge.cachePrivate())
+                .varyBy(TenantInterceptor.API_KEY_HEADER)
+                .body(analysis.response());
+    }
+
+    /** The monthly fetch volume is used up; no Retry-After, as it only resets next month. */
+    @ExceptionHandler(FetchRefusedException.class)
+    public ResponseEntity<Void> handleFetchRefused() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+    }
+
+    private static BooleanSupplier chargeFetch(TenantUsage tenant) {
+        return tenant == null ? () -> true : () -> tenant.tryChargeFetches(1, System.currentTimeMillis());
+    }
+}
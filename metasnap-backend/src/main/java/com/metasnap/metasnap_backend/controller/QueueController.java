@@ -0,0 +1,80 @@
+package com.metasnap.metasnap_backend.controller;
+
+import com.metasnap.metasnap_backend.dto.QueueJobStatus;
+import com.metasnap.metasnap_backend.dto.QueueStats;
+import com.metasnap.metasnap_backend.dto.QueueSubmitRequest;
+import com.metasnap.metasnap_backend.queue.JobQueue;
+import com.metasnap.metasnap_backend.service.SeenUrlSet;
+import com.metasnap.metasnap_backend.tenant.TenantInterceptor;
+import com.metasnap.metasnap_backend.tenant.TenantUsage;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.validation.Valid;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/queue")
+public class QueueController {
+
+    private final JobQueue jobQueue;
+    private final SeenUrlSet seenUrls;
+
+    public QueueController(JobQueue jobQueue, SeenUrlSet seenUrls) {
+        this.jobQueue = jobQueue;
+        this.seenUrls = seenUrls;
+    }
+
+    /**
+     * Returns one job id per URL, or null where the tenant had the URL queued before (unless
+     * forced) or it repeats an earlier URL of the request. Only queued URLs are charged.
+     */
+    @PostMapping
+    public ResponseEntity<List<String>> submit(@Valid @RequestBody QueueSubmitRequest request,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        String tenantId = tenant != null ? tenant.getTenant().id() : null;
+        boolean[] accept = seenUrls.unseen(tenantId, request.getUrls(), request.isForce());
+        int accepted = 0;
+        for (boolean a : accept) {
+            if (a) accepted++;
+        }
+        if (tenant != null && !tenant.tryChargeFetches(accepted, System.currentTimeMillis())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        List<String> ids = new ArrayList<>(request.getUrls().size());
+        for (int i = 0; i < accept.length; i++) {
+            String url = request.getUrls().get(i);
+            String id = null;
+            if (accept[i]) {
+                id = jobQueue.enqueue(url, tenantId);
+                seenUrls.add(tenantId, url); // only once it is safely queued
+            }
+            ids.add(id);
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ids);
+    }
+
+    /** Status and result of a job; 404 for a job another tenant queued. */
+    @GetMapping("/{id}")
+    public ResponseEntity<QueueJobStatus> status(@PathVariable String id,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        if (tenant != null && !jobQueue.belongsTo(id, tenant.getTenant().id())) {
+            return ResponseEntity.notFound().build();
+        }
+        QueueJobStatus status = new QueueJobStatus();
+        status.setId(id);
+        status.setStatus(jobQueue.status(id));
+        if ("unknown".equals(status.getStatus())) {
+            return ResponseEntity.notFound().build();
+        }
+        jobQueue.result(id).ifPresent(status::setResult);
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<QueueStats> stats() {
+        return ResponseEntity.ok(jobQueue.stats());
+    }
+}
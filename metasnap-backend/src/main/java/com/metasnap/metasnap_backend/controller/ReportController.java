@@ -0,0 +1,76 @@
+package com.metasnap.metasnap_backend.controller;
+
+import com.metasnap.metasnap_backend.dto.HistogramBucket;
+import com.metasnap.metasnap_backend.dto.MetaField;
+import com.metasnap.metasnap_backend.dto.MissingRow;
+import com.metasnap.metasnap_backend.dto.PercentileRow;
+import com.metasnap.metasnap_backend.dto.ReportMetric;
+import com.metasnap.metasnap_backend.service.ScoreReportService;
+import com.metasnap.metasnap_backend.service.ScoringConfig;
+import com.metasnap.metasnap_backend.tenant.TenantInterceptor;
+import com.metasnap.metasnap_backend.tenant.TenantUsage;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Aggregates over the calling tenant's analyses only (without tenants, over all of them), scored
+ * with the {@code version} of the weights; by default the version live analyses use.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final ScoreReportService scoreReportService;
+    private final ScoringConfig scoringConfig;
+
+    public ReportController(ScoreReportService scoreReportService, ScoringConfig scoringConfig) {
+        this.scoreReportService = scoreReportService;
+        this.scoringConfig = scoringConfig;
+    }
+
+    @GetMapping("/percentiles")
+    public ResponseEntity<List<PercentileRow>> percentiles(@RequestParam(defaultValue = "SCORE") ReportMetric metric,
+                                                           @RequestParam(defaultValue = "10,50,90") List<Integer> p,
+                                                           @RequestParam(defaultValue = "false") boolean byHost,
+                                                           @RequestParam(defaultValue = "100") int limit,
+                                                           @RequestParam(required = false) String version,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        if (limit <= 0 || p.isEmpty() || p.stream().anyMatch(value -> value == null || value < 0 || value > 100)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(scoreReportService.percentiles(tenantId(tenant), version(version), metric, byHost, p, limit));
+    }
+
+    @GetMapping("/missing")
+    public ResponseEntity<List<MissingRow>> missing(@RequestParam MetaField field,
+                                                    @RequestParam(defaultValue = "false") boolean byHost,
+                                                    @RequestParam(defaultValue = "100") int limit,
+                                                    @RequestParam(required = false) String version,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(scoreReportService.missing(tenantId(tenant), version(version), field, byHost, limit));
+    }
+
+    @GetMapping("/histogram")
+    public ResponseEntity<List<HistogramBucket>> histogram(@RequestParam ReportMetric metric,
+                                                           @RequestParam(defaultValue = "10") int width,
+                                                           @RequestParam(required = false) String version,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        if (width <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(scoreReportService.histogram(tenantId(tenant), version(version), metric, width));
+    }
+
+    private String version(String requested) {
+        return requested != null ? requested : scoringConfig.current().getVersion();
+    }
+
+    private static String tenantId(TenantUsage tenant) {
+        return tenant != null ? tenant.getTenant().id() : null;
+    }
+}
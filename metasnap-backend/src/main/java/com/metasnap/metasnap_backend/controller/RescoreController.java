@@ -0,0 +1,48 @@
+package com.metasnap.metasnap_backend.controller;
+
+import com.metasnap.metasnap_backend.dto.RescoreStatus;
+import com.metasnap.metasnap_backend.service.RescoreService;
+import com.metasnap.metasnap_backend.service.ScoringConfig;
+import com.metasnap.metasnap_backend.service.ScoringWeights;
+import com.metasnap.metasnap_backend.tenant.TenantInterceptor;
+import com.metasnap.metasnap_backend.tenant.TenantUsage;
+import java.util.Optional;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/rescore")
+public class RescoreController {
+
+    private final RescoreService rescoreService;
+    private final ScoringConfig scoringConfig;
+
+    public RescoreController(RescoreService rescoreService, ScoringConfig scoringConfig) {
+        this.rescoreService = rescoreService;
+        this.scoringConfig = scoringConfig;
+    }
+
+    /** Re-scores every tenant's pages, so with tenants configured only an admin tenant may start it. */
+    @PostMapping
+    public ResponseEntity<RescoreStatus> start(@RequestParam(required = false) String version,
+            @RequestAttribute(name = TenantInterceptor.TENANT_ATTRIBUTE, required = false) TenantUsage tenant) {
+        if (tenant != null && !tenant.getTenant().admin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Optional<ScoringWeights> weights = version == null
+                ? Optional.of(scoringConfig.current()) : scoringConfig.get(version);
+        if (weights.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return rescoreService.start(weights.get())
+                .map(status -> ResponseEntity.status(HttpStatus.ACCEPTED).body(status))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @GetMapping
+    public ResponseEntity<RescoreStatus> status() {
+        return ResponseEntity.of(rescoreService.status());
+    }
+}
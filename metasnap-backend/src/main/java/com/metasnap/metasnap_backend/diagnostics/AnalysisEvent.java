@@ -0,0 +1,45 @@
+package com.metasnap.metasnap_backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("metasnap.Analysis")
+@Label("Page Analysis")
+@Category("MetaSnap")
+@Description("A whole analysis with the time spent in each phase")
+@StackTrace(false)
+public class AnalysisEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("Checks")
+    public String checks;
+
+    @Label("Fetch")
+    @Timespan(Timespan.MILLISECONDS)
+    public long fetch;
+
+    @Label("Parse")
+    @Timespan(Timespan.MILLISECONDS)
+    public long parse;
+
+    @Label("Extract")
+    @Timespan(Timespan.MILLISECONDS)
+    public long extract;
+
+    @Label("Page Weight")
+    @Timespan(Timespan.MILLISECONDS)
+    public long weight;
+
+    @Label("Score")
+    public int score;
+
+    @Label("Failure")
+    public String failure;
+}
@@ -0,0 +1,22 @@
+package com.metasnap.metasnap_backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("metasnap.Fetch")
+@Label("Page Fetch")
+@Category("MetaSnap")
+@Description("One HTTP request for a page, up to its response headers; redirects are separate events")
+@StackTrace(false)
+public class FetchEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("Status")
+    public int status;
+}
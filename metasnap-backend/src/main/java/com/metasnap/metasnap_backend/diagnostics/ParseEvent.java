@@ -0,0 +1,28 @@
+package com.metasnap.metasnap_backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("metasnap.Parse")
+@Label("Page Parse")
+@Category("MetaSnap")
+@Description("Reading and parsing the final page body; streamed bodies are downloaded during this event")
+@StackTrace(false)
+public class ParseEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("Content Length")
+    @DataAmount
+    public long contentLength;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytesRead;
+}
@@ -0,0 +1,28 @@
+package com.metasnap.metasnap_backend.diagnostics;
+
+import com.metasnap.metasnap_backend.dto.AnalysisTrace;
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/slowanalyses}: the slowest recent analyses with their phase breakdown. An
+ * actuator endpoint rather than an {@code /api} route so it sits behind the management exposure
+ * settings (and management port, if one is configured) instead of tenant API keys.
+ */
+@Component
+@Endpoint(id = "slowanalyses")
+public class SlowAnalysesEndpoint {
+
+    private final SlowAnalysisRecorder recorder;
+
+    public SlowAnalysesEndpoint(SlowAnalysisRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public List<AnalysisTrace> slowest() {
+        return recorder.slowest();
+    }
+}
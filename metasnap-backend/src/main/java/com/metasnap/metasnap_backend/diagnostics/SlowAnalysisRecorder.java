@@ -0,0 +1,85 @@
+package com.metasnap.metasnap_backend.diagnostics;
+
+import com.metasnap.metasnap_backend.dto.AnalysisTrace;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the slowest {@code metasnap.diagnostics.slowest} analyses of the last
+ * {@code metasnap.diagnostics.window}. The buffer is a fixed array; an analysis faster than every
+ * retained one is rejected by comparing against a volatile threshold without locking, so the
+ * common case costs two reads. The threshold is only trusted until the oldest retained entry
+ * would expire, after which the next analysis takes the lock and the expired slots free up.
+ */
+@Component
+public class SlowAnalysisRecorder {
+
+    private final AnalysisTrace[] slots;
+    private final long windowMs;
+    private volatile long thresholdMs = -1;
+    private volatile long thresholdValidUntil;
+
+    public SlowAnalysisRecorder(@Value("${metasnap.diagnostics.slowest:50}") int capacity,
+                                @Value("${metasnap.diagnostics.window:1h}") Duration window) {
+        this.slots = new AnalysisTrace[capacity];
+        this.windowMs = window.toMillis();
+    }
+
+    public void record(AnalysisTrace trace) {
+        long now = System.currentTimeMillis();
+        if (trace.getTotalMs() <= thresholdMs && now < thresholdValidUntil) {
+            return;
+        }
+        synchronized (this) {
+            int victim = -1;
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] == null || expired(slots[i], now)) {
+                    victim = i;
+                    break;
+                }
+                if (victim < 0 || slots[i].getTotalMs() < slots[victim].getTotalMs()) {
+                    victim = i;
+                }
+            }
+            if (victim >= 0 && (slots[victim] == null || expired(slots[victim], now)
+                    || slots[victim].getTotalMs() < trace.getTotalMs())) {
+                slots[victim] = trace;
+            }
+            updateThreshold(now);
+        }
+    }
+
+    /** Retained analyses of the current window, slowest first. */
+    public synchronized List<AnalysisTrace> slowest() {
+        long now = System.currentTimeMillis();
+        List<AnalysisTrace> traces = new ArrayList<>();
+        for (AnalysisTrace trace : slots) {
+            if (trace != null && !expired(trace, now)) traces.add(trace);
+        }
+        traces.sort(Comparator.comparingLong(AnalysisTrace::getTotalMs).reversed());
+        return traces;
+    }
+
+    private void updateThreshold(long now) {
+        long min = Long.MAX_VALUE;
+        long validUntil = Long.MAX_VALUE;
+        for (AnalysisTrace slot : slots) {
+            if (slot == null || expired(slot, now)) {
+                thresholdMs = -1; // a free slot takes anything
+                return;
+            }
+            min = Math.min(min, slot.getTotalMs());
+            validUntil = Math.min(validUntil, slot.getStartedAt() + windowMs);
+        }
+        thresholdValidUntil = validUntil;
+        thresholdMs = min;
+    }
+
+    private boolean expired(AnalysisTrace trace, long now) {
+        return trace.getStartedAt() + windowMs <= now;
+    }
+}
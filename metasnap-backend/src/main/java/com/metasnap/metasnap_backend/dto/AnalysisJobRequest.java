@@ -0,0 +1,19 @@
+package com.metasnap.metasnap_backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public class AnalysisJobRequest {
+    @NotEmpty(message = "At least one URL is required")
+    private List<@NotBlank(message = "URL is required") String> urls;
+    private boolean linkGraph;
+    private boolean force; // analyze URLs seen before too
+
+    public List<String> getUrls() { return urls; }
+    public void setUrls(List<String> urls) { this.urls = urls; }
+    public boolean isLinkGraph() { return linkGraph; }
+    public void setLinkGraph(boolean linkGraph) { this.linkGraph = linkGraph; }
+    public boolean isForce() { return force; }
+    public void setForce(boolean force) { this.force = force; }
+}
@@ -0,0 +1,14 @@
+package com.metasnap.metasnap_backend.dto;
+
+public class AnalysisJobResult {
+    private int index;
+    private String url;
+    private AnalyzeResponse result;
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public AnalyzeResponse getResult() { return result; }
+    public void setResult(AnalyzeResponse result) { this.result = result; }
+}
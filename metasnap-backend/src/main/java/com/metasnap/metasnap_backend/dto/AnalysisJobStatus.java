@@ -0,0 +1,29 @@
+package com.metasnap.metasnap_backend.dto;
+
+public class AnalysisJobStatus {
+    private String id;
+    private String state; // running, completed
+    private int total;
+    private int completed;
+    private int skipped; // already analyzed before, left out of the job
+    private long submittedAt;
+    private long elapsedMs;
+    private Long etaMs;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+    public int getCompleted() { return completed; }
+    public void setCompleted(int completed) { this.completed = completed; }
+    public int getSkipped() { return skipped; }
+    public void setSkipped(int skipped) { this.skipped = skipped; }
+    public long getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(long submittedAt) { this.submittedAt = submittedAt; }
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+    public Long getEtaMs() { return etaMs; }
+    public void setEtaMs(Long etaMs) { this.etaMs = etaMs; }
+}
@@ -0,0 +1,36 @@
+package com.metasnap.metasnap_backend.dto;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Named sets of {@link CheckGroup}s for the common kinds of caller. {@link #FULL} is every head
+ * check, which keeps the score on its 0-100 scale; {@link #AUDIT} adds the body audit and page
+ * weight on top. {@link CheckGroup#LINKS} is only run when asked for, e.g. by a link-graph job.
+ */
+public enum AnalysisProfile {
+    FULL(EnumSet.complementOf(EnumSet.of(CheckGroup.BODY, CheckGroup.PAGE_WEIGHT, CheckGroup.LINKS))),
+    AUDIT(EnumSet.complementOf(EnumSet.of(CheckGroup.LINKS))),
+    SEO(EnumSet.of(CheckGroup.TITLE_DESCRIPTION, CheckGroup.CANONICAL_ROBOTS, CheckGroup.STRUCTURED_DATA)),
+    SOCIAL(EnumSet.of(CheckGroup.OPEN_GRAPH, CheckGroup.TWITTER_CARD, CheckGroup.PREVIEWS)),
+    BASIC(EnumSet.of(CheckGroup.TITLE_DESCRIPTION));
+
+    private final Set<CheckGroup> checks;
+
+    AnalysisProfile(Set<CheckGroup> checks) {
+        this.checks = checks;
+    }
+
+    public Set<CheckGroup> getChecks() {
+        return EnumSet.copyOf(checks);
+    }
+
+    /** Explicit checks win over a profile; with neither, the {@link #FULL} profile runs. */
+    public static Set<CheckGroup> resolve(AnalysisProfile profile, Collection<CheckGroup> checks) {
+        if (checks != null && !checks.isEmpty()) {
+            return EnumSet.copyOf(checks);
+        }
+        return (profile == null ? FULL : profile).getChecks();
+    }
+}
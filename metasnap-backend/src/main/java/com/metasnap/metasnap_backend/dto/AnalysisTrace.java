@@ -0,0 +1,43 @@
+package com.metasnap.metasnap_backend.dto;
+
+/**
+ * Timing of one analysis. {@code parseMs} includes downloading a streamed body; {@code pageBytes}
+ * is how much of the body was actually read, so it is known for chunked responses too and is less
+ * than the page when parsing stopped early. -1 when no page was fetched.
+ */
+public class AnalysisTrace {
+    private String url;
+    private String finalUrl;
+    private long startedAt;
+    private long totalMs;
+    private long fetchMs;
+    private long parseMs;
+    private long extractMs;
+    private long weightMs;
+    private long pageBytes = -1;
+    private int score;
+    private String failure;
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public String getFinalUrl() { return finalUrl; }
+    public void setFinalUrl(String finalUrl) { this.finalUrl = finalUrl; }
+    public long getStartedAt() { return startedAt; }
+    public void setStartedAt(long startedAt) { this.startedAt = startedAt; }
+    public long getTotalMs() { return totalMs; }
+    public void setTotalMs(long totalMs) { this.totalMs = totalMs; }
+    public long getFetchMs() { return fetchMs; }
+    public void setFetchMs(long fetchMs) { this.fetchMs = fetchMs; }
+    public long getParseMs() { return parseMs; }
+    public void setParseMs(long parseMs) { this.parseMs = parseMs; }
+    public long getExtractMs() { return extractMs; }
+    public void setExtractMs(long extractMs) { this.extractMs = extractMs; }
+    public long getWeightMs() { return weightMs; }
+    public void setWeightMs(long weightMs) { this.weightMs = weightMs; }
+    public long getPageBytes() { return pageBytes; }
+    public void setPageBytes(long pageBytes) { this.pageBytes = pageBytes; }
+    public int getScore() { return score; }
+    public void setScore(int score) { this.score = score; }
+    public String getFailure() { return failure; }
+    public void setFailure(String failure) { this.failure = failure; }
+}
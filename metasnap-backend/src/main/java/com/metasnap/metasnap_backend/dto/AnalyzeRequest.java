@@ -1,10 +1,13 @@
 package com.metasnap.metasnap_backend.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import java.util.List;
 
 public class AnalyzeRequest {
     @NotBlank(message = "URL is required")
     private String url;
+    private AnalysisProfile profile;
+    private List<CheckGroup> checks;
 
     public String getUrl() {
         return url;
@@ -13,4 +16,20 @@ public class AnalyzeRequest {
     public void setUrl(String url) {
         this.url = url;
     }
-} 
\ No newline at end of file
+
+    public AnalysisProfile getProfile() {
+        return profile;
+    }
+
+    public void setProfile(AnalysisProfile profile) {
+        this.profile = profile;
+    }
+
+    public List<CheckGroup> getChecks() {
+        return checks;
+    }
+
+    public void setChecks(List<CheckGroup> checks) {
+        this.checks = checks;
+    }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.metasnap.metasnap_backend.dto;
 
 import java.util.List;
+import java.util.Set;
 
 public class AnalyzeResponse {
     private int score;
@@ -8,6 +9,16 @@ public class AnalyzeResponse {
     private MetaTags meta;
     private List<FeedbackItem> feedback;
     private PreviewData previews;
+    private String finalUrl;
+    private List<RedirectHop> redirects;
+    private int maxScore;
+    private Set<CheckGroup> checks;
+    private BodyStats body;
+    private PageWeight weight;
+    private String scoringVersion;
+    private List<String> links;
+    private PageImportance importance;
+    private boolean failed;
 
     public int getScore() { return score; }
     public void setScore(int score) { this.score = score; }
@@ -19,4 +30,25 @@ public class AnalyzeResponse {
     public void setFeedback(java.util.List<FeedbackItem> feedback) { this.feedback = feedback; }
     public PreviewData getPreviews() { return previews; }
     public void setPreviews(PreviewData previews) { this.previews = previews; }
+    public String getFinalUrl() { return finalUrl; }
+    public void setFinalUrl(String finalUrl) { this.finalUrl = finalUrl; }
+    public List<RedirectHop> getRedirects() { return redirects; }
+    public void setRedirects(List<RedirectHop> redirects) { this.redirects = redirects; }
+    public int getMaxScore() { return maxScore; }
+    public void setMaxScore(int maxScore) { this.maxScore = maxScore; }
+    public Set<CheckGroup> getChecks() { return checks; }
+    public void setChecks(Set<CheckGroup> checks) { this.checks = checks; }
+    public BodyStats getBody() { return body; }
+    public void setBody(BodyStats body) { this.body = body; }
+    public PageWeight getWeight() { return weight; }
+    public void setWeight(PageWeight weight) { this.weight = weight; }
+    public String getScoringVersion() { return scoringVersion; }
+    public void setScoringVersion(String scoringVersion) { this.scoringVersion = scoringVersion; }
+    public List<String> getLinks() { return links; }
+    public void setLinks(List<String> links) { this.links = links; }
+    public PageImportance getImportance() { return importance; }
+    public void setImportance(PageImportance importance) { this.importance = importance; }
+    /** True when the page could not be fetched or parsed; the scores and facts are then empty. */
+    public boolean isFailed() { return failed; }
+    public void setFailed(boolean failed) { this.failed = failed; }
 } 
\ No newline at end of file
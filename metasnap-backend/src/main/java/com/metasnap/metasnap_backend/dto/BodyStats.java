@@ -0,0 +1,32 @@
+package com.metasnap.metasnap_backend.dto;
+
+public class BodyStats {
+    private int h1Count;
+    private String headingSkip;
+    private int images;
+    private int imagesWithoutAlt;
+    private long wordCount;
+    private int internalLinks;
+    private int externalLinks;
+    private int nofollowLinks;
+    private int internalNofollowLinks;
+
+    public int getH1Count() { return h1Count; }
+    public void setH1Count(int h1Count) { this.h1Count = h1Count; }
+    public String getHeadingSkip() { return headingSkip; }
+    public void setHeadingSkip(String headingSkip) { this.headingSkip = headingSkip; }
+    public int getImages() { return images; }
+    public void setImages(int images) { this.images = images; }
+    public int getImagesWithoutAlt() { return imagesWithoutAlt; }
+    public void setImagesWithoutAlt(int imagesWithoutAlt) { this.imagesWithoutAlt = imagesWithoutAlt; }
+    public long getWordCount() { return wordCount; }
+    public void setWordCount(long wordCount) { this.wordCount = wordCount; }
+    public int getInternalLinks() { return internalLinks; }
+    public void setInternalLinks(int internalLinks) { this.internalLinks = internalLinks; }
+    public int getExternalLinks() { return externalLinks; }
+    public void setExternalLinks(int externalLinks) { this.externalLinks = externalLinks; }
+    public int getNofollowLinks() { return nofollowLinks; }
+    public void setNofollowLinks(int nofollowLinks) { this.nofollowLinks = nofollowLinks; }
+    public int getInternalNofollowLinks() { return internalNofollowLinks; }
+    public void setInternalNofollowLinks(int internalNofollowLinks) { this.internalNofollowLinks = internalNofollowLinks; }
+}
@@ -0,0 +1,17 @@
+package com.metasnap.metasnap_backend.dto;
+
+/** A group of related checks that a caller can ask for on its own. */
+public enum CheckGroup {
+    TITLE_DESCRIPTION,
+    OPEN_GRAPH,
+    TWITTER_CARD,
+    CANONICAL_ROBOTS,
+    STRUCTURED_DATA,
+    PREVIEWS,
+    /** On-page checks over the whole body; downloads the whole page. */
+    BODY,
+    /** Total size of the page and the stylesheets, scripts and images it loads; downloads the whole page. */
+    PAGE_WEIGHT,
+    /** Internal links of the page, as input to a site's link graph; downloads the whole page. Not scored. */
+    LINKS
+}
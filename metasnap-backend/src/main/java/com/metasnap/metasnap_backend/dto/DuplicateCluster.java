@@ -0,0 +1,22 @@
+package com.metasnap.metasnap_backend.dto;
+
+import java.util.List;
+
+public class DuplicateCluster {
+    private String field; // title, description
+    private String type; // exact, near
+    private double similarity;
+    private String sample;
+    private List<String> urls;
+
+    public String getField() { return field; }
+    public void setField(String field) { this.field = field; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public double getSimilarity() { return similarity; }
+    public void setSimilarity(double similarity) { this.similarity = similarity; }
+    public String getSample() { return sample; }
+    public void setSample(String sample) { this.sample = sample; }
+    public List<String> getUrls() { return urls; }
+    public void setUrls(List<String> urls) { this.urls = urls; }
+}
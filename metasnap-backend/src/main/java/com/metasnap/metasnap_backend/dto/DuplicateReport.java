@@ -0,0 +1,16 @@
+package com.metasnap.metasnap_backend.dto;
+
+import java.util.List;
+
+public class DuplicateReport {
+    private int pageCount;
+    private List<DuplicateCluster> titleClusters;
+    private List<DuplicateCluster> descriptionClusters;
+
+    public int getPageCount() { return pageCount; }
+    public void setPageCount(int pageCount) { this.pageCount = pageCount; }
+    public List<DuplicateCluster> getTitleClusters() { return titleClusters; }
+    public void setTitleClusters(List<DuplicateCluster> titleClusters) { this.titleClusters = titleClusters; }
+    public List<DuplicateCluster> getDescriptionClusters() { return descriptionClusters; }
+    public void setDescriptionClusters(List<DuplicateCluster> descriptionClusters) { this.descriptionClusters = descriptionClusters; }
+}
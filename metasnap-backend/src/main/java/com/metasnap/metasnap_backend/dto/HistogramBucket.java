@@ -0,0 +1,14 @@
+package com.metasnap.metasnap_backend.dto;
+
+public class HistogramBucket {
+    private int from;
+    private int to;
+    private int pages;
+
+    public int getFrom() { return from; }
+    public void setFrom(int from) { this.from = from; }
+    public int getTo() { return to; }
+    public void setTo(int to) { this.to = to; }
+    public int getPages() { return pages; }
+    public void setPages(int pages) { this.pages = pages; }
+}
@@ -0,0 +1,26 @@
+package com.metasnap.metasnap_backend.dto;
+
+/** A tag whose presence the score report tracks, with the check group that reads it. */
+public enum MetaField {
+    TITLE(CheckGroup.TITLE_DESCRIPTION),
+    DESCRIPTION(CheckGroup.TITLE_DESCRIPTION),
+    CANONICAL(CheckGroup.CANONICAL_ROBOTS),
+    ROBOTS(CheckGroup.CANONICAL_ROBOTS),
+    OG_TITLE(CheckGroup.OPEN_GRAPH),
+    OG_DESCRIPTION(CheckGroup.OPEN_GRAPH),
+    OG_IMAGE(CheckGroup.OPEN_GRAPH),
+    TWITTER_TITLE(CheckGroup.TWITTER_CARD),
+    TWITTER_DESCRIPTION(CheckGroup.TWITTER_CARD),
+    TWITTER_IMAGE(CheckGroup.TWITTER_CARD),
+    STRUCTURED_DATA(CheckGroup.STRUCTURED_DATA);
+
+    private final CheckGroup group;
+
+    MetaField(CheckGroup group) {
+        this.group = group;
+    }
+
+    public CheckGroup getGroup() {
+        return group;
+    }
+}
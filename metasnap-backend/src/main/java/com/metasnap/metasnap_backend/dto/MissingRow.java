@@ -0,0 +1,17 @@
+package com.metasnap.metasnap_backend.dto;
+
+public class MissingRow {
+    private String host;
+    private int pages;
+    private int missing;
+    private double percent;
+
+    public String getHost() { return host; }
+    public void setHost(String host) { this.host = host; }
+    public int getPages() { return pages; }
+    public void setPages(int pages) { this.pages = pages; }
+    public int getMissing() { return missing; }
+    public void setMissing(int missing) { this.missing = missing; }
+    public double getPercent() { return percent; }
+    public void setPercent(double percent) { this.percent = percent; }
+}
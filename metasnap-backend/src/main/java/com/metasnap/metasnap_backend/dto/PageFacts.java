@@ -0,0 +1,26 @@
+package com.metasnap.metasnap_backend.dto;
+
+import java.util.Set;
+
+/** What an analysis extracted from a page, independent of how it is scored. */
+public class PageFacts {
+    private String tenant;
+    private String url;
+    private Set<CheckGroup> checks;
+    private MetaTags meta;
+    private BodyStats body;
+    private long extractedAt;
+
+    public String getTenant() { return tenant; }
+    public void setTenant(String tenant) { this.tenant = tenant; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public Set<CheckGroup> getChecks() { return checks; }
+    public void setChecks(Set<CheckGroup> checks) { this.checks = checks; }
+    public MetaTags getMeta() { return meta; }
+    public void setMeta(MetaTags meta) { this.meta = meta; }
+    public BodyStats getBody() { return body; }
+    public void setBody(BodyStats body) { this.body = body; }
+    public long getExtractedAt() { return extractedAt; }
+    public void setExtractedAt(long extractedAt) { this.extractedAt = extractedAt; }
+}
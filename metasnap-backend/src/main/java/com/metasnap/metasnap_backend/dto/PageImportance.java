@@ -0,0 +1,24 @@
+package com.metasnap.metasnap_backend.dto;
+
+/**
+ * Where a page sits in the internal link graph of the pages analyzed with it. Links are counted
+ * between analyzed pages only, once per linking page, and {@code nofollow} links are ignored.
+ */
+public class PageImportance {
+    private int inLinks;
+    private int outLinks;
+    private Integer depth; // clicks from the start page, null if unreachable
+    private boolean orphan;
+    private double pageRank; // 1.0 is the average page
+
+    public int getInLinks() { return inLinks; }
+    public void setInLinks(int inLinks) { this.inLinks = inLinks; }
+    public int getOutLinks() { return outLinks; }
+    public void setOutLinks(int outLinks) { this.outLinks = outLinks; }
+    public Integer getDepth() { return depth; }
+    public void setDepth(Integer depth) { this.depth = depth; }
+    public boolean isOrphan() { return orphan; }
+    public void setOrphan(boolean orphan) { this.orphan = orphan; }
+    public double getPageRank() { return pageRank; }
+    public void setPageRank(double pageRank) { this.pageRank = pageRank; }
+}
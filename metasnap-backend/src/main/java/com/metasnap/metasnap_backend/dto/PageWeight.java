@@ -0,0 +1,36 @@
+package com.metasnap.metasnap_backend.dto;
+
+/** Transfer sizes in bytes. Resources whose size could not be found count in {@code unknown}, not in the totals. */
+public class PageWeight {
+    private long totalBytes;
+    private long htmlBytes;
+    private long stylesheetBytes;
+    private long scriptBytes;
+    private long imageBytes;
+    private int stylesheets;
+    private int scripts;
+    private int images;
+    private int unknown;
+    private int cached;
+
+    public long getTotalBytes() { return totalBytes; }
+    public void setTotalBytes(long totalBytes) { this.totalBytes = totalBytes; }
+    public long getHtmlBytes() { return htmlBytes; }
+    public void setHtmlBytes(long htmlBytes) { this.htmlBytes = htmlBytes; }
+    public long getStylesheetBytes() { return stylesheetBytes; }
+    public void setStylesheetBytes(long stylesheetBytes) { this.stylesheetBytes = stylesheetBytes; }
+    public long getScriptBytes() { return scriptBytes; }
+    public void setScriptBytes(long scriptBytes) { this.scriptBytes = scriptBytes; }
+    public long getImageBytes() { return imageBytes; }
+    public void setImageBytes(long imageBytes) { this.imageBytes = imageBytes; }
+    public int getStylesheets() { return stylesheets; }
+    public void setStylesheets(int stylesheets) { this.stylesheets = stylesheets; }
+    public int getScripts() { return scripts; }
+    public void setScripts(int scripts) { this.scripts = scripts; }
+    public int getImages() { return images; }
+    public void setImages(int images) { this.images = images; }
+    public int getUnknown() { return unknown; }
+    public void setUnknown(int unknown) { this.unknown = unknown; }
+    public int getCached() { return cached; }
+    public void setCached(int cached) { this.cached = cached; }
+}
@@ -0,0 +1,16 @@
+package com.metasnap.metasnap_backend.dto;
+
+import java.util.List;
+
+public class PercentileRow {
+    private String host;
+    private int pages;
+    private List<Integer> values;
+
+    public String getHost() { return host; }
+    public void setHost(String host) { this.host = host; }
+    public int getPages() { return pages; }
+    public void setPages(int pages) { this.pages = pages; }
+    public List<Integer> getValues() { return values; }
+    public void setValues(List<Integer> values) { this.values = values; }
+}
@@ -0,0 +1,14 @@
+package com.metasnap.metasnap_backend.dto;
+
+public class QueueJobStatus {
+    private String id;
+    private String status; // pending, leased, completed, dead, unknown
+    private AnalyzeResponse result;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public AnalyzeResponse getResult() { return result; }
+    public void setResult(AnalyzeResponse result) { this.result = result; }
+}
@@ -0,0 +1,17 @@
+package com.metasnap.metasnap_backend.dto;
+
+public class QueueStats {
+    private long pending;
+    private long leased;
+    private long completed;
+    private long dead;
+
+    public long getPending() { return pending; }
+    public void setPending(long pending) { this.pending = pending; }
+    public long getLeased() { return leased; }
+    public void setLeased(long leased) { this.leased = leased; }
+    public long getCompleted() { return completed; }
+    public void setCompleted(long completed) { this.completed = completed; }
+    public long getDead() { return dead; }
+    public void setDead(long dead) { this.dead = dead; }
+}
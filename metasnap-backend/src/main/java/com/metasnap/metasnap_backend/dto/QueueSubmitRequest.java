@@ -0,0 +1,16 @@
+package com.metasnap.metasnap_backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public class QueueSubmitRequest {
+    @NotEmpty(message = "At least one URL is required")
+    private List<@NotBlank(message = "URL is required") String> urls;
+    private boolean force; // queue URLs seen before too
+
+    public List<String> getUrls() { return urls; }
+    public void setUrls(List<String> urls) { this.urls = urls; }
+    public boolean isForce() { return force; }
+    public void setForce(boolean force) { this.force = force; }
+}
@@ -0,0 +1,20 @@
+package com.metasnap.metasnap_backend.dto;
+
+public class RedirectHop {
+    private String url;
+    private int status;
+    private String location;
+    private long latencyMs;
+    private boolean cached;
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    public long getLatencyMs() { return latencyMs; }
+    public void setLatencyMs(long latencyMs) { this.latencyMs = latencyMs; }
+    public boolean isCached() { return cached; }
+    public void setCached(boolean cached) { this.cached = cached; }
+}
@@ -0,0 +1,29 @@
+package com.metasnap.metasnap_backend.dto;
+
+/**
+ * A numeric column of the score report. Each metric only counts pages whose analysis ran its
+ * check group; {@link #SCORE} is a percentage of the page's {@code maxScore} so pages analysed
+ * with different profiles compare.
+ */
+public enum ReportMetric {
+    SCORE(null),
+    TITLE_DESCRIPTION(CheckGroup.TITLE_DESCRIPTION),
+    OPEN_GRAPH(CheckGroup.OPEN_GRAPH),
+    TWITTER_CARD(CheckGroup.TWITTER_CARD),
+    CANONICAL_ROBOTS(CheckGroup.CANONICAL_ROBOTS),
+    STRUCTURED_DATA(CheckGroup.STRUCTURED_DATA),
+    ON_PAGE(CheckGroup.BODY),
+    TITLE_LENGTH(CheckGroup.TITLE_DESCRIPTION),
+    DESCRIPTION_LENGTH(CheckGroup.TITLE_DESCRIPTION);
+
+    private final CheckGroup group;
+
+    ReportMetric(CheckGroup group) {
+        this.group = group;
+    }
+
+    /** The check group that produces this metric, or null for the overall score. */
+    public CheckGroup getGroup() {
+        return group;
+    }
+}
@@ -0,0 +1,35 @@
+package com.metasnap.metasnap_backend.dto;
+
+public class RescoreStatus {
+    private String version;
+    private String state; // running, completed, failed
+    private int total;
+    private long completed;
+    private long startedAt;
+    private long elapsedMs;
+    private long pagesPerSecond;
+    private Double averageScore;
+    private String failure;
+    private String resultsFile; // set once a run has completed and its results are written
+
+    public String getVersion() { return version; }
+    public void setVersion(String version) { this.version = version; }
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+    public long getCompleted() { return completed; }
+    public void setCompleted(long completed) { this.completed = completed; }
+    public long getStartedAt() { return startedAt; }
+    public void setStartedAt(long startedAt) { this.startedAt = startedAt; }
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+    public long getPagesPerSecond() { return pagesPerSecond; }
+    public void setPagesPerSecond(long pagesPerSecond) { this.pagesPerSecond = pagesPerSecond; }
+    public Double getAverageScore() { return averageScore; }
+    public void setAverageScore(Double averageScore) { this.averageScore = averageScore; }
+    public String getFailure() { return failure; }
+    public void setFailure(String failure) { this.failure = failure; }
+    public String getResultsFile() { return resultsFile; }
+    public void setResultsFile(String resultsFile) { this.resultsFile = resultsFile; }
+}
@@ -0,0 +1,24 @@
+package com.metasnap.metasnap_backend.dto;
+
+/** One page's score under a re-scoring run's weights, as written to the run's results file. */
+public class RescoredPage {
+    private String tenant;
+    private String url;
+    private String scoringVersion;
+    private int score;
+    private int maxScore;
+    private ScoreBreakdown breakdown;
+
+    public String getTenant() { return tenant; }
+    public void setTenant(String tenant) { this.tenant = tenant; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public String getScoringVersion() { return scoringVersion; }
+    public void setScoringVersion(String scoringVersion) { this.scoringVersion = scoringVersion; }
+    public int getScore() { return score; }
+    public void setScore(int score) { this.score = score; }
+    public int getMaxScore() { return maxScore; }
+    public void setMaxScore(int maxScore) { this.maxScore = maxScore; }
+    public ScoreBreakdown getBreakdown() { return breakdown; }
+    public void setBreakdown(ScoreBreakdown breakdown) { this.breakdown = breakdown; }
+}
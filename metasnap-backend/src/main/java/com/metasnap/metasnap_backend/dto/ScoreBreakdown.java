@@ -6,6 +6,7 @@ public class ScoreBreakdown {
     private int twitterCard;
     private int canonicalRobots;
     private int structuredData;
+    private int onPage;
 
     public int getTitleDescription() { return titleDescription; }
     public void setTitleDescription(int titleDescription) { this.titleDescription = titleDescription; }
@@ -17,4 +18,6 @@ public class ScoreBreakdown {
     public void setCanonicalRobots(int canonicalRobots) { this.canonicalRobots = canonicalRobots; }
     public int getStructuredData() { return structuredData; }
     public void setStructuredData(int structuredData) { this.structuredData = structuredData; }
+    public int getOnPage() { return onPage; }
+    public void setOnPage(int onPage) { this.onPage = onPage; }
 } 
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit that follows the latency it causes. Each response time is compared with a
+ * slow-moving average of recent ones: while responses stay within {@code tolerance} times that
+ * baseline the limit grows by about its square root per sample (smoothed), and as they get slower
+ * it shrinks in proportion, down to half per sample. Errors that point at overload cut the limit
+ * by 10% at once. Growth is skipped while fewer than half the slots are in use, since an idle
+ * limit says nothing about capacity. A baseline that is far above current responses is decayed
+ * so a permanently faster origin is not held back. Thread-safe.
+ */
+class AdaptiveLimit {
+
+    private static final double BACKOFF = 0.9;
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_WINDOW = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private volatile double limit;
+    private double baselineNanos;
+    private volatile int inFlight;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /** Takes a slot, waiting up to {@code timeoutNanos}; false if none freed up in time. */
+    boolean acquire(long timeoutNanos) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            long remaining = timeoutNanos;
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = available.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Takes a slot if one is free right now. */
+    boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Adjusts the limit for one response that took {@code rttNanos}, or one overload error. */
+    void onSample(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            int before = (int) limit;
+            if (dropped) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+                return;
+            }
+            double rtt = Math.max(1, rttNanos);
+            baselineNanos = baselineNanos == 0 ? rtt : baselineNanos + (rtt - baselineNanos) / BASELINE_WINDOW;
+            if (baselineNanos > 2 * rtt) {
+                baselineNanos *= 0.95;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineNanos / rtt));
+            double target = limit * gradient + Math.sqrt(limit);
+            if (target > limit && inFlight * 2 < limit) {
+                return;
+            }
+            limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+            if ((int) limit > before) {
+                available.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight;
+    }
+}
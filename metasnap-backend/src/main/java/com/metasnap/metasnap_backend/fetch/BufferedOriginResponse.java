@@ -0,0 +1,112 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+
+/**
+ * A response whose body is already in memory (or mapped from a cassette), decoded with the
+ * charset recorded for it rather than sniffed again.
+ */
+class BufferedOriginResponse implements OriginResponse {
+
+    private final String url;
+    private final int status;
+    private final Map<String, String> headers;
+    private final Charset charset;
+    private final ByteBuffer body;
+    private ByteBufferInputStream stream;
+
+    /** {@code headers} must already match names case-insensitively. */
+    BufferedOriginResponse(String url, int status, Map<String, String> headers, Charset charset, ByteBuffer body) {
+        this.url = url;
+        this.status = status;
+        this.headers = headers;
+        this.charset = charset;
+        this.body = body;
+    }
+
+    @Override
+    public int status() {
+        return status;
+    }
+
+    @Override
+    public String header(String name) {
+        return headers.get(name);
+    }
+
+    @Override
+    public Document parse() {
+        Document document = Parser.htmlParser().parseInput(reader(), url);
+        document.outputSettings().charset(charset);
+        return document;
+    }
+
+    @Override
+    public Document parseUntil(Predicate<Element> enough) throws IOException {
+        try (StreamParser streamParser = new StreamParser(Parser.htmlParser()).parse(reader(), url)) {
+            Iterator<Element> elements = streamParser.iterator();
+            while (elements.hasNext()) {
+                if (enough.test(elements.next())) {
+                    streamParser.stop();
+                    break;
+                }
+            }
+            Document document = streamParser.document();
+            document.outputSettings().charset(charset);
+            return document;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public long bytesRead() {
+        return stream != null ? stream.buffer.position() - body.position() : 0;
+    }
+
+    private Reader reader() {
+        stream = new ByteBufferInputStream(body.duplicate());
+        return new InputStreamReader(stream, charset);
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * One recorded origin exchange. Either a response (status, headers, body and the charset jsoup
+ * detected for it, so replay decodes the body exactly as the live parse did) or, when
+ * {@code error} is set, a request that failed without a response.
+ */
+public record CassetteEntry(String url, int status, int latencyMs, String charset,
+                            Map<String, String> headers, ByteBuffer body, String error) {
+}
@@ -0,0 +1,120 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Memory-maps a cassette written by {@link CassetteWriter} and looks entries up by URL. The file
+ * is mapped in read-only segments of at most {@code segmentSize} bytes, split on record
+ * boundaries, so cassettes larger than 2 GB work; bodies are returned as slices of the mapping
+ * and never copied onto the heap. Only the URL index lives on the heap. Thread-safe.
+ */
+public class CassetteReader implements Closeable {
+
+    static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final Map<String, Long> index = new HashMap<>();
+
+    public CassetteReader(Path file) throws IOException {
+        this(file, DEFAULT_SEGMENT_SIZE);
+    }
+
+    CassetteReader(Path file, long segmentSize) throws IOException {
+        checkMagic(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<long[]> records = new ArrayList<>(); // {segment, offset in segment}
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+            long segmentStart = 0;
+            long position = 4;
+            while (position + 4 <= size) {
+                lengthBuffer.clear();
+                while (lengthBuffer.hasRemaining() && channel.read(lengthBuffer, position + lengthBuffer.position()) > 0) {
+                }
+                int length = lengthBuffer.flip().getInt();
+                long end = position + 4 + length;
+                if (length < 0 || end > size) {
+                    break; // truncated tail from an interrupted recording
+                }
+                if (end - segmentStart > segmentSize && position > segmentStart) {
+                    segments.add(channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, position - segmentStart));
+                    segmentStart = position;
+                }
+                records.add(new long[]{segments.size(), position - segmentStart});
+                position = end;
+            }
+            if (position > segmentStart) {
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, position - segmentStart));
+            }
+            for (long[] record : records) {
+                ByteBuffer buffer = segments.get((int) record[0]).duplicate().position((int) record[1] + 5);
+                index.put(readString(buffer), (record[0] << 32) | record[1]);
+            }
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /** The latest entry recorded for {@code url}, or null. */
+    public CassetteEntry get(String url) {
+        Long location = index.get(url);
+        if (location == null) {
+            return null;
+        }
+        ByteBuffer buffer = segments.get((int) (location >>> 32)).duplicate().position((int) (long) location + 4);
+        byte kind = buffer.get();
+        String recordedUrl = readString(buffer);
+        if (kind == CassetteWriter.ERROR) {
+            return new CassetteEntry(recordedUrl, 0, 0, null, Map.of(), null, readString(buffer));
+        }
+        int status = buffer.getInt();
+        int latencyMs = buffer.getInt();
+        String charset = readString(buffer);
+        int headerCount = buffer.getInt();
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(readString(buffer), readString(buffer));
+        }
+        int bodyLength = buffer.getInt();
+        ByteBuffer body = buffer.slice(buffer.position(), bodyLength);
+        return new CassetteEntry(recordedUrl, status, latencyMs, charset, Collections.unmodifiableMap(headers), body, null);
+    }
+
+    @Override
+    public void close() {
+        // Mappings are released when the buffers are collected
+        segments.clear();
+    }
+
+    static void checkMagic(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            channel.read(magic, 0);
+            if (magic.position() < 4 || magic.flip().getInt() != CassetteWriter.MAGIC) {
+                throw new IOException(file + " is not a MetaSnap cassette");
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value = StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), length)).toString();
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,80 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Appends entries to a cassette file. The format is a 4-byte magic followed by records, each an
+ * int length and then: kind byte (0 response, 1 error), URL, status, latency in ms, charset,
+ * header count and name/value pairs, body length and raw body bytes, or for errors the message.
+ * Strings are an int byte length plus UTF-8. Bodies are stored as received, so the file is about
+ * the size of the pages themselves. Later entries for a URL win on replay.
+ */
+public class CassetteWriter implements Closeable {
+
+    static final int MAGIC = 0x4D534331; // "MSC1"
+    static final byte RESPONSE = 0;
+    static final byte ERROR = 1;
+
+    private final DataOutputStream out;
+
+    public CassetteWriter(Path file) throws IOException {
+        boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+        if (!fresh) {
+            CassetteReader.checkMagic(file);
+        }
+        OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        if (fresh) {
+            out.writeInt(MAGIC);
+            out.flush();
+        }
+    }
+
+    /** Writes and flushes one entry, so a crash loses at most the page being recorded. */
+    public synchronized void append(CassetteEntry entry) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 + (entry.body() != null ? entry.body().remaining() : 0));
+        DataOutputStream record = new DataOutputStream(buffer);
+        record.writeByte(entry.error() != null ? ERROR : RESPONSE);
+        writeString(record, entry.url());
+        if (entry.error() != null) {
+            writeString(record, entry.error());
+        } else {
+            record.writeInt(entry.status());
+            record.writeInt(entry.latencyMs());
+            writeString(record, entry.charset());
+            record.writeInt(entry.headers().size());
+            for (Map.Entry<String, String> header : entry.headers().entrySet()) {
+                writeString(record, header.getKey());
+                writeString(record, header.getValue());
+            }
+            byte[] body = new byte[entry.body().remaining()];
+            entry.body().duplicate().get(body);
+            record.writeInt(body.length);
+            record.write(body);
+        }
+        out.writeInt(buffer.size());
+        buffer.writeTo(out);
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
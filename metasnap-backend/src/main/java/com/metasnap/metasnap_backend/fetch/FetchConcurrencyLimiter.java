@@ -0,0 +1,208 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.jsoup.HttpStatusException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds in-flight origin requests with an {@link AdaptiveLimit} for all hosts together and one
+ * per host. Both limits move with the response times and overload errors (timeouts, connection
+ * failures, 429 and 5xx) they see, so fetch concurrency rises while origins and the egress path
+ * keep up and falls back when they slow down, instead of a fixed pool size being wrong one way or
+ * the other. A fetch that cannot get a slot within {@code metasnap.fetch.limit.max-wait} fails.
+ *
+ * Host limits are kept for the {@value #MAX_HOSTS} most recently used hosts; past that the least
+ * recently used idle host is dropped, and starts again from its initial limit when it comes back.
+ * A slot is only handed out under a limit that is still the host's current one, so a limit
+ * dropped while a caller was about to use it never lets that host exceed its bound.
+ *
+ * Metrics: {@code metasnap.fetch.limit} and {@code metasnap.fetch.in-flight} for the global limit,
+ * {@code metasnap.fetch.limit.throttled-hosts} (hosts whose own limit fell below its initial
+ * value) and {@code metasnap.fetch.limit.timeouts}.
+ */
+@Component
+public class FetchConcurrencyLimiter {
+
+    private static final int MAX_HOSTS = 10_000;
+
+    private final AdaptiveLimit global;
+    private final Map<String, AdaptiveLimit> hosts = new LinkedHashMap<>(64, 0.75f, true); // guarded by itself
+    private final int hostInitial;
+    private final int hostMax;
+    private final double tolerance;
+    private final long maxWaitNanos;
+    private final Counter timeouts;
+
+    public FetchConcurrencyLimiter(MeterRegistry registry,
+                                   @Value("${metasnap.fetch.limit.initial:32}") int initial,
+                                   @Value("${metasnap.fetch.limit.max:256}") int max,
+                                   @Value("${metasnap.fetch.limit.host-initial:4}") int hostInitial,
+                                   @Value("${metasnap.fetch.limit.host-max:32}") int hostMax,
+                                   @Value("${metasnap.fetch.limit.tolerance:2.0}") double tolerance,
+                                   @Value("${metasnap.fetch.limit.max-wait:30s}") Duration maxWait) {
+        this.global = new AdaptiveLimit(initial, 1, max, tolerance);
+        this.hostInitial = hostInitial;
+        this.hostMax = hostMax;
+        this.tolerance = tolerance;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.timeouts = registry.counter("metasnap.fetch.limit.timeouts");
+        Gauge.builder("metasnap.fetch.limit", global, AdaptiveLimit::limit).register(registry);
+        Gauge.builder("metasnap.fetch.in-flight", global, AdaptiveLimit::inFlight).register(registry);
+        Gauge.builder("metasnap.fetch.limit.throttled-hosts", this, FetchConcurrencyLimiter::throttledHosts).register(registry);
+    }
+
+    /** Waits for a slot under both the host's and the global limit; release it when the body is read. */
+    public Permit acquire(String host) throws IOException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        AdaptiveLimit hostLimit;
+        try {
+            while (true) {
+                hostLimit = limitFor(host);
+                if (!hostLimit.acquire(deadline - System.nanoTime())) {
+                    throw timeout(host);
+                }
+                if (isCurrent(host, hostLimit)) break;
+                hostLimit.release(); // dropped before the slot was taken; use the host's new limit
+            }
+            if (!global.acquire(deadline - System.nanoTime())) {
+                hostLimit.release();
+                throw timeout(host);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a fetch slot for " + host);
+        }
+        return new Permit(hostLimit);
+    }
+
+    /**
+     * Takes a slot under both limits if one is free right now, else returns null; for callers
+     * that queue their own work rather than park a thread.
+     */
+    public Permit tryAcquire(String host) {
+        AdaptiveLimit hostLimit;
+        while (true) {
+            hostLimit = limitFor(host);
+            if (!hostLimit.tryAcquire()) {
+                return null;
+            }
+            if (isCurrent(host, hostLimit)) break;
+            hostLimit.release();
+        }
+        if (!global.tryAcquire()) {
+            hostLimit.release();
+            return null;
+        }
+        return new Permit(hostLimit);
+    }
+
+    int limit() {
+        return global.limit();
+    }
+
+    int hostLimit(String host) {
+        synchronized (hosts) {
+            AdaptiveLimit limit = hosts.get(host);
+            return limit != null ? limit.limit() : hostInitial;
+        }
+    }
+
+    int hostCount() {
+        synchronized (hosts) {
+            return hosts.size();
+        }
+    }
+
+    private long throttledHosts() {
+        synchronized (hosts) {
+            return hosts.values().stream().filter(limit -> limit.limit() < hostInitial).count();
+        }
+    }
+
+    /**
+     * The host's limit, created if needed. Creating one past {@value #MAX_HOSTS} hosts drops the
+     * least recently used idle hosts; busy ones are skipped, so the map can briefly hold a few
+     * more while all of the oldest hosts have requests in flight.
+     */
+    private AdaptiveLimit limitFor(String host) {
+        synchronized (hosts) {
+            AdaptiveLimit limit = hosts.get(host); // also marks it most recently used
+            if (limit != null) {
+                return limit;
+            }
+            limit = new AdaptiveLimit(hostInitial, 1, hostMax, tolerance);
+            hosts.put(host, limit);
+            Iterator<AdaptiveLimit> eldest = hosts.values().iterator();
+            while (hosts.size() > MAX_HOSTS && eldest.hasNext()) {
+                if (eldest.next().inFlight() == 0) {
+                    eldest.remove();
+                }
+            }
+            return limit;
+        }
+    }
+
+    /**
+     * Whether {@code limit}, on which the caller has just taken a slot, is still the host's. Once
+     * it holds a slot it is busy and can no longer be dropped, so a true answer stays true.
+     */
+    private boolean isCurrent(String host, AdaptiveLimit limit) {
+        synchronized (hosts) {
+            return hosts.get(host) == limit;
+        }
+    }
+
+    private IOException timeout(String host) {
+        timeouts.increment();
+        return new IOException("No fetch slot for " + host + " within " + maxWaitNanos / 1_000_000 + " ms");
+    }
+
+    /** Whether a failed request suggests the origin or the path to it is overloaded. */
+    static boolean overload(IOException error) {
+        if (error instanceof HttpStatusException status) {
+            return status.getStatusCode() == 429 || status.getStatusCode() >= 500;
+        }
+        return error instanceof SocketTimeoutException || error instanceof SocketException;
+    }
+
+    /** One request's slot. Report how it went once the response headers are in, then release it. */
+    public final class Permit {
+
+        private final AdaptiveLimit hostLimit;
+        private boolean released;
+
+        private Permit(AdaptiveLimit hostLimit) {
+            this.hostLimit = hostLimit;
+        }
+
+        public void onResponse(long rttNanos) {
+            hostLimit.onSample(rttNanos, false);
+            global.onSample(rttNanos, false);
+        }
+
+        public void onFailure(IOException error, long rttNanos) {
+            boolean dropped = overload(error);
+            hostLimit.onSample(rttNanos, dropped);
+            global.onSample(rttNanos, dropped);
+        }
+
+        public void release() {
+            if (!released) {
+                released = true;
+                hostLimit.release();
+                global.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import org.jsoup.HttpStatusException;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Which fetch failures are retried and how long to wait in between. Page fetches are GETs, so a
+ * request that failed before a usable response arrived can be repeated safely: connection
+ * refused or reset, and 500/502/503/504. Timeouts are not retried, since a blackholed host would
+ * only make the caller wait another full timeout; the circuit breaker deals with those. Waits use
+ * full jitter, a random delay up to {@code base * 2^attempt} capped at {@code max}, so retries
+ * from many threads do not arrive at a recovering host together.
+ */
+@Component
+public class FetchRetryPolicy {
+
+    private final MeterRegistry registry;
+    private final int maxRetries;
+    private final long baseMs;
+    private final long maxMs;
+
+    public FetchRetryPolicy(MeterRegistry registry,
+                            @Value("${metasnap.fetch.retries:2}") int maxRetries,
+                            @Value("${metasnap.fetch.retry-base:200ms}") Duration base,
+                            @Value("${metasnap.fetch.retry-max:2s}") Duration max) {
+        this.registry = registry;
+        this.maxRetries = maxRetries;
+        this.baseMs = base.toMillis();
+        this.maxMs = max.toMillis();
+    }
+
+    /** True if {@code attempt} (0 for the first) failed with {@code error} and should be repeated. */
+    public boolean shouldRetry(IOException error, int attempt) {
+        if (attempt >= maxRetries || !retryable(error)) {
+            return false;
+        }
+        registry.counter("metasnap.fetch.retries", "cause", cause(error)).increment();
+        return true;
+    }
+
+    public void backoff(int attempt) throws InterruptedIOException {
+        long cap = Math.min(maxMs, baseMs << Math.min(attempt, 20));
+        if (cap <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+
+    /** Whether the failure says something about the host's health, as opposed to the page. */
+    static boolean hostFailure(IOException error) {
+        if (error instanceof HttpStatusException status) {
+            return status.getStatusCode() >= 500;
+        }
+        return !(error instanceof UnsupportedMimeTypeException) && !(error instanceof HostUnavailableException);
+    }
+
+    static boolean retryable(IOException error) {
+        if (error instanceof HttpStatusException status) {
+            int code = status.getStatusCode();
+            return code == 500 || code == 502 || code == 503 || code == 504;
+        }
+        return error instanceof SocketException; // refused, reset, no route; timeouts are not SocketExceptions
+    }
+
+    private static String cause(IOException error) {
+        return error instanceof HttpStatusException status ? String.valueOf(status.getStatusCode()) : "connection";
+    }
+}
@@ -0,0 +1,25 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import com.metasnap.metasnap_backend.dto.RedirectHop;
+import java.util.List;
+import org.jsoup.nodes.Document;
+
+/**
+ * The parsed final page plus the redirect hops that led to it (empty when there were none).
+ * {@code fetchNanos} is the time spent waiting for response headers across all hops and
+ * {@code parseNanos} the time reading and parsing the final body; {@code contentLength} is -1
+ * when the server did not send one, while {@code bytesRead} is what was actually read of the
+ * decoded body, which is all of it unless a stop condition ended the parse early.
+ */
+public record FetchedPage(Document document, String finalUrl, List<RedirectHop> redirects,
+                          long fetchNanos, long parseNanos, long contentLength, long bytesRead) {
+
+    public FetchedPage(Document document, String finalUrl, List<RedirectHop> redirects) {
+        this(document, finalUrl, redirects, 0, 0, -1, 0);
+    }
+
+    /** Bytes on the wire: the Content-Length when sent, else the decoded bytes read. */
+    public long transferBytes() {
+        return contentLength >= 0 ? contentLength : bytesRead;
+    }
+}
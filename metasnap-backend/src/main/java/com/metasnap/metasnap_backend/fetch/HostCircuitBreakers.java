@@ -0,0 +1,160 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * One circuit breaker per origin host. After {@code metasnap.fetch.breaker.failures} host failures
+ * (connection errors, timeouts, 5xx) without a success in between and within
+ * {@code metasnap.fetch.breaker.window} of the first one, the breaker opens and fetches of that
+ * host fail at once with {@link HostUnavailableException}; failures spread further apart start a
+ * new count. Once {@code metasnap.fetch.breaker.open-for} has passed a single request is let
+ * through half-open: success closes the breaker, failure opens it again. Only hosts with recent
+ * failures have an entry, and the healthy path is one map lookup. Entries whose window has run
+ * out, and open breakers no request has come back for, are evicted periodically, so hosts that
+ * failed once and were never fetched again do not accumulate.
+ *
+ * Metrics: {@code metasnap.fetch.breaker.transitions} (tags {@code from}, {@code to}),
+ * {@code metasnap.fetch.breaker.rejected}, and {@code metasnap.fetch.breaker.hosts} per
+ * {@code state}.
+ */
+@Component
+public class HostCircuitBreakers {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** {@code since} is the first failure of the window when closed, else when the state began. */
+    private record Breaker(State state, int failures, long since) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(HostCircuitBreakers.class);
+
+    private final MeterRegistry registry;
+    private final int failureThreshold;
+    private final long openMs;
+    private final long windowMs;
+    private final Counter rejected;
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    public HostCircuitBreakers(MeterRegistry registry,
+                               @Value("${metasnap.fetch.breaker.failures:5}") int failureThreshold,
+                               @Value("${metasnap.fetch.breaker.open-for:30s}") Duration openFor,
+                               @Value("${metasnap.fetch.breaker.window:1m}") Duration window) {
+        this.registry = registry;
+        this.failureThreshold = failureThreshold;
+        this.openMs = openFor.toMillis();
+        this.windowMs = window.toMillis();
+        this.rejected = registry.counter("metasnap.fetch.breaker.rejected");
+        for (State state : new State[]{State.OPEN, State.HALF_OPEN}) {
+            Gauge.builder("metasnap.fetch.breaker.hosts", breakers,
+                            map -> map.values().stream().filter(b -> b.state() == state).count())
+                    .tag("state", state.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+    }
+
+    /** Returns normally if a request to {@code host} may go ahead. */
+    public void acquire(String host) throws HostUnavailableException {
+        Breaker current = breakers.get(host);
+        if (current == null || current.state() == State.CLOSED) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long[] retryAfter = {0};
+        breakers.computeIfPresent(host, (h, breaker) -> {
+            if (breaker.state() == State.CLOSED) {
+                return breaker;
+            }
+            // Open long enough: let one probe through. A half-open probe that never reported
+            // back is replaced the same way after another open period.
+            if (now - breaker.since() >= openMs) {
+                return transition(h, breaker, new Breaker(State.HALF_OPEN, breaker.failures(), now));
+            }
+            retryAfter[0] = breaker.since() + openMs - now;
+            return breaker;
+        });
+        if (retryAfter[0] > 0) {
+            rejected.increment();
+            throw new HostUnavailableException(host, retryAfter[0]);
+        }
+    }
+
+    public void onSuccess(String host) {
+        Breaker current = breakers.get(host);
+        if (current == null) {
+            return;
+        }
+        breakers.computeIfPresent(host, (h, breaker) -> {
+            transition(h, breaker, new Breaker(State.CLOSED, 0, 0));
+            return null;
+        });
+    }
+
+    public void onFailure(String host) {
+        long now = System.currentTimeMillis();
+        breakers.compute(host, (h, breaker) -> {
+            if (breaker == null || breaker.state() == State.CLOSED && now - breaker.since() >= windowMs) {
+                breaker = new Breaker(State.CLOSED, 0, now); // first failure of a new window
+            }
+            return switch (breaker.state()) {
+                case CLOSED -> breaker.failures() + 1 >= failureThreshold
+                        ? transition(h, breaker, new Breaker(State.OPEN, breaker.failures() + 1, now))
+                        : new Breaker(State.CLOSED, breaker.failures() + 1, breaker.since());
+                case HALF_OPEN -> transition(h, breaker, new Breaker(State.OPEN, breaker.failures() + 1, now));
+                case OPEN -> breaker; // a request started before the breaker opened
+            };
+        });
+    }
+
+    public State state(String host) {
+        Breaker breaker = breakers.get(host);
+        return breaker != null ? breaker.state() : State.CLOSED;
+    }
+
+    /** Hosts with an entry, i.e. recent failures or a breaker that is not closed. */
+    public int size() {
+        return breakers.size();
+    }
+
+    /**
+     * Drops closed entries whose failure window has passed, and open or half-open ones untouched
+     * for an open period plus a window: the next request to such a host is let through as if
+     * half-open. Removal is conditional on the entry being unchanged, so it never races a
+     * concurrent update. Returns the number of entries dropped.
+     */
+    @Scheduled(fixedDelayString = "${metasnap.fetch.breaker.eviction-interval:60000}")
+    public int evictIdle() {
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+        for (Map.Entry<String, Breaker> entry : breakers.entrySet()) {
+            Breaker breaker = entry.getValue();
+            long idleFor = breaker.state() == State.CLOSED ? windowMs : openMs + windowMs;
+            if (now - breaker.since() >= idleFor && breakers.remove(entry.getKey(), breaker)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private Breaker transition(String host, Breaker from, Breaker to) {
+        if (from.state() != to.state()) {
+            registry.counter("metasnap.fetch.breaker.transitions",
+                    "from", from.state().name().toLowerCase(Locale.ROOT),
+                    "to", to.state().name().toLowerCase(Locale.ROOT)).increment();
+            if (to.state() == State.OPEN && from.state() == State.CLOSED) {
+                log.warn("Circuit opened for {} after {} consecutive failures", host, to.failures());
+            }
+        }
+        return to;
+    }
+}
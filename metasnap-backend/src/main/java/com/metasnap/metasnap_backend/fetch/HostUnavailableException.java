@@ -0,0 +1,20 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.io.IOException;
+
+/** Thrown instead of contacting a host whose circuit breaker is open. */
+public class HostUnavailableException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String host;
+
+    public HostUnavailableException(String host, long retryAfterMs) {
+        super("Host " + host + " is failing; not retrying for another " + Math.max(1, retryAfterMs / 1000) + "s");
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
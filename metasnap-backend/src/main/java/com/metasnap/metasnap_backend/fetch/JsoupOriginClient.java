@@ -0,0 +1,109 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Predicate;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.StreamParser;
+import org.springframework.util.unit.DataSize;
+
+/** The live client: a jsoup GET whose body is only read when one of the parse methods runs. */
+public class JsoupOriginClient implements OriginClient {
+
+    public static final String USER_AGENT = "Mozilla/5.0 (compatible; MetaSnapBot/1.0)";
+    static final int TIMEOUT_MS = 10000;
+
+    private final int maxBodySize;
+
+    public JsoupOriginClient(DataSize maxBodySize) {
+        this.maxBodySize = (int) Math.min(Integer.MAX_VALUE, maxBodySize.toBytes());
+    }
+
+    @Override
+    public OriginResponse get(String url) throws IOException {
+        Live live = new Live();
+        Connection connection = connect(url);
+        connection.onResponseProgress((processed, total, percent, response) -> live.bytesRead = processed);
+        live.response = connection.execute();
+        return live;
+    }
+
+    Connection.Response execute(String url) throws IOException {
+        return connect(url).execute();
+    }
+
+    private Connection connect(String url) {
+        return Jsoup.connect(url)
+                .userAgent(USER_AGENT)
+                .timeout(TIMEOUT_MS)
+                .maxBodySize(maxBodySize)
+                .followRedirects(false);
+    }
+
+    private static final class Live implements OriginResponse {
+
+        private Connection.Response response;
+        private volatile long bytesRead;
+        private boolean consumed; // the body was handed to jsoup, which closes it when done
+
+        @Override
+        public int status() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String header(String name) {
+            return response.header(name);
+        }
+
+        @Override
+        public Document parse() throws IOException {
+            consumed = true;
+            return response.parse();
+        }
+
+        @Override
+        public Document parseUntil(Predicate<Element> enough) throws IOException {
+            consumed = true;
+            try (StreamParser streamParser = response.streamParser()) {
+                Iterator<Element> elements = streamParser.iterator();
+                while (elements.hasNext()) {
+                    if (enough.test(elements.next())) {
+                        streamParser.stop();
+                        break;
+                    }
+                }
+                return streamParser.document();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public OriginResponse buffered() throws IOException {
+            consumed = true;
+            response.readFully();
+            return this;
+        }
+
+        @Override
+        public long bytesRead() {
+            return bytesRead;
+        }
+
+        @Override
+        public void close() {
+            if (consumed) return;
+            consumed = true;
+            try {
+                response.bodyStream().close();
+            } catch (IOException e) {
+                // the connection is dropped either way
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.OptionalLong;
+
+/**
+ * Where {@link PageFetcher} gets origin responses from: the network ({@link JsoupOriginClient}),
+ * the network while writing a cassette ({@link RecordingOriginClient}), or a cassette alone
+ * ({@link ReplayOriginClient}). One call is one GET; redirects are returned, not followed, and
+ * statuses of 400 and above are thrown as {@link org.jsoup.HttpStatusException}.
+ *
+ * {@link ResourceSizeProbe} asks the client first too, so a replay never probes the network and
+ * a recording keeps the sizes it probed.
+ */
+public interface OriginClient extends Closeable {
+
+    OriginResponse get(String url) throws IOException;
+
+    /**
+     * Transfer size of a page resource if this client knows it without the network ({@code -1}
+     * when it knows the size cannot be found), or empty to have the origin probed.
+     */
+    default OptionalLong knownSize(String url) {
+        return OptionalLong.empty();
+    }
+
+    /** Called with each size a live probe found. */
+    default void sizeProbed(String url, long bytes) throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,41 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Predicate;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+/**
+ * Status, headers and a body that can be parsed once, either whole or until a stop condition. A
+ * response whose body is not parsed, such as a redirect, must be {@link #close() closed} so its
+ * connection is released.
+ */
+public interface OriginResponse extends Closeable {
+
+    int status();
+
+    /** First value of the header, matched case-insensitively, or null. */
+    String header(String name);
+
+    Document parse() throws IOException;
+
+    /** Parses until {@code enough} accepts a completed element; see {@link PageFetcher#fetch(String, Predicate)}. */
+    Document parseUntil(Predicate<Element> enough) throws IOException;
+
+    /**
+     * Reads the rest of the body into memory so it can be parsed once the connection is no longer
+     * needed; returns the response to parse from then on. A no-op for bodies already in memory.
+     */
+    default OriginResponse buffered() throws IOException {
+        return this;
+    }
+
+    /** Body bytes read so far (after any Content-Encoding is decoded), e.g. by a finished parse. */
+    long bytesRead();
+
+    /** Releases the connection if the body was never read; a no-op otherwise. */
+    @Override
+    default void close() {
+    }
+}
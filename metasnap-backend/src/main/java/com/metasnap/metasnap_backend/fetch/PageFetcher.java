@@ -0,0 +1,221 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import com.metasnap.metasnap_backend.diagnostics.FetchEvent;
+import com.metasnap.metasnap_backend.diagnostics.ParseEvent;
+import com.metasnap.metasnap_backend.dto.RedirectHop;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fetches a page and follows redirects itself so every hop is visible: status, Location and
+ * latency are recorded, loops and overly long chains fail the fetch, and permanent hops are
+ * served from the {@link RedirectCache} without a round trip.
+ *
+ * Callers that only need part of the page pass a stop condition: the body is then parsed as it
+ * arrives and the connection is closed as soon as the condition accepts a completed element, so
+ * the rest of the page is neither downloaded nor parsed.
+ *
+ * Each request goes through the host's {@link HostCircuitBreakers} entry and transient failures
+ * are retried per {@link FetchRetryPolicy}. Only the request up to its response headers is
+ * retried; a body that fails midway fails the fetch, since the stop condition has already seen
+ * part of it.
+ *
+ * Each request attempt takes a {@link FetchConcurrencyLimiter} slot for its host and gives it
+ * back before any retry backoff, so waiting never occupies a slot. A whole-page fetch reads the
+ * body into memory and releases the slot before parsing; a streamed fetch reads the connection
+ * while it parses, so it keeps the slot until the stop condition ends the download.
+ *
+ * Requests go to the configured {@link OriginClient}, which is the network unless a cassette is
+ * being recorded or replayed.
+ */
+@Component
+public class PageFetcher {
+
+    private final RedirectCache redirectCache;
+    private final OriginClient originClient;
+    private final FetchRetryPolicy retryPolicy;
+    private final HostCircuitBreakers breakers;
+    private final FetchConcurrencyLimiter limiter;
+    private final int maxRedirects;
+
+    public PageFetcher(RedirectCache redirectCache,
+                       OriginClient originClient,
+                       FetchRetryPolicy retryPolicy,
+                       HostCircuitBreakers breakers,
+                       FetchConcurrencyLimiter limiter,
+                       @Value("${metasnap.redirects.max-hops:10}") int maxRedirects) {
+        this.redirectCache = redirectCache;
+        this.originClient = originClient;
+        this.retryPolicy = retryPolicy;
+        this.breakers = breakers;
+        this.limiter = limiter;
+        this.maxRedirects = maxRedirects;
+    }
+
+    private interface BodyParser {
+        Document parse(OriginResponse response) throws IOException;
+    }
+
+    public FetchedPage fetch(String url) throws IOException {
+        return fetchWith(url, OriginResponse::parse, false);
+    }
+
+    /**
+     * Fetches the page but stops parsing after the first completed element (elements complete
+     * when their end tag is read) that {@code enough} accepts. The returned document holds
+     * everything parsed up to that point.
+     */
+    public FetchedPage fetch(String url, Predicate<Element> enough) throws IOException {
+        return fetchWith(url, response -> response.parseUntil(enough), true);
+    }
+
+    private FetchedPage fetchWith(String url, BodyParser parser, boolean streamed) throws IOException {
+        List<RedirectHop> chain = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        String current = url;
+        long fetchNanos = 0;
+        while (true) {
+            if (!visited.add(current)) {
+                throw new IOException("Redirect loop detected at " + current);
+            }
+            RedirectCache.Entry cached = redirectCache.get(current);
+            if (cached == null && chain.size() >= maxRedirects) {
+                throw new IOException("Too many redirects (more than " + maxRedirects + ")");
+            }
+            if (cached != null) {
+                chain.add(hop(current, cached.status(), cached.location(), 0, true));
+                current = cached.location();
+                continue;
+            }
+            String target;
+            FetchEvent fetchEvent = new FetchEvent();
+            fetchEvent.begin();
+            long start = System.nanoTime();
+            Exchange exchange = execute(current);
+            FetchConcurrencyLimiter.Permit permit = exchange.permit();
+            OriginResponse response = exchange.response();
+            try {
+                long elapsed = System.nanoTime() - start;
+                fetchNanos += elapsed;
+                long latencyMs = elapsed / 1_000_000;
+                int status = response.status();
+                fetchEvent.end();
+                if (fetchEvent.shouldCommit()) {
+                    fetchEvent.url = current;
+                    fetchEvent.status = status;
+                    fetchEvent.commit();
+                }
+                String location = response.header("Location");
+                if (!isRedirect(status) || location == null || location.isBlank()) {
+                    long contentLength = contentLength(response);
+                    if (!streamed) {
+                        long readStart = System.nanoTime();
+                        response = response.buffered();
+                        fetchNanos += System.nanoTime() - readStart;
+                        permit.release();
+                    }
+                    ParseEvent parseEvent = new ParseEvent();
+                    parseEvent.begin();
+                    long parseStart = System.nanoTime();
+                    Document document = parser.parse(response);
+                    long parseNanos = System.nanoTime() - parseStart;
+                    parseEvent.end();
+                    if (parseEvent.shouldCommit()) {
+                        parseEvent.url = current;
+                        parseEvent.contentLength = contentLength;
+                        parseEvent.bytesRead = response.bytesRead();
+                        parseEvent.commit();
+                    }
+                    return new FetchedPage(document, current, chain, fetchNanos, parseNanos, contentLength,
+                            response.bytesRead());
+                }
+                target = new URL(new URL(current), location.trim()).toExternalForm();
+                chain.add(hop(current, status, target, latencyMs, false));
+                if (status == 301 || status == 308) {
+                    redirectCache.putPermanent(current, status, target);
+                }
+            } finally {
+                response.close(); // a redirect's body is never read; give its connection back
+                permit.release();
+            }
+            current = target;
+        }
+    }
+
+    /** A response with its headers in, and the slot its body is read under. */
+    private record Exchange(OriginResponse response, FetchConcurrencyLimiter.Permit permit) {
+    }
+
+    private Exchange execute(String url) throws IOException {
+        String host = host(url);
+        for (int attempt = 0; ; attempt++) {
+            breakers.acquire(host);
+            FetchConcurrencyLimiter.Permit permit = limiter.acquire(host);
+            long start = System.nanoTime();
+            try {
+                OriginResponse response = originClient.get(url);
+                permit.onResponse(System.nanoTime() - start);
+                breakers.onSuccess(host);
+                return new Exchange(response, permit);
+            } catch (IOException e) {
+                permit.onFailure(e, System.nanoTime() - start);
+                permit.release();
+                if (FetchRetryPolicy.hostFailure(e)) {
+                    breakers.onFailure(host);
+                } else {
+                    breakers.onSuccess(host);
+                }
+                if (!retryPolicy.shouldRetry(e, attempt)) {
+                    throw e;
+                }
+                retryPolicy.backoff(attempt);
+            } catch (RuntimeException e) {
+                permit.release();
+                throw e;
+            }
+        }
+    }
+
+    private static String host(String url) {
+        try {
+            String host = new URL(url).getHost();
+            return host.toLowerCase(Locale.ROOT);
+        } catch (MalformedURLException e) {
+            return url;
+        }
+    }
+
+    private static long contentLength(OriginResponse response) {
+        String header = response.header("Content-Length");
+        try {
+            return header != null ? Long.parseLong(header.trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static boolean isRedirect(int status) {
+        return status == 301 || status == 302 || status == 303 || status == 307 || status == 308;
+    }
+
+    private static RedirectHop hop(String url, int status, String location, long latencyMs, boolean cached) {
+        RedirectHop hop = new RedirectHop();
+        hop.setUrl(url);
+        hop.setStatus(status);
+        hop.setLocation(location);
+        hop.setLatencyMs(latencyMs);
+        hop.setCached(cached);
+        return hop;
+    }
+}
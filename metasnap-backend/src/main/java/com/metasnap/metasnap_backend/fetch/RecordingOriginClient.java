@@ -0,0 +1,84 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
+import org.jsoup.helper.DataUtil;
+
+/**
+ * Fetches from the network and appends every exchange to a cassette. Bodies are read whole (up
+ * to the body size limit) so they can be stored, which means stop conditions only save parsing
+ * while recording, not the download. Error statuses are recorded with an empty body and failures
+ * without a response with their message, so replay fails the same way.
+ *
+ * Resource sizes found by {@link ResourceSizeProbe} are recorded as bodiless entries under
+ * {@value #SIZE_PREFIX} plus the URL, holding the size as Content-Length.
+ */
+public class RecordingOriginClient implements OriginClient {
+
+    static final String SIZE_PREFIX = "size ";
+
+    private final JsoupOriginClient live;
+    private final CassetteWriter writer;
+
+    public RecordingOriginClient(JsoupOriginClient live, CassetteWriter writer) {
+        this.live = live;
+        this.writer = writer;
+    }
+
+    @Override
+    public OriginResponse get(String url) throws IOException {
+        long start = System.nanoTime();
+        Connection.Response response;
+        try {
+            response = live.execute(url);
+        } catch (HttpStatusException e) {
+            writer.append(new CassetteEntry(url, e.getStatusCode(), latencyMs(start), StandardCharsets.UTF_8.name(),
+                    Map.of(), ByteBuffer.allocate(0), null));
+            throw e;
+        } catch (IOException e) {
+            writer.append(new CassetteEntry(url, 0, 0, null, Map.of(), null,
+                    e.getClass().getSimpleName() + ": " + e.getMessage()));
+            throw e;
+        }
+        byte[] body = response.bodyAsBytes();
+        int latencyMs = latencyMs(start);
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(response.headers());
+        Charset charset = charset(url, response, body);
+        writer.append(new CassetteEntry(url, response.statusCode(), latencyMs, charset.name(), headers,
+                ByteBuffer.wrap(body), null));
+        return new BufferedOriginResponse(url, response.statusCode(), headers, charset, ByteBuffer.wrap(body));
+    }
+
+    @Override
+    public void sizeProbed(String url, long bytes) throws IOException {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.put("Content-Length", String.valueOf(bytes));
+        writer.append(new CassetteEntry(SIZE_PREFIX + url, 200, 0, StandardCharsets.UTF_8.name(), headers,
+                ByteBuffer.allocate(0), null));
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /** The charset jsoup settles on, including a {@code <meta charset>} or BOM in the body. */
+    private static Charset charset(String url, Connection.Response response, byte[] body) throws IOException {
+        if (body.length == 0) {
+            return StandardCharsets.UTF_8;
+        }
+        return DataUtil.load(new ByteArrayInputStream(body), response.charset(), url).outputSettings().charset();
+    }
+
+    private static int latencyMs(long start) {
+        return (int) ((System.nanoTime() - start) / 1_000_000);
+    }
+}
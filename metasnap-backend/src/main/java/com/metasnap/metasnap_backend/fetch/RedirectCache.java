@@ -0,0 +1,57 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers permanent (301/308) redirects so repeat analyses jump straight to the target
+ * instead of re-walking {@code http -> https -> www -> trailing slash} on every request.
+ * Entries expire after {@code metasnap.redirects.cache-ttl}; once {@code metasnap.redirects.cache-size}
+ * is reached, expired entries are purged and new hops are not cached until there is room.
+ */
+@Component
+public class RedirectCache {
+
+    record Entry(int status, String location, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private final int maxEntries;
+
+    public RedirectCache(@Value("${metasnap.redirects.cache-ttl:1h}") Duration ttl,
+                         @Value("${metasnap.redirects.cache-size:10000}") int maxEntries) {
+        this.ttlMs = ttl.toMillis();
+        this.maxEntries = maxEntries;
+    }
+
+    Entry get(String url) {
+        Entry entry = entries.get(url);
+        if (entry == null) return null;
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(url, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    void putPermanent(String url, int status, String location) {
+        if (entries.size() >= maxEntries) {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> entry.expiresAt() < now);
+            if (entries.size() >= maxEntries) return;
+        }
+        entries.put(url, new Entry(status, location, System.currentTimeMillis() + ttlMs));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,70 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.util.OptionalLong;
+import org.jsoup.HttpStatusException;
+
+/**
+ * Answers from a cassette without touching the network. Each response waits its recorded latency
+ * times {@code latencyScale} first; at {@code 0} (the default) analyses run at full CPU speed,
+ * which is what a throughput measurement wants, and at {@code 1} they see production timings.
+ * URLs that were not recorded fail like an unreachable host.
+ *
+ * Resource sizes come from the probes recorded with the cassette, or from a recorded body of the
+ * resource; any other resource has an unknown size.
+ */
+public class ReplayOriginClient implements OriginClient {
+
+    private final CassetteReader reader;
+    private final double latencyScale;
+
+    public ReplayOriginClient(CassetteReader reader, double latencyScale) {
+        this.reader = reader;
+        this.latencyScale = latencyScale;
+    }
+
+    @Override
+    public OriginResponse get(String url) throws IOException {
+        CassetteEntry entry = reader.get(url);
+        if (entry == null) {
+            throw new IOException("No recording for " + url);
+        }
+        if (entry.error() != null) {
+            throw new IOException(entry.error());
+        }
+        long delayMs = Math.round(entry.latencyMs() * latencyScale);
+        if (delayMs > 0) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted replaying " + url);
+            }
+        }
+        if (entry.status() >= 400) {
+            throw new HttpStatusException("HTTP error fetching URL", entry.status(), url);
+        }
+        return new BufferedOriginResponse(url, entry.status(), entry.headers(), Charset.forName(entry.charset()),
+                entry.body());
+    }
+
+    @Override
+    public OptionalLong knownSize(String url) {
+        CassetteEntry probed = reader.get(RecordingOriginClient.SIZE_PREFIX + url);
+        if (probed != null && probed.headers().get("Content-Length") != null) {
+            return OptionalLong.of(Long.parseLong(probed.headers().get("Content-Length")));
+        }
+        CassetteEntry fetched = reader.get(url);
+        if (fetched != null && fetched.error() == null && fetched.status() / 100 == 2) {
+            return OptionalLong.of(fetched.body().remaining());
+        }
+        return OptionalLong.of(-1);
+    }
+
+    @Override
+    public void close() {
+        reader.close();
+    }
+}
@@ -0,0 +1,412 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.jsoup.HttpStatusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Finds the transfer size of page resources without downloading them: a HEAD request, then a
+ * one-byte ranged GET, and only as a last resort a full GET whose bytes are counted as they
+ * stream past.
+ *
+ * Requests are asynchronous and share the {@link FetchConcurrencyLimiter} with page fetches.
+ * Probes that find no free slot for their host wait in a per-host queue and are started when one
+ * of them finishes, or retried shortly when the slots are held by page fetches, so no thread is
+ * ever parked waiting for a host; {@link #probeAll} gives up after {@code metasnap.weight.timeout}
+ * and reports what has not finished by then as unknown. The {@link OriginClient} is asked first,
+ * so a replayed cassette answers without the network and a recording keeps what was probed.
+ *
+ * Sizes are cached across analyses by URL. Within {@code metasnap.weight.cache-ttl} they are used
+ * without a request; after that they are revalidated with the stored ETag or Last-Modified, and a
+ * 304 keeps the size. Concurrent probes of the same URL share one request, so a site audit probes
+ * each shared stylesheet or script bundle once.
+ */
+@Component
+public class ResourceSizeProbe {
+
+    /** Size of one resource in bytes ({@code -1} when unknown); {@code cached} if no full probe ran. */
+    public record ResourceSize(String url, long bytes, boolean cached) {
+    }
+
+    private record Entry(long bytes, String etag, String lastModified, long checkedAt, boolean revalidated) {
+    }
+
+    private record Probe(String url, URI uri, Entry previous, CompletableFuture<Entry> future) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceSizeProbe.class);
+    private static final String ACCEPT_ENCODING = "gzip, deflate, br";
+    private static final long SLOT_RETRY_MS = 20;
+
+    private final OriginClient originClient;
+    private final FetchConcurrencyLimiter limiter;
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Executor retryExecutor;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long timeoutNanos;
+    private final Map<String, HostQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+
+    public ResourceSizeProbe(OriginClient originClient,
+                             FetchConcurrencyLimiter limiter,
+                             @Value("${metasnap.weight.threads:4}") int threads,
+                             @Value("${metasnap.weight.cache-ttl:1h}") Duration ttl,
+                             @Value("${metasnap.weight.cache-size:100000}") int maxEntries,
+                             @Value("${metasnap.weight.max-download:20000000}") long maxBytes,
+                             @Value("${metasnap.weight.timeout:20s}") Duration timeout) {
+        this.originClient = originClient;
+        this.limiter = limiter;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "weight-probe-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retryExecutor = CompletableFuture.delayedExecutor(SLOT_RETRY_MS, TimeUnit.MILLISECONDS, executor);
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        this.ttlMs = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * Probes all URLs concurrently and returns their sizes in the same order. Waits at most the
+     * configured timeout in total; sizes not found by then are {@code -1}.
+     */
+    public List<ResourceSize> probeAll(List<String> urls) {
+        List<CompletableFuture<ResourceSize>> futures = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            futures.add(probe(url));
+        }
+        long deadline = System.nanoTime() + timeoutNanos;
+        List<ResourceSize> sizes = new ArrayList<>(urls.size());
+        boolean interrupted = false;
+        for (int i = 0; i < urls.size(); i++) {
+            ResourceSize size = null;
+            if (!interrupted) {
+                try {
+                    size = futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException | ExecutionException e) {
+                    // reported as unknown; a probe still running keeps filling the cache
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    interrupted = true;
+                }
+            }
+            sizes.add(size != null ? size : new ResourceSize(urls.get(i), -1, false));
+        }
+        return sizes;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    CompletableFuture<ResourceSize> probe(String url) {
+        OptionalLong known = originClient.knownSize(url);
+        if (known.isPresent()) {
+            return CompletableFuture.completedFuture(new ResourceSize(url, known.getAsLong(), false));
+        }
+        while (true) {
+            CompletableFuture<Entry> existing = entries.get(url);
+            Entry previous = null;
+            if (existing != null) {
+                if (!existing.isDone()) {
+                    return existing.thenApply(entry -> new ResourceSize(url, entry.bytes(), true));
+                }
+                previous = existing.getNow(null);
+                if (System.currentTimeMillis() - previous.checkedAt() < ttlMs) {
+                    return CompletableFuture.completedFuture(new ResourceSize(url, previous.bytes(), true));
+                }
+            }
+            CompletableFuture<Entry> mine = new CompletableFuture<>();
+            boolean claimed = existing == null
+                    ? entries.putIfAbsent(url, mine) == null
+                    : entries.replace(url, existing, mine);
+            if (!claimed) continue;
+            URI uri;
+            try {
+                uri = URI.create(url);
+            } catch (IllegalArgumentException e) {
+                finish(new Probe(url, null, previous, mine), Optional.empty());
+                return CompletableFuture.completedFuture(new ResourceSize(url, -1, false));
+            }
+            Probe probe = new Probe(url, uri, previous, mine);
+            String host = String.valueOf(uri.getHost()).toLowerCase(Locale.ROOT);
+            queues.computeIfAbsent(host, HostQueue::new).add(probe);
+            return mine.thenApply(entry -> new ResourceSize(url, entry.bytes(), entry.revalidated()));
+        }
+    }
+
+    /**
+     * Probes of one host waiting for a fetch slot. A queue removes itself from {@link #queues}
+     * once empty; a probe added to it just before still runs, since adding always pumps.
+     */
+    private final class HostQueue {
+
+        private final String host;
+        private final ArrayDeque<Probe> waiting = new ArrayDeque<>();
+        private boolean retryScheduled;
+
+        HostQueue(String host) {
+            this.host = host;
+        }
+
+        void add(Probe probe) {
+            synchronized (this) {
+                waiting.add(probe);
+            }
+            pump();
+        }
+
+        /** Starts waiting probes while slots are free; never blocks. */
+        void pump() {
+            while (true) {
+                Probe next;
+                FetchConcurrencyLimiter.Permit permit;
+                synchronized (this) {
+                    if (waiting.isEmpty()) {
+                        queues.remove(host, this);
+                        return;
+                    }
+                    permit = limiter.tryAcquire(host);
+                    if (permit == null) {
+                        // Our own probes call pump when they finish; page fetches do not, so poll
+                        if (!retryScheduled) {
+                            retryScheduled = true;
+                            retryExecutor.execute(this::retry);
+                        }
+                        return;
+                    }
+                    next = waiting.poll();
+                }
+                run(next, permit).whenComplete((entry, error) -> pump());
+            }
+        }
+
+        private void retry() {
+            synchronized (this) {
+                retryScheduled = false;
+            }
+            pump();
+        }
+    }
+
+    private CompletableFuture<Optional<Entry>> run(Probe probe, FetchConcurrencyLimiter.Permit permit) {
+        long start = System.nanoTime();
+        CompletableFuture<Optional<Entry>> result;
+        try {
+            result = fetchSize(probe, permit, start);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.handle((entry, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof IOException io) permit.onFailure(io, System.nanoTime() - start);
+                log.debug("Probing {} failed: {}", probe.url(), cause.toString());
+            }
+            permit.release();
+            Optional<Entry> loaded = error != null ? Optional.empty() : entry;
+            finish(probe, loaded);
+            return loaded;
+        });
+    }
+
+    private CompletableFuture<Optional<Entry>> fetchSize(Probe probe, FetchConcurrencyLimiter.Permit permit, long start) {
+        Entry previous = probe.previous();
+        HttpRequest.Builder head = request(probe.uri()).method("HEAD", HttpRequest.BodyPublishers.noBody());
+        if (previous != null && previous.etag() != null) head.header("If-None-Match", previous.etag());
+        if (previous != null && previous.lastModified() != null) head.header("If-Modified-Since", previous.lastModified());
+        return client.sendAsync(head.build(), HttpResponse.BodyHandlers.discarding()).thenCompose(headResponse -> {
+            sample(permit, probe.url(), headResponse.statusCode(), System.nanoTime() - start);
+            long now = System.currentTimeMillis();
+            if (headResponse.statusCode() == 304 && previous != null) {
+                return CompletableFuture.completedFuture(Optional.of(
+                        new Entry(previous.bytes(), previous.etag(), previous.lastModified(), now, true)));
+            }
+            long length = headResponse.headers().firstValueAsLong("Content-Length").orElse(-1);
+            if (headResponse.statusCode() / 100 == 2 && length >= 0) {
+                return CompletableFuture.completedFuture(Optional.of(entry(length, headResponse, now)));
+            }
+            HttpRequest ranged = request(probe.uri()).header("Range", "bytes=0-0").GET().build();
+            return sendRetryingOnce(ranged, info -> new CountingSubscriber(maxBytes)).thenApply(response -> {
+                if (response.statusCode() == 206) {
+                    long total = totalFromContentRange(response.headers().firstValue("Content-Range").orElse(""));
+                    if (total >= 0) return Optional.of(entry(total, response, now));
+                }
+                if (response.statusCode() / 100 == 2) {
+                    return Optional.of(entry(response.body(), response, now));
+                }
+                return Optional.<Entry>empty();
+            });
+        });
+    }
+
+    /**
+     * Sends a request, repeating it once if the connection fails. After a HEAD the server answered
+     * with an error, the pooled keep-alive connection it came back on is often already closed.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> sendRetryingOnce(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        return client.sendAsync(request, handler)
+                .handle((response, error) -> error == null
+                        ? CompletableFuture.completedFuture(response)
+                        : connectionFailed(error) ? client.sendAsync(request, handler) : CompletableFuture.<HttpResponse<T>>failedFuture(error))
+                .thenCompose(Function.identity());
+    }
+
+    private static boolean connectionFailed(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof IOException && !(cause instanceof HttpTimeoutException);
+    }
+
+    /** Feeds the response time to the limiter, reporting 429 and 5xx as overload like page fetches do. */
+    private static void sample(FetchConcurrencyLimiter.Permit permit, String url, int status, long rttNanos) {
+        if (status == 429 || status >= 500) {
+            permit.onFailure(new HttpStatusException("HTTP error probing resource", status, url), rttNanos);
+        } else {
+            permit.onResponse(rttNanos);
+        }
+    }
+
+    private void finish(Probe probe, Optional<Entry> loaded) {
+        Entry entry = loaded.orElse(new Entry(-1, null, null, System.currentTimeMillis(), false));
+        if (loaded.isEmpty()) {
+            entries.remove(probe.url(), probe.future()); // unknown sizes are retried next time
+        } else if (!entry.revalidated()) {
+            try {
+                originClient.sizeProbed(probe.url(), entry.bytes());
+            } catch (IOException e) {
+                log.warn("Could not record size of {}: {}", probe.url(), e.getMessage());
+            }
+        }
+        probe.future().complete(entry);
+        if (entries.size() > maxEntries) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(future -> future.isDone() && now - future.getNow(null).checkedAt() >= ttlMs);
+        var iterator = entries.values().iterator();
+        while (entries.size() > maxEntries * 9 / 10 && iterator.hasNext()) {
+            if (iterator.next().isDone()) iterator.remove();
+        }
+    }
+
+    private static HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(10))
+                .header("User-Agent", JsoupOriginClient.USER_AGENT)
+                .header("Accept-Encoding", ACCEPT_ENCODING);
+    }
+
+    private static Entry entry(long bytes, HttpResponse<?> response, long now) {
+        return new Entry(bytes, response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null), now, false);
+    }
+
+    static long totalFromContentRange(String contentRange) {
+        int slash = contentRange.lastIndexOf('/');
+        if (slash < 0) return -1;
+        try {
+            return Long.parseLong(contentRange.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1; // "bytes 0-0/*": total unknown
+        }
+    }
+
+    /** Counts body bytes without keeping them, cancelling the download once {@code max} is reached. */
+    private static final class CountingSubscriber implements HttpResponse.BodySubscriber<Long> {
+
+        private final long max;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private long count;
+
+        CountingSubscriber(long max) {
+            this.max = max;
+        }
+
+        @Override
+        public CompletionStage<Long> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer buffer : buffers) {
+                count += buffer.remaining();
+            }
+            if (count >= max) {
+                subscription.cancel();
+                result.complete(max);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            result.completeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(count);
+        }
+    }
+}
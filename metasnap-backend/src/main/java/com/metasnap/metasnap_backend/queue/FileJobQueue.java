@@ -0,0 +1,330 @@
+package com.metasnap.metasnap_backend.queue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.QueueStats;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link JobQueue} backed by a directory that several JVMs on the same machine can share.
+ *
+ * Every state is a directory and every transition is an atomic rename, which the filesystem
+ * guarantees only one process can win. A lease is a move from {@code pending/} to
+ * {@code leased/<id>~<expiresAt>~<worker>.json}; expired leases are moved back by whichever
+ * instance notices first. No locks or broker are involved, so throughput scales with the
+ * number of worker JVMs until the origins or the disk become the bottleneck.
+ *
+ * Results are kept for {@code metasnap.queue.result-retention} after completion and then purged.
+ */
+@Component
+public class FileJobQueue implements JobQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(FileJobQueue.class);
+    private static final String SUFFIX = ".json";
+    private static final char SEP = '~';
+    private static final int LEASE_SCAN_LIMIT = 64;
+    private static final long REAP_INTERVAL_MS = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final int maxAttempts;
+    private final Duration resultRetention;
+    private final Path tmp;
+    private final Path pending;
+    private final Path leased;
+    private final Path results;
+    private final Path dead;
+    private final AtomicLong lastReap = new AtomicLong();
+
+    public FileJobQueue(ObjectMapper objectMapper,
+                        @Value("${metasnap.queue.dir:${java.io.tmpdir}/metasnap-queue}") Path root,
+                        @Value("${metasnap.queue.max-attempts:5}") int maxAttempts,
+                        @Value("${metasnap.queue.result-retention:7d}") Duration resultRetention) {
+        this.objectMapper = objectMapper;
+        this.maxAttempts = maxAttempts;
+        this.resultRetention = resultRetention;
+        this.tmp = root.resolve("tmp");
+        this.pending = root.resolve("pending");
+        this.leased = root.resolve("leased");
+        this.results = root.resolve("results");
+        this.dead = root.resolve("dead");
+        try {
+            for (Path dir : new Path[]{tmp, pending, leased, results, dead}) {
+                Files.createDirectories(dir);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create queue directory " + root, e);
+        }
+    }
+
+    @Override
+    public String enqueue(String url, String tenant) {
+        String id = String.format("%013d-%s", System.currentTimeMillis(), UUID.randomUUID().toString().substring(0, 8));
+        write(pending.resolve(id + SUFFIX), new QueuedJob(id, url, tenant, 0, System.currentTimeMillis()));
+        return id;
+    }
+
+    @Override
+    public Optional<JobLease> lease(String workerId, Duration visibilityTimeout) {
+        maybeReap();
+        int scanned = 0;
+        try (DirectoryStream<Path> candidates = Files.newDirectoryStream(pending, "*" + SUFFIX)) {
+            for (Path candidate : candidates) {
+                if (++scanned > LEASE_SCAN_LIMIT) break;
+                String id = stripSuffix(candidate.getFileName().toString());
+                long expiresAt = System.currentTimeMillis() + visibilityTimeout.toMillis();
+                Path claimed = leased.resolve(leaseName(id, expiresAt, workerId));
+                if (!move(candidate, claimed)) continue; // another worker won this one
+                QueuedJob job = read(claimed, QueuedJob.class).nextAttempt();
+                if (job.attempts() > maxAttempts) {
+                    log.warn("Job {} for {} exceeded {} attempts, moving to dead letters", id, job.url(), maxAttempts);
+                    write(dead.resolve(id + SUFFIX), job);
+                    Files.deleteIfExists(claimed);
+                    continue;
+                }
+                write(claimed, job);
+                return Optional.of(new JobLease(job, workerId, expiresAt));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<JobLease> extend(JobLease lease, Duration visibilityTimeout) {
+        long expiresAt = System.currentTimeMillis() + visibilityTimeout.toMillis();
+        Path current = leasePath(lease);
+        Path extended = leased.resolve(leaseName(lease.job().id(), expiresAt, lease.workerId()));
+        if (!move(current, extended)) return Optional.empty();
+        return Optional.of(new JobLease(lease.job(), lease.workerId(), expiresAt));
+    }
+
+    @Override
+    public void complete(JobLease lease, AnalyzeResponse result) {
+        write(results.resolve(lease.job().id() + SUFFIX), new QueuedResult(lease.job().tenant(), result));
+        try {
+            Files.deleteIfExists(leasePath(lease));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void release(JobLease lease) {
+        move(leasePath(lease), pending.resolve(lease.job().id() + SUFFIX));
+    }
+
+    @Override
+    public String status(String id) {
+        if (!isValidId(id)) return "unknown";
+        if (Files.exists(results.resolve(id + SUFFIX))) return "completed";
+        if (Files.exists(pending.resolve(id + SUFFIX))) return "pending";
+        if (Files.exists(dead.resolve(id + SUFFIX))) return "dead";
+        try (DirectoryStream<Path> leases = Files.newDirectoryStream(leased, id + SEP + "*")) {
+            if (leases.iterator().hasNext()) return "leased";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return "unknown";
+    }
+
+    @Override
+    public Optional<AnalyzeResponse> result(String id) {
+        if (!isValidId(id)) return Optional.empty();
+        Path path = results.resolve(id + SUFFIX);
+        if (!Files.exists(path)) return Optional.empty();
+        return Optional.ofNullable(read(path, QueuedResult.class).result());
+    }
+
+    @Override
+    public boolean belongsTo(String id, String tenant) {
+        if (!isValidId(id)) return false;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                Path file = find(id);
+                if (file == null) return false;
+                String owner = file.startsWith(results)
+                        ? read(file, QueuedResult.class).tenant() : read(file, QueuedJob.class).tenant();
+                return Objects.equals(tenant, owner);
+            } catch (UncheckedIOException e) {
+                // the job moved on between finding and reading its file; look again
+                boolean moved = e.getCause() instanceof FileNotFoundException || e.getCause() instanceof NoSuchFileException;
+                if (!moved || attempt == 2) throw e;
+            }
+        }
+    }
+
+    @Override
+    public QueueStats stats() {
+        QueueStats stats = new QueueStats();
+        stats.setPending(count(pending));
+        stats.setLeased(count(leased));
+        stats.setCompleted(count(results));
+        stats.setDead(count(dead));
+        return stats;
+    }
+
+    /**
+     * Moves every expired lease back to pending. Safe to run from any number of JVMs at once. A
+     * lease file whose name cannot be parsed is moved to {@code dead/} as is, so it is neither
+     * retried forever nor left to break every scan.
+     */
+    public int reapExpired() {
+        long now = System.currentTimeMillis();
+        int reaped = 0;
+        try (DirectoryStream<Path> leases = Files.newDirectoryStream(leased, "*" + SUFFIX)) {
+            for (Path lease : leases) {
+                String name = lease.getFileName().toString();
+                String[] parts = stripSuffix(name).split(String.valueOf(SEP), 3);
+                long expiresAt = parts.length == 3 && isValidId(parts[0]) ? parseLong(parts[1]) : -1;
+                if (expiresAt < 0) {
+                    if (move(lease, dead.resolve(name))) {
+                        log.warn("Malformed lease file {}, moved to dead letters", name);
+                    }
+                    continue;
+                }
+                if (expiresAt > now) continue;
+                if (move(lease, pending.resolve(parts[0] + SUFFIX))) {
+                    log.info("Lease on job {} expired, making it visible again", parts[0]);
+                    reaped++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return reaped;
+    }
+
+    /** Deletes results completed longer than the retention ago; returns how many were removed. */
+    @Scheduled(fixedDelayString = "${metasnap.queue.purge-interval:3600000}")
+    public int purgeResults() {
+        FileTime cutoff = FileTime.fromMillis(System.currentTimeMillis() - resultRetention.toMillis());
+        int purged = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(results, "*" + SUFFIX)) {
+            for (Path result : entries) {
+                try {
+                    if (Files.getLastModifiedTime(result).compareTo(cutoff) < 0 && Files.deleteIfExists(result)) {
+                        purged++;
+                    }
+                } catch (NoSuchFileException e) {
+                    // purged by another instance
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (purged > 0) log.info("Purged {} queue results older than {}", purged, resultRetention);
+        return purged;
+    }
+
+    private void maybeReap() {
+        long now = System.currentTimeMillis();
+        long last = lastReap.get();
+        if (now - last >= REAP_INTERVAL_MS && lastReap.compareAndSet(last, now)) {
+            reapExpired();
+        }
+    }
+
+    /** The file job {@code id} is in right now, or null. */
+    private Path find(String id) {
+        for (Path dir : new Path[]{results, pending, dead}) {
+            Path file = dir.resolve(id + SUFFIX);
+            if (Files.exists(file)) return file;
+        }
+        try (DirectoryStream<Path> leases = Files.newDirectoryStream(leased, id + SEP + "*")) {
+            Iterator<Path> lease = leases.iterator();
+            return lease.hasNext() ? lease.next() : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path leasePath(JobLease lease) {
+        return leased.resolve(leaseName(lease.job().id(), lease.expiresAt(), lease.workerId()));
+    }
+
+    private static boolean isValidId(String id) {
+        return id != null && id.matches("[0-9A-Za-z-]+");
+    }
+
+    /** The non-negative number in {@code value}, or -1. */
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String leaseName(String id, long expiresAt, String workerId) {
+        return id + SEP + expiresAt + SEP + workerId.replace(SEP, '_').replace('/', '_') + SUFFIX;
+    }
+
+    private static String stripSuffix(String name) {
+        return name.substring(0, name.length() - SUFFIX.length());
+    }
+
+    /** Atomic rename; false when the source is gone, i.e. another process got there first. */
+    private static boolean move(Path from, Path to) {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            return false;
+        } catch (AtomicMoveNotSupportedException e) {
+            throw new IllegalStateException("Queue directory must be on a filesystem with atomic renames", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Writes via a temp file and rename so readers in other processes never see a partial file. */
+    private void write(Path target, Object value) {
+        try {
+            Path temp = Files.createTempFile(tmp, "write", SUFFIX);
+            objectMapper.writeValue(temp.toFile(), value);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T read(Path path, Class<T> type) {
+        try {
+            return objectMapper.readValue(path.toFile(), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long count(Path dir) {
+        long count = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path ignored : entries) count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,8 @@
+package com.metasnap.metasnap_backend.queue;
+
+/**
+ * Exclusive claim on a job until {@code expiresAt} (epoch millis). If the holder neither completes
+ * nor extends the lease in time the job becomes visible again and is redelivered.
+ */
+public record JobLease(QueuedJob job, String workerId, long expiresAt) {
+}
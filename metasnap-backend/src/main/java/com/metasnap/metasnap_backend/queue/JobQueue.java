@@ -0,0 +1,44 @@
+package com.metasnap.metasnap_backend.queue;
+
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.QueueStats;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Shared analysis job queue with at-least-once delivery. Consumers lease jobs for a visibility
+ * timeout; a lease that expires (because the worker died or stalled) makes the job available
+ * again, so results may be published more than once and must be idempotent.
+ */
+public interface JobQueue {
+
+    /** Adds a job for the URL and returns its id. */
+    default String enqueue(String url) {
+        return enqueue(url, null);
+    }
+
+    /** Adds a job for the URL on behalf of {@code tenant} and returns its id. */
+    String enqueue(String url, String tenant);
+
+    /** Claims the next available job, or returns empty when the queue has nothing visible. */
+    Optional<JobLease> lease(String workerId, Duration visibilityTimeout);
+
+    /** Pushes the lease expiry out; empty if the lease was already lost. */
+    Optional<JobLease> extend(JobLease lease, Duration visibilityTimeout);
+
+    /** Publishes the result and removes the job from the queue. */
+    void complete(JobLease lease, AnalyzeResponse result);
+
+    /** Gives the job back immediately so another worker can retry it. */
+    void release(JobLease lease);
+
+    /** Status of a job: pending, leased, completed, dead or unknown. */
+    String status(String id);
+
+    Optional<AnalyzeResponse> result(String id);
+
+    /** True if the job exists and was enqueued for {@code tenant} (null: without a tenant). */
+    boolean belongsTo(String id, String tenant);
+
+    QueueStats stats();
+}
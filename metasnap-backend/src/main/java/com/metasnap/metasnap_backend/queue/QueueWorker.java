@@ -0,0 +1,189 @@
+package com.metasnap.metasnap_backend.queue;
+
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.service.ExtractionStore;
+import com.metasnap.metasnap_backend.service.MetaAnalyzerService;
+import com.metasnap.metasnap_backend.service.ScoreReportService;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Worker mode: pulls jobs from the shared {@link JobQueue}, runs {@link MetaAnalyzerService}
+ * and publishes the result. Enabled with {@code metasnap.worker.enabled=true}; start as many
+ * instances against the same queue as needed. The flag is read at startup rather than through a
+ * bean condition so that AOT-processed and native builds can still switch worker mode on.
+ *
+ * While a job runs its lease is extended every third of the visibility timeout, so an analysis
+ * slower than the timeout is not redelivered to another worker and run twice.
+ */
+@Component
+public class QueueWorker implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(QueueWorker.class);
+    private static final long MAX_IDLE_SLEEP_MS = 1000;
+
+    private final JobQueue jobQueue;
+    private final MetaAnalyzerService metaAnalyzerService;
+    private final ScoreReportService scoreReportService;
+    private final ExtractionStore extractionStore;
+    private final boolean enabled;
+    private final int threads;
+    private final Duration visibilityTimeout;
+    private final String workerId;
+    private final List<Thread> running = new ArrayList<>();
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "queue-lease-renewer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean stopping;
+
+    public QueueWorker(JobQueue jobQueue,
+                       MetaAnalyzerService metaAnalyzerService,
+                       ScoreReportService scoreReportService,
+                       ExtractionStore extractionStore,
+                       @Value("${metasnap.worker.enabled:false}") boolean enabled,
+                       @Value("${metasnap.worker.threads:8}") int threads,
+                       @Value("${metasnap.queue.visibility-timeout:60s}") Duration visibilityTimeout) {
+        this.jobQueue = jobQueue;
+        this.metaAnalyzerService = metaAnalyzerService;
+        this.scoreReportService = scoreReportService;
+        this.extractionStore = extractionStore;
+        this.enabled = enabled;
+        this.threads = threads;
+        this.visibilityTimeout = visibilityTimeout;
+        this.workerId = ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    @Override
+    public synchronized void start() {
+        stopping = false;
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(this::runLoop, "queue-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            running.add(thread);
+        }
+        log.info("Queue worker {} started with {} threads", workerId, threads);
+    }
+
+    @Override
+    public synchronized void stop() {
+        stopping = true;
+        for (Thread thread : running) {
+            thread.interrupt();
+        }
+        long deadline = System.nanoTime() + visibilityTimeout.toNanos(); // one wait for all threads
+        for (Thread thread : running) {
+            try {
+                long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMs <= 0) break;
+                thread.join(remainingMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        running.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return !running.isEmpty();
+    }
+
+    /** Processes at most one job; returns false when nothing was available. */
+    boolean processNext(String threadWorkerId) {
+        Optional<JobLease> leased = jobQueue.lease(threadWorkerId, visibilityTimeout);
+        if (leased.isEmpty()) return false;
+        Renewal renewal = new Renewal(leased.get());
+        long period = Math.max(1, visibilityTimeout.toMillis() / 3);
+        ScheduledFuture<?> renewing = renewer.scheduleWithFixedDelay(renewal::extend, period, period, TimeUnit.MILLISECONDS);
+        try {
+            AnalyzeResponse response = metaAnalyzerService.analyzeUrl(leased.get().job().url());
+            renewing.cancel(false);
+            jobQueue.complete(renewal.finish(), response);
+            scoreReportService.record(leased.get().job().tenant(), response);
+            extractionStore.record(leased.get().job().tenant(), response);
+        } catch (RuntimeException e) {
+            renewing.cancel(false);
+            JobLease lease = renewal.finish();
+            log.warn("Job {} failed on attempt {}: {}", lease.job().id(), lease.job().attempts(), e.getMessage());
+            jobQueue.release(lease);
+        }
+        return true;
+    }
+
+    /**
+     * The current lease of a running job. The lease file is renamed on every extension, so the
+     * renewer and the worker thread hand it over under the lock, and a finished lease is no longer
+     * extended. A lost lease is still completed: the job may have been redelivered, but results
+     * are keyed by job id, so publishing twice is harmless.
+     */
+    private final class Renewal {
+
+        private JobLease lease;
+        private boolean stopped;
+
+        Renewal(JobLease lease) {
+            this.lease = lease;
+        }
+
+        synchronized void extend() {
+            if (stopped) return;
+            try {
+                Optional<JobLease> extended = jobQueue.extend(lease, visibilityTimeout);
+                if (extended.isPresent()) {
+                    lease = extended.get();
+                } else {
+                    stopped = true;
+                    log.warn("Lease on job {} was lost; it may be redelivered", lease.job().id());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not extend lease on job {}: {}", lease.job().id(), e.getMessage());
+            }
+        }
+
+        /** Stops renewing and returns the latest lease. */
+        synchronized JobLease finish() {
+            stopped = true;
+            return lease;
+        }
+    }
+
+    private void runLoop() {
+        String threadWorkerId = workerId + "-" + Thread.currentThread().getName();
+        long idleSleep = 50;
+        while (!stopping) {
+            try {
+                if (processNext(threadWorkerId)) {
+                    idleSleep = 50;
+                    continue;
+                }
+                Thread.sleep(idleSleep);
+                idleSleep = Math.min(MAX_IDLE_SLEEP_MS, idleSleep * 2);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("Queue worker loop error", e);
+            }
+        }
+    }
+}
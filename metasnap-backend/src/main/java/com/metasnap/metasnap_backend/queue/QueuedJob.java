@@ -0,0 +1,13 @@
+package com.metasnap.metasnap_backend.queue;
+
+/**
+ * A unit of work on the shared queue: one URL to analyze for a tenant (null without tenants).
+ * {@code attempts} counts deliveries, so a job that keeps killing its worker ends up
+ * dead-lettered instead of looping forever.
+ */
+public record QueuedJob(String id, String url, String tenant, int attempts, long enqueuedAt) {
+
+    QueuedJob nextAttempt() {
+        return new QueuedJob(id, url, tenant, attempts + 1, enqueuedAt);
+    }
+}
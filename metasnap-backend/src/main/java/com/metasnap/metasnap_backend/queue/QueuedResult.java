@@ -0,0 +1,7 @@
+package com.metasnap.metasnap_backend.queue;
+
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+
+/** A completed job's result, kept with the tenant it was analyzed for (null without tenants). */
+public record QueuedResult(String tenant, AnalyzeResponse result) {
+}
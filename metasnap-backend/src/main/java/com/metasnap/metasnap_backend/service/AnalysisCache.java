@@ -0,0 +1,171 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.CheckGroup;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Short-lived cache of analysis results with a strong validator for each one, keyed by URL and
+ * the set of checks that ran. Concurrent requests for the same key share a single analysis.
+ * Failed fetches are never cached, so a transient origin error is retried on the next request.
+ */
+@Service
+public class AnalysisCache {
+
+    /** A finished analysis, its strong ETag (quoted) and when it was produced (epoch millis). */
+    public record CachedAnalysis(AnalyzeResponse response, String etag, long analyzedAt) {
+    }
+
+    /** The caller may not fetch the origin, e.g. because its monthly fetch volume is used up. */
+    public static class FetchRefusedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public FetchRefusedException() {
+            super("Fetch refused");
+        }
+    }
+
+    private final MetaAnalyzerService metaAnalyzerService;
+    private final ObjectMapper objectMapper;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final Map<String, CompletableFuture<CachedAnalysis>> entries = new ConcurrentHashMap<>();
+
+    public AnalysisCache(MetaAnalyzerService metaAnalyzerService,
+                         ObjectMapper objectMapper,
+                         @Value("${metasnap.analysis.cache-ttl:5m}") Duration ttl,
+                         @Value("${metasnap.analysis.cache-size:1000}") int maxEntries) {
+        this.metaAnalyzerService = metaAnalyzerService;
+        this.objectMapper = objectMapper;
+        this.ttlMs = ttl.toMillis();
+        this.maxEntries = maxEntries;
+    }
+
+    /** Returns a fresh cached analysis, or analyzes the URL (once, however many callers are waiting). */
+    public CachedAnalysis get(String url, Set<CheckGroup> checks) {
+        return get(url, checks, () -> true);
+    }
+
+    /**
+     * Like {@link #get(String, Set)}, but asks {@code chargeFetch} first whenever this call is the
+     * one that fetches the origin; cache hits and callers sharing another's analysis are free.
+     *
+     * @throws FetchRefusedException if {@code chargeFetch} returns false
+     */
+    public CachedAnalysis get(String url, Set<CheckGroup> checks, BooleanSupplier chargeFetch) {
+        String key = key(url, checks);
+        while (true) {
+            CompletableFuture<CachedAnalysis> existing = entries.get(key);
+            if (existing != null) {
+                if (!existing.isDone()) {
+                    CachedAnalysis shared = join(existing);
+                    if (shared != null) return shared;
+                    continue; // that caller's fetch was refused; try to run our own
+                }
+                CachedAnalysis analysis = existing.getNow(null);
+                if (analysis != null && isFresh(analysis)) return analysis;
+            }
+            CompletableFuture<CachedAnalysis> mine = new CompletableFuture<>();
+            boolean claimed = existing == null
+                    ? entries.putIfAbsent(key, mine) == null
+                    : entries.replace(key, existing, mine);
+            if (claimed) return run(url, checks, key, mine, chargeFetch);
+        }
+    }
+
+    /** Always analyzes again and replaces whatever was cached for the URL. */
+    public CachedAnalysis refresh(String url, Set<CheckGroup> checks) {
+        return refresh(url, checks, () -> true);
+    }
+
+    /**
+     * Like {@link #refresh(String, Set)}, charging the fetch to {@code chargeFetch} first.
+     *
+     * @throws FetchRefusedException if {@code chargeFetch} returns false
+     */
+    public CachedAnalysis refresh(String url, Set<CheckGroup> checks, BooleanSupplier chargeFetch) {
+        if (!chargeFetch.getAsBoolean()) throw new FetchRefusedException();
+        String key = key(url, checks);
+        CompletableFuture<CachedAnalysis> mine = new CompletableFuture<>();
+        entries.put(key, mine);
+        return run(url, checks, key, mine, () -> true);
+    }
+
+    /** Seconds until the analysis stops being fresh, never negative. */
+    public long remainingSeconds(CachedAnalysis analysis) {
+        return Math.max(0, (analysis.analyzedAt() + ttlMs - System.currentTimeMillis()) / 1000);
+    }
+
+    private CachedAnalysis run(String url, Set<CheckGroup> checks, String key, CompletableFuture<CachedAnalysis> future,
+                               BooleanSupplier chargeFetch) {
+        try {
+            if (!chargeFetch.getAsBoolean()) {
+                entries.remove(key, future);
+                future.complete(null); // callers waiting on this one retry with their own charge
+                throw new FetchRefusedException();
+            }
+            AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url, checks);
+            CachedAnalysis analysis = new CachedAnalysis(response, etag(response), System.currentTimeMillis());
+            future.complete(analysis);
+            if (response.isFailed()) {
+                entries.remove(key, future);
+            } else if (entries.size() > maxEntries) {
+                evict();
+            }
+            return analysis;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            entries.remove(key, future);
+            throw e;
+        }
+    }
+
+    private void evict() {
+        entries.values().removeIf(future -> future.isDone()
+                && (future.isCompletedExceptionally() || !isFresh(future.getNow(null))));
+        Iterator<CompletableFuture<CachedAnalysis>> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries * 9 / 10 && iterator.hasNext()) {
+            if (iterator.next().isDone()) iterator.remove();
+        }
+    }
+
+    private static String key(String url, Set<CheckGroup> checks) {
+        return checks + " " + url;
+    }
+
+    private boolean isFresh(CachedAnalysis analysis) {
+        return System.currentTimeMillis() - analysis.analyzedAt() < ttlMs;
+    }
+
+    private String etag(AnalyzeResponse response) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(response));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute ETag for analysis result", e);
+        }
+    }
+
+    private static CachedAnalysis join(CompletableFuture<CachedAnalysis> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.metasnap.metasnap_backend.dto.AnalysisJobResult;
+import com.metasnap.metasnap_backend.dto.AnalysisJobStatus;
+import com.metasnap.metasnap_backend.dto.AnalysisProfile;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.CheckGroup;
+import com.metasnap.metasnap_backend.dto.PageImportance;
+import com.metasnap.metasnap_backend.dto.RedirectHop;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Runs multi-URL analyses in the background. Submitting returns immediately with a job id;
+ * progress and each finished result are pushed to Server-Sent Event subscribers as they happen.
+ * Finished jobs are kept for {@code metasnap.jobs.retention} and at most
+ * {@code metasnap.jobs.max-retained} of them are held, oldest evicted first. URLs the
+ * {@link SeenUrlSet} has seen for the tenant are left out of a job and counted as skipped unless
+ * the job is forced; a URL is marked seen once its analysis succeeds. A job is only visible to the
+ * tenant that submitted it. At most {@code metasnap.jobs.max-queued-urls} URLs of unfinished jobs
+ * are held at once, so the pool's queue and the result arrays cannot grow without bound; beyond
+ * that submissions are refused with {@link JobsFullException}.
+ *
+ * A job submitted with a link graph also collects each page's internal links. When its last page
+ * is done, the links between the job's pages form a {@link LinkGraph} and every result gets its
+ * {@link PageImportance}: in-links, click depth from the first URL, orphan flag and PageRank.
+ * Subscribers then get an {@code importance} event with the ranked results, highest PageRank
+ * first, before {@code complete}, as the results streamed earlier had no importance yet.
+ */
+@Service
+public class AnalysisJobService {
+
+    /** Thrown when a job would take the URLs of unfinished jobs past {@code metasnap.jobs.max-queued-urls}. */
+    public static class JobsFullException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        JobsFullException(int maxQueuedUrls) {
+            super("At most " + maxQueuedUrls + " URLs can be waiting for analysis; try again later");
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(AnalysisJobService.class);
+    private static final Set<CheckGroup> LINK_GRAPH_CHECKS = linkGraphChecks();
+    private static final double DAMPING = 0.85;
+    private static final int MAX_ITERATIONS = 50;
+    private static final double TOLERANCE = 1e-6;
+
+    private final MetaAnalyzerService metaAnalyzerService;
+    private final ScoreReportService scoreReportService;
+    private final ExtractionStore extractionStore;
+    private final SeenUrlSet seenUrls;
+    private final ExecutorService executor;
+    private final long retentionMs;
+    private final int maxRetained;
+    private final int maxUrls;
+    private final int maxQueuedUrls;
+    private final AtomicInteger queuedUrls = new AtomicInteger();
+    private final long sseTimeoutMs;
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+
+    public AnalysisJobService(MetaAnalyzerService metaAnalyzerService,
+                              ScoreReportService scoreReportService,
+                              ExtractionStore extractionStore,
+                              SeenUrlSet seenUrls,
+                              @Value("${metasnap.jobs.threads:8}") int threads,
+                              @Value("${metasnap.jobs.retention:1h}") Duration retention,
+                              @Value("${metasnap.jobs.max-retained:100}") int maxRetained,
+                              @Value("${metasnap.jobs.max-urls:10000}") int maxUrls,
+                              @Value("${metasnap.jobs.max-queued-urls:50000}") int maxQueuedUrls,
+                              @Value("${metasnap.jobs.sse-timeout:30m}") Duration sseTimeout) {
+        this.metaAnalyzerService = metaAnalyzerService;
+        this.scoreReportService = scoreReportService;
+        this.extractionStore = extractionStore;
+        this.seenUrls = seenUrls;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "analysis-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retentionMs = retention.toMillis();
+        this.maxRetained = maxRetained;
+        this.maxUrls = maxUrls;
+        this.maxQueuedUrls = maxQueuedUrls;
+        this.sseTimeoutMs = sseTimeout.toMillis();
+    }
+
+    public int getMaxUrls() {
+        return maxUrls;
+    }
+
+    public AnalysisJobStatus submit(List<String> urls) {
+        return submit(urls, false);
+    }
+
+    public AnalysisJobStatus submit(List<String> urls, boolean linkGraph) {
+        return submit(urls, linkGraph, null);
+    }
+
+    public AnalysisJobStatus submit(List<String> urls, boolean linkGraph, String tenant) {
+        return submit(urls, unseen(urls, tenant, false), linkGraph, tenant, count -> true).orElseThrow();
+    }
+
+    /** Which of {@code urls} a job for {@code tenant} would analyze; see {@link SeenUrlSet#unseen}. */
+    public boolean[] unseen(List<String> urls, String tenant, boolean force) {
+        return seenUrls.unseen(tenant, urls, force);
+    }
+
+    /**
+     * Submits a job for the {@code accept}ed URLs on behalf of {@code tenant} (null without
+     * tenants), whose reports its results join; the others are counted as skipped. Once room for
+     * the URLs is reserved, {@code charge} is asked to pay for them; empty if it refuses.
+     *
+     * @throws JobsFullException if unfinished jobs already hold too many URLs
+     */
+    public Optional<AnalysisJobStatus> submit(List<String> urls, boolean[] accept, boolean linkGraph, String tenant,
+                                              IntPredicate charge) {
+        if (urls.size() > maxUrls) {
+            throw new IllegalArgumentException("At most " + maxUrls + " URLs can be submitted in one job");
+        }
+        List<String> accepted = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            if (accept[i]) accepted.add(urls.get(i));
+        }
+        int size = accepted.size();
+        if (queuedUrls.getAndUpdate(queued -> queued + size <= maxQueuedUrls ? queued + size : queued) + size
+                > maxQueuedUrls) {
+            throw new JobsFullException(maxQueuedUrls);
+        }
+        if (!charge.test(size)) {
+            queuedUrls.addAndGet(-size);
+            return Optional.empty();
+        }
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), List.copyOf(accepted),
+                urls.size() - accepted.size(), linkGraph, tenant);
+        jobs.put(job.id, job);
+        for (int i = 0; i < job.urls.size(); i++) {
+            int index = i;
+            executor.execute(() -> run(job, index));
+        }
+        return Optional.of(job.status());
+    }
+
+    public Optional<AnalysisJobStatus> status(String id) {
+        return status(id, null);
+    }
+
+    /** Status of a job {@code tenant} submitted; empty for other tenants' jobs. */
+    public Optional<AnalysisJobStatus> status(String id, String tenant) {
+        return find(id, tenant).map(AnalysisJob::status);
+    }
+
+    public Optional<List<AnalysisJobResult>> results(String id) {
+        return results(id, null);
+    }
+
+    public Optional<List<AnalysisJobResult>> results(String id, String tenant) {
+        return find(id, tenant).map(AnalysisJob::completedResults);
+    }
+
+    public Optional<SseEmitter> subscribe(String id) {
+        return subscribe(id, (String) null);
+    }
+
+    /** Opens an event stream; events already emitted for the job are replayed first. */
+    public Optional<SseEmitter> subscribe(String id, String tenant) {
+        return find(id, tenant).map(job -> job.subscribe(new SseEmitter(sseTimeoutMs)));
+    }
+
+    Optional<SseEmitter> subscribe(String id, SseEmitter emitter) {
+        return find(id, null).map(job -> job.subscribe(emitter));
+    }
+
+    @Scheduled(fixedDelayString = "${metasnap.jobs.eviction-interval:60000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        jobs.values().removeIf(job -> job.finishedAt() != 0 && job.finishedAt() < cutoff);
+        List<AnalysisJob> finished = new ArrayList<>();
+        for (AnalysisJob job : jobs.values()) {
+            if (job.finishedAt() != 0) finished.add(job);
+        }
+        if (finished.size() > maxRetained) {
+            finished.sort(Comparator.comparingLong(AnalysisJob::finishedAt));
+            for (int i = 0; i < finished.size() - maxRetained; i++) {
+                jobs.remove(finished.get(i).id);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Optional<AnalysisJob> find(String id, String tenant) {
+        return Optional.ofNullable(id).map(jobs::get).filter(job -> Objects.equals(job.tenant, tenant));
+    }
+
+    private void run(AnalysisJob job, int index) {
+        AnalyzeResponse response = null;
+        try {
+            response = job.graph != null
+                    ? metaAnalyzerService.analyzeUrl(job.urls.get(index), LINK_GRAPH_CHECKS)
+                    : metaAnalyzerService.analyzeUrl(job.urls.get(index));
+            scoreReportService.record(job.tenant, response);
+            extractionStore.record(job.tenant, response);
+            if (response != null && !response.isFailed()) {
+                seenUrls.add(job.tenant, job.urls.get(index));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Analysis of {} in job {} failed", job.urls.get(index), job.id, e);
+        }
+        queuedUrls.decrementAndGet();
+        job.record(index, response);
+        if (job.finishedAt() != 0) {
+            evictExpired();
+        }
+    }
+
+    private static Set<CheckGroup> linkGraphChecks() {
+        Set<CheckGroup> checks = EnumSet.copyOf(AnalysisProfile.FULL.getChecks());
+        checks.add(CheckGroup.LINKS);
+        return Set.copyOf(checks);
+    }
+
+    private static final class AnalysisJob {
+        private final String id;
+        private final String tenant;
+        private final List<String> urls;
+        private final AnalyzeResponse[] results;
+        private final boolean[] done;
+        private final long submittedAt = System.currentTimeMillis();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private final List<Event> outbox = new ArrayList<>();
+        private boolean delivering;
+        private final int skipped;
+        private LinkGraph.Builder graph;
+        private List<AnalysisJobResult> ranked; // once the link graph is done
+        private int completed;
+        private volatile long finishedAt;
+
+        AnalysisJob(String id, List<String> urls, int skipped, boolean linkGraph, String tenant) {
+            this.id = id;
+            this.tenant = tenant;
+            this.urls = urls;
+            this.skipped = skipped;
+            this.results = new AnalyzeResponse[urls.size()];
+            this.done = new boolean[urls.size()];
+            this.graph = linkGraph ? new LinkGraph.Builder() : null;
+            if (urls.isEmpty()) {
+                finishedAt = submittedAt; // everything was skipped
+            }
+        }
+
+        long finishedAt() {
+            return finishedAt;
+        }
+
+        void record(int index, AnalyzeResponse response) {
+            update(index, response);
+            deliver();
+        }
+
+        private synchronized void update(int index, AnalyzeResponse response) {
+            results[index] = response;
+            done[index] = true;
+            completed++;
+            if (graph != null && response != null && !response.isFailed() && response.getFinalUrl() != null) {
+                List<String> aliases = new ArrayList<>();
+                aliases.add(urls.get(index));
+                if (response.getRedirects() != null) {
+                    for (RedirectHop hop : response.getRedirects()) {
+                        aliases.add(hop.getUrl());
+                    }
+                }
+                graph.addPage(response.getFinalUrl(), aliases,
+                        response.getLinks() != null ? response.getLinks() : List.of());
+                response.setLinks(null); // now held by the graph
+            }
+            if (completed == urls.size()) {
+                if (graph != null) {
+                    attachImportance();
+                }
+                finishedAt = System.currentTimeMillis();
+            }
+            AnalysisJobResult result = result(index);
+            AnalysisJobStatus status = status();
+            for (SseEmitter emitter : emitters) {
+                outbox.add(new Event(emitter, "result", result));
+                outbox.add(new Event(emitter, "progress", status));
+                if (ranked != null) outbox.add(new Event(emitter, "importance", ranked));
+                if (finishedAt != 0) outbox.add(new Event(emitter, "complete", status));
+            }
+            if (finishedAt != 0) emitters.clear();
+        }
+
+        private void attachImportance() {
+            long start = System.nanoTime();
+            int root = graph.node(urls.get(0));
+            int[] nodes = new int[urls.size()];
+            for (int i = 0; i < urls.size(); i++) {
+                nodes[i] = graph.node(urls.get(i));
+            }
+            LinkGraph links = graph.build();
+            graph = null;
+            int[] depths = links.depths(root);
+            double[] ranks = links.pageRank(DAMPING, MAX_ITERATIONS, TOLERANCE);
+            for (int i = 0; i < urls.size(); i++) {
+                int node = nodes[i];
+                if (node < 0 || results[i] == null) continue;
+                PageImportance importance = new PageImportance();
+                importance.setInLinks(links.inDegree(node));
+                importance.setOutLinks(links.outDegree(node));
+                importance.setDepth(depths[node] >= 0 ? depths[node] : null);
+                importance.setOrphan(node != root && links.inDegree(node) == 0);
+                importance.setPageRank(ranks[node] * links.nodes()); // 1.0 is the average page
+                results[i].setImportance(importance);
+            }
+            List<AnalysisJobResult> byRank = new ArrayList<>();
+            for (int i = 0; i < urls.size(); i++) {
+                if (results[i] != null && results[i].getImportance() != null) byRank.add(result(i));
+            }
+            byRank.sort(Comparator.comparingDouble(
+                    (AnalysisJobResult r) -> r.getResult().getImportance().getPageRank()).reversed());
+            ranked = List.copyOf(byRank);
+            log.info("Link graph of job {}: {} pages, {} links in {} ms", id, links.nodes(), links.edges(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+
+        SseEmitter subscribe(SseEmitter emitter) {
+            synchronized (this) {
+                for (int i = 0; i < urls.size(); i++) {
+                    if (done[i]) outbox.add(new Event(emitter, "result", result(i)));
+                }
+                AnalysisJobStatus status = status();
+                outbox.add(new Event(emitter, "progress", status));
+                if (ranked != null) outbox.add(new Event(emitter, "importance", ranked));
+                if (finishedAt != 0) {
+                    outbox.add(new Event(emitter, "complete", status));
+                } else {
+                    emitters.add(emitter);
+                    emitter.onCompletion(() -> unsubscribe(emitter));
+                    emitter.onTimeout(() -> unsubscribe(emitter));
+                }
+            }
+            deliver();
+            return emitter;
+        }
+
+        /**
+         * Sends queued events outside the job lock, so a slow client never holds up the workers
+         * recording results or callers asking for status. One thread drains at a time, which keeps
+         * every emitter's events in the order they were queued.
+         */
+        private void deliver() {
+            synchronized (this) {
+                if (delivering) return; // the delivering thread picks up the new events too
+                delivering = true;
+            }
+            Set<SseEmitter> failed = new HashSet<>();
+            while (true) {
+                List<Event> batch;
+                synchronized (this) {
+                    emitters.removeAll(failed);
+                    if (outbox.isEmpty()) {
+                        delivering = false;
+                        return;
+                    }
+                    batch = List.copyOf(outbox);
+                    outbox.clear();
+                }
+                for (Event event : batch) {
+                    if (failed.contains(event.emitter())) continue;
+                    if (!send(event.emitter(), event.name(), event.data())) {
+                        failed.add(event.emitter());
+                    } else if (event.name().equals("complete")) {
+                        event.emitter().complete();
+                    }
+                }
+            }
+        }
+
+        synchronized void unsubscribe(SseEmitter emitter) {
+            emitters.remove(emitter);
+        }
+
+        synchronized AnalysisJobStatus status() {
+            AnalysisJobStatus status = new AnalysisJobStatus();
+            long now = finishedAt != 0 ? finishedAt : System.currentTimeMillis();
+            status.setId(id);
+            status.setState(finishedAt != 0 ? "completed" : "running");
+            status.setTotal(urls.size());
+            status.setCompleted(completed);
+            status.setSkipped(skipped);
+            status.setSubmittedAt(submittedAt);
+            status.setElapsedMs(now - submittedAt);
+            if (finishedAt != 0) {
+                status.setEtaMs(0L);
+            } else if (completed > 0) {
+                status.setEtaMs((now - submittedAt) * (urls.size() - completed) / completed);
+            }
+            return status;
+        }
+
+        synchronized List<AnalysisJobResult> completedResults() {
+            List<AnalysisJobResult> list = new ArrayList<>(completed);
+            for (int i = 0; i < urls.size(); i++) {
+                if (done[i]) list.add(result(i));
+            }
+            return list;
+        }
+
+        private AnalysisJobResult result(int index) {
+            AnalysisJobResult result = new AnalysisJobResult();
+            result.setIndex(index);
+            result.setUrl(urls.get(index));
+            result.setResult(results[index]);
+            return result;
+        }
+
+        private static boolean send(SseEmitter emitter, String name, Object data) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data));
+                return true;
+            } catch (IOException | RuntimeException e) {
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+
+        private record Event(SseEmitter emitter, String name, Object data) {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.metasnap.metasnap_backend.dto.BodyStats;
+import java.util.Locale;
+import java.util.function.Predicate;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+
+/**
+ * On-page checks computed while the page streams: headings, image alt text, words and links.
+ * Each body element is counted once, when it completes; run it inside a {@link BodyScan}, which
+ * prunes counted elements. It never stops the stream: the whole body is needed.
+ */
+class BodyAudit implements Predicate<Element> {
+
+    private final BodyStats stats = new BodyStats();
+    private int lastHeadingLevel;
+    private String pageHost;
+
+    @Override
+    public boolean test(Element element) {
+        if (!BodyScan.inBody(element)) {
+            return false;
+        }
+        String name = element.normalName();
+        countWords(element, name);
+        switch (name) {
+            case "h1", "h2", "h3", "h4", "h5", "h6" -> heading(name.charAt(1) - '0');
+            case "img" -> {
+                stats.setImages(stats.getImages() + 1);
+                if (!element.hasAttr("alt")) stats.setImagesWithoutAlt(stats.getImagesWithoutAlt() + 1);
+            }
+            case "a" -> link(element);
+            default -> {
+            }
+        }
+        return false;
+    }
+
+    BodyStats stats() {
+        return stats;
+    }
+
+    private void heading(int level) {
+        if (level == 1) {
+            stats.setH1Count(stats.getH1Count() + 1);
+        }
+        if (stats.getHeadingSkip() == null && lastHeadingLevel > 0 && level > lastHeadingLevel + 1) {
+            stats.setHeadingSkip("h" + lastHeadingLevel + " is followed by h" + level);
+        }
+        lastHeadingLevel = level;
+    }
+
+    private void link(Element element) {
+        String href = element.attr("href").trim();
+        if (href.isEmpty() || href.startsWith("#")) {
+            return;
+        }
+        boolean internal;
+        String lower = href.toLowerCase(Locale.ROOT);
+        if (lower.startsWith("http://") || lower.startsWith("https://") || lower.startsWith("//")) {
+            internal = sameSite(host(lower), pageHost(element));
+        } else if (hasScheme(lower)) {
+            return; // mailto:, tel:, javascript: and the like are not links to pages
+        } else {
+            internal = true; // relative to the page
+        }
+        boolean nofollow = (" " + element.attr("rel").toLowerCase(Locale.ROOT) + " ").contains(" nofollow ");
+        if (internal) {
+            stats.setInternalLinks(stats.getInternalLinks() + 1);
+            if (nofollow) stats.setInternalNofollowLinks(stats.getInternalNofollowLinks() + 1);
+        } else {
+            stats.setExternalLinks(stats.getExternalLinks() + 1);
+        }
+        if (nofollow) {
+            stats.setNofollowLinks(stats.getNofollowLinks() + 1);
+        }
+    }
+
+    private void countWords(Element element, String name) {
+        if (name.equals("script") || name.equals("style") || name.equals("noscript") || name.equals("template")) {
+            return;
+        }
+        long words = 0;
+        for (TextNode text : element.textNodes()) {
+            // A word is a whitespace-separated token with at least one letter or digit
+            String value = text.getWholeText();
+            boolean counted = false;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    counted = false;
+                } else if (!counted && Character.isLetterOrDigit(c)) {
+                    words++;
+                    counted = true;
+                }
+            }
+        }
+        stats.setWordCount(stats.getWordCount() + words);
+    }
+
+    private String pageHost(Element element) {
+        if (pageHost == null) {
+            pageHost = host(element.baseUri().toLowerCase(Locale.ROOT));
+        }
+        return pageHost;
+    }
+
+    private static boolean hasScheme(String href) {
+        for (int i = 0; i < href.length(); i++) {
+            char c = href.charAt(i);
+            if (c == ':') return true;
+            if (c == '/' || c == '?' || c == '#') return false;
+        }
+        return false;
+    }
+
+    static boolean sameSite(String a, String b) {
+        return !a.isEmpty() && stripWww(a).equals(stripWww(b));
+    }
+
+    private static String stripWww(String host) {
+        return host.startsWith("www.") ? host.substring(4) : host;
+    }
+
+    /** Host of an absolute or protocol-relative URL, without user info or port. */
+    static String host(String url) {
+        int start = url.indexOf("//");
+        if (start < 0) return "";
+        start += 2;
+        int end = start;
+        while (end < url.length() && "/?#".indexOf(url.charAt(end)) < 0) end++;
+        int at = url.lastIndexOf('@', end - 1);
+        String authority = url.substring(at >= start ? at + 1 : start, end);
+        int port = authority.lastIndexOf(':');
+        return port > authority.lastIndexOf(']') ? authority.substring(0, port) : authority;
+    }
+}
@@ -0,0 +1,38 @@
+package com.metasnap.metasnap_backend.service;
+
+import java.util.List;
+import java.util.function.Predicate;
+import org.jsoup.nodes.Element;
+
+/**
+ * Stop condition for checks that read the whole page. Each completed element is passed to every
+ * visitor in turn and then, if it is inside the body, removed from the tree, so the document never
+ * holds more than the open elements plus their direct text. Memory follows the nesting depth of
+ * the page, not its size. It never stops the stream.
+ */
+class BodyScan implements Predicate<Element> {
+
+    private final List<Predicate<Element>> visitors;
+
+    BodyScan(List<Predicate<Element>> visitors) {
+        this.visitors = visitors;
+    }
+
+    @Override
+    public boolean test(Element element) {
+        for (Predicate<Element> visitor : visitors) {
+            visitor.test(element);
+        }
+        if (!element.normalName().equals("body") && inBody(element)) {
+            element.remove();
+        }
+        return false;
+    }
+
+    static boolean inBody(Element element) {
+        for (Element current = element; current != null; current = current.parent()) {
+            if (current.normalName().equals("body")) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,133 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metasnap.metasnap_backend.dto.DuplicateCluster;
+import com.metasnap.metasnap_backend.dto.DuplicateReport;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Duplicate titles and descriptions across a posted page list. The request body is read as a
+ * stream: each page's fields go straight into packed {@link TextColumn}s, so no object per page
+ * is kept, and reading stops as soon as more than {@code metasnap.duplicates.max-pages} pages
+ * have been seen.
+ */
+@Service
+public class DuplicateContentService {
+
+    /** Thrown when a request holds more pages than {@code metasnap.duplicates.max-pages}. */
+    public static class TooManyPagesException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        TooManyPagesException(int maxPages) {
+            super("At most " + maxPages + " pages can be checked at once");
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int maxPages;
+
+    public DuplicateContentService(ObjectMapper objectMapper,
+                                   @Value("${metasnap.duplicates.max-pages:1000000}") int maxPages) {
+        this.objectMapper = objectMapper;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Reads a {@code {"pages": [{"url", "title", "description"}...], "threshold": 0.8}} body.
+     * Throws {@link IllegalArgumentException} for a body without pages, a page that is not an
+     * object or has no URL, or a threshold outside (0, 1].
+     */
+    public DuplicateReport findDuplicates(InputStream body) throws IOException {
+        TextColumn urls = new TextColumn();
+        TextColumn titles = new TextColumn();
+        TextColumn descriptions = new TextColumn();
+        Double threshold = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            expect(parser.nextToken() == JsonToken.START_OBJECT, "Request body must be a JSON object");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("threshold")) {
+                    expect(value.isNumeric(), "threshold must be a number");
+                    threshold = parser.getDoubleValue();
+                } else if (field.equals("pages")) {
+                    expect(value == JsonToken.START_ARRAY, "pages must be an array");
+                    JsonToken page;
+                    while ((page = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        expect(page == JsonToken.START_OBJECT, "Each page must be a JSON object");
+                        if (urls.size() == maxPages) {
+                            throw new TooManyPagesException(maxPages);
+                        }
+                        readPage(parser, urls, titles, descriptions);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        expect(urls.size() > 0, "At least one page is required");
+        double minSimilarity = threshold != null ? threshold : DuplicateDetector.DEFAULT_THRESHOLD;
+        expect(minSimilarity > 0 && minSimilarity <= 1, "threshold must be greater than 0 and at most 1");
+        DuplicateReport report = new DuplicateReport();
+        report.setPageCount(urls.size());
+        report.setTitleClusters(clusters(urls, titles, "title", minSimilarity));
+        report.setDescriptionClusters(clusters(urls, descriptions, "description", minSimilarity));
+        return report;
+    }
+
+    private static void readPage(JsonParser parser, TextColumn urls, TextColumn titles, TextColumn descriptions)
+            throws IOException {
+        String url = null;
+        String title = null;
+        String description = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            String text = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+            switch (field) {
+                case "url" -> url = text;
+                case "title" -> title = text;
+                case "description" -> description = text;
+                default -> parser.skipChildren();
+            }
+        }
+        expect(url != null && !url.isBlank(), "URL is required");
+        urls.add(url);
+        titles.add(title);
+        descriptions.add(description);
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) throw new IllegalArgumentException(message);
+    }
+
+    // Fields are processed one at a time so only a single set of signatures is alive at once.
+    private List<DuplicateCluster> clusters(TextColumn urls, TextColumn texts, String field, double threshold) {
+        DuplicateDetector detector = new DuplicateDetector(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            detector.add(texts.get(i));
+        }
+        List<DuplicateCluster> result = new ArrayList<>();
+        for (DuplicateDetector.Cluster cluster : detector.findClusters(threshold)) {
+            List<String> members = new ArrayList<>(cluster.members().length);
+            for (int member : cluster.members()) {
+                members.add(urls.get(member));
+            }
+            DuplicateCluster item = new DuplicateCluster();
+            item.setField(field);
+            item.setType(cluster.exact() ? "exact" : "near");
+            item.setSimilarity(cluster.similarity());
+            item.setSample(texts.get(cluster.members()[0]));
+            item.setUrls(members);
+            result.add(item);
+        }
+        return result;
+    }
+}
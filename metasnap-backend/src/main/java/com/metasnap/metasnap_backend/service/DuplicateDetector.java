@@ -0,0 +1,294 @@
+package com.metasnap.metasnap_backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds exact and near-duplicate texts (titles, descriptions) across a set of pages.
+ *
+ * Each text is reduced to a fixed-size MinHash signature over character 4-gram shingles and
+ * only the signature and a 64-bit exact hash are kept, so memory is allocated once up front
+ * and grows linearly with the capacity. Candidates are found with locality-sensitive hashing:
+ * the signature is split into bands and pages whose band keys collide are compared. Buckets
+ * are formed by sorting packed (band key, page index) longs instead of hash maps, which keeps
+ * the whole pass at O(n log n) per band without per-page object allocation.
+ *
+ * Not thread-safe; build one detector per report.
+ */
+public class DuplicateDetector {
+
+    public static final int DEFAULT_BANDS = 8;
+    public static final int DEFAULT_ROWS = 4;
+    public static final double DEFAULT_THRESHOLD = 0.8;
+
+    private static final int SHINGLE = 4;
+
+    private final int capacity;
+    private final int bands;
+    private final int rows;
+    private final int signatureLength;
+    private final int[] signatures;
+    private final long[] exactHashes;
+    private final long[] seeds;
+    private int size;
+
+    public DuplicateDetector(int capacity) {
+        this(capacity, DEFAULT_BANDS, DEFAULT_ROWS);
+    }
+
+    public DuplicateDetector(int capacity, int bands, int rows) {
+        if (capacity < 0 || bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("capacity, bands and rows must be positive");
+        }
+        this.capacity = capacity;
+        this.bands = bands;
+        this.rows = rows;
+        this.signatureLength = bands * rows;
+        this.signatures = new int[capacity * signatureLength];
+        this.exactHashes = new long[capacity];
+        this.seeds = new long[signatureLength];
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < signatureLength; i++) {
+            seed = mix(seed + i);
+            seeds[i] = seed;
+        }
+    }
+
+    /**
+     * Adds a text and returns its index. Blank texts are recorded but never reported as duplicates,
+     * since a missing title or description is already flagged by the per-page checks.
+     */
+    public int add(String text) {
+        if (size == capacity) {
+            throw new IllegalStateException("Duplicate detector capacity of " + capacity + " pages exceeded");
+        }
+        int index = size++;
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            exactHashes[index] = 0L;
+            return index;
+        }
+        exactHashes[index] = hashString(normalized) | 1L;
+        int offset = index * signatureLength;
+        Arrays.fill(signatures, offset, offset + signatureLength, Integer.MAX_VALUE);
+        int shingles = Math.max(1, normalized.length() - SHINGLE + 1);
+        for (int s = 0; s < shingles; s++) {
+            long shingle = hashShingle(normalized, s, Math.min(normalized.length(), s + SHINGLE));
+            for (int h = 0; h < signatureLength; h++) {
+                int value = (int) (mix(shingle ^ seeds[h]) >>> 33);
+                if (value < signatures[offset + h]) {
+                    signatures[offset + h] = value;
+                }
+            }
+        }
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Estimated Jaccard similarity of two added texts, from the fraction of agreeing signature slots. */
+    public double similarity(int a, int b) {
+        if (exactHashes[a] == 0L || exactHashes[b] == 0L) return 0.0;
+        if (exactHashes[a] == exactHashes[b]) return 1.0;
+        int offsetA = a * signatureLength;
+        int offsetB = b * signatureLength;
+        int equal = 0;
+        for (int h = 0; h < signatureLength; h++) {
+            if (signatures[offsetA + h] == signatures[offsetB + h]) equal++;
+        }
+        return (double) equal / signatureLength;
+    }
+
+    /**
+     * Groups the added texts into clusters. Exact clusters hold identical (normalized) texts; near
+     * clusters join two or more distinct texts whose estimated similarity is at least the threshold,
+     * which must be in (0, 1].
+     */
+    public List<Cluster> findClusters(double threshold) {
+        if (!(threshold > 0 && threshold <= 1)) {
+            throw new IllegalArgumentException("Similarity threshold must be in (0, 1], was " + threshold);
+        }
+        int[] parent = new int[size];
+        for (int i = 0; i < size; i++) parent[i] = i;
+        long[] packed = new long[size];
+
+        // Exact duplicates: bucket on the high half of the exact hash, confirm on the full hash.
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (exactHashes[i] != 0L) packed[count++] = pack((int) (exactHashes[i] >>> 32), i);
+        }
+        Arrays.sort(packed, 0, count);
+        forEachRun(packed, count, (start, end) -> {
+            for (int i = start + 1; i < end; i++) {
+                int member = index(packed[i]);
+                for (int j = start; j < i; j++) {
+                    int other = index(packed[j]);
+                    if (exactHashes[member] == exactHashes[other]) {
+                        union(parent, member, other);
+                        break;
+                    }
+                }
+            }
+        });
+        int[] exactRoot = new int[size];
+        for (int i = 0; i < size; i++) exactRoot[i] = find(parent, i);
+
+        // Near duplicates: one pass per band over exact-group representatives. Each bucket member
+        // is only compared with the bucket leader, so a hot bucket costs linear rather than quadratic work.
+        for (int band = 0; band < bands; band++) {
+            count = 0;
+            for (int i = 0; i < size; i++) {
+                if (exactHashes[i] != 0L && exactRoot[i] == i) packed[count++] = pack(bandKey(i, band), i);
+            }
+            Arrays.sort(packed, 0, count);
+            forEachRun(packed, count, (start, end) -> {
+                int leader = index(packed[start]);
+                for (int i = start + 1; i < end; i++) {
+                    int member = index(packed[i]);
+                    if (find(parent, member) != find(parent, leader) && similarity(leader, member) >= threshold) {
+                        union(parent, leader, member);
+                    }
+                }
+            });
+        }
+
+        return collect(parent, exactRoot);
+    }
+
+    private List<Cluster> collect(int[] parent, int[] exactRoot) {
+        int[] root = new int[size];
+        int[] groupSize = new int[size];
+        int[] distinct = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (exactHashes[i] == 0L) {
+                root[i] = -1;
+                continue;
+            }
+            root[i] = find(parent, i);
+            groupSize[root[i]]++;
+            if (exactRoot[i] == i) distinct[root[i]]++;
+        }
+        int[] slot = new int[size];
+        Arrays.fill(slot, -1);
+        List<int[]> members = new ArrayList<>();
+        List<Integer> roots = new ArrayList<>();
+        int[] fill = new int[size];
+        for (int i = 0; i < size; i++) {
+            int r = root[i];
+            if (r < 0 || groupSize[r] < 2) continue;
+            if (slot[r] < 0) {
+                slot[r] = members.size();
+                members.add(new int[groupSize[r]]);
+                roots.add(r);
+            }
+            members.get(slot[r])[fill[slot[r]]++] = i;
+        }
+        List<Cluster> clusters = new ArrayList<>(members.size());
+        for (int c = 0; c < members.size(); c++) {
+            int[] ids = members.get(c);
+            boolean exact = distinct[roots.get(c)] == 1;
+            double minSimilarity = 1.0;
+            if (!exact) {
+                for (int i = 1; i < ids.length; i++) {
+                    minSimilarity = Math.min(minSimilarity, similarity(ids[0], ids[i]));
+                }
+            }
+            clusters.add(new Cluster(exact, minSimilarity, ids));
+        }
+        return clusters;
+    }
+
+    private int bandKey(int index, int band) {
+        int offset = index * signatureLength + band * rows;
+        long hash = band;
+        for (int r = 0; r < rows; r++) {
+            hash = mix(hash ^ signatures[offset + r]);
+        }
+        return (int) (hash >>> 32);
+    }
+
+    private interface RunConsumer {
+        void accept(int start, int end);
+    }
+
+    private static void forEachRun(long[] packed, int count, RunConsumer consumer) {
+        int start = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || key(packed[i]) != key(packed[start])) {
+                if (i - start > 1) consumer.accept(start, i);
+                start = i;
+            }
+        }
+    }
+
+    private static long pack(int key, int index) {
+        return ((long) key << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    private static int key(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    private static int index(long packed) {
+        return (int) packed;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) return;
+        if (rootA < rootB) parent[rootB] = rootA;
+        else parent[rootA] = rootB;
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder out = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && out.length() > 0) out.append(' ');
+                out.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static long hashString(String text) {
+        return hashShingle(text, 0, text.length());
+    }
+
+    private static long hashShingle(String text, int start, int end) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** A group of page indices; {@code exact} when every member has the same normalized text. */
+    public record Cluster(boolean exact, double similarity, int[] members) {
+    }
+}
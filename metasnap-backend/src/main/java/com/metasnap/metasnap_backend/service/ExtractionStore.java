@@ -0,0 +1,395 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.PageFacts;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * The {@link PageFacts} of every successful bulk analysis, latest per tenant and final URL, so
+ * pages can be re-scored without refetching. Facts are appended as JSON lines to
+ * {@code metasnap.extractions.file}; only an index of each page's latest line offset is kept in
+ * memory, and {@link #forEachBatch} streams the facts back from the file a batch at a time, so the
+ * heap holds a few hundred bytes per page rather than the facts themselves.
+ *
+ * Appends go to a buffer that is flushed every {@code metasnap.extractions.flush-interval} ms (and
+ * on shutdown), so a crash loses at most that much. When re-analyses have left the file more than
+ * twice as long as needed it is compacted, on startup and every
+ * {@code metasnap.extractions.compact-interval} ms, unless a stream is reading it. A torn last
+ * line is cut off on startup. With the property set to an empty value nothing is persisted and the
+ * facts are held in memory instead. Pages beyond {@code metasnap.extractions.max-pages} are
+ * dropped.
+ */
+@Service
+public class ExtractionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionStore.class);
+
+    private final ObjectMapper objectMapper;
+    private final int maxPages;
+    private final Path path;
+    private final Map<String, Long> offsets = new HashMap<>(); // with a file: key -> offset of its latest line
+    private final Map<String, PageFacts> pages = new LinkedHashMap<>(); // without a file
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger readers = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private OutputStream out;
+    private long end;
+    private long lines;
+
+    public ExtractionStore(ObjectMapper objectMapper,
+                           @Value("${metasnap.extractions.file:${java.io.tmpdir}/metasnap-extractions.jsonl}") String file,
+                           @Value("${metasnap.extractions.max-pages:5000000}") int maxPages) {
+        this.objectMapper = objectMapper;
+        this.maxPages = maxPages;
+        this.path = file.isBlank() ? null : Path.of(file);
+        if (path == null) {
+            return;
+        }
+        try {
+            load();
+            if (lines > 2L * offsets.size()) {
+                compact();
+            }
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open extractions file " + file, e);
+        }
+        log.info("Indexed extracted facts of {} pages in {}", offsets.size(), file);
+    }
+
+    /** Stores the facts of a successful analysis run for {@code tenant}; failed fetches are skipped. */
+    public void record(String tenant, AnalyzeResponse response) {
+        if (response == null || response.isFailed() || response.getFinalUrl() == null) {
+            return;
+        }
+        PageFacts page = new PageFacts();
+        page.setTenant(tenant);
+        page.setUrl(response.getFinalUrl());
+        page.setChecks(response.getChecks());
+        page.setMeta(response.getMeta());
+        page.setBody(response.getBody());
+        page.setExtractedAt(System.currentTimeMillis());
+        put(page);
+    }
+
+    public void put(PageFacts page) {
+        byte[] line;
+        try {
+            line = path != null ? objectMapper.writeValueAsBytes(page) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String key = key(page);
+        boolean stored;
+        lock.writeLock().lock();
+        try {
+            if (path == null) {
+                stored = pages.size() < maxPages || pages.containsKey(key);
+                if (stored) pages.put(key, page);
+            } else {
+                if (out == null) return; // closed
+                stored = offsets.size() < maxPages || offsets.containsKey(key);
+                if (stored) {
+                    out.write(line);
+                    out.write('\n');
+                    offsets.put(key, end);
+                    end += line.length + 1;
+                    lines++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not persist facts of {}: {}", page.getUrl(), e.getMessage());
+            return;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!stored && dropped.getAndIncrement() == 0) {
+            log.warn("Extraction store is full; further pages are not kept (metasnap.extractions.max-pages)");
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return path != null ? offsets.size() : pages.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hands every stored page to {@code consumer}, at most {@code batchSize} at a time, without
+     * holding the lock between batches. Pages stored after the call starts are not included; a
+     * page re-stored meanwhile may be handed over in both its old and new versions that were in
+     * the file when the call started. Returns the number of pages handed over.
+     */
+    public long forEachBatch(int batchSize, Consumer<List<PageFacts>> consumer) {
+        if (path == null) {
+            List<PageFacts> all;
+            lock.readLock().lock();
+            try {
+                all = new ArrayList<>(pages.values());
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (int from = 0; from < all.size(); from += batchSize) {
+                consumer.accept(all.subList(from, Math.min(all.size(), from + batchSize)));
+            }
+            return all.size();
+        }
+        long limit;
+        readers.incrementAndGet();
+        try {
+            lock.writeLock().lock();
+            try {
+                if (out == null) return 0;
+                out.flush();
+                limit = end;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return stream(limit, batchSize, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read extractions file " + path, e);
+        } finally {
+            readers.decrementAndGet();
+        }
+    }
+
+    /** Writes buffered appends to the file. */
+    @Scheduled(fixedDelayString = "${metasnap.extractions.flush-interval:1000}")
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            if (out != null) out.flush();
+        } catch (IOException e) {
+            log.warn("Could not flush extractions file {}: {}", path, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Rewrites the file with only the latest line per page once it is more than twice that long. */
+    @Scheduled(fixedDelayString = "${metasnap.extractions.compact-interval:600000}")
+    public void compactIfNeeded() {
+        if (path == null) return;
+        lock.writeLock().lock();
+        try {
+            if (out == null || lines <= 2L * offsets.size() || readers.get() > 0) {
+                return; // a stream reading the file by offset must not see it rewritten
+            }
+            out.close();
+            out = null;
+            compact();
+            open();
+        } catch (IOException e) {
+            log.warn("Could not compact extractions file {}: {}", path, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long stream(long limit, int batchSize, Consumer<List<PageFacts>> consumer) throws IOException {
+        long handed = 0;
+        List<PageFacts> batch = new ArrayList<>(batchSize);
+        try (LineReader reader = new LineReader(Files.newInputStream(path))) {
+            for (long offset = 0; offset < limit; offset = reader.position()) {
+                byte[] line = reader.next();
+                if (line == null) break;
+                PageFacts page = parse(line, offset);
+                if (page == null || !latest(key(page), offset, limit)) continue;
+                batch.add(page);
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    handed += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+            handed += batch.size();
+        }
+        return handed;
+    }
+
+    /** Whether the line at {@code offset} was the page's latest when a stream up to {@code limit} began. */
+    private boolean latest(String key, long offset, long limit) {
+        lock.readLock().lock();
+        try {
+            Long current = offsets.get(key);
+            return current != null && (current == offset || current >= limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (LineReader reader = new LineReader(Files.newInputStream(path))) {
+            for (long offset = 0; ; offset = reader.position()) {
+                byte[] line = reader.next();
+                if (line == null) break;
+                if (!reader.terminated()) {
+                    log.warn("Cutting off a torn last line of {} at byte {}", path, offset);
+                    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                        channel.truncate(offset);
+                    }
+                    break;
+                }
+                end = reader.position();
+                if (line.length == 0) continue;
+                lines++;
+                PageFacts page = parse(line, offset);
+                if (page == null) continue;
+                String key = key(page);
+                if (offsets.size() < maxPages || offsets.containsKey(key)) {
+                    offsets.put(key, offset);
+                }
+            }
+        }
+    }
+
+    private void compact() throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Map<String, Long> moved = new HashMap<>(offsets.size() * 2);
+        long written = 0;
+        try (LineReader reader = new LineReader(Files.newInputStream(path));
+             OutputStream compacted = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            for (long offset = 0; offset < end; offset = reader.position()) {
+                byte[] line = reader.next();
+                if (line == null) break;
+                PageFacts page = parse(line, offset);
+                if (page == null) continue;
+                String key = key(page);
+                Long latest = offsets.get(key);
+                if (latest == null || latest != offset) continue;
+                compacted.write(line);
+                compacted.write('\n');
+                moved.put(key, written);
+                written += line.length + 1;
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        offsets.clear();
+        offsets.putAll(moved);
+        end = written;
+        lines = moved.size();
+    }
+
+    private void open() throws IOException {
+        out = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+    }
+
+    private PageFacts parse(byte[] line, long offset) {
+        if (line.length == 0) return null;
+        try {
+            return objectMapper.readValue(line, PageFacts.class);
+        } catch (IOException e) {
+            log.warn("Skipping unreadable line at byte {} of {}: {}", offset, path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String key(PageFacts page) {
+        return page.getTenant() != null ? page.getTenant() + ' ' + page.getUrl() : page.getUrl();
+    }
+
+    /** Newline-separated lines as bytes, tracking the byte position of the next line. */
+    private static final class LineReader implements AutoCloseable {
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[64 * 1024];
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+        private int next;
+        private int filled;
+        private long position;
+        private boolean terminated;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        /** The next line without its newline, or null at the end of the file. */
+        byte[] next() throws IOException {
+            line.reset();
+            terminated = false;
+            while (true) {
+                if (next == filled) {
+                    filled = in.read(buffer);
+                    next = 0;
+                    if (filled <= 0) {
+                        filled = 0;
+                        return line.size() > 0 ? line.toByteArray() : null;
+                    }
+                }
+                int start = next;
+                while (next < filled && buffer[next] != '\n') next++;
+                line.write(buffer, start, next - start);
+                position += next - start;
+                if (next < filled) {
+                    next++;
+                    position++;
+                    terminated = true;
+                    return line.toByteArray();
+                }
+            }
+        }
+
+        /** Whether the last line read ended with a newline rather than the end of the file. */
+        boolean terminated() {
+            return terminated;
+        }
+
+        long position() {
+            return position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
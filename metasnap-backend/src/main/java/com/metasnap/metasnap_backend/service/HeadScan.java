@@ -0,0 +1,75 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.metasnap.metasnap_backend.dto.CheckGroup;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.jsoup.nodes.Element;
+
+/**
+ * Stop condition for a streamed fetch: true once the {@code <head>} is complete, or earlier once
+ * every head tag the requested check groups read has been seen. The analyzer only ever uses the
+ * first match of each tag, so nothing after that can change the result.
+ */
+class HeadScan implements Predicate<Element> {
+
+    private final Set<String> pending = new HashSet<>();
+
+    HeadScan(Set<CheckGroup> checks) {
+        if (checks.contains(CheckGroup.TITLE_DESCRIPTION)) {
+            pending.add("title");
+            pending.add("meta:description");
+        }
+        if (checks.contains(CheckGroup.CANONICAL_ROBOTS)) {
+            pending.add("link:canonical");
+            pending.add("meta:robots");
+        }
+        if (checks.contains(CheckGroup.OPEN_GRAPH)) {
+            pending.add("meta:og:title");
+            pending.add("meta:og:description");
+            pending.add("meta:og:image");
+        }
+        if (checks.contains(CheckGroup.TWITTER_CARD)) {
+            pending.add("meta:twitter:title");
+            pending.add("meta:twitter:description");
+            pending.add("meta:twitter:image");
+        }
+        if (checks.contains(CheckGroup.STRUCTURED_DATA)) {
+            pending.add("jsonld");
+        }
+        if (checks.contains(CheckGroup.PREVIEWS)) {
+            pending.add("title");
+            pending.add("meta:description");
+            pending.add("meta:og:title");
+            pending.add("meta:og:description");
+            pending.add("meta:twitter:title");
+            pending.add("meta:twitter:description");
+        }
+    }
+
+    @Override
+    public boolean test(Element element) {
+        switch (element.normalName()) {
+            case "head" -> {
+                return true;
+            }
+            case "title" -> pending.remove("title");
+            case "meta" -> {
+                // Either attribute counts. This only differs from the analyzer, which prefers
+                // name over property, when a page declares a key under both, property first.
+                pending.remove("meta:" + element.attr("name").toLowerCase(Locale.ROOT));
+                pending.remove("meta:" + element.attr("property").toLowerCase(Locale.ROOT));
+            }
+            case "link" -> {
+                if (element.attr("rel").equalsIgnoreCase("canonical")) pending.remove("link:canonical");
+            }
+            case "script" -> {
+                if (element.attr("type").equalsIgnoreCase("application/ld+json")) pending.remove("jsonld");
+            }
+            default -> {
+            }
+        }
+        return pending.isEmpty();
+    }
+}
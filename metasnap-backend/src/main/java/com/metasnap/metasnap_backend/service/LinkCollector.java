@@ -0,0 +1,49 @@
+package com.metasnap.metasnap_backend.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.jsoup.nodes.Element;
+
+/**
+ * Collects the distinct internal pages a streamed page links to, as absolute URLs normalized by
+ * {@link UrlNormalizer}, in document order. Links marked {@code nofollow} are skipped, as search engines pass
+ * no importance through them. Like {@link ResourceCollector} it must see elements before they
+ * are pruned, and it never stops the stream.
+ */
+class LinkCollector implements Predicate<Element> {
+
+    private final Set<String> links = new LinkedHashSet<>();
+    private final int limit;
+
+    LinkCollector(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public boolean test(Element element) {
+        if (links.size() >= limit || !element.normalName().equals("a") || !BodyScan.inBody(element)) {
+            return false;
+        }
+        if ((" " + element.attr("rel").toLowerCase(Locale.ROOT) + " ").contains(" nofollow ")) {
+            return false;
+        }
+        String url = element.absUrl("href");
+        String lower = url.toLowerCase(Locale.ROOT);
+        if (!lower.startsWith("http://") && !lower.startsWith("https://")) {
+            return false;
+        }
+        if (!BodyAudit.sameSite(BodyAudit.host(lower), BodyAudit.host(element.baseUri().toLowerCase(Locale.ROOT)))) {
+            return false;
+        }
+        links.add(UrlNormalizer.normalize(url));
+        return false;
+    }
+
+    List<String> links() {
+        return new ArrayList<>(links);
+    }
+}
@@ -0,0 +1,230 @@
+package com.metasnap.metasnap_backend.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Internal link graph of a set of analyzed pages, in compressed sparse row form: the targets of
+ * node {@code v} are {@code targets[offsets[v]..offsets[v + 1])}, sorted and without duplicates
+ * or self-links, and the same layout over the reversed edges gives each node's linking pages.
+ * Nodes are the analyzed pages numbered in the order they were added; a link to a page that was
+ * not analyzed is dropped, as its importance is unknown.
+ *
+ * Immutable once built; {@link #pageRank} iterates over nodes in parallel.
+ */
+public class LinkGraph {
+
+    private final int nodes;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] inOffsets;
+    private final int[] sources;
+
+    private LinkGraph(int nodes, int[] from, int[] to, int edges) {
+        this.nodes = nodes;
+        this.offsets = new int[nodes + 1];
+        int[] sorted = bucket(nodes, from, to, edges, offsets);
+        // Sort and dedupe each node's targets in place, then close the gaps
+        int write = 0;
+        int start = 0;
+        for (int v = 0; v < nodes; v++) {
+            int end = offsets[v + 1];
+            Arrays.sort(sorted, start, end);
+            offsets[v] = write;
+            for (int i = start; i < end; i++) {
+                int target = sorted[i];
+                if (target != v && (write == offsets[v] || sorted[write - 1] != target)) {
+                    sorted[write++] = target;
+                }
+            }
+            start = end;
+        }
+        offsets[nodes] = write;
+        this.targets = Arrays.copyOf(sorted, write);
+
+        int[] edgeSources = new int[write];
+        for (int v = 0; v < nodes; v++) {
+            Arrays.fill(edgeSources, offsets[v], offsets[v + 1], v);
+        }
+        this.inOffsets = new int[nodes + 1];
+        this.sources = bucket(nodes, targets, edgeSources, write, inOffsets);
+    }
+
+    public int nodes() {
+        return nodes;
+    }
+
+    public int edges() {
+        return targets.length;
+    }
+
+    public int outDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    public int inDegree(int node) {
+        return inOffsets[node + 1] - inOffsets[node];
+    }
+
+    /** Clicks from {@code root} to each node by breadth-first search; -1 where unreachable. */
+    public int[] depths(int root) {
+        int[] depth = new int[nodes];
+        Arrays.fill(depth, -1);
+        if (root < 0 || root >= nodes) return depth;
+        int[] queue = new int[nodes];
+        int head = 0;
+        int tail = 0;
+        depth[root] = 0;
+        queue[tail++] = root;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int w = targets[i];
+                if (depth[w] < 0) {
+                    depth[w] = depth[v] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * PageRank by power iteration, summing to 1. Each round pulls rank over the incoming edges, so
+     * nodes are updated independently across cores without synchronization; the rank of pages
+     * without links is spread evenly over all pages. Stops after {@code maxIterations} or when the
+     * L1 change of a round falls below {@code tolerance}.
+     */
+    public double[] pageRank(double damping, int maxIterations, double tolerance) {
+        double[] rank = new double[nodes];
+        if (nodes == 0) return rank;
+        Arrays.fill(rank, 1.0 / nodes);
+        double[] next = new double[nodes];
+        double[] share = new double[nodes];
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double[] current = rank;
+            IntStream.range(0, nodes).parallel().forEach(v -> {
+                int degree = outDegree(v);
+                share[v] = degree > 0 ? current[v] / degree : 0;
+            });
+            double dangling = IntStream.range(0, nodes).parallel()
+                    .filter(v -> outDegree(v) == 0).mapToDouble(v -> current[v]).sum();
+            double base = (1 - damping) / nodes + damping * dangling / nodes;
+            double[] updated = next;
+            double change = IntStream.range(0, nodes).parallel().mapToDouble(v -> {
+                double sum = 0;
+                for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+                    sum += share[sources[i]];
+                }
+                updated[v] = base + damping * sum;
+                return Math.abs(updated[v] - current[v]);
+            }).sum();
+            next = rank;
+            rank = updated;
+            if (change < tolerance) break;
+        }
+        return rank;
+    }
+
+    /** Counting sort of edges by source into {@code offsets}; returns the targets in that order. */
+    private static int[] bucket(int nodes, int[] from, int[] to, int edges, int[] offsets) {
+        for (int e = 0; e < edges; e++) {
+            offsets[from[e] + 1]++;
+        }
+        for (int v = 0; v < nodes; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] cursor = Arrays.copyOf(offsets, nodes);
+        int[] sorted = new int[edges];
+        for (int e = 0; e < edges; e++) {
+            sorted[cursor[from[e]]++] = to[e];
+        }
+        return sorted;
+    }
+
+    /**
+     * Collects pages and their links by URL, compared as {@link UrlNormalizer} spells them. Links
+     * may point at pages added later; at {@link #build()} those that never became a page are
+     * dropped. Not thread-safe.
+     */
+    public static class Builder {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private int[] pageOf = new int[1024]; // URL id -> node, or -1 if not (yet) a page
+        private int urls;
+        private int pages;
+        private int[] from = new int[1024];
+        private int[] to = new int[1024];
+        private int edges;
+
+        /**
+         * Adds a page reached under {@code url} and any {@code aliases} (the requested URL and
+         * redirect hops), with the URLs it links to. Returns its node, or the existing node if one
+         * of the URLs was already added.
+         */
+        public int addPage(String url, List<String> aliases, List<String> links) {
+            int[] own = new int[aliases.size() + 1];
+            own[0] = id(url);
+            for (int i = 0; i < aliases.size(); i++) {
+                own[i + 1] = id(aliases.get(i)); // may grow pageOf, so ids first
+            }
+            int node = -1;
+            for (int i = 0; node < 0 && i < own.length; i++) {
+                node = pageOf[own[i]];
+            }
+            if (node < 0) node = pages++;
+            for (int id : own) {
+                pageOf[id] = node;
+            }
+            for (String link : links) {
+                int target = id(link);
+                if (edges == from.length) {
+                    from = Arrays.copyOf(from, edges * 2);
+                    to = Arrays.copyOf(to, edges * 2);
+                }
+                from[edges] = node;
+                to[edges++] = target;
+            }
+            return node;
+        }
+
+        /** The node of a page added under {@code url} or as one of its aliases, or -1. */
+        public int node(String url) {
+            Integer id = ids.get(UrlNormalizer.normalize(url));
+            return id != null ? pageOf[id] : -1;
+        }
+
+        /** Builds the graph; the builder's links are released, so call this once. */
+        public LinkGraph build() {
+            int kept = 0;
+            for (int e = 0; e < edges; e++) {
+                int target = pageOf[to[e]];
+                if (target >= 0) {
+                    from[kept] = from[e];
+                    to[kept++] = target;
+                }
+            }
+            edges = kept;
+            LinkGraph graph = new LinkGraph(pages, from, to, kept);
+            from = new int[0];
+            to = new int[0];
+            edges = 0;
+            return graph;
+        }
+
+        private int id(String url) {
+            String normalized = UrlNormalizer.normalize(url);
+            Integer id = ids.get(normalized);
+            if (id != null) return id;
+            if (urls == pageOf.length) {
+                pageOf = Arrays.copyOf(pageOf, urls * 2);
+            }
+            pageOf[urls] = -1;
+            ids.put(normalized, urls);
+            return urls++;
+        }
+    }
+}
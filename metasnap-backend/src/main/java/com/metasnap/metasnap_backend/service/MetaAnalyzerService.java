@@ -1,33 +1,127 @@
 package com.metasnap.metasnap_backend.service;
 
+import com.metasnap.metasnap_backend.diagnostics.AnalysisEvent;
+import com.metasnap.metasnap_backend.diagnostics.SlowAnalysisRecorder;
+import com.metasnap.metasnap_backend.dto.AnalysisProfile;
+import com.metasnap.metasnap_backend.dto.AnalysisTrace;
 import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.CheckGroup;
 import com.metasnap.metasnap_backend.dto.MetaTags;
+import com.metasnap.metasnap_backend.dto.PageFacts;
 import com.metasnap.metasnap_backend.dto.ScoreBreakdown;
 import com.metasnap.metasnap_backend.dto.FeedbackItem;
+import com.metasnap.metasnap_backend.dto.PageWeight;
 import com.metasnap.metasnap_backend.dto.PreviewData;
-import org.jsoup.Jsoup;
+import com.metasnap.metasnap_backend.fetch.FetchedPage;
+import com.metasnap.metasnap_backend.fetch.PageFetcher;
+import com.metasnap.metasnap_backend.fetch.ResourceSizeProbe;
+import com.metasnap.metasnap_backend.fetch.ResourceSizeProbe.ResourceSize;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 import org.springframework.stereotype.Service;
 
 @Service
 public class MetaAnalyzerService {
+
+    private static final int MAX_RESOURCES = 300;
+    private static final int MAX_LINKS = 1000;
+    private static final long WEIGHT_BUDGET = 3_000_000;
+
+    private final PageFetcher pageFetcher;
+    private final ResourceSizeProbe resourceSizeProbe;
+    private final SlowAnalysisRecorder slowAnalysisRecorder;
+    private final ScoringConfig scoringConfig;
+
+    public MetaAnalyzerService(PageFetcher pageFetcher, ResourceSizeProbe resourceSizeProbe,
+                               SlowAnalysisRecorder slowAnalysisRecorder, ScoringConfig scoringConfig) {
+        this.pageFetcher = pageFetcher;
+        this.resourceSizeProbe = resourceSizeProbe;
+        this.slowAnalysisRecorder = slowAnalysisRecorder;
+        this.scoringConfig = scoringConfig;
+    }
+
     public AnalyzeResponse analyzeUrl(String url) {
+        return analyzeUrl(url, AnalysisProfile.FULL.getChecks());
+    }
+
+    /**
+     * Runs only the requested check groups. Without {@link CheckGroup#BODY},
+     * {@link CheckGroup#PAGE_WEIGHT} or {@link CheckGroup#LINKS} the page is parsed only until every
+     * head tag those groups read has been seen; with any of them the whole page is streamed through
+     * a {@link BodyScan}.
+     * Sections that were not requested stay empty (previews, body stats and weight null). The
+     * extracted tags and body stats are scored by {@link PageScorer} with the current
+     * {@link ScoringConfig} weights, whose version is reported in {@code scoringVersion}.
+     *
+     * Every analysis is timed by phase, emitted as a {@code metasnap.Analysis} JFR event and
+     * offered to the {@link SlowAnalysisRecorder}. Extraction is whatever is left of the total
+     * once fetch, parse and page weight are taken out.
+     */
+    public AnalyzeResponse analyzeUrl(String url, Set<CheckGroup> checks) {
+        AnalysisEvent event = new AnalysisEvent();
+        event.begin();
+        AnalysisTrace trace = new AnalysisTrace();
+        trace.setUrl(url);
+        trace.setStartedAt(System.currentTimeMillis());
+        long start = System.nanoTime();
+        AnalyzeResponse response = analyze(url, checks, trace);
+        trace.setTotalMs((System.nanoTime() - start) / 1_000_000);
+        trace.setFinalUrl(response.getFinalUrl());
+        trace.setScore(response.getScore());
+        if (trace.getFailure() == null) {
+            trace.setExtractMs(Math.max(0, trace.getTotalMs() - trace.getFetchMs() - trace.getParseMs() - trace.getWeightMs()));
+        }
+        slowAnalysisRecorder.record(trace);
+        event.end();
+        if (event.shouldCommit()) {
+            event.url = url;
+            event.checks = checks.toString();
+            event.fetch = trace.getFetchMs();
+            event.parse = trace.getParseMs();
+            event.extract = trace.getExtractMs();
+            event.weight = trace.getWeightMs();
+            event.score = trace.getScore();
+            event.failure = trace.getFailure();
+            event.commit();
+        }
+        return response;
+    }
+
+    private AnalyzeResponse analyze(String url, Set<CheckGroup> checks, AnalysisTrace trace) {
         AnalyzeResponse response = new AnalyzeResponse();
         MetaTags meta = new MetaTags();
         ScoreBreakdown breakdown = new ScoreBreakdown();
         List<FeedbackItem> feedback = new ArrayList<>();
-        PreviewData previews = new PreviewData();
+        PreviewData previews = checks.contains(CheckGroup.PREVIEWS) ? new PreviewData() : null;
         int score = 0;
+        ScoringWeights weights = scoringConfig.current();
+        response.setChecks(checks);
+        response.setMaxScore(PageScorer.maxScore(checks, weights));
+        response.setScoringVersion(weights.getVersion());
         try {
-            Document doc = Jsoup.connect(url)
-                    .userAgent("Mozilla/5.0 (compatible; MetaSnapBot/1.0)")
-                    .timeout(10000)
-                    .followRedirects(true)
-                    .get();
+            if (url == null || url.isBlank()) {
+                throw new IllegalArgumentException("URL is required");
+            }
+            BodyAudit bodyAudit = checks.contains(CheckGroup.BODY) ? new BodyAudit() : null;
+            ResourceCollector resources = checks.contains(CheckGroup.PAGE_WEIGHT) ? new ResourceCollector(MAX_RESOURCES) : null;
+            LinkCollector links = checks.contains(CheckGroup.LINKS) ? new LinkCollector(MAX_LINKS) : null;
+            FetchedPage page = pageFetcher.fetch(url, scan(checks, bodyAudit, resources, links));
+            trace.setFetchMs(page.fetchNanos() / 1_000_000);
+            trace.setParseMs(page.parseNanos() / 1_000_000);
+            trace.setPageBytes(page.bytesRead());
+            Document doc = page.document();
+            response.setFinalUrl(page.finalUrl());
+            response.setRedirects(page.redirects());
+            if (!page.redirects().isEmpty()) {
+                addFeedback(feedback, "warning", "URL redirects " + page.redirects().size()
+                        + (page.redirects().size() == 1 ? " time" : " times") + " before reaching " + page.finalUrl());
+            }
             Element head = doc.head();
             if (head == null) {
                 addFeedback(feedback, "missing", "<head> section is missing");
@@ -38,105 +132,73 @@ public class MetaAnalyzerService {
                 response.setPreviews(previews);
                 return response;
             }
-            // Title
-            String title = head.selectFirst("title") != null ? head.selectFirst("title").text() : null;
-            meta.setTitle(title);
-            if (title != null && !title.isEmpty()) {
-                score += 15;
-                breakdown.setTitleDescription(breakdown.getTitleDescription() + 15);
-                addFeedback(feedback, "good", "Title tag is present");
-            } else {
-                addFeedback(feedback, "missing", "Title tag is missing");
+            // Extract, then score the extracted facts
+            if (checks.contains(CheckGroup.TITLE_DESCRIPTION)) {
+                meta.setTitle(getTitle(head));
+                meta.setDescription(getMetaContent(head, "description"));
+            }
+            if (checks.contains(CheckGroup.CANONICAL_ROBOTS)) {
+                meta.setCanonical(getLinkHref(head, "canonical"));
+                meta.setRobots(getMetaContent(head, "robots"));
             }
-            // Description
-            String description = getMetaContent(head, "description");
-            meta.setDescription(description);
-            if (description != null && !description.isEmpty()) {
-                score += 15;
-                breakdown.setTitleDescription(breakdown.getTitleDescription() + 15);
-                addFeedback(feedback, "good", "Description meta tag is present");
-            } else {
-                addFeedback(feedback, "warning", "Description meta tag is missing");
+            if (checks.contains(CheckGroup.OPEN_GRAPH)) {
+                meta.setOgTitle(getMetaContent(head, "og:title"));
+                meta.setOgDescription(getMetaContent(head, "og:description"));
+                meta.setOgImage(getMetaContent(head, "og:image"));
             }
-            // Canonical
-            String canonical = getLinkHref(head, "canonical");
-            meta.setCanonical(canonical);
-            if (canonical != null && !canonical.isEmpty()) {
-                score += 10;
-                breakdown.setCanonicalRobots(breakdown.getCanonicalRobots() + 10);
-                addFeedback(feedback, "good", "Canonical tag is present");
-            } else {
-                addFeedback(feedback, "warning", "Canonical tag is missing");
+            if (checks.contains(CheckGroup.TWITTER_CARD)) {
+                meta.setTwitterTitle(getMetaContent(head, "twitter:title"));
+                meta.setTwitterDescription(getMetaContent(head, "twitter:description"));
+                meta.setTwitterImage(getMetaContent(head, "twitter:image"));
             }
-            // Robots
-            String robots = getMetaContent(head, "robots");
-            meta.setRobots(robots);
-            if (robots != null && !robots.isEmpty()) {
-                score += 5;
-                breakdown.setCanonicalRobots(breakdown.getCanonicalRobots() + 5);
-                addFeedback(feedback, "good", "Robots meta tag is present");
-            } else {
-                addFeedback(feedback, "warning", "Robots meta tag is missing");
+            if (checks.contains(CheckGroup.STRUCTURED_DATA)) {
+                Element script = head.selectFirst("script[type=application/ld+json]");
+                meta.setStructuredData(script != null ? script.html() : null);
             }
-            // Open Graph
-            String ogTitle = getMetaContent(head, "og:title");
-            String ogDescription = getMetaContent(head, "og:description");
-            String ogImage = getMetaContent(head, "og:image");
-            meta.setOgTitle(ogTitle);
-            meta.setOgDescription(ogDescription);
-            meta.setOgImage(ogImage);
-            int ogScore = 0;
-            if (ogTitle != null && !ogTitle.isEmpty()) ogScore += 10;
-            if (ogDescription != null && !ogDescription.isEmpty()) ogScore += 10;
-            if (ogImage != null && !ogImage.isEmpty()) ogScore += 5;
-            breakdown.setOpenGraph(ogScore);
-            score += ogScore;
-            if (ogScore > 0) {
-                addFeedback(feedback, ogScore == 25 ? "good" : "warning", "Open Graph tags: " + ogScore + "/25");
-            } else {
-                addFeedback(feedback, "missing", "Open Graph tags are missing");
+            if (bodyAudit != null) {
+                response.setBody(bodyAudit.stats());
             }
-            // Twitter Card
-            String twitterTitle = getMetaContent(head, "twitter:title");
-            String twitterDescription = getMetaContent(head, "twitter:description");
-            String twitterImage = getMetaContent(head, "twitter:image");
-            meta.setTwitterTitle(twitterTitle);
-            meta.setTwitterDescription(twitterDescription);
-            meta.setTwitterImage(twitterImage);
-            int twitterScore = 0;
-            if (twitterTitle != null && !twitterTitle.isEmpty()) twitterScore += 8;
-            if (twitterDescription != null && !twitterDescription.isEmpty()) twitterScore += 7;
-            if (twitterImage != null && !twitterImage.isEmpty()) twitterScore += 5;
-            breakdown.setTwitterCard(twitterScore);
-            score += twitterScore;
-            if (twitterScore > 0) {
-                addFeedback(feedback, twitterScore == 20 ? "good" : "warning", "Twitter Card tags: " + twitterScore + "/20");
-            } else {
-                addFeedback(feedback, "missing", "Twitter Card tags are missing");
+            if (links != null) {
+                response.setLinks(links.links());
             }
-            // Structured Data (JSON-LD)
-            String structuredData = null;
-            Elements scripts = head.select("script[type=application/ld+json]");
-            if (!scripts.isEmpty()) {
-                structuredData = scripts.first().html();
-                score += 10;
-                breakdown.setStructuredData(10);
-                addFeedback(feedback, "good", "Structured data (JSON-LD) is present");
-            } else {
-                addFeedback(feedback, "warning", "Structured data (JSON-LD) is missing");
+            PageFacts facts = new PageFacts();
+            facts.setUrl(page.finalUrl());
+            facts.setChecks(checks);
+            facts.setMeta(meta);
+            facts.setBody(response.getBody());
+            PageScorer.Result result = PageScorer.score(facts, weights, feedback);
+            score = result.score();
+            breakdown = result.breakdown();
+            if (resources != null) {
+                long weightStart = System.nanoTime();
+                response.setWeight(checkWeight(page, resources.resources(), feedback));
+                trace.setWeightMs((System.nanoTime() - weightStart) / 1_000_000);
+            }
+            if (checks.contains(CheckGroup.PREVIEWS)) {
+                // Previews show these tags even when their own checks were not requested
+                String title = checks.contains(CheckGroup.TITLE_DESCRIPTION) ? meta.getTitle() : getTitle(head);
+                String description = checks.contains(CheckGroup.TITLE_DESCRIPTION)
+                        ? meta.getDescription() : getMetaContent(head, "description");
+                String ogTitle = checks.contains(CheckGroup.OPEN_GRAPH) ? meta.getOgTitle() : getMetaContent(head, "og:title");
+                String ogDescription = checks.contains(CheckGroup.OPEN_GRAPH)
+                        ? meta.getOgDescription() : getMetaContent(head, "og:description");
+                String twitterTitle = checks.contains(CheckGroup.TWITTER_CARD)
+                        ? meta.getTwitterTitle() : getMetaContent(head, "twitter:title");
+                String twitterDescription = checks.contains(CheckGroup.TWITTER_CARD)
+                        ? meta.getTwitterDescription() : getMetaContent(head, "twitter:description");
+                previews.setGooglePreview(title + "\n" + page.finalUrl() + "\n" + description);
+                previews.setFacebookPreview(ogTitle + "\n" + ogDescription);
+                previews.setTwitterPreview(twitterTitle + "\n" + twitterDescription);
             }
-            meta.setStructuredData(structuredData);
-            // Previews (simple text for now)
-            previews.setGooglePreview(meta.getTitle() + "\n" + url + "\n" + meta.getDescription());
-            previews.setFacebookPreview(meta.getOgTitle() + "\n" + meta.getOgDescription());
-            previews.setTwitterPreview(meta.getTwitterTitle() + "\n" + meta.getTwitterDescription());
         } catch (Exception e) {
+            trace.setFailure(e.getClass().getSimpleName() + ": " + e.getMessage());
             addFeedback(feedback, "missing", "Failed to fetch or parse the URL: " + e.getMessage());
+            response.setFailed(true);
             response.setScore(0);
             response.setBreakdown(new ScoreBreakdown());
             response.setMeta(new MetaTags());
             response.setFeedback(feedback);
-            response.setPreviews(new PreviewData());
+            response.setPreviews(checks.contains(CheckGroup.PREVIEWS) ? new PreviewData() : null);
             return response;
         }
         response.setScore(score);
@@ -147,6 +209,66 @@ public class MetaAnalyzerService {
         return response;
     }
 
+    private static Predicate<Element> scan(Set<CheckGroup> checks, BodyAudit bodyAudit, ResourceCollector resources,
+                                           LinkCollector links) {
+        if (bodyAudit == null && resources == null && links == null) {
+            return new HeadScan(checks);
+        }
+        List<Predicate<Element>> visitors = new ArrayList<>();
+        if (resources != null) visitors.add(resources); // before the audit, while URLs still resolve
+        if (links != null) visitors.add(links);
+        if (bodyAudit != null) visitors.add(bodyAudit);
+        return new BodyScan(visitors);
+    }
+
+    private PageWeight checkWeight(FetchedPage page, Map<String, ResourceCollector.Kind> resources,
+                                   List<FeedbackItem> feedback) {
+        resources.remove(page.finalUrl());
+        // The page itself was just read, so only the resources it references are probed
+        List<ResourceSize> sizes = resourceSizeProbe.probeAll(new ArrayList<>(resources.keySet()));
+        PageWeight weight = new PageWeight();
+        weight.setHtmlBytes(page.transferBytes());
+        weight.setTotalBytes(page.transferBytes());
+        for (ResourceSize size : sizes) {
+            ResourceCollector.Kind kind = resources.get(size.url());
+            if (kind == ResourceCollector.Kind.STYLESHEET) weight.setStylesheets(weight.getStylesheets() + 1);
+            if (kind == ResourceCollector.Kind.SCRIPT) weight.setScripts(weight.getScripts() + 1);
+            if (kind == ResourceCollector.Kind.IMAGE) weight.setImages(weight.getImages() + 1);
+            if (size.cached()) weight.setCached(weight.getCached() + 1);
+            if (size.bytes() < 0) {
+                weight.setUnknown(weight.getUnknown() + 1);
+                continue;
+            }
+            if (kind == ResourceCollector.Kind.STYLESHEET) weight.setStylesheetBytes(weight.getStylesheetBytes() + size.bytes());
+            else if (kind == ResourceCollector.Kind.SCRIPT) weight.setScriptBytes(weight.getScriptBytes() + size.bytes());
+            else weight.setImageBytes(weight.getImageBytes() + size.bytes());
+            weight.setTotalBytes(weight.getTotalBytes() + size.bytes());
+        }
+        // Page weight (reported, not scored)
+        if (weight.getTotalBytes() > WEIGHT_BUDGET) {
+            addFeedback(feedback, "warning", "Page weight is " + formatBytes(weight.getTotalBytes())
+                    + " (aim for under " + formatBytes(WEIGHT_BUDGET) + ")");
+        } else {
+            addFeedback(feedback, "good", "Page weight is " + formatBytes(weight.getTotalBytes()));
+        }
+        if (weight.getUnknown() > 0) {
+            addFeedback(feedback, "warning", "Size of " + weight.getUnknown() + " of " + sizes.size()
+                    + " resources could not be determined");
+        }
+        return weight;
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes >= 1_000_000) return String.format(Locale.ROOT, "%.1f MB", bytes / 1_000_000.0);
+        if (bytes >= 1_000) return String.format(Locale.ROOT, "%.0f KB", bytes / 1_000.0);
+        return bytes + " B";
+    }
+
+    private String getTitle(Element head) {
+        Element title = head.selectFirst("title");
+        return title != null ? title.text() : null;
+    }
+
     private String getMetaContent(Element head, String name) {
         Element tag = head.selectFirst("meta[name=" + name + "]");
         if (tag == null) tag = head.selectFirst("meta[property=" + name + "]");
@@ -0,0 +1,186 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.metasnap.metasnap_backend.dto.BodyStats;
+import com.metasnap.metasnap_backend.dto.CheckGroup;
+import com.metasnap.metasnap_backend.dto.FeedbackItem;
+import com.metasnap.metasnap_backend.dto.MetaTags;
+import com.metasnap.metasnap_backend.dto.PageFacts;
+import com.metasnap.metasnap_backend.dto.ScoreBreakdown;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns extracted {@link PageFacts} into a score under one {@link ScoringWeights} version. Pure
+ * and allocation-light, so stored extractions can be re-scored in bulk without refetching; pass
+ * a feedback list to also get the messages shown for a live analysis.
+ */
+public final class PageScorer {
+
+    /** The score, the best score the page's check groups could add up to, and its breakdown. */
+    public record Result(int score, int maxScore, ScoreBreakdown breakdown) {
+    }
+
+    private PageScorer() {
+    }
+
+    public static Result score(PageFacts facts, ScoringWeights weights, List<FeedbackItem> feedback) {
+        Set<CheckGroup> checks = facts.getChecks() != null ? facts.getChecks() : Set.of();
+        MetaTags meta = facts.getMeta() != null ? facts.getMeta() : new MetaTags();
+        ScoreBreakdown breakdown = new ScoreBreakdown();
+        if (checks.contains(CheckGroup.TITLE_DESCRIPTION)) {
+            int titleDescription = 0;
+            // Title
+            if (present(meta.getTitle())) {
+                titleDescription += weights.getTitle();
+                add(feedback, "good", "Title tag is present");
+            } else {
+                add(feedback, "missing", "Title tag is missing");
+            }
+            // Description
+            if (present(meta.getDescription())) {
+                titleDescription += weights.getDescription();
+                add(feedback, "good", "Description meta tag is present");
+            } else {
+                add(feedback, "warning", "Description meta tag is missing");
+            }
+            breakdown.setTitleDescription(titleDescription);
+        }
+        if (checks.contains(CheckGroup.CANONICAL_ROBOTS)) {
+            int canonicalRobots = 0;
+            // Canonical
+            if (present(meta.getCanonical())) {
+                canonicalRobots += weights.getCanonical();
+                add(feedback, "good", "Canonical tag is present");
+            } else {
+                add(feedback, "warning", "Canonical tag is missing");
+            }
+            // Robots
+            if (present(meta.getRobots())) {
+                canonicalRobots += weights.getRobots();
+                add(feedback, "good", "Robots meta tag is present");
+            } else {
+                add(feedback, "warning", "Robots meta tag is missing");
+            }
+            breakdown.setCanonicalRobots(canonicalRobots);
+        }
+        if (checks.contains(CheckGroup.OPEN_GRAPH)) {
+            // Open Graph
+            int ogScore = 0;
+            if (present(meta.getOgTitle())) ogScore += weights.getOgTitle();
+            if (present(meta.getOgDescription())) ogScore += weights.getOgDescription();
+            if (present(meta.getOgImage())) ogScore += weights.getOgImage();
+            int ogMax = weights.getOgTitle() + weights.getOgDescription() + weights.getOgImage();
+            breakdown.setOpenGraph(ogScore);
+            if (ogScore > 0) {
+                add(feedback, ogScore == ogMax ? "good" : "warning", "Open Graph tags: " + ogScore + "/" + ogMax);
+            } else {
+                add(feedback, "missing", "Open Graph tags are missing");
+            }
+        }
+        if (checks.contains(CheckGroup.TWITTER_CARD)) {
+            // Twitter Card
+            int twitterScore = 0;
+            if (present(meta.getTwitterTitle())) twitterScore += weights.getTwitterTitle();
+            if (present(meta.getTwitterDescription())) twitterScore += weights.getTwitterDescription();
+            if (present(meta.getTwitterImage())) twitterScore += weights.getTwitterImage();
+            int twitterMax = weights.getTwitterTitle() + weights.getTwitterDescription() + weights.getTwitterImage();
+            breakdown.setTwitterCard(twitterScore);
+            if (twitterScore > 0) {
+                add(feedback, twitterScore == twitterMax ? "good" : "warning",
+                        "Twitter Card tags: " + twitterScore + "/" + twitterMax);
+            } else {
+                add(feedback, "missing", "Twitter Card tags are missing");
+            }
+        }
+        if (checks.contains(CheckGroup.STRUCTURED_DATA)) {
+            // Structured Data (JSON-LD)
+            if (meta.getStructuredData() != null) {
+                breakdown.setStructuredData(weights.getStructuredData());
+                add(feedback, "good", "Structured data (JSON-LD) is present");
+            } else {
+                add(feedback, "warning", "Structured data (JSON-LD) is missing");
+            }
+        }
+        if (checks.contains(CheckGroup.BODY) && facts.getBody() != null) {
+            breakdown.setOnPage(scoreBody(facts.getBody(), weights, feedback));
+        }
+        int score = breakdown.getTitleDescription() + breakdown.getCanonicalRobots() + breakdown.getOpenGraph()
+                + breakdown.getTwitterCard() + breakdown.getStructuredData() + breakdown.getOnPage();
+        return new Result(score, maxScore(checks, weights), breakdown);
+    }
+
+    public static int maxScore(Set<CheckGroup> checks, ScoringWeights weights) {
+        int max = 0;
+        if (checks.contains(CheckGroup.TITLE_DESCRIPTION)) max += weights.getTitle() + weights.getDescription();
+        if (checks.contains(CheckGroup.CANONICAL_ROBOTS)) max += weights.getCanonical() + weights.getRobots();
+        if (checks.contains(CheckGroup.OPEN_GRAPH)) {
+            max += weights.getOgTitle() + weights.getOgDescription() + weights.getOgImage();
+        }
+        if (checks.contains(CheckGroup.TWITTER_CARD)) {
+            max += weights.getTwitterTitle() + weights.getTwitterDescription() + weights.getTwitterImage();
+        }
+        if (checks.contains(CheckGroup.STRUCTURED_DATA)) max += weights.getStructuredData();
+        if (checks.contains(CheckGroup.BODY)) {
+            max += weights.getSingleH1() + weights.getHeadingHierarchy() + weights.getImageAlt() + weights.getWordCount();
+        }
+        return max;
+    }
+
+    private static int scoreBody(BodyStats body, ScoringWeights weights, List<FeedbackItem> feedback) {
+        int onPage = 0;
+        // H1
+        if (body.getH1Count() == 1) {
+            onPage += weights.getSingleH1();
+            add(feedback, "good", "Page has exactly one H1");
+        } else if (body.getH1Count() == 0) {
+            add(feedback, "missing", "H1 heading is missing");
+        } else {
+            add(feedback, "warning", "Page has " + body.getH1Count() + " H1 headings; use exactly one");
+        }
+        // Heading hierarchy
+        if (body.getHeadingSkip() == null) {
+            onPage += weights.getHeadingHierarchy();
+            add(feedback, "good", "Heading levels do not skip");
+        } else {
+            add(feedback, "warning", "Heading levels skip: " + body.getHeadingSkip());
+        }
+        // Image alt text
+        if (body.getImagesWithoutAlt() == 0) {
+            onPage += weights.getImageAlt();
+            add(feedback, "good", "All " + body.getImages() + " images have alt text");
+        } else {
+            add(feedback, "warning", body.getImagesWithoutAlt() + " of " + body.getImages()
+                    + " images have no alt text");
+        }
+        // Word count
+        if (body.getWordCount() >= weights.getMinWords()) {
+            onPage += weights.getWordCount();
+            add(feedback, "good", "Page has " + body.getWordCount() + " words of content");
+        } else {
+            add(feedback, "warning", "Thin content: " + body.getWordCount() + " words (aim for "
+                    + weights.getMinWords() + " or more)");
+        }
+        // Links (reported, not scored)
+        if (body.getInternalLinks() == 0) {
+            add(feedback, "warning", "No internal links found");
+        }
+        if (body.getInternalNofollowLinks() > 0) {
+            add(feedback, "warning", body.getInternalNofollowLinks() + " internal links are nofollow");
+        }
+        return onPage;
+    }
+
+    private static boolean present(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    private static void add(List<FeedbackItem> feedback, String type, String message) {
+        if (feedback == null) {
+            return;
+        }
+        FeedbackItem item = new FeedbackItem();
+        item.setType(type);
+        item.setMessage(message);
+        feedback.add(item);
+    }
+}
@@ -0,0 +1,244 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.PageFacts;
+import com.metasnap.metasnap_backend.dto.RescoreStatus;
+import com.metasnap.metasnap_backend.dto.RescoredPage;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Re-scores every page in the {@link ExtractionStore} under one {@link ScoringWeights} version and
+ * stores the rows in the {@link ScoreReportService} under that version, with no network I/O. The
+ * stored facts are streamed from the store a batch at a time; each batch is split in halves on a
+ * fork/join pool ({@code metasnap.rescore.parallelism}, default one thread per core) down to
+ * slices of {@value #SLICE} pages, and each slice is scored without building feedback and handed
+ * to the reports under one lock acquisition. One run at a time.
+ *
+ * Each page's result is also written as a JSON line to {@code <version>.jsonl} in
+ * {@code metasnap.rescore.results-dir}, so a run outlives a restart. The file is written under a
+ * temporary name and only takes its final name once the run completes, replacing an earlier run
+ * of the same version. An empty directory setting writes nothing.
+ */
+@Service
+public class RescoreService {
+
+    static final int SLICE = 2048;
+
+    private static final Logger log = LoggerFactory.getLogger(RescoreService.class);
+
+    private final ExtractionStore extractionStore;
+    private final ScoreReportService scoreReportService;
+    private final ObjectMapper objectMapper;
+    private final Path resultsDir;
+    private final ForkJoinPool pool;
+    private final AtomicReference<Run> last = new AtomicReference<>();
+
+    public RescoreService(ExtractionStore extractionStore,
+                          ScoreReportService scoreReportService,
+                          ObjectMapper objectMapper,
+                          @Value("${metasnap.rescore.results-dir:${java.io.tmpdir}/metasnap-rescore}") String resultsDir,
+                          @Value("${metasnap.rescore.parallelism:0}") int parallelism) {
+        this.extractionStore = extractionStore;
+        this.scoreReportService = scoreReportService;
+        this.objectMapper = objectMapper;
+        this.resultsDir = resultsDir.isBlank() ? null : Path.of(resultsDir);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Starts a run, or returns empty if one is still going. */
+    public Optional<RescoreStatus> start(ScoringWeights weights) {
+        Run previous = last.get();
+        if (previous != null && previous.finishedAt == 0) {
+            return Optional.empty();
+        }
+        Run run = new Run(weights, extractionStore.size());
+        if (!last.compareAndSet(previous, run)) {
+            return Optional.empty();
+        }
+        pool.execute(run::execute);
+        return Optional.of(run.status());
+    }
+
+    /** The running or most recently finished run. */
+    public Optional<RescoreStatus> status() {
+        return Optional.ofNullable(last.get()).map(Run::status);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private final class Run {
+
+        private final ScoringWeights weights;
+        private final int total;
+        private final long startedAt = System.currentTimeMillis();
+        private final long startNanos = System.nanoTime();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder scored = new LongAdder();
+        private final LongAdder percentSum = new LongAdder();
+        private volatile long finishedAt;
+        private volatile long elapsedNanos;
+        private volatile String failure;
+        private volatile String resultsFile;
+        private OutputStream results;
+
+        Run(ScoringWeights weights, int total) {
+            this.weights = weights;
+            this.total = total;
+        }
+
+        void execute() {
+            Path temp = null;
+            try {
+                if (resultsDir != null) {
+                    Files.createDirectories(resultsDir);
+                    temp = Files.createTempFile(resultsDir, weights.getVersion() + "-", ".tmp");
+                    results = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024);
+                }
+                extractionStore.forEachBatch(SLICE * pool.getParallelism(),
+                        pages -> new Slice(pages, 0, pages.size()).invoke());
+                if (results != null) {
+                    results.close();
+                    Path target = resultsDir.resolve(weights.getVersion() + ".jsonl");
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    resultsFile = target.toString();
+                }
+            } catch (IOException | RuntimeException e) {
+                failure = e.getClass().getSimpleName() + ": " + e.getMessage();
+                log.warn("Re-scoring with weights {} failed", weights.getVersion(), e);
+                discard(temp);
+            } finally {
+                elapsedNanos = System.nanoTime() - startNanos;
+                finishedAt = System.currentTimeMillis();
+            }
+            log.info("Re-scored {} pages with weights {} in {} ms", completed.sum(), weights.getVersion(),
+                    elapsedNanos / 1_000_000);
+        }
+
+        RescoreStatus status() {
+            long nanos = finishedAt != 0 ? elapsedNanos : System.nanoTime() - startNanos;
+            long done = completed.sum();
+            long pages = scored.sum();
+            RescoreStatus status = new RescoreStatus();
+            status.setVersion(weights.getVersion());
+            status.setState(finishedAt == 0 ? "running" : failure != null ? "failed" : "completed");
+            status.setTotal(total);
+            status.setCompleted(done);
+            status.setStartedAt(startedAt);
+            status.setElapsedMs(nanos / 1_000_000);
+            status.setPagesPerSecond(nanos > 0 ? done * 1_000_000_000L / nanos : 0);
+            status.setAverageScore(pages > 0 ? Math.round(percentSum.sum() * 10.0 / pages) / 10.0 : null);
+            status.setFailure(failure);
+            status.setResultsFile(resultsFile);
+            return status;
+        }
+
+        private void discard(Path temp) {
+            if (temp == null) return;
+            try {
+                if (results != null) results.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.warn("Could not remove partial re-scoring results {}: {}", temp, e.getMessage());
+            }
+        }
+
+        private void write(List<String> tenants, List<AnalyzeResponse> rescored) {
+            if (results == null) return;
+            ByteArrayOutputStream lines = new ByteArrayOutputStream(rescored.size() * 256);
+            try {
+                for (int i = 0; i < rescored.size(); i++) {
+                    AnalyzeResponse response = rescored.get(i);
+                    RescoredPage page = new RescoredPage();
+                    page.setTenant(tenants.get(i));
+                    page.setUrl(response.getFinalUrl());
+                    page.setScoringVersion(response.getScoringVersion());
+                    page.setScore(response.getScore());
+                    page.setMaxScore(response.getMaxScore());
+                    page.setBreakdown(response.getBreakdown());
+                    objectMapper.writeValue(lines, page);
+                    lines.write('\n');
+                }
+                synchronized (this) {
+                    lines.writeTo(results);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write re-scoring results", e);
+            }
+        }
+
+        private final class Slice extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final List<PageFacts> facts;
+            private final int from;
+            private final int to;
+
+            Slice(List<PageFacts> facts, int from, int to) {
+                this.facts = facts;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > SLICE) {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new Slice(facts, from, middle), new Slice(facts, middle, to));
+                    return;
+                }
+                List<String> tenants = new ArrayList<>(to - from);
+                List<AnalyzeResponse> rescored = new ArrayList<>(to - from);
+                long percents = 0;
+                int withMax = 0;
+                for (int i = from; i < to; i++) {
+                    PageFacts page = facts.get(i);
+                    PageScorer.Result result = PageScorer.score(page, weights, null);
+                    AnalyzeResponse response = new AnalyzeResponse();
+                    response.setFinalUrl(page.getUrl());
+                    response.setChecks(page.getChecks());
+                    response.setMeta(page.getMeta());
+                    response.setBody(page.getBody());
+                    response.setBreakdown(result.breakdown());
+                    response.setScore(result.score());
+                    response.setMaxScore(result.maxScore());
+                    response.setScoringVersion(weights.getVersion());
+                    tenants.add(page.getTenant());
+                    rescored.add(response);
+                    if (result.maxScore() > 0) {
+                        percents += result.score() * 100L / result.maxScore();
+                        withMax++;
+                    }
+                }
+                scoreReportService.recordAll(tenants, rescored);
+                write(tenants, rescored);
+                percentSum.add(percents);
+                scored.add(withMax);
+                completed.add(to - from);
+            }
+        }
+    }
+}
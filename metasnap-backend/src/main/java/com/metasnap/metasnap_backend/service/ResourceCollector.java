@@ -0,0 +1,50 @@
+package com.metasnap.metasnap_backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.jsoup.nodes.Element;
+
+/**
+ * Collects the stylesheets, scripts and images a streamed page loads, as absolute http(s) URLs in
+ * document order, each once. Must see elements before they are pruned, since resolving relative
+ * URLs needs the element's place in the document. Never stops the stream.
+ */
+class ResourceCollector implements Predicate<Element> {
+
+    enum Kind { STYLESHEET, SCRIPT, IMAGE }
+
+    private final Map<String, Kind> resources = new LinkedHashMap<>();
+    private final int limit;
+
+    ResourceCollector(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public boolean test(Element element) {
+        switch (element.normalName()) {
+            case "link" -> {
+                if ((" " + element.attr("rel").toLowerCase(Locale.ROOT) + " ").contains(" stylesheet ")) {
+                    add(element.absUrl("href"), Kind.STYLESHEET);
+                }
+            }
+            case "script" -> add(element.absUrl("src"), Kind.SCRIPT);
+            case "img" -> add(element.absUrl("src"), Kind.IMAGE);
+            default -> {
+            }
+        }
+        return false;
+    }
+
+    Map<String, Kind> resources() {
+        return resources;
+    }
+
+    private void add(String url, Kind kind) {
+        if (resources.size() < limit && (url.startsWith("http://") || url.startsWith("https://"))) {
+            resources.putIfAbsent(url, kind);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.CheckGroup;
+import com.metasnap.metasnap_backend.dto.MetaField;
+import com.metasnap.metasnap_backend.dto.MetaTags;
+import com.metasnap.metasnap_backend.dto.ReportMetric;
+import com.metasnap.metasnap_backend.dto.ScoreBreakdown;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Column store of analysis results for site-wide aggregates. One row per URL (a re-analysis
+ * overwrites its row); each {@link ReportMetric} is a {@code short[]} column, hosts are
+ * dictionary-encoded into an {@code int[]}, and tag presence and "check group ran" flags are
+ * bitsets over the rows. Queries are tight loops over those arrays: presence ratios are popcounts
+ * over bitset words, group-by host is a counting sort on the host ids, and percentiles sort each
+ * host's slice of a primitive array. A row costs about 40 bytes in the columns, but its entry in
+ * the URL index costs more: about 100 bytes for the hash map node, table slot, boxed row number
+ * and {@code String} header, plus one byte per URL character.
+ *
+ * Not thread-safe; {@link ScoreReportService} guards it with a read-write lock.
+ */
+public class ScoreColumns {
+
+    private static final ReportMetric[] METRICS = ReportMetric.values();
+    private static final MetaField[] FIELDS = MetaField.values();
+    private static final CheckGroup[] GROUPS = CheckGroup.values();
+
+    private final int maxRows;
+    private final Map<String, Integer> rows = new HashMap<>();
+    private final Map<String, Integer> hostIds = new HashMap<>();
+    private final List<String> hostNames = new ArrayList<>();
+    private int size;
+    private int[] hosts;
+    private short[][] metrics;
+    private long[][] present;
+    private long[][] ran;
+    private long[] scored;
+
+    public ScoreColumns(int maxRows) {
+        this.maxRows = maxRows;
+        int capacity = Math.min(maxRows, 1024);
+        this.hosts = new int[capacity];
+        this.metrics = new short[METRICS.length][capacity];
+        this.present = new long[FIELDS.length][words(capacity)];
+        this.ran = new long[GROUPS.length][words(capacity)];
+        this.scored = new long[words(capacity)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int hostCount() {
+        return hostNames.size();
+    }
+
+    public boolean contains(String url) {
+        return rows.containsKey(url);
+    }
+
+    /** Stores or replaces the row for {@code url}; returns false when the store is full. */
+    public boolean add(String url, String host, AnalyzeResponse response) {
+        Integer existing = rows.get(url);
+        int row;
+        if (existing != null) {
+            row = existing;
+        } else {
+            if (size == maxRows) return false;
+            row = size++;
+            if (row == hosts.length) grow();
+            rows.put(url, row);
+        }
+        hosts[row] = hostIds.computeIfAbsent(host, h -> {
+            hostNames.add(h);
+            return hostNames.size() - 1;
+        });
+
+        Set<CheckGroup> checks = response.getChecks() != null ? response.getChecks() : Set.of();
+        for (CheckGroup group : GROUPS) {
+            setBit(ran[group.ordinal()], row, checks.contains(group));
+        }
+        setBit(scored, row, response.getMaxScore() > 0);
+        ScoreBreakdown breakdown = response.getBreakdown() != null ? response.getBreakdown() : new ScoreBreakdown();
+        MetaTags meta = response.getMeta() != null ? response.getMeta() : new MetaTags();
+        set(ReportMetric.SCORE, row, response.getMaxScore() > 0 ? response.getScore() * 100 / response.getMaxScore() : 0);
+        set(ReportMetric.TITLE_DESCRIPTION, row, breakdown.getTitleDescription());
+        set(ReportMetric.OPEN_GRAPH, row, breakdown.getOpenGraph());
+        set(ReportMetric.TWITTER_CARD, row, breakdown.getTwitterCard());
+        set(ReportMetric.CANONICAL_ROBOTS, row, breakdown.getCanonicalRobots());
+        set(ReportMetric.STRUCTURED_DATA, row, breakdown.getStructuredData());
+        set(ReportMetric.ON_PAGE, row, breakdown.getOnPage());
+        set(ReportMetric.TITLE_LENGTH, row, length(meta.getTitle()));
+        set(ReportMetric.DESCRIPTION_LENGTH, row, length(meta.getDescription()));
+
+        setPresent(MetaField.TITLE, row, meta.getTitle());
+        setPresent(MetaField.DESCRIPTION, row, meta.getDescription());
+        setPresent(MetaField.CANONICAL, row, meta.getCanonical());
+        setPresent(MetaField.ROBOTS, row, meta.getRobots());
+        setPresent(MetaField.OG_TITLE, row, meta.getOgTitle());
+        setPresent(MetaField.OG_DESCRIPTION, row, meta.getOgDescription());
+        setPresent(MetaField.OG_IMAGE, row, meta.getOgImage());
+        setPresent(MetaField.TWITTER_TITLE, row, meta.getTwitterTitle());
+        setPresent(MetaField.TWITTER_DESCRIPTION, row, meta.getTwitterDescription());
+        setPresent(MetaField.TWITTER_IMAGE, row, meta.getTwitterImage());
+        setPresent(MetaField.STRUCTURED_DATA, row, meta.getStructuredData());
+        return true;
+    }
+
+    /**
+     * Nearest-rank percentiles of a metric over the pages that ran its check group, for all pages
+     * ({@code byHost} false, one group with a null host) or per host.
+     */
+    public List<Group> percentiles(ReportMetric metric, boolean byHost, int[] percentiles) {
+        long[] mask = mask(metric);
+        short[] column = metrics[metric.ordinal()];
+        int hostCount = byHost ? hostNames.size() : 1;
+
+        // Counting sort of the selected values by host, so each host's values are one slice
+        int[] start = new int[hostCount + 1];
+        for (int w = 0; w < words(size); w++) {
+            for (long bits = mask[w]; bits != 0; bits &= bits - 1) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(bits);
+                start[(byHost ? hosts[row] : 0) + 1]++;
+            }
+        }
+        for (int h = 0; h < hostCount; h++) {
+            start[h + 1] += start[h];
+        }
+        short[] values = new short[start[hostCount]];
+        int[] cursor = Arrays.copyOf(start, hostCount);
+        for (int w = 0; w < words(size); w++) {
+            for (long bits = mask[w]; bits != 0; bits &= bits - 1) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(bits);
+                values[cursor[byHost ? hosts[row] : 0]++] = column[row];
+            }
+        }
+
+        List<Group> groups = new ArrayList<>();
+        for (int h = 0; h < hostCount; h++) {
+            int from = start[h];
+            int count = start[h + 1] - from;
+            if (count == 0) continue;
+            Arrays.sort(values, from, from + count);
+            int[] result = new int[percentiles.length];
+            for (int i = 0; i < percentiles.length; i++) {
+                int rank = (int) Math.ceil(percentiles[i] / 100.0 * count);
+                result[i] = values[from + Math.max(0, Math.min(count - 1, rank - 1))];
+            }
+            groups.add(new Group(byHost ? hostNames.get(h) : null, count, 0, result));
+        }
+        return groups;
+    }
+
+    /** Pages that ran the field's check group, and how many of them lack the tag. */
+    public List<Group> missing(MetaField field, boolean byHost) {
+        long[] checked = ran[field.getGroup().ordinal()];
+        long[] has = present[field.ordinal()];
+        List<Group> groups = new ArrayList<>();
+        if (!byHost) {
+            int pages = 0;
+            int missing = 0;
+            for (int w = 0; w < words(size); w++) {
+                pages += Long.bitCount(checked[w]);
+                missing += Long.bitCount(checked[w] & ~has[w]);
+            }
+            if (pages > 0) groups.add(new Group(null, pages, missing, null));
+            return groups;
+        }
+        int[] pages = new int[hostNames.size()];
+        int[] missing = new int[hostNames.size()];
+        for (int w = 0; w < words(size); w++) {
+            long absent = checked[w] & ~has[w];
+            for (long bits = checked[w]; bits != 0; bits &= bits - 1) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                int host = hosts[(w << 6) + bit];
+                pages[host]++;
+                missing[host] += (int) (absent >>> bit) & 1;
+            }
+        }
+        for (int h = 0; h < pages.length; h++) {
+            if (pages[h] > 0) groups.add(new Group(hostNames.get(h), pages[h], missing[h], null));
+        }
+        return groups;
+    }
+
+    /** Page counts per bucket of {@code width}, from 0 up to the bucket of the largest value. */
+    public int[] histogram(ReportMetric metric, int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("width must be positive");
+        }
+        long[] mask = mask(metric);
+        short[] column = metrics[metric.ordinal()];
+        int[] counts = new int[Short.MAX_VALUE / width + 1];
+        int last = -1;
+        for (int w = 0; w < words(size); w++) {
+            for (long bits = mask[w]; bits != 0; bits &= bits - 1) {
+                int bucket = column[(w << 6) + Long.numberOfTrailingZeros(bits)] / width;
+                counts[bucket]++;
+                last = Math.max(last, bucket);
+            }
+        }
+        return Arrays.copyOf(counts, last + 1);
+    }
+
+    private long[] mask(ReportMetric metric) {
+        return metric.getGroup() == null ? scored : ran[metric.getGroup().ordinal()];
+    }
+
+    private void set(ReportMetric metric, int row, int value) {
+        metrics[metric.ordinal()][row] = (short) Math.max(0, Math.min(Short.MAX_VALUE, value));
+    }
+
+    private void setPresent(MetaField field, int row, String value) {
+        setBit(present[field.ordinal()], row, value != null && !value.isEmpty());
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(maxRows, hosts.length * 2L);
+        hosts = Arrays.copyOf(hosts, capacity);
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i] = Arrays.copyOf(metrics[i], capacity);
+        }
+        for (int i = 0; i < present.length; i++) {
+            present[i] = Arrays.copyOf(present[i], words(capacity));
+        }
+        for (int i = 0; i < ran.length; i++) {
+            ran[i] = Arrays.copyOf(ran[i], words(capacity));
+        }
+        scored = Arrays.copyOf(scored, words(capacity));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static void setBit(long[] bits, int row, boolean value) {
+        if (value) {
+            bits[row >>> 6] |= 1L << row;
+        } else {
+            bits[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    private static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    /** A host (null for all pages) with its page count, missing count and percentiles as requested. */
+    public record Group(String host, int pages, int missing, int[] values) {
+    }
+}
@@ -0,0 +1,199 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.HistogramBucket;
+import com.metasnap.metasnap_backend.dto.MetaField;
+import com.metasnap.metasnap_backend.dto.MissingRow;
+import com.metasnap.metasnap_backend.dto.PercentileRow;
+import com.metasnap.metasnap_backend.dto.ReportMetric;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Site-wide aggregates over every successful bulk analysis this instance has run (background jobs
+ * and queue work), latest result per final URL. Each tenant and scoring weights version has its
+ * own {@link ScoreColumns}, so a query only ever scans the caller's rows scored one way, and a
+ * re-scoring run adds rows under its version rather than mixing with the live ones. Without
+ * tenants everything is under a null tenant.
+ * Writers take the lock briefly per row; queries share a read lock and scan the column arrays.
+ * Rows beyond {@code metasnap.reports.max-rows}, counted over all tenants, are dropped.
+ */
+@Service
+public class ScoreReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScoreReportService.class);
+
+    private final int maxRows;
+    private final Map<Key, ScoreColumns> stores = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong dropped = new AtomicLong();
+    private int size;
+
+    public ScoreReportService(@Value("${metasnap.reports.max-rows:5000000}") int maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    /** Aggregates an analysis run for {@code tenant} (null without tenants) under its scoring version. */
+    public void record(String tenant, AnalyzeResponse response) {
+        if (response == null || response.isFailed() || response.getFinalUrl() == null) {
+            return; // failed fetches carry no scores worth aggregating
+        }
+        String host = host(response.getFinalUrl());
+        boolean added;
+        lock.writeLock().lock();
+        try {
+            added = add(tenant, host, response);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!added && dropped.getAndIncrement() == 0) {
+            log.warn("Score report is full; further pages are not aggregated (metasnap.reports.max-rows)");
+        }
+    }
+
+    /**
+     * Stores a batch of successful analyses under one lock acquisition, e.g. from a re-scoring run;
+     * {@code tenants} holds the tenant of each response.
+     */
+    public void recordAll(List<String> tenants, List<AnalyzeResponse> responses) {
+        String[] hosts = new String[responses.size()];
+        for (int i = 0; i < hosts.length; i++) {
+            hosts[i] = host(responses.get(i).getFinalUrl());
+        }
+        int rejected = 0;
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < hosts.length; i++) {
+                if (!add(tenants.get(i), hosts[i], responses.get(i))) rejected++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (rejected > 0 && dropped.getAndAdd(rejected) == 0) {
+            log.warn("Score report is full; further pages are not aggregated (metasnap.reports.max-rows)");
+        }
+    }
+
+    /** Rows over all tenants. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Hosts with the most pages first, at most {@code limit} of them. */
+    public List<PercentileRow> percentiles(String tenant, String version, ReportMetric metric, boolean byHost,
+                                           List<Integer> percentiles, int limit) {
+        int[] ranks = percentiles.stream().mapToInt(Integer::intValue).toArray();
+        List<ScoreColumns.Group> groups;
+        lock.readLock().lock();
+        try {
+            ScoreColumns columns = stores.get(new Key(tenant, version));
+            groups = columns != null ? columns.percentiles(metric, byHost, ranks) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<PercentileRow> rows = new ArrayList<>();
+        for (ScoreColumns.Group group : top(groups, limit)) {
+            PercentileRow row = new PercentileRow();
+            row.setHost(group.host());
+            row.setPages(group.pages());
+            row.setValues(Arrays.stream(group.values()).boxed().toList());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /** Hosts with the most checked pages first, at most {@code limit} of them. */
+    public List<MissingRow> missing(String tenant, String version, MetaField field, boolean byHost, int limit) {
+        List<ScoreColumns.Group> groups;
+        lock.readLock().lock();
+        try {
+            ScoreColumns columns = stores.get(new Key(tenant, version));
+            groups = columns != null ? columns.missing(field, byHost) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<MissingRow> rows = new ArrayList<>();
+        for (ScoreColumns.Group group : top(groups, limit)) {
+            MissingRow row = new MissingRow();
+            row.setHost(group.host());
+            row.setPages(group.pages());
+            row.setMissing(group.missing());
+            row.setPercent(Math.round(group.missing() * 1000.0 / group.pages()) / 10.0);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    public List<HistogramBucket> histogram(String tenant, String version, ReportMetric metric, int width) {
+        int[] counts;
+        lock.readLock().lock();
+        try {
+            ScoreColumns columns = stores.get(new Key(tenant, version));
+            counts = columns != null ? columns.histogram(metric, width) : new int[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<HistogramBucket> buckets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            HistogramBucket bucket = new HistogramBucket();
+            bucket.setFrom(i * width);
+            bucket.setTo((i + 1) * width - 1);
+            bucket.setPages(counts[i]);
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    /** Adds or replaces a row under the write lock; false when the report is full. */
+    private boolean add(String tenant, String host, AnalyzeResponse response) {
+        Key key = new Key(tenant, response.getScoringVersion());
+        ScoreColumns columns = stores.get(key);
+        String url = response.getFinalUrl();
+        if (columns == null || !columns.contains(url)) {
+            if (size >= maxRows) return false;
+            if (columns == null) {
+                columns = new ScoreColumns(maxRows);
+                stores.put(key, columns);
+            }
+            size++;
+        }
+        return columns.add(url, host, response);
+    }
+
+    private static List<ScoreColumns.Group> top(List<ScoreColumns.Group> groups, int limit) {
+        return groups.stream()
+                .sorted(Comparator.comparingInt(ScoreColumns.Group::pages).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private record Key(String tenant, String version) {
+    }
+
+    private static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : "";
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The scoring weight versions: the built-in version {@code 1} plus any listed in the JSON array
+ * named by {@code metasnap.scoring.weights-file}. Live analyses score with
+ * {@code metasnap.scoring.version}; re-scoring can use any version. Versions are immutable once
+ * published, so a stored score is reproducible from its version and the page's extracted facts.
+ */
+@Component
+public class ScoringConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ScoringConfig.class);
+
+    private final Map<String, ScoringWeights> versions = new LinkedHashMap<>();
+    private final ScoringWeights current;
+
+    public ScoringConfig(ObjectMapper objectMapper,
+                         @Value("${metasnap.scoring.weights-file:}") String weightsFile,
+                         @Value("${metasnap.scoring.version:1}") String version) {
+        versions.put("1", new ScoringWeights());
+        if (!weightsFile.isBlank()) {
+            try {
+                for (ScoringWeights weights : objectMapper.readValue(Path.of(weightsFile).toFile(), ScoringWeights[].class)) {
+                    if (weights.getVersion() == null || weights.getVersion().isBlank()) {
+                        throw new IllegalStateException("Scoring weights need a version");
+                    }
+                    if (versions.putIfAbsent(weights.getVersion(), weights) != null) {
+                        throw new IllegalStateException("Duplicate scoring weights version " + weights.getVersion());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read scoring weights file " + weightsFile, e);
+            }
+        }
+        this.current = versions.get(version);
+        if (current == null) {
+            throw new IllegalStateException("Unknown scoring weights version " + version + "; have " + versions.keySet());
+        }
+        log.info("Scoring with weights version {} ({} versions known)", version, versions.size());
+    }
+
+    public ScoringWeights current() {
+        return current;
+    }
+
+    public Optional<ScoringWeights> get(String version) {
+        return Optional.ofNullable(versions.get(version));
+    }
+
+    public List<String> versions() {
+        return new ArrayList<>(versions.keySet());
+    }
+}
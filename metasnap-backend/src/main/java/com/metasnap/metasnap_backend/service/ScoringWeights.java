@@ -0,0 +1,44 @@
+package com.metasnap.metasnap_backend.service;
+
+/**
+ * Points per check, as one named version. Fields not set in the weights file keep the values of
+ * the built-in version {@code 1}. Immutable: there are no setters, and Jackson fills the fields
+ * only while reading the weights file, so a published version always scores the same way.
+ */
+public class ScoringWeights {
+    private String version = "1";
+    private int title = 15;
+    private int description = 15;
+    private int canonical = 10;
+    private int robots = 5;
+    private int ogTitle = 10;
+    private int ogDescription = 10;
+    private int ogImage = 5;
+    private int twitterTitle = 8;
+    private int twitterDescription = 7;
+    private int twitterImage = 5;
+    private int structuredData = 10;
+    private int singleH1 = 5;
+    private int headingHierarchy = 5;
+    private int imageAlt = 5;
+    private int wordCount = 5;
+    private int minWords = 300;
+
+    public String getVersion() { return version; }
+    public int getTitle() { return title; }
+    public int getDescription() { return description; }
+    public int getCanonical() { return canonical; }
+    public int getRobots() { return robots; }
+    public int getOgTitle() { return ogTitle; }
+    public int getOgDescription() { return ogDescription; }
+    public int getOgImage() { return ogImage; }
+    public int getTwitterTitle() { return twitterTitle; }
+    public int getTwitterDescription() { return twitterDescription; }
+    public int getTwitterImage() { return twitterImage; }
+    public int getStructuredData() { return structuredData; }
+    public int getSingleH1() { return singleH1; }
+    public int getHeadingHierarchy() { return headingHierarchy; }
+    public int getImageAlt() { return imageAlt; }
+    public int getWordCount() { return wordCount; }
+    public int getMinWords() { return minWords; }
+}
@@ -0,0 +1,186 @@
+package com.metasnap.metasnap_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * URLs analyzed before, per tenant, so bulk submissions skip them, also across restarts. Each
+ * tenant and URL, normalized by {@link UrlNormalizer}, is reduced to a 64-bit hash, and the hashes
+ * live with the time they were marked in an open-addressing table in a memory-mapped file
+ * ({@code metasnap.seen.file}) rather than on the heap: sixteen bytes per slot at most half full,
+ * so ten million URLs take a 512 MiB sparse file whatever the heap size. Inserts claim an empty
+ * slot with a compare-and-set, so threads never lock; a count in the file header is updated the
+ * same way. Two distinct URLs share a hash with odds of about n²/2⁶⁵, which would wrongly skip one
+ * of them.
+ *
+ * A URL counts as seen for {@code metasnap.seen.ttl} after it was last marked (zero for ever);
+ * after that it is accepted again and marking it renews the slot. Once
+ * {@code metasnap.seen.capacity} URLs are stored new ones are no longer recorded (they are always
+ * accepted). With no file configured the set is disabled and accepts everything.
+ */
+@Component
+public class SeenUrlSet {
+
+    private static final Logger log = LoggerFactory.getLogger(SeenUrlSet.class);
+    private static final long MAGIC = 0x324E454553534DL; // "MSSEEN2" read as a little-endian long
+    private static final int HEADER = 64;
+    private static final int SLOT_BYTES = 16; // hash, then the epoch millis it was marked
+    private static final int MAX_SLOTS = 1 << 26; // one mapping stays under 2 GiB
+    private static final VarHandle SLOT = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final MappedByteBuffer table;
+    private final int mask;
+    private final long capacity;
+    private final long ttlMs;
+    private final AtomicBoolean fullLogged = new AtomicBoolean();
+
+    public SeenUrlSet(@Value("${metasnap.seen.file:}") String file,
+                      @Value("${metasnap.seen.capacity:10000000}") long capacity,
+                      @Value("${metasnap.seen.ttl:30d}") Duration ttl) {
+        this.ttlMs = ttl.toMillis();
+        if (file == null || file.isBlank()) {
+            this.table = null;
+            this.mask = 0;
+            this.capacity = 0;
+            return;
+        }
+        int slots = (int) Math.min(MAX_SLOTS, Long.highestOneBit(Math.max(16, capacity * 2) - 1) << 1);
+        Path path = Path.of(file);
+        try {
+            if (path.getParent() != null) Files.createDirectories(path.getParent());
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (channel.size() >= HEADER) {
+                    MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+                    header.order(ByteOrder.LITTLE_ENDIAN);
+                    if (header.getLong(0) != MAGIC) {
+                        throw new IllegalStateException(file + " is not a seen-URL file of this version; delete it");
+                    }
+                    slots = header.getInt(8); // an existing table keeps its size
+                }
+                this.table = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) slots * SLOT_BYTES);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open seen-URL file " + file, e);
+        }
+        table.order(ByteOrder.LITTLE_ENDIAN);
+        table.putLong(0, MAGIC);
+        table.putInt(8, slots);
+        this.mask = slots - 1;
+        this.capacity = slots / 2;
+        log.info("Seen-URL set {} holds {} of {} URLs", file, size(), this.capacity);
+    }
+
+    public boolean enabled() {
+        return table != null;
+    }
+
+    /**
+     * Which of {@code urls} to analyze for {@code tenant} (null without tenants): the first of
+     * each group of equivalent URLs, unless it was seen before and {@code force} is false. All of
+     * them when disabled.
+     */
+    public boolean[] unseen(String tenant, List<String> urls, boolean force) {
+        boolean[] accept = new boolean[urls.size()];
+        Set<String> distinct = new HashSet<>();
+        for (int i = 0; i < accept.length; i++) {
+            String url = UrlNormalizer.normalize(urls.get(i));
+            accept[i] = table == null || distinct.add(url) && (force || !contains(tenant, url));
+        }
+        return accept;
+    }
+
+    /**
+     * Marks {@code url} as seen by {@code tenant} now; call it once the URL was analyzed or queued.
+     * Returns true if it was not seen before or its mark had expired. Always true when disabled
+     * or full.
+     */
+    public boolean add(String tenant, String url) {
+        if (table == null) return true;
+        long now = System.currentTimeMillis();
+        long hash = hash(key(tenant, url));
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int offset = HEADER + slot * SLOT_BYTES;
+            long current = (long) SLOT.getVolatile(table, offset);
+            if (current == hash) return expired((long) SLOT.getAndSet(table, offset + 8, now), now);
+            if (current != 0) continue;
+            if (size() >= capacity) {
+                if (fullLogged.compareAndSet(false, true)) {
+                    log.warn("Seen-URL set is full at {} URLs; new URLs are no longer recorded", capacity);
+                }
+                return true;
+            }
+            if (SLOT.compareAndSet(table, offset, 0L, hash)) {
+                SLOT.setVolatile(table, offset + 8, now);
+                SLOT.getAndAdd(table, 16, 1L);
+                return true;
+            }
+            if ((long) SLOT.getVolatile(table, offset) == hash) { // lost to the same URL
+                return expired((long) SLOT.getAndSet(table, offset + 8, now), now);
+            }
+        }
+    }
+
+    public boolean contains(String tenant, String url) {
+        if (table == null) return false;
+        long hash = hash(key(tenant, url));
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int offset = HEADER + slot * SLOT_BYTES;
+            long current = (long) SLOT.getVolatile(table, offset);
+            if (current == hash) return !expired((long) SLOT.getVolatile(table, offset + 8), System.currentTimeMillis());
+            if (current == 0) return false;
+        }
+    }
+
+    public long size() {
+        return table != null ? (long) SLOT.getVolatile(table, 16) : 0;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    /** Writes dirty pages to disk; the OS does so anyway, this only bounds what a crash can lose. */
+    @PreDestroy
+    public void flush() {
+        if (table != null) table.force();
+    }
+
+    private boolean expired(long markedAt, long now) {
+        return ttlMs > 0 && markedAt != 0 && now - markedAt >= ttlMs; // 0: being inserted right now
+    }
+
+    private static String key(String tenant, String url) {
+        String normalized = UrlNormalizer.normalize(url);
+        return tenant != null ? tenant + ' ' + normalized : normalized;
+    }
+
+    private static long hash(String url) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < url.length(); i++) {
+            hash = (hash ^ url.charAt(i)) * 0x100000001B3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+        return hash != 0 ? hash : 1; // 0 marks an empty slot
+    }
+}
@@ -0,0 +1,37 @@
+package com.metasnap.metasnap_backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only column of strings packed as UTF-8 into one growing byte array, with an
+ * {@code int} offset per row. Costs the text's bytes plus four per row, instead of a
+ * {@link String} and its object headers per value. Null is stored as empty. Not thread-safe.
+ */
+class TextColumn {
+
+    private byte[] bytes = new byte[4096];
+    private int[] offsets = new int[257];
+    private int size;
+
+    void add(String value) {
+        byte[] utf8 = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int start = offsets[size];
+        if (start + utf8.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(bytes.length * 2L, start + (long) utf8.length)));
+        }
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        System.arraycopy(utf8, 0, bytes, start, utf8.length);
+        offsets[++size] = start + utf8.length;
+    }
+
+    String get(int row) {
+        return new String(bytes, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+    }
+
+    int size() {
+        return size;
+    }
+}
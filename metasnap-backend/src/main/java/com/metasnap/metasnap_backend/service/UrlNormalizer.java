@@ -0,0 +1,35 @@
+package com.metasnap.metasnap_backend.service;
+
+import java.util.Locale;
+
+/**
+ * The one spelling of a URL used wherever URLs are compared: the seen-URL set, the links a page
+ * points to and the pages of a link graph.
+ */
+final class UrlNormalizer {
+
+    private UrlNormalizer() {
+    }
+
+    /**
+     * Lower-cases scheme and host, drops the fragment, a default port and an empty path, so
+     * {@code HTTPS://Example.com:443#top} and {@code https://example.com/} are the same URL.
+     */
+    static String normalize(String url) {
+        String trimmed = url.trim();
+        int fragment = trimmed.indexOf('#');
+        if (fragment >= 0) trimmed = trimmed.substring(0, fragment);
+        int scheme = trimmed.indexOf("://");
+        if (scheme < 0) return trimmed;
+        int pathStart = scheme + 3;
+        while (pathStart < trimmed.length() && "/?".indexOf(trimmed.charAt(pathStart)) < 0) pathStart++;
+        String origin = trimmed.substring(0, pathStart).toLowerCase(Locale.ROOT);
+        if (origin.startsWith("http://") && origin.endsWith(":80")) {
+            origin = origin.substring(0, origin.length() - 3);
+        } else if (origin.startsWith("https://") && origin.endsWith(":443")) {
+            origin = origin.substring(0, origin.length() - 4);
+        }
+        String rest = trimmed.substring(pathStart);
+        return origin + (rest.isEmpty() || rest.charAt(0) == '?' ? "/" : "") + rest;
+    }
+}
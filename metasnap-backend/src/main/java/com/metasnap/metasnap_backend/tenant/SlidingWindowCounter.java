@@ -0,0 +1,63 @@
+package com.metasnap.metasnap_backend.tenant;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limiter over a sliding window, estimated from two fixed windows: the previous window's
+ * total weighted by how much of it the sliding window still covers, plus the current count.
+ * Counts go to a {@link LongAdder}, so concurrent callers only meet on the window swap.
+ *
+ * The check and the increment are not one atomic step, so a burst of threads racing at the
+ * limit can overshoot it by about the number of racing threads. That is acceptable for quotas.
+ */
+final class SlidingWindowCounter {
+
+    private record Window(long start, LongAdder count, long previous) {
+    }
+
+    private final long windowMs;
+    private final long limit;
+    private final AtomicReference<Window> current;
+
+    SlidingWindowCounter(long windowMs, long limit) {
+        this.windowMs = windowMs;
+        this.limit = limit;
+        this.current = new AtomicReference<>(new Window(0, new LongAdder(), 0));
+    }
+
+    /** Counts one event at {@code nowMs} unless the window is already at the limit. */
+    boolean tryAcquire(long nowMs) {
+        Window window = window(nowMs);
+        if (limit > 0 && estimate(window, nowMs) >= limit) {
+            return false;
+        }
+        window.count().increment();
+        return true;
+    }
+
+    /** Events in the sliding window ending at {@code nowMs}, rounded up. */
+    long estimate(long nowMs) {
+        return (long) Math.ceil(estimate(window(nowMs), nowMs));
+    }
+
+    private double estimate(Window window, long nowMs) {
+        double overlap = 1.0 - (double) (nowMs - window.start()) / windowMs;
+        return window.previous() * Math.max(0, overlap) + window.count().sum();
+    }
+
+    private Window window(long nowMs) {
+        while (true) {
+            Window window = current.get();
+            if (nowMs - window.start() < windowMs) {
+                return window;
+            }
+            long start = nowMs - Math.floorMod(nowMs, windowMs);
+            long previous = window.start() == start - windowMs ? window.count().sum() : 0;
+            Window next = new Window(start, new LongAdder(), previous);
+            if (current.compareAndSet(window, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.metasnap.metasnap_backend.tenant;
+
+/**
+ * A team allowed to call the API, as listed in the tenants file. Only the SHA-256 of the API key
+ * (hex) is stored. A limit of zero or less means unlimited. {@code admin} tenants may also run
+ * operations that touch every tenant's data, such as re-scoring.
+ */
+public record Tenant(String id,
+                     String keySha256,
+                     long requestsPerMinute,
+                     int maxConcurrent,
+                     long monthlyFetches,
+                     boolean admin) {
+}
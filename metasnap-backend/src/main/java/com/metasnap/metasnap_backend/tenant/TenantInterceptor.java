@@ -0,0 +1,73 @@
+package com.metasnap.metasnap_backend.tenant;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Optional;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Authenticates API calls by their {@value #API_KEY_HEADER} header and applies the tenant's
+ * quotas: every call counts against the per-minute rate, and single-URL analyses also take a
+ * concurrency slot. The tenant is left in the {@value #TENANT_ATTRIBUTE} request attribute for
+ * controllers to charge the monthly fetch volume, which they do only for origin fetches, so
+ * cached answers and 304s are free.
+ */
+@Component
+public class TenantInterceptor implements HandlerInterceptor {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+    public static final String TENANT_ATTRIBUTE = "metasnap.tenant";
+    private static final String ANALYSIS_ATTRIBUTE = "metasnap.tenant.analysis";
+    private static final String ANALYZE_PATH = "/api/analyze";
+
+    private final TenantService tenantService;
+
+    public TenantInterceptor(TenantService tenantService) {
+        this.tenantService = tenantService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async re-dispatches (SSE) were already counted on the original dispatch
+        if (!tenantService.isEnabled() || CorsUtils.isPreFlightRequest(request)
+                || request.getAttribute(TENANT_ATTRIBUTE) != null) {
+            return true;
+        }
+        Optional<TenantUsage> authenticated = tenantService.authenticate(request.getHeader(API_KEY_HEADER));
+        if (authenticated.isEmpty()) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            return false;
+        }
+        TenantUsage usage = authenticated.get();
+        long now = System.currentTimeMillis();
+        if (!usage.tryRequest(now)) {
+            return tooManyRequests(response);
+        }
+        request.setAttribute(TENANT_ATTRIBUTE, usage);
+        if (ANALYZE_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()))) {
+            if (!usage.tryStartAnalysis(now)) {
+                return tooManyRequests(response);
+            }
+            request.setAttribute(ANALYSIS_ATTRIBUTE, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ANALYSIS_ATTRIBUTE) != null) {
+            request.removeAttribute(ANALYSIS_ATTRIBUTE);
+            ((TenantUsage) request.getAttribute(TENANT_ATTRIBUTE)).endAnalysis();
+        }
+    }
+
+    private static boolean tooManyRequests(HttpServletResponse response) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+package com.metasnap.metasnap_backend.tenant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tenants and their quota state. Tenants are read once from the JSON file named by
+ * {@code metasnap.tenants.file}; without that setting the API stays open and nothing is counted.
+ * Usage is flushed to the {@link UsageStore} periodically and on shutdown, and the current
+ * month is restored from it on startup so monthly volumes survive restarts.
+ */
+@Service
+public class TenantService {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantService.class);
+    private static final Pattern VALID_ID = Pattern.compile("[0-9A-Za-z._-]+");
+
+    private final UsageStore usageStore;
+    private final Map<String, TenantUsage> byKeyHash = new HashMap<>();
+    private final List<TenantUsage> tenants = new ArrayList<>();
+
+    public TenantService(ObjectMapper objectMapper,
+                         UsageStore usageStore,
+                         MeterRegistry meterRegistry,
+                         @Value("${metasnap.tenants.file:}") String tenantsFile) {
+        this.usageStore = usageStore;
+        if (tenantsFile.isBlank()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        String month = YearMonth.from(Instant.ofEpochMilli(now).atZone(ZoneOffset.UTC)).toString();
+        try {
+            for (Tenant tenant : objectMapper.readValue(Path.of(tenantsFile).toFile(), Tenant[].class)) {
+                if (tenant.id() == null || !VALID_ID.matcher(tenant.id()).matches() || tenant.keySha256() == null) {
+                    throw new IllegalStateException("Tenant entries need an id of [0-9A-Za-z._-] and a keySha256");
+                }
+                TenantUsage usage = new TenantUsage(tenant, now);
+                usageStore.load(tenant.id(), month).ifPresent(record -> usage.restore(record, now));
+                if (byKeyHash.put(tenant.keySha256().toLowerCase(), usage) != null) {
+                    throw new IllegalStateException("Duplicate API key for tenant " + tenant.id());
+                }
+                tenants.add(usage);
+                registerMetrics(meterRegistry, usage);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read tenants file " + tenantsFile, e);
+        }
+        log.info("Loaded {} tenants from {}", tenants.size(), tenantsFile);
+    }
+
+    public boolean isEnabled() {
+        return !tenants.isEmpty();
+    }
+
+    public Optional<TenantUsage> authenticate(String apiKey) {
+        if (apiKey == null || apiKey.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byKeyHash.get(sha256(apiKey)));
+    }
+
+    @Scheduled(fixedDelayString = "${metasnap.tenants.flush-interval:30000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (TenantUsage usage : tenants) {
+            for (UsageRecord record : usage.drain(now)) {
+                try {
+                    usageStore.save(record);
+                } catch (IOException e) {
+                    log.warn("Could not flush usage of tenant {}: {}", record.tenant(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void registerMetrics(MeterRegistry registry, TenantUsage usage) {
+        String id = usage.getTenant().id();
+        FunctionCounter.builder("metasnap.tenant.requests", usage, TenantUsage::totalRequests)
+                .description("API requests made by the tenant")
+                .tag("tenant", id).register(registry);
+        FunctionCounter.builder("metasnap.tenant.rejected", usage, TenantUsage::rejectedRate)
+                .description("Requests rejected by a quota")
+                .tags("tenant", id, "quota", "rate").register(registry);
+        FunctionCounter.builder("metasnap.tenant.rejected", usage, TenantUsage::rejectedConcurrency)
+                .description("Requests rejected by a quota")
+                .tags("tenant", id, "quota", "concurrency").register(registry);
+        FunctionCounter.builder("metasnap.tenant.rejected", usage, TenantUsage::rejectedMonthly)
+                .description("Requests rejected by a quota")
+                .tags("tenant", id, "quota", "monthly").register(registry);
+        Gauge.builder("metasnap.tenant.analyses.active", usage, TenantUsage::activeAnalyses)
+                .description("Analyses currently running for the tenant")
+                .tag("tenant", id).register(registry);
+        Gauge.builder("metasnap.tenant.requests.minute", usage, u -> u.requestsLastMinute(System.currentTimeMillis()))
+                .description("Requests in the last minute, as counted by the rate quota")
+                .tag("tenant", id).register(registry);
+        Gauge.builder("metasnap.tenant.fetches.month", usage, u -> u.fetchesThisMonth(System.currentTimeMillis()))
+                .description("Page fetches charged to the tenant this month")
+                .tag("tenant", id).register(registry);
+    }
+}
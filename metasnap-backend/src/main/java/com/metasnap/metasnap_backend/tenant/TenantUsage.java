@@ -0,0 +1,155 @@
+package com.metasnap.metasnap_backend.tenant;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live quota state of one tenant. Every counter on the request path is a {@link LongAdder} or a
+ * single CAS, so tenants never block each other and threads of the same tenant do not serialize.
+ */
+public class TenantUsage {
+
+    private static final long MINUTE_MS = 60_000;
+
+    private record Period(YearMonth month, long endMs, LongAdder requests, LongAdder fetches, LongAdder rejected) {
+        Period(YearMonth month) {
+            this(month, month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli(),
+                    new LongAdder(), new LongAdder(), new LongAdder());
+        }
+
+        UsageRecord toRecord(String tenant) {
+            return new UsageRecord(tenant, month.toString(), requests.sum(), fetches.sum(), rejected.sum());
+        }
+    }
+
+    private final Tenant tenant;
+    private final SlidingWindowCounter perMinute;
+    private final Semaphore concurrent;
+    private final AtomicReference<Period> period;
+    private final AtomicReference<Period> finished = new AtomicReference<>();
+    private final LongAdder totalRequests = new LongAdder();
+    private final LongAdder rejectedRate = new LongAdder();
+    private final LongAdder rejectedConcurrency = new LongAdder();
+    private final LongAdder rejectedMonthly = new LongAdder();
+
+    TenantUsage(Tenant tenant, long nowMs) {
+        this.tenant = tenant;
+        this.perMinute = new SlidingWindowCounter(MINUTE_MS, tenant.requestsPerMinute());
+        this.concurrent = tenant.maxConcurrent() > 0 ? new Semaphore(tenant.maxConcurrent()) : null;
+        this.period = new AtomicReference<>(new Period(month(nowMs)));
+    }
+
+    public Tenant getTenant() {
+        return tenant;
+    }
+
+    /** Counts an API request against the per-minute limit. */
+    public boolean tryRequest(long nowMs) {
+        totalRequests.increment();
+        Period current = period(nowMs);
+        current.requests().increment();
+        if (perMinute.tryAcquire(nowMs)) {
+            return true;
+        }
+        rejectedRate.increment();
+        current.rejected().increment();
+        return false;
+    }
+
+    /** Takes one of the tenant's concurrent analysis slots; release it with {@link #endAnalysis()}. */
+    public boolean tryStartAnalysis(long nowMs) {
+        if (concurrent == null || concurrent.tryAcquire()) {
+            return true;
+        }
+        rejectedConcurrency.increment();
+        period(nowMs).rejected().increment();
+        return false;
+    }
+
+    public void endAnalysis() {
+        if (concurrent != null) {
+            concurrent.release();
+        }
+    }
+
+    /** Charges {@code count} page fetches to this month unless that would exceed the monthly volume. */
+    public boolean tryChargeFetches(int count, long nowMs) {
+        Period current = period(nowMs);
+        long limit = tenant.monthlyFetches();
+        if (limit > 0 && current.fetches().sum() + count > limit) {
+            rejectedMonthly.increment();
+            current.rejected().increment();
+            return false;
+        }
+        current.fetches().add(count);
+        return true;
+    }
+
+    public int activeAnalyses() {
+        return concurrent == null ? 0 : tenant.maxConcurrent() - concurrent.availablePermits();
+    }
+
+    public long requestsLastMinute(long nowMs) {
+        return perMinute.estimate(nowMs);
+    }
+
+    public long fetchesThisMonth(long nowMs) {
+        return period(nowMs).fetches().sum();
+    }
+
+    long totalRequests() {
+        return totalRequests.sum();
+    }
+
+    long rejectedRate() {
+        return rejectedRate.sum();
+    }
+
+    long rejectedConcurrency() {
+        return rejectedConcurrency.sum();
+    }
+
+    long rejectedMonthly() {
+        return rejectedMonthly.sum();
+    }
+
+    /** Adds usage flushed by an earlier run of the application, if it is for the current month. */
+    void restore(UsageRecord record, long nowMs) {
+        Period current = period(nowMs);
+        if (current.month().toString().equals(record.month())) {
+            current.requests().add(record.requests());
+            current.fetches().add(record.fetches());
+            current.rejected().add(record.rejected());
+        }
+    }
+
+    /** The current month, plus the month that just ended if it has not been flushed yet. */
+    List<UsageRecord> drain(long nowMs) {
+        UsageRecord latest = period(nowMs).toRecord(tenant.id());
+        Period ended = finished.getAndSet(null);
+        return ended == null ? List.of(latest) : List.of(ended.toRecord(tenant.id()), latest);
+    }
+
+    private Period period(long nowMs) {
+        while (true) {
+            Period current = period.get();
+            if (nowMs < current.endMs()) {
+                return current;
+            }
+            Period next = new Period(month(nowMs));
+            if (period.compareAndSet(current, next)) {
+                finished.set(current);
+                return next;
+            }
+        }
+    }
+
+    private static YearMonth month(long nowMs) {
+        return YearMonth.from(Instant.ofEpochMilli(nowMs).atZone(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,5 @@
+package com.metasnap.metasnap_backend.tenant;
+
+/** One tenant's usage for one calendar month (UTC, {@code yyyy-MM}), as flushed to disk. */
+public record UsageRecord(String tenant, String month, long requests, long fetches, long rejected) {
+}
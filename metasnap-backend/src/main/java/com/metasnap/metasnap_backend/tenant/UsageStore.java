@@ -0,0 +1,56 @@
+package com.metasnap.metasnap_backend.tenant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local store of monthly usage: one {@code <tenant>-<yyyy-MM>.json} file per tenant and month,
+ * replaced atomically on every flush so a crash never leaves a half-written total behind.
+ */
+@Component
+public class UsageStore {
+
+    private final ObjectMapper objectMapper;
+    private final Path dir;
+
+    public UsageStore(ObjectMapper objectMapper,
+                      @Value("${metasnap.tenants.usage-dir:${java.io.tmpdir}/metasnap-usage}") Path dir) {
+        this.objectMapper = objectMapper;
+        this.dir = dir;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create usage directory " + dir, e);
+        }
+    }
+
+    public Optional<UsageRecord> load(String tenant, String month) throws IOException {
+        Path file = file(tenant, month);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(objectMapper.readValue(file.toFile(), UsageRecord.class));
+    }
+
+    public void save(UsageRecord record) throws IOException {
+        Path target = file(record.tenant(), record.month());
+        Path tmp = Files.createTempFile(dir, record.tenant(), ".tmp");
+        try {
+            objectMapper.writeValue(tmp.toFile(), record);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Path file(String tenant, String month) {
+        return dir.resolve(tenant + "-" + month + ".json");
+    }
+}
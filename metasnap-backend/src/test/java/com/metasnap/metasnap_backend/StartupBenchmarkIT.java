@@ -0,0 +1,142 @@
+package com.metasnap.metasnap_backend;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Time-to-ready benchmark for the packaged application. Each run launches a fresh process and
+ * measures process start until the port accepts connections, then the latency of the first and
+ * of a warmed-up {@code /api/analyze} call against a local origin, so no network is involved.
+ *
+ * Run with {@code mvn -Pbenchmark verify}. Compare variants by overriding the launch command, e.g.
+ * {@code -Dbenchmark.command="java -XX:SharedArchiveFile=target/cds/application.jsa
+ * -Dspring.aot.enabled=true -jar target/cds/metasnap-backend-0.0.1-SNAPSHOT.jar"} for the CDS
+ * build or {@code -Dbenchmark.command=target/metasnap-backend} for the native executable.
+ */
+@Tag("benchmark")
+class StartupBenchmarkIT {
+
+    private static final String PAGE = """
+            <!DOCTYPE html>
+            <html><head>
+            <title>Benchmark Page</title>
+            <meta name="description" content="Startup benchmark page">
+            <meta property="og:title" content="Benchmark">
+            </head><body><h1>Benchmark</h1></body></html>
+            """;
+
+    @Test
+    void measureStartupAndFirstRequestLatency() throws Exception {
+        int runs = Integer.getInteger("benchmark.runs", 5);
+        long[] ready = new long[runs];
+        long[] first = new long[runs];
+        long[] warm = new long[runs];
+
+        HttpServer origin = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        origin.createContext("/", exchange -> {
+            byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        origin.start();
+        String target = "http://127.0.0.1:" + origin.getAddress().getPort() + "/";
+        HttpClient client = HttpClient.newHttpClient();
+        try {
+            for (int run = 0; run < runs; run++) {
+                int port = freePort();
+                List<String> command = new ArrayList<>(launchCommand());
+                command.add("--server.port=" + port);
+                long start = System.nanoTime();
+                Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+                try {
+                    awaitPort(port, process);
+                    ready[run] = System.nanoTime() - start;
+                    first[run] = timeAnalyze(client, port, target);
+                    for (int i = 0; i < 20; i++) timeAnalyze(client, port, target);
+                    warm[run] = timeAnalyze(client, port, target);
+                } finally {
+                    process.destroy();
+                    process.waitFor();
+                }
+            }
+        } finally {
+            origin.stop(0);
+        }
+
+        System.out.printf("startup benchmark (%d runs, %s)%n", runs, String.join(" ", launchCommand()));
+        System.out.printf("  time-to-ready        median %6d ms  min %6d ms%n", median(ready), min(ready));
+        System.out.printf("  first-request        median %6d ms  min %6d ms%n", median(first), min(first));
+        System.out.printf("  warm request         median %6d ms  min %6d ms%n", median(warm), min(warm));
+    }
+
+    private static List<String> launchCommand() {
+        String command = System.getProperty("benchmark.command");
+        if (command != null && !command.isBlank()) {
+            return Arrays.asList(command.trim().split("\\s+"));
+        }
+        return List.of("java", "-jar", System.getProperty("benchmark.jar", "target/metasnap-backend-0.0.1-SNAPSHOT.jar"));
+    }
+
+    private static long timeAnalyze(HttpClient client, int port, String target) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/analyze"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"url\":\"" + target + "\"}"))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        long elapsed = System.nanoTime() - start;
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("Benchmark Page"));
+        return elapsed;
+    }
+
+    private static void awaitPort(int port, Process process) throws InterruptedException {
+        long deadline = System.nanoTime() + 120_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) fail("Application exited with code " + process.exitValue());
+            try (Socket ignored = new Socket("127.0.0.1", port)) {
+                return;
+            } catch (IOException e) {
+                Thread.sleep(5);
+            }
+        }
+        fail("Application did not open port " + port);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1_000_000;
+    }
+
+    private static long min(long[] nanos) {
+        return Arrays.stream(nanos).min().orElse(0) / 1_000_000;
+    }
+}
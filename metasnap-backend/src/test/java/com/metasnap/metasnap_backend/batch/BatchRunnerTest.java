@@ -0,0 +1,198 @@
+package com.metasnap.metasnap_backend.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metasnap.metasnap_backend.dto.AnalysisProfile;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.FeedbackItem;
+import com.metasnap.metasnap_backend.dto.MetaTags;
+import com.metasnap.metasnap_backend.service.MetaAnalyzerService;
+import com.metasnap.metasnap_backend.service.SeenUrlSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchRunnerTest {
+
+    @Mock
+    private MetaAnalyzerService metaAnalyzerService;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRun_WithJsonLines_ShouldWriteOneLinePerNewUrl() throws Exception {
+        // Given: 500 URLs plus a comment, a blank line and a URL analyzed by an earlier run
+        when(metaAnalyzerService.analyzeUrl(anyString(), eq(AnalysisProfile.SEO.getChecks())))
+                .thenAnswer(invocation -> page(invocation.getArgument(0), 40, 80, "Title"));
+        StringBuilder input = new StringBuilder("# nightly\n\n");
+        for (int i = 0; i < 500; i++) {
+            input.append("https://example.com/").append(i).append('\n');
+        }
+        input.append("https://example.com/old#again\n");
+        SeenUrlSet seen = new SeenUrlSet(dir.resolve("seen").toString(), 1000, Duration.ZERO);
+        seen.add(null, "https://example.com/old");
+        StringWriter out = new StringWriter();
+
+        // When
+        BatchRunner.Summary summary = runner(AnalysisProfile.SEO, seen)
+                .run(new BufferedReader(new StringReader(input.toString())), out, BatchRunner.Format.JSONL);
+
+        // Then
+        String[] lines = out.toString().split("\n");
+        assertEquals(500, lines.length);
+        Set<Integer> indexes = new HashSet<>();
+        for (String line : lines) {
+            JsonNode node = new ObjectMapper().readTree(line);
+            indexes.add(node.get("index").asInt());
+            assertEquals(node.get("url").asText(), node.get("result").get("finalUrl").asText());
+        }
+        assertEquals(500, indexes.size());
+        assertEquals(500, summary.analyzed());
+        assertEquals(0, summary.failed());
+        assertEquals(1, summary.skipped());
+        assertEquals(50.0, summary.averageScore(), 0.001);
+        assertTrue(seen.contains(null, "https://example.com/499"));
+    }
+
+    @Test
+    void testRun_WithCsv_ShouldQuoteFieldsAndReportFailures() throws Exception {
+        // Given
+        when(metaAnalyzerService.analyzeUrl(eq("https://example.com/ok"), any()))
+                .thenReturn(page("https://example.com/ok", 30, 100, "Say \"hi\", twice"));
+        AnalyzeResponse failed = new AnalyzeResponse();
+        FeedbackItem item = new FeedbackItem();
+        item.setMessage("Failed to fetch or parse the URL: timeout");
+        failed.setFailed(true);
+        failed.setFeedback(List.of(item));
+        failed.setMaxScore(100);
+        when(metaAnalyzerService.analyzeUrl(eq("https://example.com/down"), any())).thenReturn(failed);
+        StringWriter out = new StringWriter();
+
+        // When
+        BatchRunner.Summary summary = runner(AnalysisProfile.FULL).run(
+                new BufferedReader(new StringReader("https://example.com/ok\nhttps://example.com/down\n")),
+                out, BatchRunner.Format.CSV);
+
+        // Then
+        List<String> lines = List.of(out.toString().split("\n"));
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("url,finalUrl,score,maxScore,"));
+        assertTrue(lines.contains("https://example.com/ok,https://example.com/ok,30,100,0,\"Say \"\"hi\"\", twice\",,,,,,,,false,"));
+        assertTrue(lines.contains("https://example.com/down,,0,100,0,,,,,,,,,false,Failed to fetch or parse the URL: timeout"));
+        assertEquals(2, summary.analyzed());
+        assertEquals(1, summary.failed());
+    }
+
+    @Test
+    void testRun_WhenAnalysisThrows_ShouldWriteFailedRow() throws Exception {
+        // Given
+        when(metaAnalyzerService.analyzeUrl(eq("https://example.com/boom"), any()))
+                .thenThrow(new IllegalStateException("parser crashed"));
+        StringWriter out = new StringWriter();
+
+        // When
+        BatchRunner.Summary summary = runner(AnalysisProfile.FULL).run(
+                new BufferedReader(new StringReader("https://example.com/boom\n")), out, BatchRunner.Format.CSV);
+
+        // Then
+        List<String> lines = List.of(out.toString().split("\n"));
+        assertEquals(2, lines.size());
+        assertEquals("https://example.com/boom,,0,0,0,,,,,,,,,false,Analysis failed: IllegalStateException: parser crashed",
+                lines.get(1));
+        assertEquals(1, summary.analyzed());
+        assertEquals(1, summary.failed());
+    }
+
+    @Test
+    void testRun_WhenOutputFails_ShouldStopReadingInput() throws Exception {
+        // Given: a disk that is full from the first row, and far more URLs than the read-ahead window
+        lenient().when(metaAnalyzerService.analyzeUrl(anyString(), any()))
+                .thenAnswer(invocation -> page(invocation.getArgument(0), 40, 80, "Title"));
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            input.append("https://example.com/").append(i).append('\n');
+        }
+        AtomicInteger linesRead = new AtomicInteger();
+        BufferedReader in = new BufferedReader(new StringReader(input.toString())) {
+            @Override
+            public String readLine() throws IOException {
+                linesRead.incrementAndGet();
+                return super.readLine();
+            }
+        };
+        Writer full = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("No space left on device");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        // When
+        IOException error = assertThrows(IOException.class,
+                () -> runner(AnalysisProfile.FULL).run(in, full, BatchRunner.Format.JSONL));
+
+        // Then
+        assertEquals("No space left on device", error.getMessage());
+        assertTrue(linesRead.get() < 1000, linesRead.get() + " lines read");
+    }
+
+    @Test
+    void testRun_WithUnknownFormat_ShouldExitWithUsageError() {
+        // Given
+        BatchRunner runner = new BatchRunner(metaAnalyzerService, new SeenUrlSet("", 0, Duration.ZERO),
+                new ObjectMapper(), "-", dir.resolve("out.txt").toString(), "xml", 8, AnalysisProfile.FULL);
+
+        // When & Then
+        assertEquals(2, runner.run());
+    }
+
+    private BatchRunner runner(AnalysisProfile profile) {
+        return runner(profile, new SeenUrlSet(dir.resolve("seen").toString(), 1000, Duration.ZERO));
+    }
+
+    private BatchRunner runner(AnalysisProfile profile, SeenUrlSet seen) {
+        return new BatchRunner(metaAnalyzerService, seen, new ObjectMapper(), "-", "unused", "", 8, profile);
+    }
+
+    private static AnalyzeResponse page(String url, int score, int maxScore, String title) {
+        AnalyzeResponse response = new AnalyzeResponse();
+        response.setFinalUrl(url);
+        response.setScore(score);
+        response.setMaxScore(maxScore);
+        MetaTags meta = new MetaTags();
+        meta.setTitle(title);
+        response.setMeta(meta);
+        return response;
+    }
+}
@@ -0,0 +1,43 @@
+package com.metasnap.metasnap_backend.config;
+
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.queue.QueuedJob;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.ReflectiveRuntimeHintsRegistrar;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetasnapRuntimeHintsTest {
+
+    @Test
+    void testRegisterHints_ShouldCoverJsoupAuthenticatorShim() {
+        // Given
+        RuntimeHints hints = new RuntimeHints();
+
+        // When
+        new MetasnapRuntimeHints.Registrar().registerHints(hints, getClass().getClassLoader());
+
+        // Then
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("org.jsoup.helper.RequestAuthHandler"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                .test(hints));
+    }
+
+    @Test
+    void testBindingHints_ShouldCoverTypesSerializedOutsideControllers() {
+        // Given
+        RuntimeHints hints = new RuntimeHints();
+
+        // When
+        new ReflectiveRuntimeHintsRegistrar().registerRuntimeHints(hints, MetasnapRuntimeHints.class);
+
+        // Then
+        assertTrue(RuntimeHintsPredicates.reflection().onType(QueuedJob.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(AnalyzeResponse.class, "getScore").test(hints));
+    }
+}
@@ -1,28 +1,44 @@
 package com.metasnap.metasnap_backend.controller;
 
+import com.metasnap.metasnap_backend.dto.AnalysisProfile;
 import com.metasnap.metasnap_backend.dto.AnalyzeRequest;
 import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.CheckGroup;
 import com.metasnap.metasnap_backend.dto.MetaTags;
 import com.metasnap.metasnap_backend.dto.ScoreBreakdown;
 import com.metasnap.metasnap_backend.dto.FeedbackItem;
 import com.metasnap.metasnap_backend.dto.PreviewData;
+import com.metasnap.metasnap_backend.service.AnalysisCache;
 import com.metasnap.metasnap_backend.service.MetaAnalyzerService;
+import com.metasnap.metasnap_backend.tenant.TenantInterceptor;
+import com.metasnap.metasnap_backend.tenant.TenantUsage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -32,16 +48,14 @@ class MetaAnalyzerControllerTest {
     @Mock
     private MetaAnalyzerService metaAnalyzerService;
 
-    @InjectMocks
-    private MetaAnalyzerController metaAnalyzerController;
-
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(metaAnalyzerController).build();
         objectMapper = new ObjectMapper();
+        AnalysisCache analysisCache = new AnalysisCache(metaAnalyzerService, objectMapper, Duration.ofMinutes(5), 100);
+        mockMvc = MockMvcBuilders.standaloneSetup(new MetaAnalyzerController(analysisCache)).build();
     }
 
     @Test
@@ -52,7 +66,7 @@ class MetaAnalyzerControllerTest {
         request.setUrl(url);
 
         AnalyzeResponse expectedResponse = createSampleAnalyzeResponse();
-        when(metaAnalyzerService.analyzeUrl(url)).thenReturn(expectedResponse);
+        when(metaAnalyzerService.analyzeUrl(eq(url), any())).thenReturn(expectedResponse);
 
         // When & Then
         mockMvc.perform(post("/api/analyze")
@@ -126,7 +140,7 @@ class MetaAnalyzerControllerTest {
         request.setUrl(url);
 
         AnalyzeResponse highScoreResponse = createHighScoreResponse();
-        when(metaAnalyzerService.analyzeUrl(url)).thenReturn(highScoreResponse);
+        when(metaAnalyzerService.analyzeUrl(eq(url), any())).thenReturn(highScoreResponse);
 
         // When & Then
         mockMvc.perform(post("/api/analyze")
@@ -148,7 +162,7 @@ class MetaAnalyzerControllerTest {
         request.setUrl(url);
 
         AnalyzeResponse lowScoreResponse = createLowScoreResponse();
-        when(metaAnalyzerService.analyzeUrl(url)).thenReturn(lowScoreResponse);
+        when(metaAnalyzerService.analyzeUrl(eq(url), any())).thenReturn(lowScoreResponse);
 
         // When & Then
         mockMvc.perform(post("/api/analyze")
@@ -170,7 +184,7 @@ class MetaAnalyzerControllerTest {
         request.setUrl(url);
 
         AnalyzeResponse completeResponse = createCompleteResponse();
-        when(metaAnalyzerService.analyzeUrl(url)).thenReturn(completeResponse);
+        when(metaAnalyzerService.analyzeUrl(eq(url), any())).thenReturn(completeResponse);
 
         // When & Then
         mockMvc.perform(post("/api/analyze")
@@ -198,7 +212,7 @@ class MetaAnalyzerControllerTest {
         request.setUrl(url);
 
         AnalyzeResponse responseWithFeedback = createResponseWithFeedback();
-        when(metaAnalyzerService.analyzeUrl(url)).thenReturn(responseWithFeedback);
+        when(metaAnalyzerService.analyzeUrl(eq(url), any())).thenReturn(responseWithFeedback);
 
         // When & Then
         mockMvc.perform(post("/api/analyze")
@@ -212,6 +226,142 @@ class MetaAnalyzerControllerTest {
                 .andExpect(jsonPath("$.feedback[1].message").value("Description meta tag is missing"));
     }
 
+    @Test
+    void testAnalyzeGet_WithRepeatedRequests_ShouldServeCachedResultWithValidators() throws Exception {
+        // Given
+        String url = "https://example.com";
+        AnalyzeResponse expectedResponse = createSampleAnalyzeResponse();
+        expectedResponse.setFinalUrl(url);
+        when(metaAnalyzerService.analyzeUrl(eq(url), any())).thenReturn(expectedResponse);
+
+        // When
+        String etag = mockMvc.perform(get("/api/analyze").param("url", url))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", matchesPattern("max-age=\\d+, public")))
+                .andExpect(jsonPath("$.score").value(75))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Then
+        mockMvc.perform(get("/api/analyze").param("url", url))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+        verify(metaAnalyzerService, times(1)).analyzeUrl(eq(url), any());
+    }
+
+    @Test
+    void testAnalyzeGet_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // Given
+        String url = "https://example.com";
+        AnalyzeResponse expectedResponse = createSampleAnalyzeResponse();
+        expectedResponse.setFinalUrl(url);
+        when(metaAnalyzerService.analyzeUrl(eq(url), any())).thenReturn(expectedResponse);
+        String etag = mockMvc.perform(get("/api/analyze").param("url", url))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/analyze").param("url", url).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testAnalyzeGet_WithFailedFetch_ShouldNotCacheResult() throws Exception {
+        // Given
+        String url = "https://unreachable.example.com";
+        when(metaAnalyzerService.analyzeUrl(eq(url), any())).thenReturn(createErrorResponse());
+
+        // When
+        mockMvc.perform(get("/api/analyze").param("url", url)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/analyze").param("url", url)).andExpect(status().isOk());
+
+        // Then
+        verify(metaAnalyzerService, times(2)).analyzeUrl(eq(url), any());
+    }
+
+    @Test
+    void testAnalyzeGet_WithFailureAfterRedirects_ShouldNotCacheResult() throws Exception {
+        // Given: the page was reached, so it has a final URL, but the analysis still failed
+        String url = "https://example.com/broken";
+        AnalyzeResponse failed = createErrorResponse();
+        failed.setFinalUrl("https://example.com/broken/");
+        when(metaAnalyzerService.analyzeUrl(eq(url), any())).thenReturn(failed);
+
+        // When
+        mockMvc.perform(get("/api/analyze").param("url", url)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/analyze").param("url", url)).andExpect(status().isOk());
+
+        // Then
+        verify(metaAnalyzerService, times(2)).analyzeUrl(eq(url), any());
+    }
+
+    @Test
+    void testAnalyzeGet_ShouldChargeTenantOnlyForOriginFetches() throws Exception {
+        // Given
+        String url = "https://example.com";
+        TenantUsage tenant = mock(TenantUsage.class);
+        when(tenant.tryChargeFetches(eq(1), anyLong())).thenReturn(true);
+        when(metaAnalyzerService.analyzeUrl(eq(url), any())).thenReturn(createSampleAnalyzeResponse());
+
+        // When: a fetch, a cache hit and a revalidation
+        String etag = mockMvc.perform(get("/api/analyze").param("url", url)
+                        .requestAttr(TenantInterceptor.TENANT_ATTRIBUTE, tenant))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", matchesPattern("max-age=\\d+, private")))
+                .andExpect(header().stringValues("Vary", hasItem(TenantInterceptor.API_KEY_HEADER)))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/analyze").param("url", url).requestAttr(TenantInterceptor.TENANT_ATTRIBUTE, tenant))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/analyze").param("url", url).header("If-None-Match", etag)
+                        .requestAttr(TenantInterceptor.TENANT_ATTRIBUTE, tenant))
+                .andExpect(status().isNotModified());
+
+        // Then
+        verify(tenant, times(1)).tryChargeFetches(eq(1), anyLong());
+        verify(metaAnalyzerService, times(1)).analyzeUrl(eq(url), any());
+    }
+
+    @Test
+    void testAnalyzeGet_WithMonthlyVolumeUsedUp_ShouldReturnTooManyRequestsWithoutFetching() throws Exception {
+        // Given
+        TenantUsage tenant = mock(TenantUsage.class);
+        when(tenant.tryChargeFetches(eq(1), anyLong())).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(get("/api/analyze").param("url", "https://example.com")
+                        .requestAttr(TenantInterceptor.TENANT_ATTRIBUTE, tenant))
+                .andExpect(status().isTooManyRequests());
+        verify(metaAnalyzerService, never()).analyzeUrl(anyString(), any());
+    }
+
+    @Test
+    void testAnalyze_WithProfile_ShouldRunOnlyProfileChecks() throws Exception {
+        // Given
+        String url = "https://example.com";
+        when(metaAnalyzerService.analyzeUrl(eq(url), any())).thenReturn(createSampleAnalyzeResponse());
+
+        // When
+        mockMvc.perform(post("/api/analyze")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"url\":\"" + url + "\",\"profile\":\"SOCIAL\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/analyze").param("url", url).param("checks", "OPEN_GRAPH", "PREVIEWS"))
+                .andExpect(status().isOk());
+
+        // Then
+        verify(metaAnalyzerService).analyzeUrl(url, AnalysisProfile.SOCIAL.getChecks());
+        verify(metaAnalyzerService).analyzeUrl(url, EnumSet.of(CheckGroup.OPEN_GRAPH, CheckGroup.PREVIEWS));
+    }
+
+    @Test
+    void testAnalyzeGet_WithBlankUrl_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/analyze").param("url", " "))
+                .andExpect(status().isBadRequest());
+    }
+
     // Helper methods to create test data
     private AnalyzeResponse createSampleAnalyzeResponse() {
         AnalyzeResponse response = new AnalyzeResponse();
@@ -247,6 +397,7 @@ class MetaAnalyzerControllerTest {
 
     private AnalyzeResponse createErrorResponse() {
         AnalyzeResponse response = new AnalyzeResponse();
+        response.setFailed(true);
         response.setScore(0);
         response.setMeta(new MetaTags());
         response.setBreakdown(new ScoreBreakdown());
@@ -0,0 +1,53 @@
+package com.metasnap.metasnap_backend.diagnostics;
+
+import com.metasnap.metasnap_backend.dto.AnalysisTrace;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowAnalysisRecorderTest {
+
+    @Test
+    void testRecord_WhenFull_ShouldKeepSlowestFirst() {
+        // Given
+        SlowAnalysisRecorder recorder = new SlowAnalysisRecorder(3, Duration.ofHours(1));
+        long now = System.currentTimeMillis();
+
+        // When
+        for (long totalMs : new long[]{120, 40, 900, 15, 300, 60}) {
+            recorder.record(trace(totalMs, now));
+        }
+
+        // Then
+        List<AnalysisTrace> slowest = recorder.slowest();
+        assertEquals(List.of(900L, 300L, 120L), slowest.stream().map(AnalysisTrace::getTotalMs).toList());
+    }
+
+    @Test
+    void testRecord_WithExpiredEntries_ShouldAcceptFasterAnalyses() {
+        // Given
+        SlowAnalysisRecorder recorder = new SlowAnalysisRecorder(2, Duration.ofHours(1));
+        long now = System.currentTimeMillis();
+        recorder.record(trace(5000, now - Duration.ofHours(2).toMillis()));
+        recorder.record(trace(4000, now - Duration.ofMinutes(90).toMillis()));
+
+        // When
+        recorder.record(trace(10, now));
+
+        // Then
+        List<AnalysisTrace> slowest = recorder.slowest();
+        assertEquals(1, slowest.size());
+        assertEquals(10, slowest.get(0).getTotalMs());
+    }
+
+    private static AnalysisTrace trace(long totalMs, long startedAt) {
+        AnalysisTrace trace = new AnalysisTrace();
+        trace.setUrl("https://example.com/" + totalMs);
+        trace.setTotalMs(totalMs);
+        trace.setStartedAt(startedAt);
+        return trace;
+    }
+}
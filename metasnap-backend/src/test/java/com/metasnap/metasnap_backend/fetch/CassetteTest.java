@@ -0,0 +1,141 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.HttpStatusException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CassetteTest {
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private String base;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testReplay_OfRecordedPages_ShouldMatchLiveFetches() throws IOException {
+        // Given
+        Path file = dir.resolve("pages.cassette");
+        FetchedPage live;
+        try (RecordingOriginClient recording = new RecordingOriginClient(
+                new JsoupOriginClient(DataSize.ofMegabytes(1)), new CassetteWriter(file))) {
+            PageFetcher recorder = fetcher(recording);
+            live = recorder.fetch(base + "/old");
+            recorder.fetch(base + "/latin");
+            assertThrows(HttpStatusException.class, () -> recorder.fetch(base + "/missing"));
+        }
+        server.stop(0);
+
+        // When
+        try (ReplayOriginClient replay = new ReplayOriginClient(new CassetteReader(file), 0)) {
+            PageFetcher replayer = fetcher(replay);
+            FetchedPage page = replayer.fetch(base + "/old");
+            FetchedPage head = replayer.fetch(base + "/latin", element -> element.nameIs("title"));
+
+            // Then
+            assertEquals(live.document().title(), page.document().title());
+            assertEquals(base + "/new", page.finalUrl());
+            assertEquals(1, page.redirects().size());
+            assertEquals(301, page.redirects().get(0).getStatus());
+            assertEquals(live.contentLength(), page.contentLength());
+            assertEquals("Café", head.document().title());
+            HttpStatusException notFound = assertThrows(HttpStatusException.class, () -> replayer.fetch(base + "/missing"));
+            assertEquals(404, notFound.getStatusCode());
+            IOException unrecorded = assertThrows(IOException.class, () -> replayer.fetch(base + "/other"));
+            assertTrue(unrecorded.getMessage().startsWith("No recording for"));
+        }
+    }
+
+    @Test
+    void testReader_WithSmallSegments_ShouldFindEveryEntryAndLatestWins() throws IOException {
+        // Given
+        Path file = dir.resolve("segments.cassette");
+        try (CassetteWriter writer = new CassetteWriter(file)) {
+            for (int i = 0; i < 50; i++) {
+                writer.append(entry("https://a.com/" + i, "<title>Page " + i + "</title>"));
+            }
+        }
+        try (CassetteWriter writer = new CassetteWriter(file)) {
+            writer.append(entry("https://a.com/7", "<title>Page 7 again</title>"));
+        }
+
+        // When
+        CassetteReader reader = new CassetteReader(file, 200);
+
+        // Then
+        assertEquals(50, reader.size());
+        for (int i = 0; i < 50; i++) {
+            CassetteEntry entry = reader.get("https://a.com/" + i);
+            String body = StandardCharsets.UTF_8.decode(entry.body()).toString();
+            assertEquals(i == 7 ? "<title>Page 7 again</title>" : "<title>Page " + i + "</title>", body);
+            assertEquals("text/html", entry.headers().get("content-type"));
+        }
+    }
+
+    private PageFetcher fetcher(OriginClient client) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new PageFetcher(new RedirectCache(Duration.ofHours(1), 100), client,
+                new FetchRetryPolicy(registry, 0, Duration.ZERO, Duration.ZERO),
+                new HostCircuitBreakers(registry, 5, Duration.ofMinutes(1), Duration.ofMinutes(1)),
+                new FetchConcurrencyLimiter(registry, 8, 64, 4, 16, 2.0, Duration.ofSeconds(5)), 5);
+    }
+
+    private static CassetteEntry entry(String url, String body) {
+        return new CassetteEntry(url, 200, 12, "UTF-8", Map.of("Content-Type", "text/html"),
+                StandardCharsets.UTF_8.encode(body), null);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        try (exchange) {
+            exchange.getResponseHeaders().put("Content-Type", List.of("text/html"));
+            byte[] body;
+            switch (path) {
+                case "/old" -> {
+                    exchange.getResponseHeaders().set("Location", "/new");
+                    exchange.sendResponseHeaders(301, -1);
+                    return;
+                }
+                case "/new" -> body = "<html><head><title>New home</title></head><body>Hi</body></html>"
+                        .getBytes(StandardCharsets.UTF_8);
+                case "/latin" -> body = ("<html><head><meta charset=\"ISO-8859-1\"><title>Café</title></head>"
+                        + "<body>" + "x".repeat(5000) + "</body></html>").getBytes(StandardCharsets.ISO_8859_1);
+                default -> {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.HttpStatusException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FetchConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void testOnResponse_WithSteadyLatencyUnderLoad_ShouldRaiseLimitsUpToMax() throws IOException {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FetchConcurrencyLimiter limiter = new FetchConcurrencyLimiter(registry, 4, 20, 4, 10, 2.0, Duration.ofSeconds(1));
+
+        // When: every slot is busy and responses stay at 50 ms
+        for (int round = 0; round < 50; round++) {
+            FetchConcurrencyLimiter.Permit[] permits = new FetchConcurrencyLimiter.Permit[limiter.hostLimit("a.com")];
+            for (int i = 0; i < permits.length; i++) {
+                permits[i] = limiter.acquire("a.com");
+            }
+            for (FetchConcurrencyLimiter.Permit permit : permits) {
+                permit.onResponse(50 * MS);
+                permit.release();
+            }
+        }
+
+        // Then
+        assertEquals(10, limiter.hostLimit("a.com"));
+        assertTrue(limiter.limit() > 4, "global limit was " + limiter.limit());
+        assertEquals(limiter.limit(), registry.get("metasnap.fetch.limit").gauge().value());
+        assertEquals(0.0, registry.get("metasnap.fetch.in-flight").gauge().value());
+    }
+
+    @Test
+    void testOnResponse_WhenLatencyClimbs_ShouldLowerHostLimit() throws IOException {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FetchConcurrencyLimiter limiter = new FetchConcurrencyLimiter(registry, 32, 64, 16, 16, 2.0, Duration.ofSeconds(1));
+        sample(limiter, "slow.com", 20, 50 * MS);
+        int before = limiter.hostLimit("slow.com");
+
+        // When: responses become ten times slower than the baseline
+        sample(limiter, "slow.com", 5, 500 * MS);
+
+        // Then
+        assertTrue(limiter.hostLimit("slow.com") <= before / 2, "limit was " + limiter.hostLimit("slow.com"));
+        assertEquals(16, limiter.hostLimit("other.com"));
+        assertEquals(1.0, registry.get("metasnap.fetch.limit.throttled-hosts").gauge().value());
+    }
+
+    @Test
+    void testOnFailure_ShouldBackOffOnOverloadButNotOnClientErrors() throws IOException {
+        // Given
+        FetchConcurrencyLimiter limiter = new FetchConcurrencyLimiter(new SimpleMeterRegistry(), 32, 64, 10, 10, 2.0, Duration.ofSeconds(1));
+
+        // When
+        FetchConcurrencyLimiter.Permit permit = limiter.acquire("a.com");
+        permit.onFailure(new HttpStatusException("Not found", 404, "https://a.com/x"), 10 * MS);
+        int afterNotFound = limiter.hostLimit("a.com");
+        permit.onFailure(new SocketTimeoutException("Read timed out"), 10_000 * MS);
+        permit.onFailure(new HttpStatusException("Too many requests", 429, "https://a.com/x"), 10 * MS);
+        permit.release();
+
+        // Then
+        assertEquals(10, afterNotFound);
+        assertEquals(8, limiter.hostLimit("a.com"));
+    }
+
+    @Test
+    void testAcquire_WhenHostLimitIsFull_ShouldTimeOutAndCount() throws IOException {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FetchConcurrencyLimiter limiter = new FetchConcurrencyLimiter(registry, 32, 64, 1, 1, 2.0, Duration.ofMillis(50));
+        FetchConcurrencyLimiter.Permit held = limiter.acquire("a.com");
+
+        // When
+        IOException error = assertThrows(IOException.class, () -> limiter.acquire("a.com"));
+        FetchConcurrencyLimiter.Permit otherHost = limiter.acquire("b.com");
+        held.release();
+        held.release();
+        FetchConcurrencyLimiter.Permit again = limiter.acquire("a.com");
+
+        // Then
+        assertTrue(error.getMessage().startsWith("No fetch slot for a.com"));
+        assertEquals(1.0, registry.counter("metasnap.fetch.limit.timeouts").count());
+        assertEquals(2.0, registry.get("metasnap.fetch.in-flight").gauge().value());
+        otherHost.release();
+        again.release();
+    }
+
+    @Test
+    void testAcquire_PastMaxHosts_ShouldDropLeastRecentlyUsedIdleHosts() throws IOException {
+        // Given: one host busy and throttled, one host used again recently
+        FetchConcurrencyLimiter limiter = new FetchConcurrencyLimiter(new SimpleMeterRegistry(), 32, 64, 2, 2, 2.0, Duration.ofSeconds(1));
+        FetchConcurrencyLimiter.Permit busy = limiter.acquire("busy.com");
+        busy.onFailure(new SocketTimeoutException(), 10 * MS);
+        limiter.acquire("recent.com").release();
+
+        // When
+        for (int i = 0; i < 20_000; i++) {
+            limiter.acquire("host" + i + ".com").release();
+            if (i % 1000 == 0) limiter.tryAcquire("recent.com").release();
+        }
+
+        // Then
+        assertEquals(10_000, limiter.hostCount());
+        assertEquals(1, limiter.hostLimit("busy.com")); // kept while in flight
+        assertEquals(2, limiter.hostLimit("recent.com"));
+        assertEquals(2, limiter.hostLimit("host0.com")); // dropped, back at the initial limit
+        busy.release();
+    }
+
+    private static void sample(FetchConcurrencyLimiter limiter, String host, int rounds, long rttNanos) throws IOException {
+        for (int round = 0; round < rounds; round++) {
+            FetchConcurrencyLimiter.Permit[] permits = new FetchConcurrencyLimiter.Permit[limiter.hostLimit(host)];
+            for (int i = 0; i < permits.length; i++) {
+                permits[i] = limiter.acquire(host);
+            }
+            for (FetchConcurrencyLimiter.Permit permit : permits) {
+                permit.onResponse(rttNanos);
+                permit.release();
+            }
+        }
+    }
+}
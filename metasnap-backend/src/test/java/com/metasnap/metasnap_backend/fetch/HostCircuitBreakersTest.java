@@ -0,0 +1,84 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostCircuitBreakersTest {
+
+    @Test
+    void testOnFailure_BelowThreshold_ShouldStayClosed() throws HostUnavailableException {
+        // Given
+        HostCircuitBreakers breakers = new HostCircuitBreakers(new SimpleMeterRegistry(), 3, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        // When
+        breakers.onFailure("example.com");
+        breakers.onFailure("example.com");
+        breakers.onSuccess("example.com");
+        breakers.onFailure("example.com");
+        breakers.onFailure("example.com");
+
+        // Then: a success in between resets the count
+        breakers.acquire("example.com");
+        assertEquals(HostCircuitBreakers.State.CLOSED, breakers.state("example.com"));
+    }
+
+    @Test
+    void testAcquire_AfterOpenPeriod_ShouldLetOneProbeThroughHalfOpen() throws HostUnavailableException {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HostCircuitBreakers breakers = new HostCircuitBreakers(registry, 1, Duration.ZERO, Duration.ofMinutes(1));
+        breakers.onFailure("example.com");
+        assertEquals(HostCircuitBreakers.State.OPEN, breakers.state("example.com"));
+
+        // When: the probe fails, then a later probe succeeds
+        breakers.acquire("example.com");
+        assertEquals(HostCircuitBreakers.State.HALF_OPEN, breakers.state("example.com"));
+        breakers.onFailure("example.com");
+        assertEquals(HostCircuitBreakers.State.OPEN, breakers.state("example.com"));
+        breakers.acquire("example.com");
+        breakers.onSuccess("example.com");
+
+        // Then
+        assertEquals(HostCircuitBreakers.State.CLOSED, breakers.state("example.com"));
+        assertEquals(2.0, registry.counter("metasnap.fetch.breaker.transitions", "from", "half_open", "to", "open").count()
+                + registry.counter("metasnap.fetch.breaker.transitions", "from", "closed", "to", "open").count());
+        assertEquals(1.0, registry.counter("metasnap.fetch.breaker.transitions", "from", "half_open", "to", "closed").count());
+        assertEquals(0.0, registry.get("metasnap.fetch.breaker.hosts").tag("state", "open").gauge().value());
+    }
+
+    @Test
+    void testAcquire_WhileOpen_ShouldRejectOtherHostsUnaffected() throws HostUnavailableException {
+        // Given
+        HostCircuitBreakers breakers = new HostCircuitBreakers(new SimpleMeterRegistry(), 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        breakers.onFailure("dead.example.com");
+
+        // When / Then
+        HostUnavailableException error = assertThrows(HostUnavailableException.class, () -> breakers.acquire("dead.example.com"));
+        assertEquals("dead.example.com", error.getHost());
+        breakers.acquire("example.com");
+    }
+
+    @Test
+    void testOnFailure_OutsideWindow_ShouldStartNewCountAndBeEvicted() throws HostUnavailableException {
+        // Given: every failure falls outside the previous one's window
+        HostCircuitBreakers breakers = new HostCircuitBreakers(new SimpleMeterRegistry(), 2, Duration.ZERO, Duration.ZERO);
+        breakers.onFailure("flaky.example.com");
+        breakers.onFailure("flaky.example.com");
+        HostCircuitBreakers opened = new HostCircuitBreakers(new SimpleMeterRegistry(), 1, Duration.ZERO, Duration.ZERO);
+        opened.onFailure("dead.example.com");
+
+        // When
+        int evicted = breakers.evictIdle() + opened.evictIdle();
+
+        // Then
+        assertEquals(HostCircuitBreakers.State.CLOSED, breakers.state("flaky.example.com"));
+        assertEquals(2, evicted);
+        assertEquals(0, breakers.size());
+        assertEquals(0, opened.size());
+        opened.acquire("dead.example.com");
+    }
+}
@@ -0,0 +1,286 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PageFetcherTest {
+
+    private RedirectCache redirectCache;
+    private SimpleMeterRegistry meterRegistry;
+    private HostCircuitBreakers breakers;
+    private PageFetcher pageFetcher;
+
+    @BeforeEach
+    void setUp() {
+        redirectCache = new RedirectCache(Duration.ofHours(1), 100);
+        meterRegistry = new SimpleMeterRegistry();
+        breakers = new HostCircuitBreakers(meterRegistry, 3, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        pageFetcher = new PageFetcher(redirectCache, new JsoupOriginClient(DataSize.ofMegabytes(10)),
+                new FetchRetryPolicy(meterRegistry, 2, Duration.ZERO, Duration.ZERO), breakers,
+                new FetchConcurrencyLimiter(meterRegistry, 8, 64, 4, 16, 2.0, Duration.ofSeconds(5)), 3);
+    }
+
+    @Test
+    void testFetch_WithRedirectChain_ShouldRecordEveryHop() throws IOException {
+        // Given
+        Connection.Response moved = redirect(301, "https://example.com/");
+        Connection.Response found = redirect(302, "/home");
+        Connection http = connection(moved);
+        Connection https = connection(found);
+        Connection home = connection(page("<html><head><title>Home</title></head></html>"));
+
+        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
+            jsoupMock.when(() -> Jsoup.connect("http://example.com")).thenReturn(http);
+            jsoupMock.when(() -> Jsoup.connect("https://example.com/")).thenReturn(https);
+            jsoupMock.when(() -> Jsoup.connect("https://example.com/home")).thenReturn(home);
+
+            // When
+            FetchedPage page = pageFetcher.fetch("http://example.com");
+
+            // Then
+            assertEquals("https://example.com/home", page.finalUrl());
+            assertEquals("Home", page.document().title());
+            assertEquals(2, page.redirects().size());
+            assertEquals(301, page.redirects().get(0).getStatus());
+            assertEquals("https://example.com/", page.redirects().get(0).getLocation());
+            assertEquals(302, page.redirects().get(1).getStatus());
+            assertEquals("https://example.com/home", page.redirects().get(1).getLocation());
+            verify(http).followRedirects(false);
+            verify(moved).bodyStream(); // each hop's unread body is closed, releasing its connection
+            verify(found).bodyStream();
+        }
+    }
+
+    @Test
+    void testFetch_WithCachedPermanentRedirect_ShouldSkipRoundTrip() throws IOException {
+        // Given
+        Connection http = connection(redirect(308, "https://example.com/"));
+        Connection https = connection(page("<html><head><title>Home</title></head></html>"));
+
+        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
+            jsoupMock.when(() -> Jsoup.connect("http://example.com")).thenReturn(http);
+            jsoupMock.when(() -> Jsoup.connect("https://example.com/")).thenReturn(https);
+            pageFetcher.fetch("http://example.com");
+
+            // When
+            FetchedPage page = pageFetcher.fetch("http://example.com");
+
+            // Then
+            jsoupMock.verify(() -> Jsoup.connect("http://example.com"), times(1));
+            assertTrue(page.redirects().get(0).isCached());
+            assertEquals("https://example.com/", page.finalUrl());
+        }
+    }
+
+    @Test
+    void testFetch_WithTemporaryRedirect_ShouldNotCache() throws IOException {
+        // Given
+        Connection http = connection(redirect(302, "https://example.com/"));
+        Connection https = connection(page("<html></html>"));
+
+        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
+            jsoupMock.when(() -> Jsoup.connect("http://example.com")).thenReturn(http);
+            jsoupMock.when(() -> Jsoup.connect("https://example.com/")).thenReturn(https);
+
+            // When
+            pageFetcher.fetch("http://example.com");
+
+            // Then
+            assertEquals(0, redirectCache.size());
+        }
+    }
+
+    @Test
+    void testFetch_WithRedirectLoop_ShouldFail() throws IOException {
+        // Given
+        Connection a = connection(redirect(302, "https://b.example/"));
+        Connection b = connection(redirect(302, "https://a.example/"));
+
+        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
+            jsoupMock.when(() -> Jsoup.connect("https://a.example/")).thenReturn(a);
+            jsoupMock.when(() -> Jsoup.connect("https://b.example/")).thenReturn(b);
+
+            // When & Then
+            IOException error = assertThrows(IOException.class, () -> pageFetcher.fetch("https://a.example/"));
+            assertTrue(error.getMessage().contains("Redirect loop"));
+        }
+    }
+
+    @Test
+    void testFetch_WithTooManyRedirects_ShouldFail() throws IOException {
+        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
+            for (int i = 0; i < 5; i++) {
+                String from = "https://example.com/" + i;
+                Connection hop = connection(redirect(302, "https://example.com/" + (i + 1)));
+                jsoupMock.when(() -> Jsoup.connect(from)).thenReturn(hop);
+            }
+
+            // When & Then
+            IOException error = assertThrows(IOException.class, () -> pageFetcher.fetch("https://example.com/0"));
+            assertTrue(error.getMessage().contains("Too many redirects"));
+        }
+    }
+
+    @Test
+    void testFetch_WithStopCondition_ShouldStopParsingAtFirstAcceptedElement() throws IOException {
+        // Given
+        Connection.Response response = mock(Connection.Response.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.streamParser()).thenReturn(new StreamParser(Parser.htmlParser()).parse(
+                "<html><head><title>Early</title><meta name=description content=later></head>"
+                        + "<body><h1>Never parsed</h1></body></html>", "https://example.com/"));
+        Connection connection = connection(response);
+
+        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
+            jsoupMock.when(() -> Jsoup.connect("https://example.com/")).thenReturn(connection);
+
+            // When
+            FetchedPage page = pageFetcher.fetch("https://example.com/", element -> element.normalName().equals("title"));
+
+            // Then
+            assertEquals("Early", page.document().title());
+            assertNull(page.document().selectFirst("h1"));
+            verify(response, never()).parse();
+        }
+    }
+
+    @Test
+    void testFetch_WithTransientServerError_ShouldRetry() throws IOException {
+        // Given
+        Connection connection = connection(page("<html><head><title>Recovered</title></head></html>"));
+        when(connection.execute())
+                .thenThrow(new HttpStatusException("Service Unavailable", 503, "https://example.com/"))
+                .thenThrow(new SocketException("Connection reset"))
+                .thenReturn(page("<html><head><title>Recovered</title></head></html>"));
+
+        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
+            jsoupMock.when(() -> Jsoup.connect("https://example.com/")).thenReturn(connection);
+
+            // When
+            FetchedPage page = pageFetcher.fetch("https://example.com/");
+
+            // Then
+            assertEquals("Recovered", page.document().title());
+            verify(connection, times(3)).execute();
+            assertEquals(1.0, meterRegistry.counter("metasnap.fetch.retries", "cause", "503").count());
+            assertEquals(HostCircuitBreakers.State.CLOSED, breakers.state("example.com"));
+        }
+    }
+
+    @Test
+    void testFetch_WithTimeoutOrClientError_ShouldNotRetry() throws IOException {
+        // Given
+        Connection slow = connection(page("<html></html>"));
+        when(slow.execute()).thenThrow(new SocketTimeoutException("Read timed out"));
+        Connection missing = connection(page("<html></html>"));
+        when(missing.execute()).thenThrow(new HttpStatusException("Not Found", 404, "https://example.org/"));
+
+        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
+            jsoupMock.when(() -> Jsoup.connect("https://example.com/")).thenReturn(slow);
+            jsoupMock.when(() -> Jsoup.connect("https://example.org/")).thenReturn(missing);
+
+            // When / Then
+            assertThrows(SocketTimeoutException.class, () -> pageFetcher.fetch("https://example.com/"));
+            assertThrows(HttpStatusException.class, () -> pageFetcher.fetch("https://example.org/"));
+            verify(slow, times(1)).execute();
+            verify(missing, times(1)).execute();
+        }
+    }
+
+    @Test
+    void testFetch_WithDeadHost_ShouldOpenBreakerAndFailFast() throws IOException {
+        // Given
+        Connection dead = connection(page("<html></html>"));
+        when(dead.execute()).thenThrow(new ConnectException("Connection refused"));
+
+        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
+            jsoupMock.when(() -> Jsoup.connect(anyString())).thenReturn(dead);
+
+            // When
+            assertThrows(ConnectException.class, () -> pageFetcher.fetch("https://dead.example.com/a"));
+            IOException error = assertThrows(IOException.class, () -> pageFetcher.fetch("https://dead.example.com/b"));
+
+            // Then: three attempts opened the breaker, the next fetch never reached the network
+            assertInstanceOf(HostUnavailableException.class, error);
+            verify(dead, times(3)).execute();
+            assertEquals(HostCircuitBreakers.State.OPEN, breakers.state("dead.example.com"));
+            assertEquals(1.0, meterRegistry.counter("metasnap.fetch.breaker.rejected").count());
+        }
+    }
+
+    @Test
+    void testFetch_WithSmallStreamedBody_ShouldParseWholePage() throws IOException {
+        // Given: a body shorter than jsoup's charset sniffing buffer, served over real HTTP
+        byte[] html = "<html><head><title>Tiny</title></head><body><p>hi</p></body></html>"
+                .getBytes(StandardCharsets.UTF_8);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/html");
+            exchange.sendResponseHeaders(200, html.length);
+            exchange.getResponseBody().write(html);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+
+            // When
+            FetchedPage page = pageFetcher.fetch(url, element -> element.normalName().equals("head"));
+
+            // Then
+            assertEquals("Tiny", page.document().title());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static Connection connection(Connection.Response response) throws IOException {
+        Connection connection = mock(Connection.class);
+        when(connection.userAgent(anyString())).thenReturn(connection);
+        when(connection.timeout(anyInt())).thenReturn(connection);
+        when(connection.maxBodySize(anyInt())).thenReturn(connection);
+        when(connection.followRedirects(anyBoolean())).thenReturn(connection);
+        when(connection.execute()).thenReturn(response);
+        return connection;
+    }
+
+    private static Connection.Response redirect(int status, String location) {
+        Connection.Response response = mock(Connection.Response.class);
+        when(response.statusCode()).thenReturn(status);
+        when(response.header("Location")).thenReturn(location);
+        when(response.bodyStream()).thenReturn(new BufferedInputStream(InputStream.nullInputStream()));
+        return response;
+    }
+
+    private static Connection.Response page(String html) throws IOException {
+        Connection.Response response = mock(Connection.Response.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.parse()).thenReturn(Jsoup.parse(html));
+        return response;
+    }
+}
@@ -0,0 +1,259 @@
+package com.metasnap.metasnap_backend.fetch;
+
+import com.metasnap.metasnap_backend.fetch.ResourceSizeProbe.ResourceSize;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceSizeProbeTest {
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String base;
+    private final ConcurrentHashMap<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final CountDownLatch hang = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverThreads);
+        server.createContext("/", this::handle);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hang.countDown();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void testProbeAll_WithContentLength_ShouldProbeEachUrlOnce() {
+        // Given
+        ResourceSizeProbe probe = probe(4, 4, Duration.ofHours(1));
+
+        // When
+        ResourceSize first = probe.probeAll(List.of(base + "/site.css")).get(0);
+        ResourceSize second = probe.probeAll(List.of(base + "/site.css")).get(0);
+
+        // Then
+        assertEquals(1234, first.bytes());
+        assertFalse(first.cached());
+        assertEquals(1234, second.bytes());
+        assertTrue(second.cached());
+        assertEquals(1, requests.get("HEAD /site.css").get());
+        probe.shutdown();
+    }
+
+    @Test
+    void testProbeAll_WithoutContentLength_ShouldFallBackToRangedAndFullGet() {
+        // Given
+        ResourceSizeProbe probe = probe(4, 4, Duration.ofHours(1));
+
+        // When
+        List<ResourceSize> sizes = probe.probeAll(List.of(base + "/app.js", base + "/hero.png", base + "/missing"));
+
+        // Then
+        assertEquals(5000, sizes.get(0).bytes());
+        assertEquals(3000, sizes.get(1).bytes());
+        assertEquals(-1, sizes.get(2).bytes());
+        assertEquals(base + "/hero.png", sizes.get(1).url());
+        assertEquals(2, probe.size()); // unknown sizes are not cached
+        assertEquals(-1, ResourceSizeProbe.totalFromContentRange("bytes 0-0/*"));
+        probe.shutdown();
+    }
+
+    @Test
+    void testProbeAll_WithExpiredEntry_ShouldRevalidateWithETag() {
+        // Given
+        ResourceSizeProbe probe = probe(4, 4, Duration.ZERO);
+        probe.probeAll(List.of(base + "/site.css"));
+
+        // When
+        ResourceSize revalidated = probe.probeAll(List.of(base + "/site.css")).get(0);
+
+        // Then
+        assertEquals(1234, revalidated.bytes());
+        assertTrue(revalidated.cached());
+        assertEquals(1, requests.get("HEAD /site.css 304").get());
+        probe.shutdown();
+    }
+
+    @Test
+    void testProbeAll_WithManyResourcesOnOneHost_ShouldBoundParallelism() {
+        // Given
+        ResourceSizeProbe probe = probe(16, 2, Duration.ofHours(1));
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            urls.add(base + "/slow/" + i + ".jpg");
+        }
+
+        // When
+        List<ResourceSize> sizes = probe.probeAll(urls);
+
+        // Then
+        assertTrue(sizes.stream().allMatch(size -> size.bytes() == 100));
+        assertTrue(maxInFlight.get() <= 2, "max in flight was " + maxInFlight.get());
+        probe.shutdown();
+    }
+
+    @Test
+    void testProbeAll_WithMoreResourcesThanThreads_ShouldNotDeadlock() {
+        // Given: one probe thread, a host limit of two and forty slow resources
+        ResourceSizeProbe probe = probe(1, 2, Duration.ofHours(1));
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            urls.add(base + "/slow/" + i + ".jpg");
+        }
+
+        // When
+        long start = System.nanoTime();
+        List<ResourceSize> sizes = probe.probeAll(urls);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertTrue(sizes.stream().allMatch(size -> size.bytes() == 100));
+        assertTrue(maxInFlight.get() <= 2, "max in flight was " + maxInFlight.get());
+        assertTrue(elapsedMs < 5000, "took " + elapsedMs + " ms");
+        probe.shutdown();
+    }
+
+    @Test
+    void testProbeAll_WithHangingOrigin_ShouldGiveUpAtDeadline() {
+        // Given
+        ResourceSizeProbe probe = new ResourceSizeProbe(new JsoupOriginClient(DataSize.ofMegabytes(1)),
+                limiter(4), 2, Duration.ofHours(1), 100, 1_000_000, Duration.ofMillis(300));
+
+        // When
+        long start = System.nanoTime();
+        List<ResourceSize> sizes = probe.probeAll(List.of(base + "/hang.css", base + "/site.css"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertEquals(-1, sizes.get(0).bytes());
+        assertEquals(1234, sizes.get(1).bytes());
+        assertTrue(elapsedMs < 2000, "took " + elapsedMs + " ms");
+        probe.shutdown();
+    }
+
+    @Test
+    void testProbeAll_WhenReplaying_ShouldAnswerFromCassetteWithoutNetwork(@TempDir Path dir) throws IOException {
+        // Given: sizes probed while recording
+        Path cassette = dir.resolve("weight.cassette");
+        RecordingOriginClient recording = new RecordingOriginClient(new JsoupOriginClient(DataSize.ofMegabytes(1)),
+                new CassetteWriter(cassette));
+        ResourceSizeProbe recorder = new ResourceSizeProbe(recording, limiter(4), 2, Duration.ofHours(1), 100,
+                1_000_000, Duration.ofSeconds(10));
+        recorder.probeAll(List.of(base + "/site.css", base + "/app.js"));
+        recorder.shutdown();
+        recording.close();
+        server.stop(0);
+
+        // When
+        ReplayOriginClient replay = new ReplayOriginClient(new CassetteReader(cassette), 0);
+        ResourceSizeProbe probe = new ResourceSizeProbe(replay, limiter(4), 2, Duration.ofHours(1), 100,
+                1_000_000, Duration.ofSeconds(10));
+        List<ResourceSize> sizes = probe.probeAll(List.of(base + "/site.css", base + "/app.js", base + "/other.png"));
+
+        // Then
+        assertEquals(1234, sizes.get(0).bytes());
+        assertEquals(5000, sizes.get(1).bytes());
+        assertEquals(-1, sizes.get(2).bytes());
+        assertEquals(1, requests.get("HEAD /site.css").get()); // only while recording
+        probe.shutdown();
+    }
+
+    private ResourceSizeProbe probe(int threads, int perHost, Duration ttl) {
+        return new ResourceSizeProbe(new JsoupOriginClient(DataSize.ofMegabytes(1)), limiter(perHost), threads, ttl,
+                100, 1_000_000, Duration.ofSeconds(10));
+    }
+
+    private static FetchConcurrencyLimiter limiter(int perHost) {
+        return new FetchConcurrencyLimiter(new SimpleMeterRegistry(), 64, 64, perHost, perHost, 2.0, Duration.ofSeconds(5));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        count(method + " " + path);
+        try (exchange) {
+            if (path.equals("/site.css")) {
+                if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    count(method + " " + path + " 304");
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().set("ETag", "\"v1\"");
+                exchange.getResponseHeaders().set("Content-Length", "1234");
+                exchange.sendResponseHeaders(200, -1);
+            } else if (path.equals("/app.js")) {
+                if (method.equals("HEAD")) {
+                    exchange.sendResponseHeaders(405, -1);
+                } else {
+                    exchange.getResponseHeaders().set("Content-Range", "bytes 0-0/5000");
+                    exchange.sendResponseHeaders(206, 1);
+                    exchange.getResponseBody().write('x');
+                }
+            } else if (path.equals("/hero.png")) {
+                if (method.equals("HEAD")) {
+                    exchange.sendResponseHeaders(405, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, 0); // chunked, Range ignored
+                    OutputStream body = exchange.getResponseBody();
+                    body.write(new byte[3000]);
+                }
+            } else if (path.equals("/hang.css")) {
+                try {
+                    hang.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.sendResponseHeaders(404, -1);
+            } else if (path.startsWith("/slow/")) {
+                int now = inFlight.incrementAndGet();
+                maxInFlight.accumulateAndGet(now, Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                exchange.getResponseHeaders().set("Content-Length", "100");
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private void count(String key) {
+        requests.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+    }
+}
@@ -0,0 +1,283 @@
+package com.metasnap.metasnap_backend.queue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.service.ExtractionStore;
+import com.metasnap.metasnap_backend.service.MetaAnalyzerService;
+import com.metasnap.metasnap_backend.service.ScoreReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileJobQueueTest {
+
+    @TempDir
+    Path queueDir;
+
+    private FileJobQueue jobQueue;
+
+    @BeforeEach
+    void setUp() {
+        jobQueue = new FileJobQueue(new ObjectMapper(), queueDir, 3, Duration.ofDays(1));
+    }
+
+    @Test
+    void testLease_ShouldHandOutJobOnlyOnce() {
+        // Given
+        String id = jobQueue.enqueue("https://example.com");
+
+        // When
+        Optional<JobLease> first = jobQueue.lease("worker-a", Duration.ofMinutes(1));
+        Optional<JobLease> second = jobQueue.lease("worker-b", Duration.ofMinutes(1));
+
+        // Then
+        assertTrue(first.isPresent());
+        assertEquals(id, first.get().job().id());
+        assertEquals("https://example.com", first.get().job().url());
+        assertEquals(1, first.get().job().attempts());
+        assertTrue(second.isEmpty());
+        assertEquals("leased", jobQueue.status(id));
+    }
+
+    @Test
+    void testComplete_ShouldPublishResult() {
+        // Given
+        String id = jobQueue.enqueue("https://example.com");
+        JobLease lease = jobQueue.lease("worker-a", Duration.ofMinutes(1)).orElseThrow();
+        AnalyzeResponse response = new AnalyzeResponse();
+        response.setScore(42);
+
+        // When
+        jobQueue.complete(lease, response);
+
+        // Then
+        assertEquals("completed", jobQueue.status(id));
+        assertEquals(42, jobQueue.result(id).orElseThrow().getScore());
+        assertEquals(0, jobQueue.stats().getLeased());
+        assertEquals(1, jobQueue.stats().getCompleted());
+    }
+
+    @Test
+    void testBelongsTo_ShouldMatchTheEnqueuingTenantInEveryState() {
+        // Given
+        String completed = jobQueue.enqueue("https://example.com/a", "acme");
+        jobQueue.complete(jobQueue.lease("worker-a", Duration.ofMinutes(1)).orElseThrow(), new AnalyzeResponse());
+        String leased = jobQueue.enqueue("https://example.com/b", "acme");
+        jobQueue.lease("worker-a", Duration.ofMinutes(1)).orElseThrow();
+        String pending = jobQueue.enqueue("https://example.com/c", "acme");
+        String untenanted = jobQueue.enqueue("https://example.com/d");
+        assertEquals("leased", jobQueue.status(leased));
+
+        // When & Then
+        for (String id : new String[]{pending, leased, completed}) {
+            assertTrue(jobQueue.belongsTo(id, "acme"), id);
+            assertFalse(jobQueue.belongsTo(id, "globex"), id);
+            assertFalse(jobQueue.belongsTo(id, null), id);
+        }
+        assertTrue(jobQueue.belongsTo(untenanted, null));
+        assertFalse(jobQueue.belongsTo(untenanted, "acme"));
+        assertFalse(jobQueue.belongsTo("0000000000000-missing", "acme"));
+        assertFalse(jobQueue.belongsTo("../escape", "acme"));
+    }
+
+    @Test
+    void testExpiredLease_ShouldBeRedelivered() {
+        // Given
+        String id = jobQueue.enqueue("https://example.com");
+        jobQueue.lease("dead-worker", Duration.ofMillis(-1)).orElseThrow();
+
+        // When
+        int reaped = jobQueue.reapExpired();
+        Optional<JobLease> redelivered = jobQueue.lease("worker-b", Duration.ofMinutes(1));
+
+        // Then
+        assertEquals(1, reaped);
+        assertTrue(redelivered.isPresent());
+        assertEquals(id, redelivered.get().job().id());
+        assertEquals(2, redelivered.get().job().attempts());
+    }
+
+    @Test
+    void testExtend_ShouldKeepLeaseAlive() {
+        // Given
+        String id = jobQueue.enqueue("https://example.com");
+        JobLease lease = jobQueue.lease("worker-a", Duration.ofMillis(-1)).orElseThrow();
+
+        // When
+        Optional<JobLease> extended = jobQueue.extend(lease, Duration.ofMinutes(1));
+
+        // Then
+        assertTrue(extended.isPresent());
+        assertEquals(0, jobQueue.reapExpired());
+        assertEquals("leased", jobQueue.status(id));
+    }
+
+    @Test
+    void testRepeatedFailures_ShouldDeadLetterJob() {
+        // Given
+        String id = jobQueue.enqueue("https://example.com");
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            jobQueue.release(jobQueue.lease("worker-a", Duration.ofMinutes(1)).orElseThrow());
+        }
+
+        // Then
+        assertTrue(jobQueue.lease("worker-a", Duration.ofMinutes(1)).isEmpty());
+        assertEquals("dead", jobQueue.status(id));
+    }
+
+    @Test
+    void testConcurrentWorkers_ShouldProcessEachJobExactlyOnce() throws InterruptedException {
+        // Given
+        int jobs = 200;
+        for (int i = 0; i < jobs; i++) {
+            jobQueue.enqueue("https://example.com/page/" + i);
+        }
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int w = 0; w < 8; w++) {
+            String workerId = "worker-" + w;
+            workers.submit(() -> {
+                Optional<JobLease> lease;
+                while ((lease = jobQueue.lease(workerId, Duration.ofMinutes(1))).isPresent()) {
+                    if (!seen.add(lease.get().job().id())) duplicates.incrementAndGet();
+                    jobQueue.complete(lease.get(), new AnalyzeResponse());
+                }
+            });
+        }
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(jobs, seen.size());
+        assertEquals(0, duplicates.get());
+        assertEquals(jobs, jobQueue.stats().getCompleted());
+    }
+
+    @Test
+    void testStatus_WithUnknownOrInvalidId_ShouldReturnUnknown() {
+        assertEquals("unknown", jobQueue.status("0000000000000-missing"));
+        assertEquals("unknown", jobQueue.status("../etc"));
+    }
+
+    @Test
+    void testReapExpired_WithMalformedLeaseFile_ShouldQuarantineIt() throws Exception {
+        // Given
+        Files.writeString(queueDir.resolve("leased/garbage~not-a-number~worker.json"), "{}");
+        Files.writeString(queueDir.resolve("leased/no-separators.json"), "{}");
+        String id = jobQueue.enqueue("https://example.com");
+        jobQueue.lease("dead-worker", Duration.ofMillis(-1)).orElseThrow();
+
+        // When
+        int reaped = jobQueue.reapExpired();
+
+        // Then
+        assertEquals(1, reaped);
+        assertEquals("pending", jobQueue.status(id));
+        assertEquals(0, jobQueue.stats().getLeased());
+        assertEquals(2, jobQueue.stats().getDead());
+    }
+
+    @Test
+    void testPurgeResults_ShouldDeleteOnlyResultsOlderThanRetention() throws Exception {
+        // Given
+        String old = jobQueue.enqueue("https://example.com/old");
+        jobQueue.complete(jobQueue.lease("worker-a", Duration.ofMinutes(1)).orElseThrow(), new AnalyzeResponse());
+        String recent = jobQueue.enqueue("https://example.com/recent");
+        jobQueue.complete(jobQueue.lease("worker-a", Duration.ofMinutes(1)).orElseThrow(), new AnalyzeResponse());
+        Files.setLastModifiedTime(queueDir.resolve("results/" + old + ".json"),
+                FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(2).toMillis()));
+
+        // When
+        int purged = jobQueue.purgeResults();
+
+        // Then
+        assertEquals(1, purged);
+        assertEquals("unknown", jobQueue.status(old));
+        assertEquals("completed", jobQueue.status(recent));
+    }
+
+    @Test
+    void testWorker_WithAnalysisSlowerThanVisibilityTimeout_ShouldExtendLease() {
+        // Given
+        String id = jobQueue.enqueue("https://example.com/slow");
+        AtomicInteger reapedWhileRunning = new AtomicInteger();
+        MetaAnalyzerService analyzer = mock(MetaAnalyzerService.class);
+        when(analyzer.analyzeUrl(anyString())).thenAnswer(invocation -> {
+            for (int i = 0; i < 5; i++) {
+                Thread.sleep(100);
+                reapedWhileRunning.addAndGet(jobQueue.reapExpired());
+            }
+            return new AnalyzeResponse();
+        });
+        QueueWorker worker = new QueueWorker(jobQueue, analyzer, new ScoreReportService(10),
+                new ExtractionStore(new ObjectMapper(), "", 10), false, 1, Duration.ofMillis(150));
+
+        // When
+        boolean processed = worker.processNext("worker-a");
+
+        // Then
+        assertTrue(processed);
+        assertEquals(0, reapedWhileRunning.get());
+        assertEquals("completed", jobQueue.status(id));
+        assertEquals(0, jobQueue.stats().getLeased());
+        assertEquals(0, jobQueue.stats().getPending());
+    }
+
+    @Test
+    void testStop_WithStuckThreads_ShouldWaitOneTimeoutForAllOfThem() throws InterruptedException {
+        // Given: four threads each stuck in an analysis that ignores interrupts
+        CountDownLatch started = new CountDownLatch(4);
+        MetaAnalyzerService analyzer = mock(MetaAnalyzerService.class);
+        when(analyzer.analyzeUrl(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+            while (System.nanoTime() < end) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ignored) {
+                    // keep going, like a blocking socket read
+                }
+            }
+            return new AnalyzeResponse();
+        });
+        for (int i = 0; i < 4; i++) {
+            jobQueue.enqueue("https://example.com/" + i);
+        }
+        QueueWorker worker = new QueueWorker(jobQueue, analyzer, new ScoreReportService(10),
+                new ExtractionStore(new ObjectMapper(), "", 10), false, 4, Duration.ofMillis(500));
+        worker.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        long start = System.nanoTime();
+        worker.stop();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then: one shared 500 ms deadline, not 500 ms per thread
+        assertTrue(elapsedMs < 1200, "stop took " + elapsedMs + " ms");
+        assertFalse(worker.isRunning());
+    }
+}
@@ -0,0 +1,338 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metasnap.metasnap_backend.dto.AnalysisJobResult;
+import com.metasnap.metasnap_backend.dto.AnalysisJobStatus;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.CheckGroup;
+import com.metasnap.metasnap_backend.dto.PageImportance;
+import com.metasnap.metasnap_backend.dto.RedirectHop;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AnalysisJobServiceTest {
+
+    @Mock
+    private MetaAnalyzerService metaAnalyzerService;
+
+    private AnalysisJobService analysisJobService;
+
+    @BeforeEach
+    void setUp() {
+        analysisJobService = new AnalysisJobService(metaAnalyzerService, new ScoreReportService(1000),
+                new ExtractionStore(new ObjectMapper(), "", 1000), new SeenUrlSet("", 0, Duration.ZERO),
+                4, Duration.ofHours(1), 2, 100, 1000, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        analysisJobService.shutdown();
+    }
+
+    @Test
+    void testSubmit_ShouldReturnImmediatelyAndCompleteInBackground() throws InterruptedException {
+        // Given
+        AnalyzeResponse response = new AnalyzeResponse();
+        response.setScore(70);
+        when(metaAnalyzerService.analyzeUrl(anyString())).thenReturn(response);
+
+        // When
+        AnalysisJobStatus submitted = analysisJobService.submit(List.of("https://a.example", "https://b.example"));
+        AnalysisJobStatus finished = awaitCompletion(submitted.getId());
+
+        // Then
+        assertEquals(2, submitted.getTotal());
+        assertEquals("completed", finished.getState());
+        assertEquals(2, finished.getCompleted());
+        assertEquals(0L, finished.getEtaMs());
+        List<AnalysisJobResult> results = analysisJobService.results(submitted.getId()).orElseThrow();
+        assertEquals(2, results.size());
+        assertEquals("https://a.example", results.get(0).getUrl());
+        assertEquals(70, results.get(0).getResult().getScore());
+    }
+
+    @Test
+    void testSubmit_WithTooManyUrls_ShouldThrow() {
+        List<String> urls = Collections.nCopies(101, "https://example.com");
+        assertThrows(IllegalArgumentException.class, () -> analysisJobService.submit(urls));
+    }
+
+    @Test
+    void testStatus_WithUnknownJob_ShouldBeEmpty() {
+        assertTrue(analysisJobService.status("missing").isEmpty());
+        assertTrue(analysisJobService.subscribe("missing").isEmpty());
+    }
+
+    @Test
+    void testEvictExpired_ShouldKeepOnlyNewestFinishedJobs() throws InterruptedException {
+        // Given
+        when(metaAnalyzerService.analyzeUrl(anyString())).thenReturn(new AnalyzeResponse());
+        String first = analysisJobService.submit(List.of("https://a.example")).getId();
+        awaitCompletion(first);
+        String second = analysisJobService.submit(List.of("https://b.example")).getId();
+        awaitCompletion(second);
+        String third = analysisJobService.submit(List.of("https://c.example")).getId();
+        awaitCompletion(third);
+
+        // When
+        analysisJobService.evictExpired();
+
+        // Then
+        assertTrue(analysisJobService.status(first).isEmpty());
+        assertTrue(analysisJobService.status(second).isPresent());
+        assertTrue(analysisJobService.status(third).isPresent());
+    }
+
+    @Test
+    void testSubmit_WithLinkGraph_ShouldAttachImportanceWhenJobCompletes() throws InterruptedException {
+        // Given: home links to about and blog; blog redirects and links home; old links home but nothing links to it
+        stubPage("https://site.example/", "https://site.example/", null,
+                List.of("https://site.example/about", "https://site.example/blog", "https://site.example/unanalyzed"));
+        stubPage("https://site.example/about", "https://site.example/about", null, List.of("https://site.example/"));
+        stubPage("https://site.example/blog", "https://site.example/blog/", "https://site.example/blog",
+                List.of("https://site.example/", "https://site.example/blog/post"));
+        stubPage("https://site.example/blog/post", "https://site.example/blog/post", null, List.of());
+        stubPage("https://site.example/old", "https://site.example/old", null, List.of("https://site.example/"));
+        List<String> urls = List.of("https://site.example/", "https://site.example/about", "https://site.example/blog",
+                "https://site.example/blog/post", "https://site.example/old");
+
+        // When
+        String id = analysisJobService.submit(urls, true).getId();
+        awaitCompletion(id);
+        List<AnalysisJobResult> results = analysisJobService.results(id).orElseThrow();
+
+        // Then
+        PageImportance home = results.get(0).getResult().getImportance();
+        PageImportance post = results.get(3).getResult().getImportance();
+        PageImportance old = results.get(4).getResult().getImportance();
+        assertEquals(3, home.getInLinks());
+        assertEquals(2, home.getOutLinks()); // the unanalyzed page is not in the graph
+        assertEquals(0, home.getDepth());
+        assertFalse(home.isOrphan());
+        assertEquals(2, post.getDepth());
+        assertNull(old.getDepth());
+        assertTrue(old.isOrphan());
+        assertTrue(home.getPageRank() > post.getPageRank());
+        assertTrue(post.getPageRank() > old.getPageRank());
+        assertNull(results.get(0).getResult().getLinks());
+    }
+
+    @Test
+    void testSubscribe_WithLinkGraph_ShouldSendRankedImportanceBeforeComplete() throws Exception {
+        // Given: a live subscriber, and the page linking home finishing last
+        stubPage("https://site.example/", "https://site.example/", null, List.of());
+        CountDownLatch slowPage = new CountDownLatch(1);
+        AnalyzeResponse about = new AnalyzeResponse();
+        about.setFinalUrl("https://site.example/about");
+        about.setLinks(List.of("https://SITE.example:443/#top"));
+        when(metaAnalyzerService.analyzeUrl(eq("https://site.example/about"), argThat(checks -> checks.contains(CheckGroup.LINKS))))
+                .thenAnswer(invocation -> {
+                    slowPage.await(5, TimeUnit.SECONDS);
+                    return about;
+                });
+        List<String> events = new CopyOnWriteArrayList<>();
+        List<Object> importance = new CopyOnWriteArrayList<>();
+        SseEmitter recording = new SseEmitter(60_000L) {
+            @Override
+            public void send(SseEventBuilder builder) {
+                String name = null;
+                for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                    if (part.getData() instanceof String text && text.startsWith("event:")) {
+                        name = text.lines().findFirst().orElseThrow();
+                        events.add(name);
+                    } else if ("event:importance".equals(name)) {
+                        importance.add(part.getData());
+                        name = null;
+                    }
+                }
+            }
+        };
+        String id = analysisJobService.submit(List.of("https://site.example/", "https://site.example/about"), true).getId();
+        analysisJobService.subscribe(id, recording);
+
+        // When
+        slowPage.countDown();
+        awaitCompletion(id);
+        for (int i = 0; i < 500 && !events.contains("event:complete"); i++) {
+            Thread.sleep(10);
+        }
+
+        // Then
+        assertEquals(List.of("event:importance", "event:complete"), events.subList(events.size() - 2, events.size()));
+        @SuppressWarnings("unchecked")
+        List<AnalysisJobResult> ranked = (List<AnalysisJobResult>) importance.get(0);
+        assertEquals(List.of(0, 1), ranked.stream().map(AnalysisJobResult::getIndex).toList());
+        assertEquals(1, ranked.get(0).getResult().getImportance().getInLinks());
+    }
+
+    @Test
+    void testSubmit_WithSeenUrlSet_ShouldSkipUrlsAcceptedBefore(@TempDir Path dir) throws InterruptedException {
+        // Given
+        AnalysisJobService service = new AnalysisJobService(metaAnalyzerService, new ScoreReportService(1000),
+                new ExtractionStore(new ObjectMapper(), "", 1000), new SeenUrlSet(dir.resolve("seen").toString(), 1000, Duration.ZERO),
+                4, Duration.ofHours(1), 2, 100, 1000, Duration.ofMinutes(1));
+        AnalyzeResponse failed = new AnalyzeResponse();
+        failed.setFailed(true);
+        lenient().when(metaAnalyzerService.analyzeUrl(anyString())).thenReturn(new AnalyzeResponse());
+        lenient().when(metaAnalyzerService.analyzeUrl("https://b.example/")).thenReturn(failed);
+        awaitCompletion(service, service.submit(List.of("https://a.example/", "https://b.example/")).getId());
+
+        // When
+        AnalysisJobStatus again = service.submit(List.of("https://A.example", "https://b.example/", "https://c.example/"));
+        awaitCompletion(service, again.getId());
+        AnalysisJobStatus repeat = service.submit(List.of("https://c.example/"));
+        AnalysisJobStatus forced = service.submit(List.of("https://c.example/"), service.unseen(List.of("https://c.example/"), null, true),
+                false, null, count -> true).orElseThrow();
+        AnalysisJobStatus otherTenant = service.submit(List.of("https://c.example/"), false, "acme");
+
+        // Then
+        assertEquals(2, again.getTotal()); // b failed before, so it is tried again
+        assertEquals(1, again.getSkipped());
+        assertEquals("completed", repeat.getState());
+        assertEquals(0, repeat.getTotal());
+        assertEquals(1, repeat.getSkipped());
+        assertEquals(1, forced.getTotal());
+        assertEquals(1, otherTenant.getTotal());
+        service.shutdown();
+    }
+
+    @Test
+    void testStatus_OfAnotherTenantsJob_ShouldBeEmpty() {
+        // Given
+        lenient().when(metaAnalyzerService.analyzeUrl(anyString())).thenReturn(new AnalyzeResponse());
+        String id = analysisJobService.submit(List.of("https://a.example/"), false, "acme").getId();
+
+        // When & Then
+        assertTrue(analysisJobService.status(id, "acme").isPresent());
+        assertTrue(analysisJobService.status(id, "globex").isEmpty());
+        assertTrue(analysisJobService.status(id).isEmpty());
+        assertTrue(analysisJobService.results(id, "globex").isEmpty());
+        assertTrue(analysisJobService.subscribe(id, "globex").isEmpty());
+        assertTrue(analysisJobService.results(id, "acme").isPresent());
+    }
+
+    @Test
+    void testSubmit_BeyondMaxQueuedUrls_ShouldRefuseUntilJobsFinish() throws InterruptedException {
+        // Given: room for three waiting URLs, two of them held by a job that is stuck
+        AnalysisJobService service = new AnalysisJobService(metaAnalyzerService, new ScoreReportService(1000),
+                new ExtractionStore(new ObjectMapper(), "", 1000), new SeenUrlSet("", 0, Duration.ZERO),
+                4, Duration.ofHours(1), 2, 100, 3, Duration.ofMinutes(1));
+        CountDownLatch stuck = new CountDownLatch(1);
+        when(metaAnalyzerService.analyzeUrl(anyString())).thenAnswer(invocation -> {
+            stuck.await(5, TimeUnit.SECONDS);
+            return new AnalyzeResponse();
+        });
+        String first = service.submit(List.of("https://a.example/", "https://b.example/")).getId();
+        List<String> two = List.of("https://c.example/", "https://d.example/");
+        List<Integer> charged = new CopyOnWriteArrayList<>();
+
+        // When
+        assertThrows(AnalysisJobService.JobsFullException.class,
+                () -> service.submit(two, new boolean[]{true, true}, false, null, charged::add));
+        Optional<AnalysisJobStatus> refused = service.submit(List.of("https://c.example/"), new boolean[]{true}, false, null,
+                count -> false);
+        stuck.countDown();
+        awaitCompletion(service, first);
+        Optional<AnalysisJobStatus> later = service.submit(two, new boolean[]{true, true}, false, null, charged::add);
+
+        // Then
+        assertTrue(refused.isEmpty()); // quota refused, and its reservation given back
+        assertTrue(later.isPresent());
+        assertEquals(List.of(2), charged); // the full submission was never charged
+        service.shutdown();
+    }
+
+    @Test
+    void testSubscribe_WithStalledClient_ShouldNotBlockJobOrStatus() throws Exception {
+        // Given: a subscriber whose every send blocks until released
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> events = new CopyOnWriteArrayList<>();
+        SseEmitter stalled = new SseEmitter(60_000L) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                builder.build().forEach(part -> {
+                    if (part.getData() instanceof String text && text.startsWith("event:")) events.add(text.lines().findFirst().orElseThrow());
+                });
+            }
+        };
+        CountDownLatch slowPage = new CountDownLatch(1);
+        when(metaAnalyzerService.analyzeUrl("https://a.example")).thenReturn(new AnalyzeResponse());
+        when(metaAnalyzerService.analyzeUrl("https://b.example")).thenAnswer(invocation -> {
+            slowPage.await(5, TimeUnit.SECONDS);
+            return new AnalyzeResponse();
+        });
+        String id = analysisJobService.submit(List.of("https://a.example", "https://b.example")).getId();
+        Thread subscriber = new Thread(() -> analysisJobService.subscribe(id, stalled));
+        subscriber.start();
+
+        // When: the job finishes while the client is still stuck
+        slowPage.countDown();
+        AnalysisJobStatus finished = awaitCompletion(id);
+        release.countDown();
+        subscriber.join(5000);
+        for (int i = 0; i < 500 && !events.contains("event:complete"); i++) {
+            Thread.sleep(10); // a worker thread may be the one draining the subscriber's events
+        }
+
+        // Then
+        assertEquals("completed", finished.getState());
+        assertFalse(subscriber.isAlive());
+        assertEquals("event:complete", events.get(events.size() - 1));
+        assertEquals(1, events.stream().filter("event:complete"::equals).count());
+    }
+
+    private void stubPage(String url, String finalUrl, String redirectedFrom, List<String> links) {
+        AnalyzeResponse response = new AnalyzeResponse();
+        response.setFinalUrl(finalUrl);
+        RedirectHop hop = new RedirectHop();
+        hop.setUrl(redirectedFrom);
+        response.setRedirects(redirectedFrom != null ? List.of(hop) : List.of());
+        response.setLinks(links);
+        when(metaAnalyzerService.analyzeUrl(eq(url), argThat(checks -> checks.contains(CheckGroup.LINKS))))
+                .thenReturn(response);
+    }
+
+    private AnalysisJobStatus awaitCompletion(String id) throws InterruptedException {
+        return awaitCompletion(analysisJobService, id);
+    }
+
+    private static AnalysisJobStatus awaitCompletion(AnalysisJobService service, String id) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            AnalysisJobStatus status = service.status(id).orElseThrow();
+            if ("completed".equals(status.getState())) return status;
+            Thread.sleep(10);
+        }
+        fail("Job " + id + " did not complete");
+        return null;
+    }
+}
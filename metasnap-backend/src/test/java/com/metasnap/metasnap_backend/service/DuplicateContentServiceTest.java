@@ -0,0 +1,60 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metasnap.metasnap_backend.dto.DuplicateReport;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateContentServiceTest {
+
+    private final DuplicateContentService service = new DuplicateContentService(new ObjectMapper(), 3);
+
+    @Test
+    void testFindDuplicates_ShouldStreamPagesAndIgnoreUnknownFields() throws IOException {
+        // Given
+        String body = """
+            {"extra": {"nested": [1, 2]}, "pages": [
+              {"url": "https://a.com/1", "title": "Blue Widgets – Shop", "description": "Émigré café", "tags": ["x"]},
+              {"url": "https://a.com/2", "title": "blue widgets - shop", "description": null},
+              {"url": "https://a.com/3", "title": "Red Gadgets"}
+            ], "threshold": 0.5}
+            """;
+
+        // When
+        DuplicateReport report = service.findDuplicates(json(body));
+
+        // Then
+        assertEquals(3, report.getPageCount());
+        assertEquals(1, report.getTitleClusters().size());
+        assertEquals("Blue Widgets – Shop", report.getTitleClusters().get(0).getSample());
+        assertTrue(report.getTitleClusters().get(0).getUrls().contains("https://a.com/2"));
+        assertTrue(report.getDescriptionClusters().isEmpty());
+    }
+
+    @Test
+    void testFindDuplicates_WithTooManyOrInvalidPages_ShouldReject() {
+        // Given
+        String tooMany = "{\"pages\": [{\"url\": \"a\"}, {\"url\": \"b\"}, {\"url\": \"c\"}, {\"url\": \"d\"}]}";
+
+        // When & Then
+        assertThrows(DuplicateContentService.TooManyPagesException.class, () -> service.findDuplicates(json(tooMany)));
+        assertThrows(IllegalArgumentException.class, () -> service.findDuplicates(json("{\"pages\": []}")));
+        assertThrows(IllegalArgumentException.class, () -> service.findDuplicates(json("{\"pages\": [{\"title\": \"t\"}]}")));
+        assertThrows(IllegalArgumentException.class, () -> service.findDuplicates(json("{\"pages\": [{\"url\": \"a\"}, \"b\"]}")));
+        assertThrows(IllegalArgumentException.class, () -> service.findDuplicates(json("{\"pages\": {\"url\": \"a\"}}")));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.findDuplicates(json("{\"pages\": [{\"url\": \"a\"}], \"threshold\": 1.5}")));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.findDuplicates(json("{\"pages\": [{\"url\": \"a\"}], \"threshold\": 0}")));
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
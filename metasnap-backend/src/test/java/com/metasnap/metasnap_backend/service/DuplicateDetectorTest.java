@@ -0,0 +1,99 @@
+package com.metasnap.metasnap_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateDetectorTest {
+
+    @Test
+    void testFindClusters_WithIdenticalTitles_ShouldReportExactCluster() {
+        // Given
+        DuplicateDetector detector = new DuplicateDetector(3);
+        detector.add("Acme Widgets | Home");
+        detector.add("acme widgets  -  home");
+        detector.add("Contact Us");
+
+        // When
+        List<DuplicateDetector.Cluster> clusters = detector.findClusters(DuplicateDetector.DEFAULT_THRESHOLD);
+
+        // Then
+        assertEquals(1, clusters.size());
+        assertTrue(clusters.get(0).exact());
+        assertArrayEquals(new int[]{0, 1}, clusters.get(0).members());
+    }
+
+    @Test
+    void testFindClusters_WithNearDuplicateDescriptions_ShouldReportNearCluster() {
+        // Given
+        DuplicateDetector detector = new DuplicateDetector(3);
+        detector.add("Buy the best blue widgets online with free shipping and easy returns from Acme.");
+        detector.add("Buy the best red widgets online with free shipping and easy returns from Acme.");
+        detector.add("Read our privacy policy to learn how we handle your personal data.");
+
+        // When
+        List<DuplicateDetector.Cluster> clusters = detector.findClusters(0.6);
+
+        // Then
+        assertEquals(1, clusters.size());
+        assertFalse(clusters.get(0).exact());
+        assertArrayEquals(new int[]{0, 1}, clusters.get(0).members());
+        assertTrue(clusters.get(0).similarity() >= 0.6);
+    }
+
+    @Test
+    void testFindClusters_WithBlankTexts_ShouldIgnoreThem() {
+        // Given
+        DuplicateDetector detector = new DuplicateDetector(3);
+        detector.add(null);
+        detector.add("");
+        detector.add("   ");
+
+        // When & Then
+        assertTrue(detector.findClusters(DuplicateDetector.DEFAULT_THRESHOLD).isEmpty());
+    }
+
+    @Test
+    void testFindClusters_WithManyPages_ShouldGroupEachTemplate() {
+        // Given
+        int pages = 20_000;
+        DuplicateDetector detector = new DuplicateDetector(pages);
+        for (int i = 0; i < pages; i++) {
+            detector.add(i % 2 == 0 ? "Shared Category Title" : "Unique product page number " + i + " of the catalogue");
+        }
+
+        // When
+        List<DuplicateDetector.Cluster> clusters = detector.findClusters(0.95);
+
+        // Then
+        DuplicateDetector.Cluster shared = clusters.stream().filter(DuplicateDetector.Cluster::exact)
+                .filter(c -> c.members().length == pages / 2).findFirst().orElseThrow();
+        assertTrue(Arrays.stream(shared.members()).allMatch(i -> i % 2 == 0));
+    }
+
+    @Test
+    void testAdd_BeyondCapacity_ShouldThrow() {
+        // Given
+        DuplicateDetector detector = new DuplicateDetector(1);
+        detector.add("Title");
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> detector.add("Another"));
+    }
+
+    @Test
+    void testFindClusters_WithThresholdOutsideUnitInterval_ShouldThrow() {
+        // Given
+        DuplicateDetector detector = new DuplicateDetector(1);
+        detector.add("Title");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> detector.findClusters(0));
+        assertThrows(IllegalArgumentException.class, () -> detector.findClusters(1.01));
+        assertThrows(IllegalArgumentException.class, () -> detector.findClusters(Double.NaN));
+        assertTrue(detector.findClusters(1).isEmpty());
+    }
+}
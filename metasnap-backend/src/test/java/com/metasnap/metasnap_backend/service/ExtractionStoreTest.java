@@ -0,0 +1,112 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metasnap.metasnap_backend.dto.AnalysisProfile;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.MetaTags;
+import com.metasnap.metasnap_backend.dto.PageFacts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtractionStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRecord_ShouldPersistFactsAndReloadLatestPerUrl() throws IOException {
+        // Given
+        String file = dir.resolve("facts.jsonl").toString();
+        ExtractionStore store = new ExtractionStore(new ObjectMapper(), file, 1000);
+        store.record(null, response("https://a.com/", "Old title"));
+        store.record(null, response("https://a.com/about", "About"));
+        store.record(null, response("https://a.com/", "New title"));
+        store.record(null, new AnalyzeResponse()); // failed fetch, no final URL
+        store.close();
+
+        // When
+        ExtractionStore reloaded = new ExtractionStore(new ObjectMapper(), file, 1000);
+
+        // Then
+        List<PageFacts> facts = all(reloaded);
+        assertEquals(2, facts.size());
+        assertEquals("About", facts.get(0).getMeta().getTitle());
+        assertEquals("New title", facts.get(1).getMeta().getTitle());
+        assertEquals(AnalysisProfile.FULL.getChecks(), facts.get(1).getChecks());
+        reloaded.close();
+    }
+
+    @Test
+    void testLoad_WithMostlySupersededLines_ShouldCompactFile() throws IOException {
+        // Given
+        Path file = dir.resolve("facts.jsonl");
+        ExtractionStore store = new ExtractionStore(new ObjectMapper(), file.toString(), 1000);
+        for (int i = 0; i < 10; i++) {
+            store.record(null, response("https://a.com/", "Title " + i));
+        }
+        store.close();
+        Files.writeString(file, "{\"url\": truncat", java.nio.file.StandardOpenOption.APPEND);
+
+        // When
+        ExtractionStore reloaded = new ExtractionStore(new ObjectMapper(), file.toString(), 1000);
+
+        // Then
+        assertEquals(1, reloaded.size());
+        assertEquals("Title 9", all(reloaded).get(0).getMeta().getTitle());
+        assertEquals(1, Files.readAllLines(file).size());
+        reloaded.close();
+    }
+
+    @Test
+    void testCompactIfNeeded_WhileRunning_ShouldShrinkFileAndKeepStreaming() throws IOException {
+        // Given: 3 pages re-analyzed 5 times each, streamed in batches of 2
+        Path file = dir.resolve("facts.jsonl");
+        ExtractionStore store = new ExtractionStore(new ObjectMapper(), file.toString(), 1000);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 3; i++) {
+                store.record("acme", response("https://a.com/" + i, "Title " + round));
+            }
+        }
+        List<Integer> batches = new ArrayList<>();
+        long streamed = store.forEachBatch(2, batch -> batches.add(batch.size()));
+
+        // When
+        store.compactIfNeeded();
+        store.record("acme", response("https://a.com/3", "Title 0"));
+        store.flush();
+
+        // Then
+        assertEquals(3, streamed);
+        assertEquals(List.of(2, 1), batches);
+        assertEquals(4, Files.readAllLines(file).size());
+        List<PageFacts> facts = all(store);
+        assertEquals(4, facts.size());
+        assertTrue(facts.stream().limit(3).allMatch(page -> page.getMeta().getTitle().equals("Title 4")));
+        assertEquals("acme", facts.get(0).getTenant());
+        store.close();
+    }
+
+    private static List<PageFacts> all(ExtractionStore store) {
+        List<PageFacts> facts = new ArrayList<>();
+        store.forEachBatch(100, facts::addAll);
+        return facts;
+    }
+
+    private static AnalyzeResponse response(String url, String title) {
+        AnalyzeResponse response = new AnalyzeResponse();
+        MetaTags meta = new MetaTags();
+        meta.setTitle(title);
+        response.setMeta(meta);
+        response.setFinalUrl(url);
+        response.setChecks(AnalysisProfile.FULL.getChecks());
+        return response;
+    }
+}
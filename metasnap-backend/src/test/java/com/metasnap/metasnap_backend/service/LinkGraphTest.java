@@ -0,0 +1,99 @@
+package com.metasnap.metasnap_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkGraphTest {
+
+    @Test
+    void testBuild_WithAliasesDuplicatesAndSelfLinks_ShouldKeepDistinctEdgesBetweenPages() {
+        // Given
+        LinkGraph.Builder builder = new LinkGraph.Builder();
+        int a = builder.addPage("https://x.com/", List.of("http://x.com/"), List.of(
+                "https://x.com/b", "https://x.com/b", "https://x.com/", "https://x.com/missing"));
+        int b = builder.addPage("https://x.com/b", List.of(), List.of("http://x.com/", "https://x.com/c"));
+        int c = builder.addPage("https://x.com/c", List.of(), List.of());
+
+        // When
+        LinkGraph graph = builder.build();
+
+        // Then
+        assertEquals(3, graph.nodes());
+        assertEquals(3, graph.edges()); // a->b, b->a, b->c
+        assertEquals(1, graph.outDegree(a));
+        assertEquals(2, graph.outDegree(b));
+        assertEquals(1, graph.inDegree(a));
+        assertEquals(1, graph.inDegree(c));
+        assertArrayEquals(new int[]{0, 1, 2}, graph.depths(a));
+        assertArrayEquals(new int[]{-1, -1, 0}, graph.depths(c));
+    }
+
+    @Test
+    void testBuild_WithDifferentlySpelledUrls_ShouldLinkTheSamePage() {
+        // Given
+        LinkGraph.Builder builder = new LinkGraph.Builder();
+        int home = builder.addPage("https://x.com/", List.of(), List.of("https://x.com/b#top"));
+        int b = builder.addPage("HTTPS://X.com:443/b", List.of(), List.of("https://X.COM"));
+
+        // When
+        LinkGraph graph = builder.build();
+
+        // Then
+        assertEquals(2, graph.edges());
+        assertEquals(1, graph.inDegree(home));
+        assertEquals(1, graph.inDegree(b));
+        assertEquals(b, builder.node("https://x.com/b"));
+    }
+
+    @Test
+    void testPageRank_OnSmallGraph_ShouldMatchClosedForm() {
+        // Given: a <-> b, c -> a; c has no in-links
+        LinkGraph.Builder builder = new LinkGraph.Builder();
+        builder.addPage("a", List.of(), List.of("b"));
+        builder.addPage("b", List.of(), List.of("a"));
+        builder.addPage("c", List.of(), List.of("a"));
+
+        // When
+        double[] ranks = builder.build().pageRank(0.85, 200, 1e-12);
+
+        // Then: c = 0.15/3, a = c + 0.85 (b + c), b = c + 0.85 a
+        double c = 0.05;
+        double a = (c + 0.85 * c + 0.85 * c) / (1 - 0.85 * 0.85);
+        assertEquals(a, ranks[0], 1e-9);
+        assertEquals(c + 0.85 * a, ranks[1], 1e-9);
+        assertEquals(c, ranks[2], 1e-9);
+    }
+
+    @Test
+    void testPageRank_OnLargeRandomGraph_ShouldSumToOne() {
+        // Given: a site where every page links to ten random pages and every tenth page has no links
+        LinkGraph.Builder builder = new LinkGraph.Builder();
+        Random random = new Random(42);
+        int pages = 20_000;
+        for (int i = 0; i < pages; i++) {
+            List<String> links = new ArrayList<>();
+            for (int j = 0; i % 10 != 0 && j < 10; j++) {
+                links.add("/" + random.nextInt(pages));
+            }
+            builder.addPage("/" + i, List.of(), links);
+        }
+
+        // When
+        LinkGraph graph = builder.build();
+        double[] ranks = graph.pageRank(0.85, 50, 1e-9);
+
+        // Then
+        double sum = 0;
+        for (double rank : ranks) {
+            assertTrue(rank > 0);
+            sum += rank;
+        }
+        assertEquals(1.0, sum, 1e-6);
+        assertEquals(pages, graph.nodes());
+    }
+}
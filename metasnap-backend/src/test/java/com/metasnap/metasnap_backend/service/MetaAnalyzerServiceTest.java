@@ -1,6 +1,11 @@
 package com.metasnap.metasnap_backend.service;
 
+import com.metasnap.metasnap_backend.diagnostics.SlowAnalysisRecorder;
+import com.metasnap.metasnap_backend.dto.AnalysisProfile;
+import com.metasnap.metasnap_backend.dto.AnalysisTrace;
 import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.BodyStats;
+import com.metasnap.metasnap_backend.dto.CheckGroup;
 import com.metasnap.metasnap_backend.dto.MetaTags;
 import com.metasnap.metasnap_backend.dto.ScoreBreakdown;
 import com.metasnap.metasnap_backend.dto.FeedbackItem;
@@ -8,16 +13,27 @@ import com.metasnap.metasnap_backend.dto.PreviewData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import com.metasnap.metasnap_backend.dto.RedirectHop;
+import com.metasnap.metasnap_backend.fetch.FetchedPage;
+import com.metasnap.metasnap_backend.fetch.PageFetcher;
+import com.metasnap.metasnap_backend.fetch.ResourceSizeProbe;
+import com.metasnap.metasnap_backend.fetch.ResourceSizeProbe.ResourceSize;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
-import org.mockito.MockedStatic;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.jsoup.Jsoup;
-import org.jsoup.Connection;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -26,9 +42,26 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class MetaAnalyzerServiceTest {
 
+    @Mock
+    private PageFetcher pageFetcher;
+
+    @Mock
+    private ResourceSizeProbe resourceSizeProbe;
+
+    @Mock
+    private SlowAnalysisRecorder slowAnalysisRecorder;
+
+    @Mock
+    private ScoringConfig scoringConfig;
+
     @InjectMocks
     private MetaAnalyzerService metaAnalyzerService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(scoringConfig.current()).thenReturn(new ScoringWeights());
+    }
+
     @Test
     void testAnalyzeUrl_WithCompleteMetaTags_ShouldReturnHighScore() throws IOException {
         // Given
@@ -56,42 +89,33 @@ class MetaAnalyzerServiceTest {
         // Create a real Document from the HTML content
         Document mockDocument = Jsoup.parse(htmlContent);
         
-        // Mock the Connection and its chain
-        Connection mockConnection = mock(Connection.class);
-        when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
-        when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
-        when(mockConnection.followRedirects(anyBoolean())).thenReturn(mockConnection);
-        when(mockConnection.get()).thenReturn(mockDocument);
+        // Mock the fetcher to return the parsed page
+        when(pageFetcher.fetch(eq(url), any())).thenReturn(new FetchedPage(mockDocument, url, List.of()));
         
-        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-            // Mock Jsoup.connect to return our mocked connection
-            jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(mockConnection);
-            
-            // When
-            AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
-
-            // Then
-            assertNotNull(response);
-            assertTrue(response.getScore() >= 80); // Should have high score with all tags
-            assertNotNull(response.getMeta());
-            assertNotNull(response.getBreakdown());
-            assertNotNull(response.getFeedback());
-            assertNotNull(response.getPreviews());
-            
-            // Verify meta tags
-            MetaTags meta = response.getMeta();
-            assertEquals("Test Page Title", meta.getTitle());
-            assertEquals("Test description", meta.getDescription());
-            assertEquals("https://example.com", meta.getCanonical());
-            assertEquals("index, follow", meta.getRobots());
-            assertEquals("OG Title", meta.getOgTitle());
-            assertEquals("OG Description", meta.getOgDescription());
-            assertEquals("https://example.com/image.jpg", meta.getOgImage());
-            assertEquals("Twitter Title", meta.getTwitterTitle());
-            assertEquals("Twitter Description", meta.getTwitterDescription());
-            assertEquals("https://example.com/twitter-image.jpg", meta.getTwitterImage());
-            assertNotNull(meta.getStructuredData());
-        }
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.getScore() >= 80); // Should have high score with all tags
+        assertNotNull(response.getMeta());
+        assertNotNull(response.getBreakdown());
+        assertNotNull(response.getFeedback());
+        assertNotNull(response.getPreviews());
+        
+        // Verify meta tags
+        MetaTags meta = response.getMeta();
+        assertEquals("Test Page Title", meta.getTitle());
+        assertEquals("Test description", meta.getDescription());
+        assertEquals("https://example.com", meta.getCanonical());
+        assertEquals("index, follow", meta.getRobots());
+        assertEquals("OG Title", meta.getOgTitle());
+        assertEquals("OG Description", meta.getOgDescription());
+        assertEquals("https://example.com/image.jpg", meta.getOgImage());
+        assertEquals("Twitter Title", meta.getTwitterTitle());
+        assertEquals("Twitter Description", meta.getTwitterDescription());
+        assertEquals("https://example.com/twitter-image.jpg", meta.getTwitterImage());
+        assertNotNull(meta.getStructuredData());
     }
 
     @Test
@@ -111,36 +135,27 @@ class MetaAnalyzerServiceTest {
         // Create a real Document from the HTML content
         Document mockDocument = Jsoup.parse(htmlContent);
         
-        // Mock the Connection and its chain
-        Connection mockConnection = mock(Connection.class);
-        when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
-        when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
-        when(mockConnection.followRedirects(anyBoolean())).thenReturn(mockConnection);
-        when(mockConnection.get()).thenReturn(mockDocument);
-
-        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-            // Mock Jsoup.connect to return our mocked connection
-            jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(mockConnection);
-
-            // When
-            AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
-
-            // Then
-            assertNotNull(response);
-            assertTrue(response.getScore() <= 50); // Should have low score with missing tags
-            assertNotNull(response.getMeta());
-            assertEquals("Test Page Title", response.getMeta().getTitle());
-            assertNull(response.getMeta().getDescription());
-            assertNull(response.getMeta().getCanonical());
-            assertNull(response.getMeta().getRobots());
-            assertNull(response.getMeta().getOgTitle());
-            assertNull(response.getMeta().getOgDescription());
-            assertNull(response.getMeta().getOgImage());
-            assertNull(response.getMeta().getTwitterTitle());
-            assertNull(response.getMeta().getTwitterDescription());
-            assertNull(response.getMeta().getTwitterImage());
-            assertNull(response.getMeta().getStructuredData());
-        }
+        // Mock the fetcher to return the parsed page
+        when(pageFetcher.fetch(eq(url), any())).thenReturn(new FetchedPage(mockDocument, url, List.of()));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.getScore() <= 50); // Should have low score with missing tags
+        assertNotNull(response.getMeta());
+        assertEquals("Test Page Title", response.getMeta().getTitle());
+        assertNull(response.getMeta().getDescription());
+        assertNull(response.getMeta().getCanonical());
+        assertNull(response.getMeta().getRobots());
+        assertNull(response.getMeta().getOgTitle());
+        assertNull(response.getMeta().getOgDescription());
+        assertNull(response.getMeta().getOgImage());
+        assertNull(response.getMeta().getTwitterTitle());
+        assertNull(response.getMeta().getTwitterDescription());
+        assertNull(response.getMeta().getTwitterImage());
+        assertNull(response.getMeta().getStructuredData());
     }
 
     @Test
@@ -152,28 +167,19 @@ class MetaAnalyzerServiceTest {
         Document mockDocument = mock(Document.class);
         when(mockDocument.head()).thenReturn(null);
         
-        // Mock the Connection and its chain
-        Connection mockConnection = mock(Connection.class);
-        when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
-        when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
-        when(mockConnection.followRedirects(anyBoolean())).thenReturn(mockConnection);
-        when(mockConnection.get()).thenReturn(mockDocument);
-
-        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-            // Mock Jsoup.connect to return our mocked connection
-            jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(mockConnection);
-
-            // When
-            AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
-
-            // Then
-            assertNotNull(response);
-            assertEquals(0, response.getScore());
-            assertNotNull(response.getMeta());
-            assertNotNull(response.getFeedback());
-            assertTrue(response.getFeedback().stream()
-                    .anyMatch(f -> f.getMessage().contains("<head> section is missing")));
-        }
+        // Mock the fetcher to return the parsed page
+        when(pageFetcher.fetch(eq(url), any())).thenReturn(new FetchedPage(mockDocument, url, List.of()));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
+
+        // Then
+        assertNotNull(response);
+        assertEquals(0, response.getScore());
+        assertNotNull(response.getMeta());
+        assertNotNull(response.getFeedback());
+        assertTrue(response.getFeedback().stream()
+                .anyMatch(f -> f.getMessage().contains("<head> section is missing")));
     }
 
     @Test
@@ -196,29 +202,20 @@ class MetaAnalyzerServiceTest {
         // Create a real Document from the HTML content
         Document mockDocument = Jsoup.parse(htmlContent);
         
-        // Mock the Connection and its chain
-        Connection mockConnection = mock(Connection.class);
-        when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
-        when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
-        when(mockConnection.followRedirects(anyBoolean())).thenReturn(mockConnection);
-        when(mockConnection.get()).thenReturn(mockDocument);
-
-        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-            // Mock Jsoup.connect to return our mocked connection
-            jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(mockConnection);
-
-            // When
-            AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
-
-            // Then
-            assertNotNull(response);
-            assertTrue(response.getScore() >= 25); // Title (15) + Open Graph (25) = 40
-            assertNotNull(response.getMeta());
-            assertEquals("OG Title", response.getMeta().getOgTitle());
-            assertEquals("OG Description", response.getMeta().getOgDescription());
-            assertEquals("https://example.com/image.jpg", response.getMeta().getOgImage());
-            assertEquals(25, response.getBreakdown().getOpenGraph());
-        }
+        // Mock the fetcher to return the parsed page
+        when(pageFetcher.fetch(eq(url), any())).thenReturn(new FetchedPage(mockDocument, url, List.of()));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.getScore() >= 25); // Title (15) + Open Graph (25) = 40
+        assertNotNull(response.getMeta());
+        assertEquals("OG Title", response.getMeta().getOgTitle());
+        assertEquals("OG Description", response.getMeta().getOgDescription());
+        assertEquals("https://example.com/image.jpg", response.getMeta().getOgImage());
+        assertEquals(25, response.getBreakdown().getOpenGraph());
     }
 
     @Test
@@ -241,29 +238,20 @@ class MetaAnalyzerServiceTest {
         // Create a real Document from the HTML content
         Document mockDocument = Jsoup.parse(htmlContent);
         
-        // Mock the Connection and its chain
-        Connection mockConnection = mock(Connection.class);
-        when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
-        when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
-        when(mockConnection.followRedirects(anyBoolean())).thenReturn(mockConnection);
-        when(mockConnection.get()).thenReturn(mockDocument);
-
-        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-            // Mock Jsoup.connect to return our mocked connection
-            jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(mockConnection);
-
-            // When
-            AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
-
-            // Then
-            assertNotNull(response);
-            assertTrue(response.getScore() >= 25); // Title (15) + Twitter Card (20) = 35
-            assertNotNull(response.getMeta());
-            assertEquals("Twitter Title", response.getMeta().getTwitterTitle());
-            assertEquals("Twitter Description", response.getMeta().getTwitterDescription());
-            assertEquals("https://example.com/twitter-image.jpg", response.getMeta().getTwitterImage());
-            assertEquals(20, response.getBreakdown().getTwitterCard());
-        }
+        // Mock the fetcher to return the parsed page
+        when(pageFetcher.fetch(eq(url), any())).thenReturn(new FetchedPage(mockDocument, url, List.of()));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.getScore() >= 25); // Title (15) + Twitter Card (20) = 35
+        assertNotNull(response.getMeta());
+        assertEquals("Twitter Title", response.getMeta().getTwitterTitle());
+        assertEquals("Twitter Description", response.getMeta().getTwitterDescription());
+        assertEquals("https://example.com/twitter-image.jpg", response.getMeta().getTwitterImage());
+        assertEquals(20, response.getBreakdown().getTwitterCard());
     }
 
     @Test
@@ -284,28 +272,19 @@ class MetaAnalyzerServiceTest {
         // Create a real Document from the HTML content
         Document mockDocument = Jsoup.parse(htmlContent);
         
-        // Mock the Connection and its chain
-        Connection mockConnection = mock(Connection.class);
-        when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
-        when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
-        when(mockConnection.followRedirects(anyBoolean())).thenReturn(mockConnection);
-        when(mockConnection.get()).thenReturn(mockDocument);
-
-        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-            // Mock Jsoup.connect to return our mocked connection
-            jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(mockConnection);
-
-            // When
-            AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
-
-            // Then
-            assertNotNull(response);
-            assertTrue(response.getScore() >= 20); // Title (15) + Structured Data (10) = 25
-            assertNotNull(response.getMeta());
-            assertNotNull(response.getMeta().getStructuredData());
-            assertTrue(response.getMeta().getStructuredData().contains("Test Article"));
-            assertEquals(10, response.getBreakdown().getStructuredData());
-        }
+        // Mock the fetcher to return the parsed page
+        when(pageFetcher.fetch(eq(url), any())).thenReturn(new FetchedPage(mockDocument, url, List.of()));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.getScore() >= 20); // Title (15) + Structured Data (10) = 25
+        assertNotNull(response.getMeta());
+        assertNotNull(response.getMeta().getStructuredData());
+        assertTrue(response.getMeta().getStructuredData().contains("Test Article"));
+        assertEquals(10, response.getBreakdown().getStructuredData());
     }
 
     @Test
@@ -313,27 +292,45 @@ class MetaAnalyzerServiceTest {
         // Given
         String url = "https://invalid-url-that-does-not-exist.com";
 
-        // Mock the Connection and its chain to throw IOException
-        Connection mockConnection = mock(Connection.class);
-        when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
-        when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
-        when(mockConnection.followRedirects(anyBoolean())).thenReturn(mockConnection);
-        when(mockConnection.get()).thenThrow(new IOException("Connection failed"));
-
-        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-            // Mock Jsoup.connect to return our mocked connection
-            jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(mockConnection);
-
-            // When
-            AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
-
-            // Then
-            assertNotNull(response);
-            assertEquals(0, response.getScore());
-            assertNotNull(response.getFeedback());
-            assertTrue(response.getFeedback().stream()
-                    .anyMatch(f -> f.getMessage().contains("Failed to fetch")));
-        }
+        // Mock the fetcher to throw IOException
+        when(pageFetcher.fetch(eq(url), any())).thenThrow(new IOException("Connection failed"));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.isFailed());
+        assertEquals(0, response.getScore());
+        assertNotNull(response.getFeedback());
+        assertTrue(response.getFeedback().stream()
+                .anyMatch(f -> f.getMessage().contains("Failed to fetch")));
+        ArgumentCaptor<AnalysisTrace> trace = ArgumentCaptor.forClass(AnalysisTrace.class);
+        verify(slowAnalysisRecorder).record(trace.capture());
+        assertEquals("IOException: Connection failed", trace.getValue().getFailure());
+    }
+
+    @Test
+    void testAnalyzeUrl_ShouldRecordPhaseTimings() throws IOException {
+        // Given
+        String url = "https://example.com";
+        Document document = Jsoup.parse("<html><head><title>Timed</title></head><body></body></html>");
+        when(pageFetcher.fetch(eq(url), any()))
+                .thenReturn(new FetchedPage(document, url, List.of(), 5_000_000, 3_000_000, -1, 1234)); // chunked
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
+
+        // Then
+        assertFalse(response.isFailed());
+        ArgumentCaptor<AnalysisTrace> trace = ArgumentCaptor.forClass(AnalysisTrace.class);
+        verify(slowAnalysisRecorder).record(trace.capture());
+        assertEquals(url, trace.getValue().getFinalUrl());
+        assertEquals(5, trace.getValue().getFetchMs());
+        assertEquals(3, trace.getValue().getParseMs());
+        assertEquals(1234, trace.getValue().getPageBytes());
+        assertEquals(15, trace.getValue().getScore());
+        assertNull(trace.getValue().getFailure());
     }
 
     @Test
@@ -381,29 +378,20 @@ class MetaAnalyzerServiceTest {
         // Create a real Document from the HTML content
         Document mockDocument = Jsoup.parse(htmlContent);
         
-        // Mock the Connection and its chain
-        Connection mockConnection = mock(Connection.class);
-        when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
-        when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
-        when(mockConnection.followRedirects(anyBoolean())).thenReturn(mockConnection);
-        when(mockConnection.get()).thenReturn(mockDocument);
-
-        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-            // Mock Jsoup.connect to return our mocked connection
-            jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(mockConnection);
-
-            // When
-            AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
-
-            // Then
-            assertNotNull(response);
-            assertTrue(response.getScore() >= 35); // Title (15) + Partial OG (20) = 35
-            assertNotNull(response.getMeta());
-            assertEquals("OG Title", response.getMeta().getOgTitle());
-            assertEquals("OG Description", response.getMeta().getOgDescription());
-            assertNull(response.getMeta().getOgImage());
-            assertEquals(20, response.getBreakdown().getOpenGraph());
-        }
+        // Mock the fetcher to return the parsed page
+        when(pageFetcher.fetch(eq(url), any())).thenReturn(new FetchedPage(mockDocument, url, List.of()));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.getScore() >= 35); // Title (15) + Partial OG (20) = 35
+        assertNotNull(response.getMeta());
+        assertEquals("OG Title", response.getMeta().getOgTitle());
+        assertEquals("OG Description", response.getMeta().getOgDescription());
+        assertNull(response.getMeta().getOgImage());
+        assertEquals(20, response.getBreakdown().getOpenGraph());
     }
 
     @Test
@@ -425,28 +413,241 @@ class MetaAnalyzerServiceTest {
         // Create a real Document from the HTML content
         Document mockDocument = Jsoup.parse(htmlContent);
         
-        // Mock the Connection and its chain
-        Connection mockConnection = mock(Connection.class);
-        when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
-        when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
-        when(mockConnection.followRedirects(anyBoolean())).thenReturn(mockConnection);
-        when(mockConnection.get()).thenReturn(mockDocument);
-
-        try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-            // Mock Jsoup.connect to return our mocked connection
-            jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(mockConnection);
-
-            // When
-            AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
-
-            // Then
-            assertNotNull(response);
-            assertTrue(response.getScore() >= 30); // Title (15) + Partial Twitter (15) = 30
-            assertNotNull(response.getMeta());
-            assertEquals("Twitter Title", response.getMeta().getTwitterTitle());
-            assertEquals("Twitter Description", response.getMeta().getTwitterDescription());
-            assertNull(response.getMeta().getTwitterImage());
-            assertEquals(15, response.getBreakdown().getTwitterCard());
+        // Mock the fetcher to return the parsed page
+        when(pageFetcher.fetch(eq(url), any())).thenReturn(new FetchedPage(mockDocument, url, List.of()));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.getScore() >= 30); // Title (15) + Partial Twitter (15) = 30
+        assertNotNull(response.getMeta());
+        assertEquals("Twitter Title", response.getMeta().getTwitterTitle());
+        assertEquals("Twitter Description", response.getMeta().getTwitterDescription());
+        assertNull(response.getMeta().getTwitterImage());
+        assertEquals(15, response.getBreakdown().getTwitterCard());
+    }
+
+    @Test
+    void testAnalyzeUrl_WithSocialProfile_ShouldOnlyRunRequestedChecks() throws IOException {
+        // Given
+        String url = "https://example.com";
+        Document document = Jsoup.parse("""
+            <html><head>
+                <title>Page Title</title>
+                <meta name="description" content="Page description">
+                <link rel="canonical" href="https://example.com">
+                <meta property="og:title" content="OG Title">
+                <meta property="og:description" content="OG Description">
+                <meta name="twitter:title" content="Twitter Title">
+            </head><body></body></html>
+            """);
+        when(pageFetcher.fetch(eq(url), any())).thenReturn(new FetchedPage(document, url, List.of()));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url, AnalysisProfile.SOCIAL.getChecks());
+
+        // Then
+        assertEquals(28, response.getScore());
+        assertEquals(45, response.getMaxScore());
+        assertEquals(20, response.getBreakdown().getOpenGraph());
+        assertEquals(8, response.getBreakdown().getTwitterCard());
+        assertEquals(0, response.getBreakdown().getTitleDescription());
+        assertNull(response.getMeta().getTitle());
+        assertNull(response.getMeta().getCanonical());
+        assertEquals("Page Title\nhttps://example.com\nPage description", response.getPreviews().getGooglePreview());
+        assertTrue(response.getFeedback().stream().noneMatch(item -> item.getMessage().contains("Canonical")));
+    }
+
+    @Test
+    void testAnalyzeUrl_WithoutPreviewsCheck_ShouldNotBuildPreviews() throws IOException {
+        // Given
+        String url = "https://example.com";
+        Document document = Jsoup.parse("<html><head><title>Page Title</title></head><body></body></html>");
+        when(pageFetcher.fetch(eq(url), any())).thenReturn(new FetchedPage(document, url, List.of()));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url, EnumSet.of(CheckGroup.TITLE_DESCRIPTION));
+
+        // Then
+        assertEquals(15, response.getScore());
+        assertEquals(30, response.getMaxScore());
+        assertEquals("Page Title", response.getMeta().getTitle());
+        assertNull(response.getPreviews());
+        assertEquals(2, response.getFeedback().size());
+    }
+
+    @Test
+    void testHeadScan_ShouldStopOnceRequestedTagsAreSeen() {
+        // Given
+        HeadScan scan = new HeadScan(EnumSet.of(CheckGroup.TITLE_DESCRIPTION));
+        Document document = Jsoup.parse("""
+            <html><head><meta property="og:title" content="x"><title>T</title>
+            <meta name="DESCRIPTION" content="d"><link rel="canonical" href="/"></head></html>
+            """);
+
+        // When & Then
+        assertFalse(scan.test(document.selectFirst("meta[property=og:title]")));
+        assertFalse(scan.test(document.selectFirst("title")));
+        assertTrue(scan.test(document.selectFirst("meta[name=description]")));
+        assertTrue(new HeadScan(EnumSet.allOf(CheckGroup.class)).test(document.head()));
+    }
+
+    @Test
+    void testAnalyzeUrl_WithLinksCheck_ShouldCollectFollowedInternalLinks() throws IOException {
+        // Given
+        String url = "https://example.com/blog/";
+        String html = """
+            <html><head><title>Links</title><link rel="alternate" href="/feed"></head><body>
+            <a href="post-1#comments">Post</a> <a href="post-1">Post again</a>
+            <a href="https://www.example.com/">Home</a> <a href="/login" rel="nofollow">Login</a>
+            <a href="https://other.com/">Other</a> <a href="mailto:me@example.com">Mail</a>
+            </body></html>
+            """;
+        when(pageFetcher.fetch(eq(url), any())).thenAnswer(invocation -> streamed(html, url, invocation.getArgument(1)));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url, EnumSet.of(CheckGroup.LINKS));
+
+        // Then
+        assertEquals(List.of("https://example.com/blog/post-1", "https://www.example.com/"), response.getLinks());
+        assertEquals(0, response.getMaxScore());
+        assertNull(metaAnalyzerService.analyzeUrl(url, EnumSet.of(CheckGroup.BODY)).getLinks());
+    }
+
+    @Test
+    void testAnalyzeUrl_WithBodyCheck_ShouldAuditStreamedBody() throws IOException {
+        // Given
+        String url = "https://example.com/page";
+        String html = """
+            <html><head><title>Body</title></head><body>
+            <h1>Main heading</h1><p>Some words in a paragraph, <b>bold</b> too.</p>
+            <h2>Section</h2><h4>Skipped level</h4>
+            <img src="a.png" alt="A"><img src="b.png">
+            <a href="/about">About</a> <a href="https://www.example.com/x" rel="nofollow">X</a>
+            <a href="https://other.com/" rel="noopener nofollow">Other</a>
+            <a href="mailto:me@example.com">Mail</a> <a href="#top">Top</a>
+            <script>var notWords = "one two three";</script>
+            </body></html>
+            """;
+        when(pageFetcher.fetch(eq(url), any())).thenAnswer(invocation -> streamed(html, url, invocation.getArgument(1)));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url, EnumSet.of(CheckGroup.BODY));
+
+        // Then
+        BodyStats body = response.getBody();
+        assertEquals(1, body.getH1Count());
+        assertEquals("h2 is followed by h4", body.getHeadingSkip());
+        assertEquals(2, body.getImages());
+        assertEquals(1, body.getImagesWithoutAlt());
+        assertEquals(2, body.getInternalLinks());
+        assertEquals(1, body.getExternalLinks());
+        assertEquals(2, body.getNofollowLinks());
+        assertEquals(1, body.getInternalNofollowLinks());
+        assertEquals(17, body.getWordCount());
+        assertEquals(5, response.getBreakdown().getOnPage());
+        assertEquals(5, response.getScore());
+        assertEquals(20, response.getMaxScore());
+        assertTrue(response.getFeedback().stream().anyMatch(item -> item.getMessage().equals("1 internal links are nofollow")));
+    }
+
+    @Test
+    void testAnalyzeUrl_WithLargeBody_ShouldNotRetainBodyElements() throws IOException {
+        // Given
+        String url = "https://example.com/large";
+        String html = "<html><head><title>Large</title></head><body><h1>Large</h1>"
+                + "<div><p>Filler paragraph with <a href=\"/next\">a link</a>.</p></div>".repeat(20_000)
+                + "</body></html>";
+        Document[] streamedDocument = new Document[1];
+        when(pageFetcher.fetch(eq(url), any())).thenAnswer(invocation -> {
+            FetchedPage page = streamed(html, url, invocation.getArgument(1));
+            streamedDocument[0] = page.document();
+            return page;
+        });
+        when(resourceSizeProbe.probeAll(anyList())).thenReturn(List.of());
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url, AnalysisProfile.AUDIT.getChecks());
+
+        // Then
+        assertEquals(20_000, response.getBody().getInternalLinks());
+        assertEquals(100_001, response.getBody().getWordCount());
+        assertEquals(20, response.getBreakdown().getOnPage());
+        assertEquals("Large", response.getMeta().getTitle());
+        assertEquals(0, streamedDocument[0].body().childrenSize());
+    }
+
+    @Test
+    void testAnalyzeUrl_WithPageWeightCheck_ShouldSumResourceSizesByType() throws IOException {
+        // Given
+        String url = "https://example.com/blog/post";
+        String html = "<html><head><title>Post</title>"
+                + "<link rel=\"stylesheet\" href=\"/css/site.css\"><link rel=\"icon\" href=\"/favicon.ico\">"
+                + "<script src=\"https://cdn.example.net/app.js\"></script></head><body>"
+                + "<img src=\"hero.jpg\"><p>Text</p><img src=\"hero.jpg\"><img src=\"data:image/png;base64,AAAA\">"
+                + "<script>inline()</script></body></html>";
+        when(pageFetcher.fetch(eq(url), any())).thenAnswer(invocation -> streamed(html, url, invocation.getArgument(1)));
+        List<String> expectedUrls = List.of("https://example.com/css/site.css",
+                "https://cdn.example.net/app.js", "https://example.com/blog/hero.jpg");
+        when(resourceSizeProbe.probeAll(expectedUrls)).thenReturn(List.of(
+                new ResourceSize("https://example.com/css/site.css", 60_000, true),
+                new ResourceSize("https://cdn.example.net/app.js", 3_500_000, true),
+                new ResourceSize("https://example.com/blog/hero.jpg", -1, false)));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url, EnumSet.of(CheckGroup.PAGE_WEIGHT));
+
+        // Then: the page is not probed again, its size is what was read
+        assertEquals(html.length(), response.getWeight().getHtmlBytes());
+        assertEquals(60_000, response.getWeight().getStylesheetBytes());
+        assertEquals(3_500_000, response.getWeight().getScriptBytes());
+        assertEquals(0, response.getWeight().getImageBytes());
+        assertEquals(html.length() + 3_560_000, response.getWeight().getTotalBytes());
+        assertEquals(1, response.getWeight().getImages());
+        assertEquals(1, response.getWeight().getUnknown());
+        assertEquals(2, response.getWeight().getCached());
+        assertNull(response.getBody());
+        assertEquals(0, response.getMaxScore());
+        assertTrue(response.getFeedback().stream()
+                .anyMatch(f -> f.getType().equals("warning") && f.getMessage().equals("Page weight is 3.6 MB (aim for under 3.0 MB)")));
+        verify(resourceSizeProbe, never()).probeAll(argThat(urls -> urls.contains(url)));
+    }
+
+    @Test
+    void testAnalyzeUrl_WithRedirects_ShouldReportChainAndUseFinalUrl() throws IOException {
+        // Given
+        String url = "http://example.com";
+        String finalUrl = "https://www.example.com/";
+        Document mockDocument = Jsoup.parse("<html><head><title>Final Page</title></head><body></body></html>");
+        RedirectHop hop = new RedirectHop();
+        hop.setUrl(url);
+        hop.setStatus(301);
+        hop.setLocation(finalUrl);
+        when(pageFetcher.fetch(eq(url), any())).thenReturn(new FetchedPage(mockDocument, finalUrl, List.of(hop)));
+
+        // When
+        AnalyzeResponse response = metaAnalyzerService.analyzeUrl(url);
+
+        // Then
+        assertEquals(finalUrl, response.getFinalUrl());
+        assertEquals(1, response.getRedirects().size());
+        assertEquals(301, response.getRedirects().get(0).getStatus());
+        assertTrue(response.getPreviews().getGooglePreview().contains(finalUrl));
+        assertTrue(response.getFeedback().stream()
+                .anyMatch(f -> f.getType().equals("warning") && f.getMessage().contains("redirects 1 time")));
+    }
+
+    // Runs the analyzer's stop condition over a streamed parse, as PageFetcher does
+    private static FetchedPage streamed(String html, String url, Predicate<Element> enough) throws IOException {
+        try (StreamParser parser = new StreamParser(Parser.htmlParser()).parse(html, url)) {
+            Iterator<Element> elements = parser.iterator();
+            while (elements.hasNext()) {
+                if (enough.test(elements.next())) break;
+            }
+            return new FetchedPage(parser.document(), url, List.of(), 0, 0, -1,
+                    html.getBytes(StandardCharsets.UTF_8).length);
         }
     }
-} 
\ No newline at end of file
+}
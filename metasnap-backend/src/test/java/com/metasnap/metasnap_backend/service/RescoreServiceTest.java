@@ -0,0 +1,133 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metasnap.metasnap_backend.dto.AnalysisProfile;
+import com.metasnap.metasnap_backend.dto.MetaField;
+import com.metasnap.metasnap_backend.dto.MetaTags;
+import com.metasnap.metasnap_backend.dto.PageFacts;
+import com.metasnap.metasnap_backend.dto.ReportMetric;
+import com.metasnap.metasnap_backend.dto.RescoreStatus;
+import com.metasnap.metasnap_backend.dto.RescoredPage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RescoreServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testStart_WithNewWeights_ShouldRescoreEveryStoredPage() throws Exception {
+        // Given: 5000 pages with a title and nothing else, scored 15 of 100 under version 1
+        Path weightsFile = dir.resolve("weights.json");
+        Files.writeString(weightsFile, "[{\"version\": \"2\", \"title\": 60}]");
+        ScoringConfig scoringConfig = new ScoringConfig(new ObjectMapper(), weightsFile.toString(), "1");
+        ExtractionStore store = new ExtractionStore(new ObjectMapper(), "", 10_000);
+        for (int i = 0; i < 5000; i++) {
+            store.put(facts("https://a.com/" + i, "Page " + i));
+        }
+        ScoreReportService reports = new ScoreReportService(10_000);
+        Path results = dir.resolve("rescore");
+        RescoreService rescoreService = new RescoreService(store, reports, new ObjectMapper(), results.toString(), 4);
+
+        // When
+        RescoreStatus first = rescoreService.start(scoringConfig.current()).orElseThrow();
+        RescoreStatus done = await(rescoreService);
+        int before = reports.percentiles(null, "1", ReportMetric.SCORE, false, List.of(50), 1).get(0).getValues().get(0);
+        rescoreService.start(scoringConfig.get("2").orElseThrow()).orElseThrow();
+        RescoreStatus second = await(rescoreService);
+
+        // Then
+        assertEquals("1", first.getVersion());
+        assertEquals("completed", done.getState());
+        assertEquals(5000, done.getCompleted());
+        assertEquals(15.0, done.getAverageScore());
+        assertEquals(15, before);
+        assertEquals("2", second.getVersion());
+        assertEquals(41.0, second.getAverageScore()); // 60 of 145
+        assertEquals(10_000, reports.size()); // both versions are kept
+        assertEquals(15, reports.percentiles(null, "1", ReportMetric.SCORE, false, List.of(50), 1).get(0).getValues().get(0));
+        assertEquals(41, reports.percentiles(null, "2", ReportMetric.SCORE, false, List.of(50), 1).get(0).getValues().get(0));
+        assertEquals(results.resolve("2.jsonl").toString(), second.getResultsFile());
+        List<String> lines = Files.readAllLines(results.resolve("2.jsonl"));
+        assertEquals(5000, lines.size());
+        RescoredPage page = new ObjectMapper().readValue(lines.get(0), RescoredPage.class);
+        assertEquals("2", page.getScoringVersion());
+        assertEquals(60, page.getScore());
+        try (var files = Files.list(results)) {
+            assertEquals(2, files.count()); // no temporary files left behind
+        }
+        rescoreService.shutdown();
+    }
+
+    @Test
+    void testStart_WithTwoTenants_ShouldKeepTheirReportsApart() throws Exception {
+        // Given: the same URL extracted for two tenants, one page with a title and one without
+        ScoringConfig scoringConfig = new ScoringConfig(new ObjectMapper(), "", "1");
+        ExtractionStore store = new ExtractionStore(new ObjectMapper(), "", 100);
+        PageFacts titled = facts("https://a.com/", "Home");
+        titled.setTenant("acme");
+        PageFacts untitled = facts("https://a.com/", null);
+        untitled.setTenant("globex");
+        store.put(titled);
+        store.put(untitled);
+        ScoreReportService reports = new ScoreReportService(100);
+        RescoreService rescoreService = new RescoreService(store, reports, new ObjectMapper(), "", 2);
+
+        // When
+        rescoreService.start(scoringConfig.current()).orElseThrow();
+        await(rescoreService);
+
+        // Then
+        assertEquals(2, reports.size());
+        assertEquals(15, reports.percentiles("acme", "1", ReportMetric.SCORE, false, List.of(50), 1).get(0).getValues().get(0));
+        assertEquals(0, reports.percentiles("globex", "1", ReportMetric.SCORE, false, List.of(50), 1).get(0).getValues().get(0));
+        assertEquals(1, reports.missing("globex", "1", MetaField.TITLE, false, 1).get(0).getMissing());
+        assertTrue(reports.percentiles(null, "1", ReportMetric.SCORE, false, List.of(50), 1).isEmpty());
+        assertTrue(reports.percentiles("acme", "2", ReportMetric.SCORE, false, List.of(50), 1).isEmpty());
+        assertTrue(reports.histogram("initech", "1", ReportMetric.SCORE, 10).isEmpty());
+        assertNull(rescoreService.status().orElseThrow().getResultsFile());
+        rescoreService.shutdown();
+    }
+
+    @Test
+    void testScoringConfig_WithUnknownOrDuplicateVersion_ShouldFail() throws IOException {
+        // Given
+        Path weightsFile = dir.resolve("weights.json");
+        Files.writeString(weightsFile, "[{\"version\": \"1\", \"title\": 20}]");
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> new ScoringConfig(new ObjectMapper(), "", "2"));
+        assertThrows(IllegalStateException.class, () -> new ScoringConfig(new ObjectMapper(), weightsFile.toString(), "1"));
+        assertEquals(List.of("1"), new ScoringConfig(new ObjectMapper(), "", "1").versions());
+    }
+
+    private static RescoreStatus await(RescoreService rescoreService) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            RescoreStatus status = rescoreService.status().orElseThrow();
+            if (!status.getState().equals("running")) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        fail("Re-scoring did not finish");
+        return null;
+    }
+
+    private static PageFacts facts(String url, String title) {
+        PageFacts facts = new PageFacts();
+        MetaTags meta = new MetaTags();
+        meta.setTitle(title);
+        facts.setUrl(url);
+        facts.setMeta(meta);
+        facts.setChecks(AnalysisProfile.FULL.getChecks());
+        return facts;
+    }
+}
@@ -0,0 +1,121 @@
+package com.metasnap.metasnap_backend.service;
+
+import com.metasnap.metasnap_backend.dto.AnalysisProfile;
+import com.metasnap.metasnap_backend.dto.AnalyzeResponse;
+import com.metasnap.metasnap_backend.dto.MetaField;
+import com.metasnap.metasnap_backend.dto.MetaTags;
+import com.metasnap.metasnap_backend.dto.ReportMetric;
+import com.metasnap.metasnap_backend.dto.ScoreBreakdown;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreColumnsTest {
+
+    @Test
+    void testPercentiles_ByHost_ShouldUseEachHostsPages() {
+        // Given
+        ScoreColumns columns = new ScoreColumns(1000);
+        for (int i = 1; i <= 100; i++) {
+            columns.add("https://a.com/" + i, "a.com", response(i, 100, "Title", null));
+        }
+        for (int i = 0; i < 200; i++) {
+            columns.add("https://b.com/" + i, "b.com", response(50, 100, "Title", null));
+        }
+
+        // When
+        List<ScoreColumns.Group> groups = columns.percentiles(ReportMetric.SCORE, true, new int[]{10, 50, 90});
+        List<ScoreColumns.Group> all = columns.percentiles(ReportMetric.SCORE, false, new int[]{100});
+
+        // Then
+        assertEquals(2, groups.size());
+        assertEquals("a.com", groups.get(0).host());
+        assertEquals(100, groups.get(0).pages());
+        assertArrayEquals(new int[]{10, 50, 90}, groups.get(0).values());
+        assertArrayEquals(new int[]{50, 50, 50}, groups.get(1).values());
+        assertNull(all.get(0).host());
+        assertEquals(300, all.get(0).pages());
+        assertArrayEquals(new int[]{100}, all.get(0).values());
+    }
+
+    @Test
+    void testMissing_ShouldOnlyCountPagesThatRanTheCheck() {
+        // Given
+        ScoreColumns columns = new ScoreColumns(1000);
+        columns.add("https://a.com/1", "a.com", response(80, 100, "One", "https://a.com/og.png"));
+        columns.add("https://a.com/2", "a.com", response(60, 100, "Two", null));
+        columns.add("https://a.com/3", "a.com", response(60, 100, "Three", null));
+        AnalyzeResponse basic = response(30, 30, "Four", null);
+        basic.setChecks(AnalysisProfile.BASIC.getChecks());
+        columns.add("https://b.com/1", "b.com", basic);
+
+        // When
+        ScoreColumns.Group all = columns.missing(MetaField.OG_IMAGE, false).get(0);
+        List<ScoreColumns.Group> byHost = columns.missing(MetaField.OG_IMAGE, true);
+
+        // Then
+        assertEquals(3, all.pages());
+        assertEquals(2, all.missing());
+        assertEquals(1, byHost.size());
+        assertEquals("a.com", byHost.get(0).host());
+    }
+
+    @Test
+    void testAdd_WithSameUrl_ShouldReplaceRow() {
+        // Given
+        ScoreColumns columns = new ScoreColumns(1000);
+        columns.add("https://a.com/", "a.com", response(20, 100, "Old", null));
+
+        // When
+        columns.add("https://a.com/", "a.com", response(90, 100, "New title", "https://a.com/og.png"));
+
+        // Then
+        assertEquals(1, columns.size());
+        assertArrayEquals(new int[]{90}, columns.percentiles(ReportMetric.SCORE, false, new int[]{50}).get(0).values());
+        assertEquals(0, columns.missing(MetaField.OG_IMAGE, false).get(0).missing());
+    }
+
+    @Test
+    void testHistogram_ShouldBucketTitleLengthsAndGrowPastInitialCapacity() {
+        // Given
+        ScoreColumns columns = new ScoreColumns(5000);
+        for (int i = 0; i < 3000; i++) {
+            columns.add("https://a.com/" + i, "a.com", response(50, 100, "x".repeat(i % 30), null));
+        }
+
+        // When
+        int[] counts = columns.histogram(ReportMetric.TITLE_LENGTH, 10);
+
+        // Then
+        assertEquals(3000, columns.size());
+        assertArrayEquals(new int[]{1000, 1000, 1000}, counts);
+    }
+
+    @Test
+    void testAdd_WhenFull_ShouldRejectNewUrlsButReplaceExistingOnes() {
+        // Given
+        ScoreColumns columns = new ScoreColumns(2);
+        columns.add("https://a.com/1", "a.com", response(10, 100, "One", null));
+        columns.add("https://a.com/2", "a.com", response(20, 100, "Two", null));
+
+        // When / Then
+        assertFalse(columns.add("https://a.com/3", "a.com", response(30, 100, "Three", null)));
+        assertTrue(columns.add("https://a.com/2", "a.com", response(40, 100, "Two", null)));
+        assertEquals(2, columns.size());
+    }
+
+    private static AnalyzeResponse response(int score, int maxScore, String title, String ogImage) {
+        AnalyzeResponse response = new AnalyzeResponse();
+        MetaTags meta = new MetaTags();
+        meta.setTitle(title);
+        meta.setOgImage(ogImage);
+        response.setMeta(meta);
+        response.setBreakdown(new ScoreBreakdown());
+        response.setScore(score);
+        response.setMaxScore(maxScore);
+        response.setChecks(AnalysisProfile.FULL.getChecks());
+        return response;
+    }
+}
@@ -0,0 +1,139 @@
+package com.metasnap.metasnap_backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeenUrlSetTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testAdd_WithEquivalentUrls_ShouldSeeThemOnce() {
+        // Given
+        SeenUrlSet seen = new SeenUrlSet(dir.resolve("seen").toString(), 100, Duration.ZERO);
+
+        // When & Then
+        assertTrue(seen.add(null, "https://example.com/"));
+        assertFalse(seen.add(null, "HTTPS://Example.com:443#top"));
+        assertFalse(seen.add(null, " https://example.com/ "));
+        assertTrue(seen.add(null, "https://example.com/Page"));
+        assertTrue(seen.add(null, "https://example.com/page"));
+        assertEquals(3, seen.size());
+        assertEquals("http://a.com/?q=1", UrlNormalizer.normalize("http://A.com:80?q=1"));
+    }
+
+    @Test
+    void testReopen_ShouldKeepUrlsAcrossRestarts() {
+        // Given
+        String file = dir.resolve("seen").toString();
+        SeenUrlSet first = new SeenUrlSet(file, 100, Duration.ZERO);
+        first.add(null, "https://example.com/a");
+        first.add(null, "https://example.com/b");
+        first.flush();
+
+        // When: reopened with a different capacity, which an existing file ignores
+        SeenUrlSet reopened = new SeenUrlSet(file, 1_000_000, Duration.ZERO);
+
+        // Then
+        assertEquals(2, reopened.size());
+        assertEquals(128, reopened.capacity());
+        assertTrue(reopened.contains(null, "https://example.com/a"));
+        assertFalse(reopened.add(null, "https://example.com/b"));
+        assertTrue(reopened.add(null, "https://example.com/c"));
+    }
+
+    @Test
+    void testAdd_FromManyThreads_ShouldAcceptEachUrlExactlyOnce() throws Exception {
+        // Given: eight threads add the same 50,000 URLs
+        SeenUrlSet seen = new SeenUrlSet(dir.resolve("seen").toString(), 100_000, Duration.ZERO);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> accepted = new ArrayList<>();
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            accepted.add(threads.submit(() -> {
+                int count = 0;
+                for (int i = 0; i < 50_000; i++) {
+                    if (seen.add(null, "https://example.com/" + i)) count++;
+                }
+                return count;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> future : accepted) {
+            total += future.get();
+        }
+        threads.shutdown();
+
+        // Then
+        assertEquals(50_000, total);
+        assertEquals(50_000, seen.size());
+    }
+
+    @Test
+    void testAdd_WhenFullOrDisabled_ShouldAcceptWithoutRecording() {
+        // Given
+        SeenUrlSet full = new SeenUrlSet(dir.resolve("seen").toString(), 8, Duration.ZERO);
+        for (int i = 0; i < 8; i++) {
+            full.add(null, "https://example.com/" + i);
+        }
+        SeenUrlSet disabled = new SeenUrlSet("", 100, Duration.ZERO);
+
+        // When & Then
+        assertTrue(full.add(null, "https://example.com/new"));
+        assertTrue(full.add(null, "https://example.com/new"));
+        assertFalse(full.add(null, "https://example.com/0"));
+        assertEquals(8, full.size());
+        assertFalse(disabled.enabled());
+        assertTrue(disabled.add(null, "https://example.com/"));
+        assertTrue(disabled.add(null, "https://example.com/"));
+    }
+
+    @Test
+    void testUnseen_WithTenantsRepeatsAndForce_ShouldAcceptPerTenant() {
+        // Given
+        SeenUrlSet seen = new SeenUrlSet(dir.resolve("seen").toString(), 100, Duration.ZERO);
+        seen.add("acme", "https://example.com/");
+        List<String> urls = List.of("https://example.com/", "https://example.com/b", "HTTPS://example.com/b#top");
+
+        // When
+        boolean[] acme = seen.unseen("acme", urls, false);
+        boolean[] globex = seen.unseen("globex", urls, false);
+        boolean[] forced = seen.unseen("acme", urls, true);
+
+        // Then
+        assertArrayEquals(new boolean[]{false, true, false}, acme);
+        assertArrayEquals(new boolean[]{true, true, false}, globex);
+        assertArrayEquals(new boolean[]{true, true, false}, forced);
+        assertTrue(seen.contains("acme", "https://example.com"));
+        assertFalse(seen.contains(null, "https://example.com/"));
+    }
+
+    @Test
+    void testContains_AfterTtl_ShouldAcceptAgainUntilMarkedAgain() throws InterruptedException {
+        // Given
+        SeenUrlSet seen = new SeenUrlSet(dir.resolve("seen").toString(), 100, Duration.ofMillis(50));
+        seen.add(null, "https://example.com/");
+        assertTrue(seen.contains(null, "https://example.com/"));
+
+        // When
+        Thread.sleep(80);
+
+        // Then
+        assertFalse(seen.contains(null, "https://example.com/"));
+        assertTrue(seen.add(null, "https://example.com/")); // expired, so new again
+        assertTrue(seen.contains(null, "https://example.com/"));
+        assertEquals(1, seen.size());
+    }
+}
@@ -0,0 +1,110 @@
+package com.metasnap.metasnap_backend.tenant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path tenantsFile;
+    private UsageStore usageStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tenantsFile = dir.resolve("tenants.json");
+        objectMapper.writeValue(tenantsFile.toFile(), List.of(
+                new Tenant("search", TenantService.sha256("search-key"), 1000, 1, 3, false),
+                new Tenant("social", TenantService.sha256("social-key"), 1, 0, 0, false)));
+        usageStore = new UsageStore(objectMapper, dir.resolve("usage"));
+    }
+
+    @Test
+    void testAuthenticate_ShouldResolveTenantByApiKey() {
+        // Given
+        TenantService tenantService = newService();
+
+        // When & Then
+        assertTrue(tenantService.isEnabled());
+        assertEquals("search", tenantService.authenticate("search-key").orElseThrow().getTenant().id());
+        assertTrue(tenantService.authenticate("unknown-key").isEmpty());
+        assertTrue(tenantService.authenticate(null).isEmpty());
+    }
+
+    @Test
+    void testFlush_ShouldRestoreMonthlyUsageAfterRestart() {
+        // Given
+        TenantService tenantService = newService();
+        TenantUsage search = tenantService.authenticate("search-key").orElseThrow();
+        assertTrue(search.tryChargeFetches(2, System.currentTimeMillis()));
+
+        // When
+        tenantService.shutdown();
+        TenantService restarted = newService();
+
+        // Then
+        TenantUsage restored = restarted.authenticate("search-key").orElseThrow();
+        assertEquals(2, restored.fetchesThisMonth(System.currentTimeMillis()));
+        assertFalse(restored.tryChargeFetches(2, System.currentTimeMillis()));
+    }
+
+    @Test
+    void testWithoutTenantsFile_ShouldLeaveApiOpen() throws Exception {
+        // Given
+        TenantService tenantService = new TenantService(objectMapper, usageStore, new SimpleMeterRegistry(), "");
+        TenantInterceptor interceptor = new TenantInterceptor(tenantService);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When & Then
+        assertFalse(tenantService.isEnabled());
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/analyze"), response, null));
+    }
+
+    @Test
+    void testInterceptor_ShouldRejectUnknownKeysAndEnforceQuotas() throws Exception {
+        // Given
+        TenantInterceptor interceptor = new TenantInterceptor(newService());
+
+        // When & Then
+        MockHttpServletResponse anonymous = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/analyze"), anonymous, null));
+        assertEquals(401, anonymous.getStatus());
+
+        MockHttpServletRequest first = analyzeRequest("search-key");
+        assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), null));
+        MockHttpServletResponse concurrent = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(analyzeRequest("search-key"), concurrent, null));
+        assertEquals(429, concurrent.getStatus());
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        assertTrue(interceptor.preHandle(analyzeRequest("search-key"), new MockHttpServletResponse(), null));
+
+        assertTrue(interceptor.preHandle(analyzeRequest("social-key"), new MockHttpServletResponse(), null));
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(analyzeRequest("social-key"), limited, null));
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+    }
+
+    private TenantService newService() {
+        return new TenantService(objectMapper, usageStore, new SimpleMeterRegistry(), tenantsFile.toString());
+    }
+
+    private static MockHttpServletRequest analyzeRequest(String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/analyze");
+        request.addHeader(TenantInterceptor.API_KEY_HEADER, apiKey);
+        return request;
+    }
+}
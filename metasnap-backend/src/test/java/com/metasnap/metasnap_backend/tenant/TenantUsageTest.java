@@ -0,0 +1,97 @@
+package com.metasnap.metasnap_backend.tenant;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantUsageTest {
+
+    private static final long START = Instant.parse("2026-10-19T12:00:00Z").toEpochMilli();
+
+    @Test
+    void testTryRequest_ShouldEnforceSlidingMinuteWindow() {
+        // Given
+        TenantUsage usage = new TenantUsage(new Tenant("team-a", "hash", 10, 0, 0, false), START);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(usage.tryRequest(START + i));
+        }
+
+        // When & Then
+        assertFalse(usage.tryRequest(START + 30_000));
+        // Half of the previous minute still counts: 10 * 0.5 = 5 requests of room left
+        long halfway = START + 90_000;
+        int allowed = 0;
+        while (usage.tryRequest(halfway)) {
+            allowed++;
+        }
+        assertEquals(5, allowed);
+        assertEquals(2, usage.rejectedRate());
+        assertTrue(usage.tryRequest(START + 180_000));
+    }
+
+    @Test
+    void testTryStartAnalysis_ShouldLimitConcurrentAnalyses() {
+        // Given
+        TenantUsage usage = new TenantUsage(new Tenant("team-a", "hash", 0, 2, 0, false), START);
+
+        // When & Then
+        assertTrue(usage.tryStartAnalysis(START));
+        assertTrue(usage.tryStartAnalysis(START));
+        assertFalse(usage.tryStartAnalysis(START));
+        assertEquals(2, usage.activeAnalyses());
+        usage.endAnalysis();
+        assertTrue(usage.tryStartAnalysis(START));
+        assertEquals(1, usage.rejectedConcurrency());
+    }
+
+    @Test
+    void testTryChargeFetches_ShouldResetMonthlyVolumeAndKeepEndedMonthForFlush() {
+        // Given
+        TenantUsage usage = new TenantUsage(new Tenant("team-a", "hash", 0, 0, 100, false), START);
+        assertTrue(usage.tryChargeFetches(80, START));
+
+        // When
+        boolean overLimit = usage.tryChargeFetches(30, START);
+        long nextMonth = Instant.parse("2026-11-01T00:00:00Z").toEpochMilli();
+        boolean afterRollover = usage.tryChargeFetches(30, nextMonth);
+        List<UsageRecord> drained = usage.drain(nextMonth);
+
+        // Then
+        assertFalse(overLimit);
+        assertTrue(afterRollover);
+        assertEquals(2, drained.size());
+        assertEquals(new UsageRecord("team-a", "2026-10", 0, 80, 1), drained.get(0));
+        assertEquals(new UsageRecord("team-a", "2026-11", 0, 30, 0), drained.get(1));
+        assertEquals(1, usage.drain(nextMonth).size());
+    }
+
+    @Test
+    void testTryChargeFetches_WithConcurrentCallers_ShouldCountEveryFetch() throws Exception {
+        // Given
+        TenantUsage usage = new TenantUsage(new Tenant("team-a", "hash", 0, 0, 0, false), START);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger charged = new AtomicInteger();
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (usage.tryChargeFetches(1, START)) charged.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(80_000, charged.get());
+        assertEquals(80_000, usage.fetchesThisMonth(START));
+    }
+}
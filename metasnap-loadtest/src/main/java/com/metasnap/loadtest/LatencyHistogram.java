@@ -0,0 +1,61 @@
+package com.metasnap.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free latency histogram in microseconds. Buckets are log-linear: exact below
+ * 128 us, then 64 sub-buckets per power of two, so any recorded value is reported within about
+ * 1.6% while the whole histogram stays a few kilobytes regardless of run length.
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR = 128;
+    private static final int SUB_BUCKETS = 64;
+    private static final int MAX_SHIFT = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(LINEAR + MAX_SHIFT * SUB_BUCKETS);
+
+    public void recordMicros(long micros) {
+        counts.incrementAndGet(index(Math.max(0, micros)));
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) total += counts.get(i);
+        return total;
+    }
+
+    /** Upper bound of the bucket holding the given percentile (0-100), in microseconds. */
+    public long percentileMicros(double percentile) {
+        long total = count();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return upperBound(i);
+        }
+        return upperBound(counts.length() - 1);
+    }
+
+    public long maxMicros() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) return upperBound(i);
+        }
+        return 0;
+    }
+
+    static int index(long value) {
+        if (value < LINEAR) return (int) value;
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - 6;
+        if (shift > MAX_SHIFT) return LINEAR + MAX_SHIFT * SUB_BUCKETS - 1;
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR) return index;
+        int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        long sub = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,91 @@
+package com.metasnap.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for {@code /api/analyze}. Requests are issued on a fixed schedule at
+ * the target rate whether or not earlier ones have finished, and latency is measured from the
+ * time a request was <em>scheduled</em> rather than sent, so a stalled backend shows up in the
+ * tail percentiles instead of silently lowering the offered load (coordinated omission).
+ */
+public class LoadDriver {
+
+    public record Settings(URI endpoint, String originBaseUrl, List<String> targets, int pages,
+                           double rate, Duration warmup, Duration duration, int maxInFlight, Duration timeout) {
+    }
+
+    public record Report(long sent, long succeeded, long failed, double seconds, LatencyHistogram latency) {
+
+        public double throughput() {
+            return seconds > 0 ? (succeeded + failed) / seconds : 0;
+        }
+
+        public String format() {
+            return String.format("""
+                    requests   sent %d, ok %d, failed %d over %.1f s
+                    throughput %.1f req/s
+                    latency    p50 %.1f ms  p90 %.1f ms  p99 %.1f ms  p999 %.1f ms  max %.1f ms""",
+                    sent, succeeded, failed, seconds, throughput(),
+                    latency.percentileMicros(50) / 1000.0, latency.percentileMicros(90) / 1000.0,
+                    latency.percentileMicros(99) / 1000.0, latency.percentileMicros(99.9) / 1000.0,
+                    latency.maxMicros() / 1000.0);
+        }
+    }
+
+    private final Settings settings;
+    private final HttpClient client;
+
+    public LoadDriver(Settings settings) {
+        this.settings = settings;
+        this.client = HttpClient.newBuilder().connectTimeout(settings.timeout()).build();
+    }
+
+    public Report run() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        long periodNanos = (long) (1_000_000_000L / settings.rate());
+        long total = (long) (settings.rate() * (settings.warmup().toMillis() + settings.duration().toMillis()) / 1000.0);
+        long warmupRequests = (long) (settings.rate() * settings.warmup().toMillis() / 1000.0);
+        long start = System.nanoTime();
+        long measuredStart = start + warmupRequests * periodNanos;
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * periodNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            inFlight.acquire();
+            boolean measured = i >= warmupRequests;
+            String target = settings.targets().get((int) (i % settings.targets().size()));
+            String url = settings.originBaseUrl() + target.replace("{n}", Long.toString(i % settings.pages()));
+            HttpRequest request = HttpRequest.newBuilder(settings.endpoint())
+                    .timeout(settings.timeout())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"url\":\"" + url + "\"}"))
+                    .build();
+            CompletableFuture<HttpResponse<Void>> future = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+            future.whenComplete((response, error) -> {
+                if (measured) {
+                    histogram.recordMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended));
+                    if (error == null && response.statusCode() / 100 == 2) succeeded.incrementAndGet();
+                    else failed.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(settings.maxInFlight());
+        double seconds = (System.nanoTime() - measuredStart) / 1e9;
+        return new Report(total - warmupRequests, succeeded.get(), failed.get(), seconds, histogram);
+    }
+}
@@ -0,0 +1,88 @@
+package com.metasnap.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line entry point. Starts the local origin and drives a running backend against it:
+ *
+ * <pre>
+ * java -jar target/metasnap-loadtest-0.0.1-SNAPSHOT.jar --backend http://localhost:8080 --rate 200 --duration 60
+ * java -jar target/metasnap-loadtest-0.0.1-SNAPSHOT.jar --origin-only --origin-port 9090
+ * </pre>
+ */
+public class LoadTestMain {
+
+    static final String DEFAULT_MIX = "page:70,redirect:8,gzip:8,slow:4,huge:4,nohead:3,malformed:3";
+
+    private static final Map<String, String> TARGETS = Map.of(
+            "page", "/page/{n}",
+            "redirect", "/redirect/{n}?hops=3&status=301",
+            "gzip", "/gzip/{n}",
+            "slow", "/slow/{n}?chunks=20&delayMs=50",
+            "huge", "/huge/{n}?kb=5000",
+            "nohead", "/nohead/{n}",
+            "malformed", "/malformed/{n}",
+            "error", "/status/503");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int originPort = Integer.parseInt(options.getOrDefault("origin-port", "0"));
+        try (OriginServer origin = new OriginServer(originPort)) {
+            origin.start();
+            System.out.println("origin listening on " + origin.baseUrl());
+            if (options.containsKey("origin-only")) {
+                Thread.currentThread().join();
+                return;
+            }
+            LoadDriver.Settings settings = new LoadDriver.Settings(
+                    URI.create(options.getOrDefault("backend", "http://localhost:8080") + options.getOrDefault("path", "/api/analyze")),
+                    origin.baseUrl(),
+                    targets(options.getOrDefault("mix", DEFAULT_MIX)),
+                    Integer.parseInt(options.getOrDefault("pages", "1000")),
+                    Double.parseDouble(options.getOrDefault("rate", "50")),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5"))),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30"))),
+                    Integer.parseInt(options.getOrDefault("max-in-flight", "1000")),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "30"))));
+            System.out.printf("driving %s at %.0f req/s for %ds (mix %s)%n", settings.endpoint(), settings.rate(),
+                    settings.duration().toSeconds(), options.getOrDefault("mix", DEFAULT_MIX));
+            LoadDriver.Report report = new LoadDriver(settings).run();
+            System.out.println(report.format());
+        }
+    }
+
+    /** Expands "page:70,slow:5" into a round-robin list of 75 path templates. */
+    static List<String> targets(String mix) {
+        List<String> targets = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            String template = TARGETS.get(parts[0]);
+            if (template == null) throw new IllegalArgumentException("Unknown page type in mix: " + parts[0]);
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+            for (int i = 0; i < weight; i++) targets.add(template);
+        }
+        // Interleave so a weight of 70 does not mean 70 identical requests in a row.
+        List<String> interleaved = new ArrayList<>(targets.size());
+        int stride = 7;
+        for (int offset = 0; offset < stride; offset++) {
+            for (int i = offset; i < targets.size(); i += stride) interleaved.add(targets.get(i));
+        }
+        return interleaved;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            String key = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) options.put(key, args[++i]);
+            else options.put(key, "true");
+        }
+        return options;
+    }
+}
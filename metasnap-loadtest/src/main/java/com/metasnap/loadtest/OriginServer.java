@@ -0,0 +1,187 @@
+package com.metasnap.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the sites MetaSnap analyzes. Serves pages that exercise the awkward paths
+ * of a real crawl without leaving the machine:
+ *
+ * <ul>
+ *   <li>{@code /page/{n}} complete head, a few hundred bytes of body</li>
+ *   <li>{@code /slow/{n}?chunks=20&delayMs=100} slow-drip body, one chunk every {@code delayMs}</li>
+ *   <li>{@code /huge/{n}?kb=5000} page with a large body, generated while streaming</li>
+ *   <li>{@code /redirect/{n}?hops=3&status=301} redirect chain ending at {@code /page/{n}}</li>
+ *   <li>{@code /nohead/{n}} body-only document</li>
+ *   <li>{@code /malformed/{n}} unclosed tags, stray attributes and junk after the root</li>
+ *   <li>{@code /gzip/{n}} gzip-encoded complete page</li>
+ *   <li>{@code /status/{code}} empty response with the given status</li>
+ * </ul>
+ */
+public class OriginServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public OriginServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "origin");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/page/", exchange -> send(exchange, 200, completePage(id(exchange)), false));
+        server.createContext("/gzip/", exchange -> send(exchange, 200, completePage(id(exchange)), true));
+        server.createContext("/nohead/", exchange -> send(exchange, 200,
+                "<html><body><h1>No head " + id(exchange) + "</h1><p>Body only.</p></body></html>", false));
+        server.createContext("/malformed/", exchange -> send(exchange, 200,
+                "<html><head><title>Broken " + id(exchange) + "<meta name=description content='unterminated"
+                        + "<meta property=\"og:title\" content=>\n<body><div><p><b>unclosed<img src=x alt"
+                        + "</html>trailing <junk>", false));
+        server.createContext("/redirect/", this::redirect);
+        server.createContext("/slow/", this::slow);
+        server.createContext("/huge/", this::huge);
+        server.createContext("/status/", exchange -> {
+            exchange.sendResponseHeaders(Integer.parseInt(id(exchange)), -1);
+            exchange.close();
+        });
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    static String completePage(String id) {
+        return """
+                <!DOCTYPE html>
+                <html lang="en">
+                <head>
+                <meta charset="utf-8">
+                <title>Load test page %1$s</title>
+                <meta name="description" content="Synthetic page %1$s served by the MetaSnap load-test origin.">
+                <link rel="canonical" href="http://origin.test/page/%1$s">
+                <meta name="robots" content="index, follow">
+                <meta property="og:title" content="Load test page %1$s">
+                <meta property="og:description" content="Open Graph description for page %1$s">
+                <meta property="og:image" content="http://origin.test/img/%1$s.png">
+                <meta name="twitter:title" content="Load test page %1$s">
+                <meta name="twitter:description" content="Twitter description for page %1$s">
+                <meta name="twitter:image" content="http://origin.test/img/%1$s.png">
+                <script type="application/ld+json">{"@context":"https://schema.org","@type":"WebPage","name":"Page %1$s"}</script>
+                </head>
+                <body><h1>Page %1$s</h1><p>Lorem ipsum dolor sit amet, consectetur adipiscing elit.</p>
+                <a href="/page/1">Home</a> <img src="/img/%1$s.png" alt="Illustration"></body>
+                </html>
+                """.formatted(id);
+    }
+
+    private void redirect(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI());
+        int hops = Integer.parseInt(query.getOrDefault("hops", "3"));
+        int status = Integer.parseInt(query.getOrDefault("status", "301"));
+        String id = id(exchange);
+        String location = hops <= 1
+                ? "/page/" + id
+                : "/redirect/" + id + "?hops=" + (hops - 1) + "&status=" + status;
+        exchange.getResponseHeaders().add("Location", location);
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private void slow(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI());
+        int chunks = Integer.parseInt(query.getOrDefault("chunks", "20"));
+        long delayMs = Long.parseLong(query.getOrDefault("delayMs", "100"));
+        byte[] page = completePage(id(exchange)).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, page.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            int chunkSize = Math.max(1, page.length / chunks + 1);
+            for (int offset = 0; offset < page.length; offset += chunkSize) {
+                out.write(page, offset, Math.min(chunkSize, page.length - offset));
+                out.flush();
+                Thread.sleep(delayMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void huge(HttpExchange exchange) throws IOException {
+        int kb = Integer.parseInt(query(exchange.getRequestURI()).getOrDefault("kb", "5000"));
+        String page = completePage(id(exchange));
+        int bodyStart = page.indexOf("<body>") + "<body>".length();
+        byte[] head = page.substring(0, bodyStart).getBytes(StandardCharsets.UTF_8);
+        byte[] tail = page.substring(bodyStart).getBytes(StandardCharsets.UTF_8);
+        byte[] filler = ("<div class=\"item\"><h2>Section</h2><p>Filler paragraph with <a href=\"/page/2\">a link</a>"
+                + " and <img src=\"/img/filler.png\"> an image without alt text.</p></div>\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(head);
+            for (long written = 0; written < kb * 1024L; written += filler.length) {
+                out.write(filler);
+            }
+            out.write(tail);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String html, boolean gzip) throws IOException {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        if (gzip) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String id(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        String id = path.substring(exchange.getHttpContext().getPath().length());
+        return id.isEmpty() ? "0" : id;
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        if (uri.getRawQuery() == null) return params;
+        for (String pair : uri.getRawQuery().split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) params.put(pair.substring(0, eq), pair.substring(eq + 1));
+        }
+        return params;
+    }
+}
@@ -0,0 +1,87 @@
+package com.metasnap.loadtest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OriginServerTest {
+
+    private OriginServer origin;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        origin = new OriginServer(0);
+        origin.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        origin.close();
+    }
+
+    @Test
+    void testPage_ShouldServeCompleteHead() throws Exception {
+        HttpResponse<String> response = get("/page/7");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("<title>Load test page 7</title>"));
+        assertTrue(response.body().contains("og:image"));
+    }
+
+    @Test
+    void testRedirect_ShouldChainToFinalPage() throws Exception {
+        HttpResponse<String> first = get("/redirect/3?hops=2&status=308");
+        assertEquals(308, first.statusCode());
+        assertEquals("/redirect/3?hops=1&status=308", first.headers().firstValue("Location").orElseThrow());
+        HttpResponse<String> last = get("/redirect/3?hops=1&status=308");
+        assertEquals("/page/3", last.headers().firstValue("Location").orElseThrow());
+    }
+
+    @Test
+    void testGzip_ShouldServeCompressedBody() throws Exception {
+        HttpResponse<byte[]> response = client.send(request("/gzip/1"), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+        String html = new String(new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes());
+        assertTrue(html.contains("Load test page 1"));
+    }
+
+    @Test
+    void testHuge_ShouldStreamRequestedSize() throws Exception {
+        HttpResponse<byte[]> response = client.send(request("/huge/1?kb=512"), HttpResponse.BodyHandlers.ofByteArray());
+        assertTrue(response.body().length >= 512 * 1024);
+    }
+
+    @Test
+    void testStatus_ShouldReturnRequestedCode() throws Exception {
+        assertEquals(503, get("/status/503").statusCode());
+    }
+
+    @Test
+    void testHistogram_ShouldReportPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) histogram.recordMicros(i * 1000L);
+        assertEquals(1000, histogram.count());
+        assertEquals(500_000, histogram.percentileMicros(50), 500_000 * 0.02);
+        assertEquals(990_000, histogram.percentileMicros(99), 990_000 * 0.02);
+        assertEquals(1_000_000, histogram.maxMicros(), 1_000_000 * 0.02);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(request(path), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create(origin.baseUrl() + path)).build();
+    }
+}